@@ -0,0 +1,66 @@
+package com.notify.channel.email;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Adjunto de email respaldado por un fichero.
+ *
+ * Solo guarda la ruta: el contenido se lee en streaming al construir la
+ * petición del proveedor, nunca se carga en un byte[]. Es inmutable, así que
+ * una misma instancia puede compartirse entre todas las notificaciones de
+ * una campaña.
+ */
+public final class Attachment {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final Path path;
+    private final String filename;
+    private final String contentType;
+
+    private Attachment(Path path, String filename, String contentType) {
+        this.path = Objects.requireNonNull(path, "path").toAbsolutePath().normalize();
+        this.filename = Objects.requireNonNull(filename, "filename");
+        this.contentType = Objects.requireNonNull(contentType, "contentType");
+    }
+
+    /**
+     * Adjunto con el nombre del fichero y el tipo MIME deducido de su extensión.
+     */
+    public static Attachment of(Path path) {
+        return new Attachment(path, path.getFileName().toString(), probeContentType(path));
+    }
+
+    public static Attachment of(Path path, String filename, String contentType) {
+        return new Attachment(path, filename, contentType);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    private static String probeContentType(Path path) {
+        try {
+            String type = Files.probeContentType(path);
+            return type != null ? type : DEFAULT_CONTENT_TYPE;
+        } catch (IOException e) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Attachment[" + filename + ", " + contentType + "]";
+    }
+}
@@ -0,0 +1,228 @@
+package com.notify.channel.email;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché de adjuntos codificados en base64, direccionada por contenido.
+ *
+ * La primera vez que se envía un contenido se codifica en streaming (bloques
+ * pequeños, sin cargar el fichero) a un fichero {@code <sha256>.b64} del
+ * directorio de la caché, que después se mapea en memoria. Las peticiones
+ * siguientes reciben vistas de ese mismo buffer mapeado: el mismo PDF para
+ * 100.000 destinatarios se codifica una vez y no ocupa heap.
+ *
+ * - Dos rutas con el mismo contenido comparten entrada (clave = SHA-256).
+ * - Para no releer el fichero en cada envío, se recuerda el hash de cada
+ *   ruta mientras no cambien su tamaño ni su fecha de modificación.
+ * - La caché es LRU acotada por bytes codificados; al expulsar una entrada se
+ *   borra su fichero (las vistas ya entregadas siguen siendo válidas).
+ */
+public final class AttachmentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentCache.class);
+
+    // El base64 ocupa 4/3: debe caber en un único buffer mapeado (< 2GB)
+    private static final long MAX_ATTACHMENT_BYTES = 1L << 30;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REMEMBERED_PATHS = 100_000;
+    private static final int MAX_ENCODE_ATTEMPTS = 3;
+
+    private static volatile AttachmentCache shared;
+
+    private record SourceKey(Path path, long size, FileTime modified) {
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<SourceKey, String> digests = new ConcurrentHashMap<>();
+    private final LinkedHashMap<String, MappedByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    /**
+     * @param directory Directorio de los ficheros codificados (se crea si no existe)
+     * @param maxBytes  Máximo de bytes codificados retenidos
+     */
+    public AttachmentCache(Path directory, long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("maxBytes debe ser >= 1");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Caché compartida por defecto: directorio temporal del sistema, hasta 256 MB.
+     */
+    public static AttachmentCache shared() {
+        AttachmentCache cache = shared;
+        if (cache == null) {
+            synchronized (AttachmentCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = new AttachmentCache(
+                            Path.of(System.getProperty("java.io.tmpdir"), "notify-attachments"), 256L << 20);
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Contenido del adjunto en base64, como vista de solo lectura (posición 0)
+     * de un buffer mapeado compartido.
+     */
+    public ByteBuffer encoded(Attachment attachment) throws IOException {
+        Path path = attachment.getPath();
+        long size = Files.size(path);
+        if (size > MAX_ATTACHMENT_BYTES) {
+            throw new IOException("Adjunto demasiado grande (" + size + " bytes): " + path);
+        }
+        SourceKey key = new SourceKey(path, size, Files.getLastModifiedTime(path));
+        String digest = digests.get(key);
+        if (digest == null) {
+            digest = sha256(path);
+            if (digests.size() >= MAX_REMEMBERED_PATHS) {
+                digests.clear();   // Muchos adjuntos únicos (ej: facturas): solo cuesta volver a calcular hashes
+            }
+            digests.put(key, digest);
+        }
+
+        MappedByteBuffer cached = lookup(digest);
+        if (cached == null) {
+            cached = store(digest, encodeToFile(path, digest));
+        }
+        return cached.asReadOnlyBuffer().rewind();
+    }
+
+    /**
+     * Bytes codificados retenidos actualmente.
+     */
+    public synchronized long size() {
+        return cachedBytes;
+    }
+
+    /**
+     * Vacía la caché y borra sus ficheros.
+     */
+    public synchronized void clear() {
+        entries.keySet().forEach(this::deleteFile);
+        entries.clear();
+        digests.clear();
+        cachedBytes = 0;
+    }
+
+    private synchronized MappedByteBuffer lookup(String digest) {
+        return entries.get(digest);
+    }
+
+    // Si otro hilo codificó el mismo contenido a la vez, se conserva su entrada
+    private synchronized MappedByteBuffer store(String digest, MappedByteBuffer encoded) {
+        MappedByteBuffer existing = entries.putIfAbsent(digest, encoded);
+        if (existing != null) {
+            return existing;
+        }
+        cachedBytes += encoded.capacity();
+        // La entrada nueva es la última en orden de acceso: se expulsan las anteriores
+        Iterator<Map.Entry<String, MappedByteBuffer>> eldest = entries.entrySet().iterator();
+        while (cachedBytes > maxBytes && entries.size() > 1) {
+            Map.Entry<String, MappedByteBuffer> entry = eldest.next();
+            cachedBytes -= entry.getValue().capacity();
+            deleteFile(entry.getKey());
+            eldest.remove();
+        }
+        return encoded;
+    }
+
+    /**
+     * Codifica el fichero a {@code <digest>.b64} (o reutiliza uno existente de
+     * una ejecución anterior) y lo mapea en solo lectura.
+     *
+     * Otro hilo puede expulsar la entrada y borrar el fichero entre la
+     * comprobación y la apertura: en ese caso se vuelve a codificar.
+     */
+    private MappedByteBuffer encodeToFile(Path source, String digest) throws IOException {
+        Files.createDirectories(directory);
+        Path target = directory.resolve(digest + ".b64");
+        for (int attempt = 1; ; attempt++) {
+            if (!Files.exists(target)) {
+                encode(source, target, digest);
+            }
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (NoSuchFileException e) {
+                if (attempt >= MAX_ENCODE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Adjunto codificado {} expulsado antes de mapearlo; se recodifica", digest);
+            }
+        }
+    }
+
+    private void encode(Path source, Path target, String digest) throws IOException {
+        Path tmp = Files.createTempFile(directory, digest, ".tmp");
+        try {
+            try (OutputStream out = Base64.getEncoder().wrap(
+                    new BufferedOutputStream(Files.newOutputStream(tmp), IO_BUFFER_SIZE))) {
+                Files.copy(source, out);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        log.debug("Adjunto {} codificado en {}", source.getFileName(), target);
+    }
+
+    // SHA-256 leyendo el fichero por bloques en un buffer directo
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private void deleteFile(String digest) {
+        try {
+            Files.deleteIfExists(directory.resolve(digest + ".b64"));
+        } catch (IOException e) {
+            // Puede seguir mapeado en algunos sistemas: se reutilizará o se borrará más adelante
+            log.warn("No se pudo borrar el adjunto codificado {}: {}", digest, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,494 @@
+package com.notify.channel.email;
+
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.Priority;
+import com.notify.exception.SendException;
+import com.notify.filter.Fingerprint;
+import com.notify.template.MessageTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Decorador de canal email que agrupa en un resumen (digest) los emails a un
+ * mismo destinatario con la misma clave de resumen.
+ *
+ * Los emails con clave (por defecto la metadata "digest", ej: "comentarios")
+ * no se envían: se guardan y se responde PENDING. Cuando el grupo alcanza
+ * {@code maxItems} elementos, o cuando su primer elemento cumple
+ * {@code interval}, se renderiza un único email con {@link MessageTemplate}:
+ * <ul>
+ *   <li>asunto y cuerpo: {{count}}, {{items}}, {{recipient}}, {{digest}}</li>
+ *   <li>cada elemento: {{subject}}, {{message}}</li>
+ * </ul>
+ *
+ * Uso:
+ * <pre>
+ *   DigestEmailChannel digest = DigestEmailChannel.builder(new EmailChannel(sendGrid))
+ *       .journal(Path.of("/var/lib/notify/digest"))
+ *       .interval(Duration.ofHours(1))
+ *       .maxItems(20)
+ *       .build();
+ * </pre>
+ *
+ * Almacenamiento: los elementos van a un journal en disco por segmentos
+ * ({@link DigestJournal}) y en memoria solo queda un índice fuera del heap
+ * de 32 bytes por grupo pendiente ({@link DigestIndex}). Al reiniciar el
+ * estado se reconstruye releyendo el journal; los segmentos ya enviados se
+ * borran a medida que avanza el vencimiento.
+ *
+ * Un grupo solo se da por enviado cuando el canal decorado confirma el envío:
+ * si falla sigue pendiente y se reintenta con espera exponencial desde
+ * {@code retryBackoff} (entrega al menos una vez). Tras {@code maxAttempts}
+ * fallos seguidos se descarta con un FLUSH y un log de error, para que un
+ * destinatario que siempre rebota no retenga la compactación del journal.
+ * Los intentos se cuentan en memoria: al reiniciar empiezan de cero.
+ *
+ * Sin clave de resumen, con prioridad CRITICAL o con adjuntos el email se
+ * envía al momento.
+ */
+public class DigestEmailChannel implements NotificationChannel<EmailNotification>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DigestEmailChannel.class);
+
+    public static final String DIGEST_METADATA_KEY = "digest";
+
+    private static final int MAX_BACKOFF_SHIFT = 5;   // La espera deja de crecer en 32 × retryBackoff
+
+    private record Retry(int attempts, long notBeforeMillis) {
+    }
+
+    private final NotificationChannel<EmailNotification> delegate;
+    private final Function<EmailNotification, String> digestKey;
+    private final long intervalMillis;
+    private final int maxItems;
+    private final MessageTemplate subjectTemplate;
+    private final MessageTemplate bodyTemplate;
+    private final MessageTemplate itemTemplate;
+    private final Clock clock;
+
+    private final DigestJournal journal;
+    private final DigestIndex index;
+    private final ScheduledExecutorService scheduler;
+    private final Set<Long> inFlight = new HashSet<>();   // Grupos con el resumen en envío
+    private final Map<Long, Retry> retries = new HashMap<>();   // Grupos cuyo último envío falló
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private long cursor;   // Siguiente registro del journal por revisar para vencimiento
+
+    private DigestEmailChannel(Builder builder) throws IOException {
+        this.delegate = builder.delegate;
+        this.digestKey = builder.digestKey;
+        this.intervalMillis = builder.interval.toMillis();
+        this.maxItems = builder.maxItems;
+        this.subjectTemplate = builder.subjectTemplate;
+        this.bodyTemplate = builder.bodyTemplate;
+        this.itemTemplate = builder.itemTemplate;
+        this.clock = builder.clock;
+        this.maxAttempts = builder.maxAttempts;
+        this.retryBackoffMillis = builder.retryBackoff.toMillis();
+        this.journal = new DigestJournal(builder.directory, builder.segmentBytes);
+        this.index = new DigestIndex(builder.expectedRecipients);
+        recover();
+
+        if (builder.checkEvery != null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notify-digest");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = builder.checkEvery.toMillis();
+            scheduler.scheduleWithFixedDelay(this::flushDueSafely, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    @Override
+    public NotificationResult send(EmailNotification notification) {
+        String key = keyOf(notification);
+        return key == null ? delegate.send(notification) : buffer(notification, key);
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+        String key = keyOf(notification);
+        if (key == null) {
+            return delegate.sendAsync(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(buffer(notification, key));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private synchronized NotificationResult buffer(EmailNotification notification, String key) {
+        long fingerprint = fingerprint(notification.getRecipient(), key);
+        try {
+            long previous = index.last(fingerprint);
+            long offset = journal.appendItem(fingerprint, clock.millis(), previous, notification.getRecipient(),
+                    key, notification.getId(), notification.getFrom(), notification.getSubject(),
+                    notification.getMessage());
+            index.append(fingerprint, offset);
+            if (index.count(fingerprint) >= maxItems && isReady(fingerprint, clock.millis())) {
+                flushGroup(fingerprint);
+            }
+        } catch (IOException e) {
+            throw new SendException("No se pudo guardar el email en el resumen: " + e.getMessage(), e);
+        }
+        return NotificationResult.pending(notification.getId(), "Agrupada en el resumen '" + key + "'");
+    }
+
+    /**
+     * Envía los resúmenes cuyo primer elemento cumplió el intervalo. Lo invoca
+     * el planificador interno; público para forzar la revisión (ej: al apagar).
+     *
+     * @return resúmenes enviados
+     */
+    public synchronized int flushDue() throws IOException {
+        long now = clock.millis();
+        long cutoff = now - intervalMillis;
+        int flushed = 0;
+        boolean advancing = true;
+        long offset = cursor;
+        DigestJournal.Entry entry;
+        // El journal está en orden de llegada: se avanza hasta el primer elemento no vencido
+        while ((entry = journal.read(offset)) != null) {
+            if (entry.type() == DigestJournal.ITEM) {
+                if (entry.timeMillis() > cutoff) {
+                    break;
+                }
+                if (index.first(entry.fingerprint()) == entry.offset() && isReady(entry.fingerprint(), now)) {
+                    flushGroup(entry.fingerprint());
+                    flushed++;
+                }
+                // Un elemento sin envío confirmado (en curso o en espera de reintento) retiene el cursor
+                advancing &= !isPending(entry);
+            }
+            offset = entry.next();
+            if (advancing) {
+                cursor = offset;
+            }
+        }
+        // Todo lo anterior al cursor ya se envió
+        journal.deleteBefore(cursor);
+        return flushed;
+    }
+
+    /**
+     * Envía todos los resúmenes pendientes sin esperar al intervalo ni a la
+     * espera de reintento de los que fallaron.
+     */
+    public synchronized int flushAll() throws IOException {
+        int flushed = 0;
+        DigestJournal.Entry entry;
+        long offset = cursor;
+        while ((entry = journal.read(offset)) != null) {
+            if (entry.type() == DigestJournal.ITEM && index.first(entry.fingerprint()) == entry.offset()
+                    && !inFlight.contains(entry.fingerprint())) {
+                flushGroup(entry.fingerprint());
+                flushed++;
+            }
+            offset = entry.next();
+        }
+        return flushed;
+    }
+
+    private void flushDueSafely() {
+        try {
+            flushDue();
+        } catch (Exception e) {
+            log.error("Error enviando resúmenes vencidos: {}", e.getMessage(), e);
+        }
+    }
+
+    // Lee el grupo siguiendo los enlaces hacia atrás, lo renderiza y lo envía;
+    // el FLUSH se registra al confirmarse el envío
+    private void flushGroup(long fingerprint) throws IOException {
+        Deque<DigestJournal.Entry> items = new ArrayDeque<>();
+        long offset = index.last(fingerprint);
+        for (int remaining = index.count(fingerprint); remaining > 0; remaining--) {
+            DigestJournal.Entry item = journal.read(offset);
+            items.addFirst(item);
+            offset = item.previous();
+        }
+        DigestJournal.Entry newest = items.getLast();
+        EmailNotification digest = render(items);
+        inFlight.add(fingerprint);
+        CompletableFuture<NotificationResult> sending;
+        try {
+            sending = delegate.sendAsync(digest);
+        } catch (Exception e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+        sending.whenComplete((result, error) -> completeFlush(fingerprint, newest, items.size(), digest, result, error));
+    }
+
+    private synchronized void completeFlush(long fingerprint, DigestJournal.Entry newest, int count,
+                                            EmailNotification digest, NotificationResult result, Throwable error) {
+        inFlight.remove(fingerprint);
+        if (error != null || !result.isSuccess()) {
+            String reason = error != null ? error.getMessage() : String.valueOf(result);
+            Retry previous = retries.get(fingerprint);
+            int attempts = previous != null ? previous.attempts() + 1 : 1;
+            if (attempts < maxAttempts) {
+                long delay = retryBackoffMillis << Math.min(attempts - 1, MAX_BACKOFF_SHIFT);
+                retries.put(fingerprint, new Retry(attempts, clock.millis() + delay));
+                log.warn("Resumen {} no enviado (intento {}/{}), se reintentará en {} ms: {}",
+                        digest.getId(), attempts, maxAttempts, delay, reason);
+                return;
+            }
+            log.error("Resumen '{}' para {} descartado tras {} intentos con {} emails: {}",
+                    newest.digestKey(), newest.recipient(), attempts, count, reason);
+        } else {
+            log.info("Resumen '{}' con {} emails enviado como {}", newest.digestKey(), count, digest.getId());
+        }
+        retries.remove(fingerprint);
+        try {
+            journal.appendFlush(fingerprint, clock.millis(), newest.offset());
+            dropFlushed(fingerprint, newest.offset());
+        } catch (IOException e) {
+            log.error("Resumen {} cerrado pero no registrado en el journal: {}", digest.getId(), e.getMessage(), e);
+        }
+    }
+
+    // Ni en envío ni esperando a reintentar
+    private boolean isReady(long fingerprint, long now) {
+        if (inFlight.contains(fingerprint)) {
+            return false;
+        }
+        Retry retry = retries.get(fingerprint);
+        return retry == null || retry.notBeforeMillis() <= now;
+    }
+
+    // Quita del grupo los elementos hasta el offset enviado; los llegados después siguen pendientes
+    private void dropFlushed(long fingerprint, long flushed) throws IOException {
+        long offset = index.last(fingerprint);
+        if (offset <= flushed) {
+            index.remove(fingerprint);
+            return;
+        }
+        long first = offset;
+        int count = 0;
+        while (offset > flushed) {
+            first = offset;
+            count++;
+            offset = journal.read(offset).previous();
+        }
+        index.retain(fingerprint, first, count);
+    }
+
+    private boolean isPending(DigestJournal.Entry item) {
+        long first = index.first(item.fingerprint());
+        return first >= 0 && first <= item.offset();
+    }
+
+    private EmailNotification render(Deque<DigestJournal.Entry> items) {
+        DigestJournal.Entry newest = items.getLast();
+        StringJoiner lines = new StringJoiner("\n");
+        for (DigestJournal.Entry item : items) {
+            lines.add(itemTemplate.render(Map.of(
+                    "subject", nullToEmpty(item.subject()),
+                    "message", nullToEmpty(item.message()))));
+        }
+        Map<String, String> variables = Map.of(
+                "count", String.valueOf(items.size()),
+                "items", lines.toString(),
+                "recipient", newest.recipient(),
+                "digest", newest.digestKey());
+        return EmailNotification.builder()
+                .to(newest.recipient())
+                .from(newest.from())
+                .subject(subjectTemplate.render(variables))
+                .message(bodyTemplate.render(variables))
+                .build();
+    }
+
+    // Reconstruye el índice releyendo el journal; descarta un registro final incompleto
+    private void recover() throws IOException {
+        long offset = journal.firstOffset();
+        cursor = offset;
+        while (true) {
+            DigestJournal.Entry entry;
+            try {
+                entry = journal.read(offset);
+            } catch (IOException e) {
+                if (!journal.truncateActive(offset)) {
+                    throw e;
+                }
+                log.warn("Journal de resúmenes: registro incompleto descartado en el offset {}", offset);
+                break;
+            }
+            if (entry == null) {
+                break;
+            }
+            if (entry.type() == DigestJournal.ITEM) {
+                index.append(entry.fingerprint(), entry.offset());
+            } else {
+                dropFlushed(entry.fingerprint(), entry.previous());
+            }
+            offset = entry.next();
+        }
+        if (index.size() > 0) {
+            log.info("Resúmenes recuperados del journal: {} grupos pendientes", index.size());
+        }
+    }
+
+    private String keyOf(EmailNotification notification) {
+        if (notification.getPriority() == Priority.CRITICAL || !notification.getAttachments().isEmpty()) {
+            return null;
+        }
+        return digestKey.apply(notification);
+    }
+
+    private static long fingerprint(String recipient, String key) {
+        return Fingerprint.of(ChannelType.EMAIL, recipient + '\n' + key);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Grupos (destinatario + clave) con elementos pendientes.
+     */
+    public synchronized int getPendingCount() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        journal.close();
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    //Builder
+
+    public static Builder builder(NotificationChannel<EmailNotification> delegate) {
+        return new Builder(delegate);
+    }
+
+    public static class Builder {
+        private final NotificationChannel<EmailNotification> delegate;
+        private Path directory;
+        private long segmentBytes = 64L << 20;
+        private int expectedRecipients = 100_000;
+        private Duration interval = Duration.ofHours(1);
+        private int maxItems = 20;
+        private Duration checkEvery = Duration.ofSeconds(1);
+        private Function<EmailNotification, String> digestKey =
+                notification -> notification.getMetadata().get(DIGEST_METADATA_KEY);
+        private MessageTemplate subjectTemplate = MessageTemplate.of("Tienes {{count}} novedades");
+        private MessageTemplate bodyTemplate = MessageTemplate.of("Resumen de {{digest}}:\n\n{{items}}");
+        private MessageTemplate itemTemplate = MessageTemplate.of("- {{subject}}: {{message}}");
+        private int maxAttempts = 5;
+        private Duration retryBackoff = Duration.ofMinutes(1);
+        private Clock clock = Clock.systemUTC();
+
+        private Builder(NotificationChannel<EmailNotification> delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Directorio del journal (obligatorio). Si ya contiene un journal se
+         * recuperan sus resúmenes pendientes.
+         */
+        public Builder journal(Path directory) { this.directory = directory; return this; }
+
+        /**
+         * Tamaño de cada segmento del journal (por defecto 64 MB).
+         */
+        public Builder segmentBytes(long segmentBytes) { this.segmentBytes = segmentBytes; return this; }
+
+        /**
+         * Grupos pendientes previstos: dimensiona el índice desde el inicio.
+         */
+        public Builder expectedRecipients(int expectedRecipients) { this.expectedRecipients = expectedRecipients; return this; }
+
+        /**
+         * Espera máxima desde el primer elemento de un grupo hasta su envío.
+         */
+        public Builder interval(Duration interval) { this.interval = interval; return this; }
+
+        /**
+         * Elementos que fuerzan el envío inmediato del resumen.
+         */
+        public Builder maxItems(int maxItems) { this.maxItems = maxItems; return this; }
+
+        /**
+         * Frecuencia con la que se buscan resúmenes vencidos (null = solo con {@link #flushDue()} manual).
+         */
+        public Builder checkEvery(Duration checkEvery) { this.checkEvery = checkEvery; return this; }
+
+        /**
+         * Clave de resumen de cada email (null = se envía sin agrupar).
+         */
+        public Builder digestKey(Function<EmailNotification, String> digestKey) { this.digestKey = digestKey; return this; }
+        public Builder subjectTemplate(MessageTemplate subjectTemplate) { this.subjectTemplate = subjectTemplate; return this; }
+        public Builder bodyTemplate(MessageTemplate bodyTemplate) { this.bodyTemplate = bodyTemplate; return this; }
+        public Builder itemTemplate(MessageTemplate itemTemplate) { this.itemTemplate = itemTemplate; return this; }
+
+        /**
+         * Envíos fallidos seguidos tras los que se descarta el resumen (por defecto 5).
+         */
+        public Builder maxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; return this; }
+
+        /**
+         * Espera antes del primer reintento; se duplica en cada fallo (por defecto 1 minuto).
+         */
+        public Builder retryBackoff(Duration retryBackoff) { this.retryBackoff = retryBackoff; return this; }
+        public Builder clock(Clock clock) { this.clock = clock; return this; }
+
+        /**
+         * @throws IOException si no se puede abrir o recuperar el journal
+         */
+        public DigestEmailChannel build() throws IOException {
+            if (delegate == null) throw new IllegalArgumentException("El canal decorado es obligatorio");
+            if (directory == null) throw new IllegalArgumentException("El directorio del journal es obligatorio");
+            if (segmentBytes < 4096 || segmentBytes > (1L << 30)) {
+                throw new IllegalArgumentException("segmentBytes debe estar entre 4 KB y 1 GB");
+            }
+            if (maxItems < 1) throw new IllegalArgumentException("maxItems debe ser >= 1");
+            if (interval.isNegative() || interval.isZero()) throw new IllegalArgumentException("interval debe ser > 0");
+            if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts debe ser >= 1");
+            if (retryBackoff.isNegative()) throw new IllegalArgumentException("retryBackoff no puede ser negativo");
+            return new DigestEmailChannel(this);
+        }
+    }
+}
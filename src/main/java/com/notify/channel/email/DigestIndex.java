@@ -0,0 +1,234 @@
+package com.notify.channel.email;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Índice fuera del heap de los resúmenes pendientes: huella de grupo →
+ * (offset del primer y último elemento en el journal, número de elementos).
+ *
+ * Tabla hash de direccionamiento abierto con sondeo lineal y borrado por
+ * desplazamiento hacia atrás (sin lápidas). Cada grupo ocupa un slot de 32
+ * bytes en un ByteBuffer directo: millones de destinatarios con resúmenes
+ * pendientes no crean objetos en el heap. No es thread-safe; el canal lo
+ * usa bajo su lock.
+ *
+ * Un ByteBuffer no pasa de 2GB, así que la tabla se reparte en
+ * {@value #SEGMENTS} segmentos por los bits altos de la huella, cada uno de
+ * hasta 2^25 slots (1GB) que crece por separado: caben ~375M grupos y un
+ * rehash solo copia un segmento.
+ */
+final class DigestIndex {
+
+    private static final int SLOT_BYTES = 32;
+    private static final int FIRST = 8;
+    private static final int LAST = 16;
+    private static final int COUNT = 24;
+
+    private static final long EMPTY = 0;
+    private static final long EMPTY_ALIAS = 0x9E3779B97F4A7C15L;
+    static final int SEGMENTS = 16;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+    static final int MAX_SEGMENT_CAPACITY = 1 << 25;   // 32 bytes * 2^25 = 1GB por buffer
+    private static final double MAX_LOAD = 0.7;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private int size;
+
+    DigestIndex(int expectedGroups) {
+        int capacity = segmentCapacityFor(Math.ceilDiv(Math.max(expectedGroups, 0), SEGMENTS));
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity);
+        }
+    }
+
+    /**
+     * Registra un elemento nuevo del grupo.
+     *
+     * @return offset del último elemento anterior del grupo (-1 si es el primero)
+     */
+    long append(long fingerprint, long offset) {
+        fingerprint = encode(fingerprint);
+        Segment segment = segmentOf(fingerprint);
+        int before = segment.size;
+        long previous = segment.append(fingerprint, offset);
+        size += segment.size - before;
+        return previous;
+    }
+
+    /**
+     * @return elementos pendientes del grupo (0 si no hay)
+     */
+    int count(long fingerprint) {
+        fingerprint = encode(fingerprint);
+        Segment segment = segmentOf(fingerprint);
+        int base = segment.find(fingerprint) * SLOT_BYTES;
+        return segment.slots.getLong(base) == EMPTY ? 0 : segment.slots.getInt(base + COUNT);
+    }
+
+    /**
+     * @return offset del primer elemento pendiente del grupo (-1 si no hay)
+     */
+    long first(long fingerprint) {
+        return read(fingerprint, FIRST);
+    }
+
+    /**
+     * @return offset del último elemento pendiente del grupo (-1 si no hay)
+     */
+    long last(long fingerprint) {
+        return read(fingerprint, LAST);
+    }
+
+    /**
+     * Deja en el grupo solo sus últimos {@code count} elementos, empezando en
+     * {@code first} (ej: los que llegaron mientras se enviaba el resumen).
+     */
+    void retain(long fingerprint, long first, int count) {
+        fingerprint = encode(fingerprint);
+        Segment segment = segmentOf(fingerprint);
+        int base = segment.find(fingerprint) * SLOT_BYTES;
+        if (segment.slots.getLong(base) != EMPTY) {
+            segment.slots.putLong(base + FIRST, first).putInt(base + COUNT, count);
+        }
+    }
+
+    void remove(long fingerprint) {
+        fingerprint = encode(fingerprint);
+        if (segmentOf(fingerprint).remove(fingerprint)) {
+            size--;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Slots iniciales de cada segmento para los grupos previstos en él:
+     * potencia de 2 con factor de carga ~0.5, sin pasar del máximo.
+     */
+    static int segmentCapacityFor(int expected) {
+        long wanted = Math.max(16L, (long) expected * 2);
+        if (wanted > MAX_SEGMENT_CAPACITY) {
+            if (expected > MAX_SEGMENT_CAPACITY * MAX_LOAD) {
+                throw new IllegalStateException("Índice de resúmenes lleno: " + expected + " grupos en un segmento");
+            }
+            return MAX_SEGMENT_CAPACITY;
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private long read(long fingerprint, int field) {
+        fingerprint = encode(fingerprint);
+        Segment segment = segmentOf(fingerprint);
+        int base = segment.find(fingerprint) * SLOT_BYTES;
+        return segment.slots.getLong(base) == EMPTY ? -1 : segment.slots.getLong(base + field);
+    }
+
+    private Segment segmentOf(long fingerprint) {
+        return segments[(int) (fingerprint >>> SEGMENT_SHIFT)];
+    }
+
+    private static long encode(long fingerprint) {
+        return fingerprint == EMPTY ? EMPTY_ALIAS : fingerprint;
+    }
+
+    private static final class Segment {
+        ByteBuffer slots;
+        int mask;
+        int size;
+
+        Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        long append(long fingerprint, long offset) {
+            if (size + 1 > (mask + 1) * MAX_LOAD) {
+                rehash(segmentCapacityFor(size + 1));
+            }
+            int base = find(fingerprint) * SLOT_BYTES;
+            if (slots.getLong(base) == EMPTY) {
+                slots.putLong(base, fingerprint).putLong(base + FIRST, offset).putLong(base + LAST, offset)
+                        .putInt(base + COUNT, 1);
+                size++;
+                return -1;
+            }
+            long previous = slots.getLong(base + LAST);
+            slots.putLong(base + LAST, offset).putInt(base + COUNT, slots.getInt(base + COUNT) + 1);
+            return previous;
+        }
+
+        boolean remove(long fingerprint) {
+            int slot = find(fingerprint);
+            if (slots.getLong(slot * SLOT_BYTES) == EMPTY) {
+                return false;
+            }
+            size--;
+            // Desplaza hacia atrás los elementos del mismo cluster para no romper el sondeo
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (true) {
+                long key = slots.getLong(next * SLOT_BYTES);
+                if (key == EMPTY) {
+                    break;
+                }
+                int home = (int) key & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    copySlot(next, hole);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            clearSlot(hole);
+            return true;
+        }
+
+        int find(long fingerprint) {
+            int slot = (int) fingerprint & mask;
+            while (true) {
+                long key = slots.getLong(slot * SLOT_BYTES);
+                if (key == fingerprint || key == EMPTY) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private void copySlot(int from, int to) {
+            int source = from * SLOT_BYTES;
+            int target = to * SLOT_BYTES;
+            for (int i = 0; i < SLOT_BYTES; i += Long.BYTES) {
+                slots.putLong(target + i, slots.getLong(source + i));
+            }
+        }
+
+        private void clearSlot(int slot) {
+            int base = slot * SLOT_BYTES;
+            for (int i = 0; i < SLOT_BYTES; i += Long.BYTES) {
+                slots.putLong(base + i, 0);
+            }
+        }
+
+        private void rehash(int capacity) {
+            ByteBuffer old = slots;
+            int oldCapacity = mask + 1;
+            allocate(capacity);
+            for (int i = 0; i < oldCapacity; i++) {
+                int source = i * SLOT_BYTES;
+                long key = old.getLong(source);
+                if (key != EMPTY) {
+                    int target = find(key) * SLOT_BYTES;
+                    for (int j = 0; j < SLOT_BYTES; j += Long.BYTES) {
+                        slots.putLong(target + j, old.getLong(source + j));
+                    }
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            slots = ByteBuffer.allocateDirect(Math.multiplyExact(capacity, SLOT_BYTES)).order(ByteOrder.nativeOrder());
+            mask = capacity - 1;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.notify.channel.email;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Journal en disco de los elementos de resumen: ficheros de segmento de
+ * solo escritura al final, en orden de llegada.
+ *
+ * Cada registro es {@code [int longitud][byte tipo][contenido]}. Un offset
+ * global combina segmento y posición ({@code segmento << 32 | posición}).
+ * Los elementos de un mismo grupo se enlazan hacia atrás (cada uno guarda el
+ * offset del anterior), así que leer un grupo no requiere índice en memoria
+ * más allá de su último offset. Un registro FLUSH marca un grupo como enviado
+ * para poder reconstruir el estado al reiniciar.
+ *
+ * Las escrituras van a la caché de páginas del sistema (sobreviven a una
+ * caída del proceso, no necesariamente a una del sistema). No es
+ * thread-safe; el canal lo usa bajo su lock.
+ */
+final class DigestJournal implements Closeable {
+
+    static final byte ITEM = 1;
+    static final byte FLUSH = 2;
+
+    private static final String SUFFIX = ".journal";
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    /**
+     * Registro leído del journal.
+     *
+     * @param next Offset del siguiente registro
+     */
+    record Entry(byte type, long offset, long next, long fingerprint, long timeMillis, long previous,
+                 String recipient, String digestKey, String notificationId, String from,
+                 String subject, String message) {
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final TreeMap<Long, FileChannel> segments = new TreeMap<>();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(MAX_RECORD_BYTES);
+    private long activeSegment;
+    private long activeSize;
+
+    DigestJournal(Path directory, long segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX)) {
+                    long segment = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    segments.put(segment, open(file));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, open(segmentPath(0)));
+        }
+        activeSegment = segments.lastKey();
+        activeSize = segments.get(activeSegment).size();
+    }
+
+    long appendItem(long fingerprint, long timeMillis, long previous, String recipient, String digestKey,
+                    String notificationId, String from, String subject, String message) throws IOException {
+        writeBuffer.clear().position(Integer.BYTES);
+        writeBuffer.put(ITEM).putLong(fingerprint).putLong(timeMillis).putLong(previous);
+        putString(recipient);
+        putString(digestKey);
+        putString(notificationId);
+        putString(from);
+        putString(subject);
+        putString(message);
+        return write();
+    }
+
+    long appendFlush(long fingerprint, long timeMillis, long upTo) throws IOException {
+        writeBuffer.clear().position(Integer.BYTES);
+        writeBuffer.put(FLUSH).putLong(fingerprint).putLong(timeMillis).putLong(upTo);
+        return write();
+    }
+
+    /**
+     * Lee el registro en {@code offset}, saltando al siguiente segmento si
+     * el offset apunta al final de uno ya cerrado.
+     *
+     * @return null si no hay más registros
+     */
+    Entry read(long offset) throws IOException {
+        offset = skipSegmentEnds(offset);
+        long segment = offset >>> 32;
+        FileChannel channel = segments.get(segment);
+        int position = (int) offset;
+        if (channel == null || position >= channel.size()) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, header, position);
+        int length = header.flip().getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Registro de journal corrupto en el offset " + offset);
+        }
+        ByteBuffer body = ByteBuffer.allocate(length);
+        readFully(channel, body, position + Integer.BYTES);
+        body.flip();
+
+        byte type = body.get();
+        long fingerprint = body.getLong();
+        long timeMillis = body.getLong();
+        long previous = body.getLong();
+        long next = offset + Integer.BYTES + length;
+        if (type == FLUSH) {
+            return new Entry(type, offset, next, fingerprint, timeMillis, previous,
+                    null, null, null, null, null, null);
+        }
+        return new Entry(type, offset, next, fingerprint, timeMillis, previous,
+                getString(body), getString(body), getString(body), getString(body), getString(body), getString(body));
+    }
+
+    /**
+     * Offset del registro más antiguo conservado.
+     */
+    long firstOffset() {
+        return segments.firstKey() << 32;
+    }
+
+    /**
+     * Borra los segmentos anteriores al del offset dado (nunca el activo).
+     */
+    void deleteBefore(long offset) throws IOException {
+        long segment = Math.min(skipSegmentEnds(offset) >>> 32, activeSegment);
+        while (segments.firstKey() < segment) {
+            Map.Entry<Long, FileChannel> oldest = segments.pollFirstEntry();
+            oldest.getValue().close();
+            Files.deleteIfExists(segmentPath(oldest.getKey()));
+        }
+    }
+
+    /**
+     * Descarta un registro incompleto al final del segmento activo (escritura
+     * interrumpida por una caída).
+     *
+     * @return false si el offset no está en el segmento activo
+     */
+    boolean truncateActive(long offset) throws IOException {
+        if (offset >>> 32 != activeSegment) {
+            return false;
+        }
+        activeSize = (int) offset;
+        segments.get(activeSegment).truncate(activeSize);
+        return true;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : segments.values()) {
+            channel.close();
+        }
+        segments.clear();
+    }
+
+    // --- Internos ---
+
+    private long write() throws IOException {
+        int length = writeBuffer.position() - Integer.BYTES;
+        writeBuffer.putInt(0, length).flip();
+        if (activeSize > 0 && activeSize + writeBuffer.remaining() > segmentBytes) {
+            activeSegment++;
+            activeSize = 0;
+            segments.put(activeSegment, open(segmentPath(activeSegment)));
+        }
+        long offset = activeSegment << 32 | activeSize;
+        FileChannel channel = segments.get(activeSegment);
+        while (writeBuffer.hasRemaining()) {
+            activeSize += channel.write(writeBuffer, activeSize);
+        }
+        return offset;
+    }
+
+    private long skipSegmentEnds(long offset) throws IOException {
+        while (true) {
+            long segment = offset >>> 32;
+            FileChannel channel = segments.get(segment);
+            if (segment >= activeSegment || (channel != null && (int) offset < channel.size())) {
+                return offset;
+            }
+            Long following = segments.higherKey(segment);
+            if (following == null) {
+                return offset;
+            }
+            offset = following << 32;
+        }
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            writeBuffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > writeBuffer.remaining() - Integer.BYTES) {
+            throw new IllegalArgumentException("Elemento de resumen demasiado grande para el journal");
+        }
+        writeBuffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Journal de resúmenes truncado");
+            }
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%016d%s", segment, SUFFIX));
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
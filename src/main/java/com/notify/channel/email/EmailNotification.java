@@ -2,7 +2,12 @@ package com.notify.channel.email;
 
 import com.notify.core.ChannelType;
 import com.notify.core.Notification;
+import com.notify.core.Priority;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -16,14 +21,16 @@ public class EmailNotification extends Notification {
     private final String htmlContent;  // Contenido HTML (alternativa al texto plano)
     private final List<String> cc;     // Copia
     private final List<String> bcc;    // Copia oculta
+    private final List<Attachment> attachments;  // Adjuntos (se leen en streaming al enviar)
 
     private EmailNotification(Builder builder) {
-        super(builder.to, builder.message, builder.metadata);
+        super(builder.id, builder.createdAt, builder.to, builder.message, builder.metadata, builder.priority, builder.tenantId, builder.expiresAt);
         this.subject = builder.subject;
         this.from = builder.from;
         this.htmlContent = builder.htmlContent;
         this.cc = builder.cc != null ? List.copyOf(builder.cc) : List.of();
         this.bcc = builder.bcc != null ? List.copyOf(builder.bcc) : List.of();
+        this.attachments = List.copyOf(builder.attachments);
     }
 
     @Override
@@ -53,6 +60,10 @@ public class EmailNotification extends Notification {
         return bcc;
     }
 
+    public List<Attachment> getAttachments() {
+        return attachments;
+    }
+
     //Builder
 
     public static Builder builder() {
@@ -67,7 +78,13 @@ public class EmailNotification extends Notification {
         private String htmlContent;
         private List<String> cc;
         private List<String> bcc;
+        private final List<Attachment> attachments = new ArrayList<>();
         private Map<String, String> metadata;
+        private Priority priority;
+        private String tenantId;
+        private Instant expiresAt;
+        private String id;
+        private LocalDateTime createdAt;
 
         public Builder to(String to) { this.to = to; return this; }
         public Builder message(String message) { this.message = message; return this; }
@@ -76,7 +93,22 @@ public class EmailNotification extends Notification {
         public Builder htmlContent(String htmlContent) { this.htmlContent = htmlContent; return this; }
         public Builder cc(List<String> cc) { this.cc = cc; return this; }
         public Builder bcc(List<String> bcc) { this.bcc = bcc; return this; }
+        public Builder attachment(Attachment attachment) { this.attachments.add(attachment); return this; }
+        public Builder attachments(List<Attachment> attachments) { this.attachments.addAll(attachments); return this; }
         public Builder metadata(Map<String, String> metadata) { this.metadata = metadata; return this; }
+        public Builder priority(Priority priority) { this.priority = priority; return this; }
+        public Builder tenant(String tenantId) { this.tenantId = tenantId; return this; }
+        public Builder expiresAt(Instant expiresAt) { this.expiresAt = expiresAt; return this; }
+
+        /**
+         * Tiempo de vida desde ahora (atajo de expiresAt).
+         */
+        public Builder ttl(Duration ttl) { this.expiresAt = Instant.now().plus(ttl); return this; }
+
+        /**
+         * Id y creación de una notificación existente (copia reenviada por otro nodo).
+         */
+        public Builder identity(String id, LocalDateTime createdAt) { this.id = id; this.createdAt = createdAt; return this; }
 
         public EmailNotification build() {
             return new EmailNotification(this);
@@ -1,8 +1,11 @@
 package com.notify.channel.email.provider;
 
 import com.notify.channel.email.EmailNotification;
+import com.notify.core.Futures;
 import com.notify.core.NotificationResult;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Contrato que todo proveedor de Email debe cumplir.
  */
@@ -16,6 +19,21 @@ public interface EmailProvider {
      */
     NotificationResult send(EmailNotification notification);
 
+    /**
+     * Envía de forma asíncrona sin ocupar un hilo por envío en curso.
+     *
+     * Los proveedores con transporte no bloqueante deben sobreescribirlo; la
+     * implementación por defecto solo mueve el envío bloqueante a un pool
+     * (compatibilidad con proveedores existentes). Cancelar el future evita el
+     * envío si aún no empezó e interrumpe el hilo si ya está en marcha.
+     *
+     * @param notification Notificación a enviar
+     * @return CompletableFuture con el resultado del proveedor
+     */
+    default CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+        return Futures.supplyInterruptibly(() -> send(notification));
+    }
+
     /**
      * Nombre identificador del proveedor (para logs y debugging).
      */
@@ -1,27 +1,48 @@
 package com.notify.channel.email.provider;
 
+import com.notify.channel.email.Attachment;
 import com.notify.channel.email.EmailNotification;
 import com.notify.config.ProviderConfig;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.ratelimit.ProviderRateLimiter;
+import com.notify.transport.HttpTransport;
+import com.notify.transport.ProviderCall;
+import com.notify.transport.TransportRequest;
+import com.notify.transport.TransportResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Proveedor de email: Mailgun (simulado).
+ * Proveedor de email: Mailgun.
+ *
+ * Sin transporte el envío es simulado. Con un {@link HttpTransport} se hace
+ * POST (form-urlencoded, o multipart si hay adjuntos) a /v3/{domain}/messages.
  */
 public class MailgunProvider implements EmailProvider {
 
     private static final Logger log = LoggerFactory.getLogger(MailgunProvider.class);
 
+    private static final String DEFAULT_ENDPOINT = "https://api.mailgun.net";
+
     private final ProviderConfig config;
+    private final ProviderCall call;        // null = simulación
 
     public MailgunProvider(ProviderConfig config) {
+        this(config, null);
+    }
+
+    public MailgunProvider(ProviderConfig config, HttpTransport transport) {
         config.getRequiredProperty("apiKey");
         config.getRequiredProperty("domain");
         this.config = config;
+        this.call = transport != null
+                ? new ProviderCall("Mailgun", transport, ProviderRateLimiter.fromConfig(config))
+                : null;
     }
 
     @Override
@@ -31,6 +52,13 @@ public class MailgunProvider implements EmailProvider {
         log.info("[Mailgun] Enviando email via dominio: {}", domain);
         log.info("  To: {}", notification.getRecipient());
         log.info("  Subject: {}", notification.getSubject());
+        if (!notification.getAttachments().isEmpty()) {
+            log.info("  Adjuntos: {}", notification.getAttachments());
+        }
+
+        if (call != null) {
+            return HttpTransport.await(sendHttp(notification));
+        }
 
         try {
             // --- SIMULACIÓN ---
@@ -46,6 +74,58 @@ public class MailgunProvider implements EmailProvider {
         }
     }
 
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+        if (call != null) {
+            return sendHttp(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(send(notification));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<NotificationResult> sendHttp(EmailNotification notification) {
+        return call.execute(() -> buildRequest(notification), response -> accepted(notification, response));
+    }
+
+    private TransportRequest buildRequest(EmailNotification notification) {
+        String domain = config.getRequiredProperty("domain");
+        String from = notification.getFrom() != null ? notification.getFrom() : "noreply@" + domain;
+
+        TransportRequest.Builder request = TransportRequest
+                .post(config.getProperty("endpoint", DEFAULT_ENDPOINT) + "/v3/" + domain + "/messages")
+                .basicAuth("api", config.getRequiredProperty("apiKey"))
+                .formField("from", from)
+                .formField("to", notification.getRecipient())
+                .formField("subject", notification.getSubject())
+                .formField("text", notification.getMessage())
+                .formField("html", notification.getHtmlContent());
+        notification.getCc().forEach(cc -> request.formField("cc", cc));
+        notification.getBcc().forEach(bcc -> request.formField("bcc", bcc));
+        // Con adjuntos la petición pasa a multipart y los ficheros se envían en streaming desde disco
+        for (Attachment attachment : notification.getAttachments()) {
+            try {
+                request.filePart("attachment", attachment.getFilename(), attachment.getContentType(),
+                        attachment.getPath());
+            } catch (UncheckedIOException e) {
+                throw new SendException("No se pudo leer el adjunto " + attachment.getFilename()
+                        + ": " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return request.build();
+    }
+
+    /**
+     * Mailgun responde {"id": "<...>", "message": "Queued. Thank you."}.
+     */
+    private NotificationResult accepted(EmailNotification notification, TransportResponse response) {
+        String messageId = response.jsonField("id");
+        log.info("[Mailgun] Email encolado (HTTP {}). MessageId: {}", response.getStatusCode(), messageId);
+        return NotificationResult.success(notification.getId(), messageId);
+    }
+
     @Override
     public String getProviderName() {
         return "Mailgun";
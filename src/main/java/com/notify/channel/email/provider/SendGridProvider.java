@@ -1,28 +1,88 @@
 package com.notify.channel.email.provider;
 
+import com.notify.channel.email.Attachment;
+import com.notify.channel.email.AttachmentCache;
 import com.notify.channel.email.EmailNotification;
 import com.notify.config.ProviderConfig;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.ratelimit.ProviderRateLimiter;
+import com.notify.transport.HttpTransport;
+import com.notify.transport.ProviderCall;
+import com.notify.transport.TransportRequest;
+import com.notify.transport.TransportResponse;
+import com.notify.transport.json.ByteBufferPool;
+import com.notify.transport.json.JsonFragment;
+import com.notify.transport.json.JsonWriter;
+import com.notify.transport.json.PooledBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Proveedor de email: SendGrid (simulado).
+ * Proveedor de email: SendGrid.
+ *
+ * Sin transporte el envío es simulado. Con un {@link HttpTransport} se hace
+ * POST real a /v3/mail/send; la URL base puede cambiarse con la propiedad
+ * "endpoint" (ej: un stub local en tests).
+ *
+ * Los adjuntos se insertan en el JSON en base64 desde una
+ * {@link AttachmentCache}: cada contenido se codifica una vez y las
+ * peticiones comparten el mismo buffer mapeado.
  */
 public class SendGridProvider implements EmailProvider {
 
     private static final Logger log = LoggerFactory.getLogger(SendGridProvider.class);
 
+    private static final String DEFAULT_ENDPOINT = "https://api.sendgrid.com";
+
+    // Fragmentos JSON constantes, codificados una sola vez
+    private static final JsonFragment PERSONALIZATIONS = JsonFragment.name("personalizations");
+    private static final JsonFragment TO = JsonFragment.name("to");
+    private static final JsonFragment CC = JsonFragment.name("cc");
+    private static final JsonFragment BCC = JsonFragment.name("bcc");
+    private static final JsonFragment EMAIL = JsonFragment.name("email");
+    private static final JsonFragment FROM = JsonFragment.name("from");
+    private static final JsonFragment SUBJECT = JsonFragment.name("subject");
+    private static final JsonFragment CONTENT = JsonFragment.name("content");
+    private static final JsonFragment TYPE = JsonFragment.name("type");
+    private static final JsonFragment VALUE = JsonFragment.name("value");
+    private static final JsonFragment TEXT_PLAIN = JsonFragment.string("text/plain");
+    private static final JsonFragment TEXT_HTML = JsonFragment.string("text/html");
+    private static final JsonFragment ATTACHMENTS = JsonFragment.name("attachments");
+    private static final JsonFragment FILENAME = JsonFragment.name("filename");
+    private static final JsonFragment DISPOSITION = JsonFragment.name("disposition");
+    private static final JsonFragment ATTACHMENT = JsonFragment.string("attachment");
+
     private final ProviderConfig config;
+    private final ProviderCall call;        // null = simulación
+    private final AttachmentCache attachmentCache;
+    private final JsonFragment fromEmailValue;
 
     public SendGridProvider(ProviderConfig config) {
+        this(config, null);
+    }
+
+    public SendGridProvider(ProviderConfig config, HttpTransport transport) {
+        this(config, transport, AttachmentCache.shared());
+    }
+
+    public SendGridProvider(ProviderConfig config, HttpTransport transport, AttachmentCache attachmentCache) {
         // Validar que las credenciales necesarias estén presentes
         config.getRequiredProperty("apiKey");
         config.getRequiredProperty("fromEmail");
         this.config = config;
+        this.call = transport != null
+                ? new ProviderCall("SendGrid", transport, ProviderRateLimiter.fromConfig(config))
+                : null;
+        this.attachmentCache = attachmentCache;
+        this.fromEmailValue = JsonFragment.string(config.getRequiredProperty("fromEmail"));
     }
 
     @Override
@@ -35,8 +95,15 @@ public class SendGridProvider implements EmailProvider {
         log.info("  To: {}", notification.getRecipient());
         log.info("  Subject: {}", notification.getSubject());
         log.info("  Body: {}", notification.getMessage());
+        if (!notification.getAttachments().isEmpty()) {
+            log.info("  Adjuntos: {}", notification.getAttachments());
+        }
         log.info("  API Key: {}...", apiKey.substring(0, Math.min(8, apiKey.length())));
 
+        if (call != null) {
+            return HttpTransport.await(sendHttp(notification));
+        }
+
         try {
             // --- SIMULACIÓN DEL ENVÍO ---
             // producción: HttpClient.send(POST, "https://api.sendgrid.com/v3/mail/send", body)
@@ -51,6 +118,114 @@ public class SendGridProvider implements EmailProvider {
         }
     }
 
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+        if (call != null) {
+            return sendHttp(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(send(notification));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<NotificationResult> sendHttp(EmailNotification notification) {
+        return call.execute(() -> buildRequest(notification), response -> accepted(notification, response));
+    }
+
+    private TransportRequest buildRequest(EmailNotification notification) {
+        return TransportRequest
+                .post(config.getProperty("endpoint", DEFAULT_ENDPOINT) + "/v3/mail/send")
+                .bearerAuth(config.getRequiredProperty("apiKey"))
+                .json(buildPayload(notification))
+                .build();
+    }
+
+    /**
+     * SendGrid responde 202 sin cuerpo y el id del mensaje
+     * en la cabecera X-Message-Id.
+     */
+    private NotificationResult accepted(EmailNotification notification, TransportResponse response) {
+        String messageId = response.header("X-Message-Id");
+        log.info("[SendGrid] Email aceptado (HTTP {}). MessageId: {}", response.getStatusCode(), messageId);
+        return NotificationResult.success(notification.getId(), messageId);
+    }
+
+    /**
+     * Serializa el payload de /v3/mail/send directamente en buffers del pool.
+     */
+    private PooledBody buildPayload(EmailNotification notification) {
+        // Los adjuntos se resuelven antes de tomar buffers del pool: un error de E/S no los retiene
+        List<ByteBuffer> encoded = encodeAttachments(notification.getAttachments());
+
+        JsonWriter json = JsonWriter.create(ByteBufferPool.shared())
+                .beginObject()
+                .name(PERSONALIZATIONS).beginArray().beginObject()
+                .name(TO).beginArray();
+        writeEmail(json, notification.getRecipient());
+        json.endArray();
+        if (!notification.getCc().isEmpty()) {
+            json.name(CC).beginArray();
+            notification.getCc().forEach(cc -> writeEmail(json, cc));
+            json.endArray();
+        }
+        if (!notification.getBcc().isEmpty()) {
+            json.name(BCC).beginArray();
+            notification.getBcc().forEach(bcc -> writeEmail(json, bcc));
+            json.endArray();
+        }
+        json.endObject().endArray();
+
+        json.name(FROM).beginObject().name(EMAIL);
+        if (notification.getFrom() != null) {
+            json.value(notification.getFrom());
+        } else {
+            json.value(fromEmailValue);
+        }
+        json.endObject();
+
+        json.field(SUBJECT, notification.getSubject())
+                .name(CONTENT).beginArray()
+                .beginObject().name(TYPE).value(TEXT_PLAIN).field(VALUE, notification.getMessage()).endObject();
+        if (notification.getHtmlContent() != null) {
+            json.beginObject().name(TYPE).value(TEXT_HTML).field(VALUE, notification.getHtmlContent()).endObject();
+        }
+        json.endArray();
+
+        if (!encoded.isEmpty()) {
+            json.name(ATTACHMENTS).beginArray();
+            for (int i = 0; i < encoded.size(); i++) {
+                Attachment attachment = notification.getAttachments().get(i);
+                json.beginObject()
+                        .name(CONTENT).rawString(encoded.get(i))
+                        .field(FILENAME, attachment.getFilename())
+                        .field(TYPE, attachment.getContentType())
+                        .name(DISPOSITION).value(ATTACHMENT)
+                        .endObject();
+            }
+            json.endArray();
+        }
+        return json.endObject().toBody();
+    }
+
+    private List<ByteBuffer> encodeAttachments(List<Attachment> attachments) {
+        List<ByteBuffer> encoded = new ArrayList<>(attachments.size());
+        for (Attachment attachment : attachments) {
+            try {
+                encoded.add(attachmentCache.encoded(attachment));
+            } catch (IOException e) {
+                throw new SendException("No se pudo leer el adjunto " + attachment.getFilename()
+                        + ": " + e.getMessage(), e);
+            }
+        }
+        return encoded;
+    }
+
+    private static void writeEmail(JsonWriter json, String email) {
+        json.beginObject().field(EMAIL, email).endObject();
+    }
+
     @Override
     public String getProviderName() {
         return "SendGrid";
@@ -0,0 +1,252 @@
+package com.notify.channel.push;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Futures;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.Priority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BinaryOperator;
+
+/**
+ * Decorador de canal push que fusiona los envíos pendientes a un mismo
+ * dispositivo (collapse/coalescing).
+ *
+ * Dos push se fusionan si van al mismo device token y tienen la misma
+ * collapse key en {@link PushNotification#getData()} (campo "collapse_key"
+ * por defecto). El primero abre una ventana; los que llegan durante ella
+ * reemplazan al pendiente (o se combinan con él, ver {@link Builder#merge})
+ * y al cerrarse la ventana se hace una sola llamada al proveedor. Las
+ * notificaciones absorbidas terminan con estado COALESCED.
+ *
+ * Uso:
+ * <pre>
+ *   NotificationService.builder()
+ *       .channel(CoalescingPushChannel.builder(new PushChannel(firebase))
+ *               .window(Duration.ofSeconds(1))
+ *               .build())
+ *       .build();
+ * </pre>
+ *
+ * - La ventana es fija desde el primer push: el retraso máximo añadido es {@code window}.
+ * - Sin collapse key, con prioridad CRITICAL o por {@link #send} (síncrono)
+ *   no se espera: se envía al momento. Un envío síncrono además absorbe el
+ *   pendiente de su misma clave, porque ya sale una versión más reciente.
+ * - Cancelar el future del pendiente (o que venza el timeout del llamador)
+ *   descarta la ventana si aún no cerró, o cancela la llamada al proveedor
+ *   si ya salió. Las notificaciones que absorbió ya terminaron como COALESCED.
+ */
+public class CoalescingPushChannel implements NotificationChannel<PushNotification> {
+
+    private static final Logger log = LoggerFactory.getLogger(CoalescingPushChannel.class);
+
+    public static final String DEFAULT_COLLAPSE_KEY = "collapse_key";
+
+    private record Key(String deviceToken, String collapseKey) {
+    }
+
+    // Pendiente de una clave; solo se modifica dentro de compute/remove del mapa
+    private static final class Slot {
+        PushNotification notification;
+        CompletableFuture<NotificationResult> result;
+        int merged;
+        ScheduledFuture<?> timer;
+
+        Slot(PushNotification notification, CompletableFuture<NotificationResult> result) {
+            this.notification = notification;
+            this.result = result;
+        }
+    }
+
+    private record Superseded(String notificationId, CompletableFuture<NotificationResult> result) {
+    }
+
+    private final NotificationChannel<PushNotification> delegate;
+    private final long windowNanos;
+    private final String collapseKeyField;
+    private final BinaryOperator<PushNotification> merger;
+
+    private final Map<Key, Slot> pending = new ConcurrentHashMap<>();
+
+    private CoalescingPushChannel(Builder builder) {
+        this.delegate = builder.delegate;
+        this.windowNanos = builder.window.toNanos();
+        this.collapseKeyField = builder.collapseKeyField;
+        this.merger = builder.merger;
+    }
+
+    @Override
+    public NotificationResult send(PushNotification notification) {
+        Key key = keyOf(notification);
+        if (key != null) {
+            Slot slot = pending.remove(key);
+            if (slot != null) {
+                coalesce(new Superseded(slot.notification.getId(), slot.result), notification);
+            }
+        }
+        return delegate.send(notification);
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+        Key key = keyOf(notification);
+        if (key == null || notification.getPriority() == Priority.CRITICAL) {
+            return delegate.sendAsync(notification);
+        }
+
+        CompletableFuture<NotificationResult> result = new CompletableFuture<>();
+        Superseded[] superseded = new Superseded[1];
+        pending.compute(key, (k, slot) -> {
+            if (slot == null) {
+                Slot opened = new Slot(notification, result);
+                // El temporizador es compartido: el envío salta al pool común
+                opened.timer = Futures.schedule(() -> ForkJoinPool.commonPool().execute(() -> flush(k, opened)),
+                        Duration.ofNanos(windowNanos));
+                return opened;
+            }
+            superseded[0] = new Superseded(slot.notification.getId(), slot.result);
+            slot.notification = merger.apply(slot.notification, notification);
+            slot.result = result;
+            slot.merged++;
+            return slot;
+        });
+        // Fuera del compute: completar un future ejecuta callbacks ajenos
+        if (superseded[0] != null) {
+            coalesce(superseded[0], notification);
+        }
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                discard(key, result);
+            }
+        });
+        return result;
+    }
+
+    // Cancelado por el llamador antes de cerrar la ventana: no llega a salir
+    private void discard(Key key, CompletableFuture<NotificationResult> result) {
+        Slot[] discarded = new Slot[1];
+        pending.computeIfPresent(key, (k, slot) -> {
+            if (slot.result != result) {
+                return slot;   // Ya lo reemplazó otro envío, o la ventana cerró
+            }
+            discarded[0] = slot;
+            return null;
+        });
+        if (discarded[0] != null) {
+            discarded[0].timer.cancel(false);
+            log.debug("[{}] Push pendiente cancelado antes de cerrar su ventana", delegate.getProviderName());
+        }
+    }
+
+    private void flush(Key key, Slot slot) {
+        if (!pending.remove(key, slot)) {
+            return;   // Ya lo absorbió un envío síncrono
+        }
+        PushNotification notification = slot.notification;
+        if (slot.merged > 0) {
+            log.debug("[{}] {} push fusionados para el dispositivo en una sola llamada",
+                    delegate.getProviderName(), slot.merged + 1);
+        }
+        if (slot.result.isDone()) {
+            return;   // Cancelado mientras se cerraba la ventana
+        }
+        if (notification.isExpired()) {
+            slot.result.complete(NotificationResult.expired(notification.getId()));
+            return;
+        }
+        CompletableFuture<NotificationResult> sending;
+        try {
+            sending = delegate.sendAsync(notification);
+        } catch (Exception e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+        sending.whenComplete((result, error) -> {
+            if (error != null) {
+                slot.result.completeExceptionally(error);
+            } else {
+                slot.result.complete(result);
+            }
+        });
+        Futures.propagateCancel(slot.result, sending);
+    }
+
+    private static void coalesce(Superseded superseded, PushNotification newer) {
+        superseded.result().complete(NotificationResult.coalesced(superseded.notificationId(),
+                "Fusionada con la notificación " + newer.getId()));
+    }
+
+    private Key keyOf(PushNotification notification) {
+        String collapseKey = notification.getData().get(collapseKeyField);
+        return collapseKey != null ? new Key(notification.getRecipient(), collapseKey) : null;
+    }
+
+    /**
+     * Claves con un envío esperando a que cierre su ventana.
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    //Builder
+
+    public static Builder builder(NotificationChannel<PushNotification> delegate) {
+        return new Builder(delegate);
+    }
+
+    public static class Builder {
+        private final NotificationChannel<PushNotification> delegate;
+        private Duration window = Duration.ofSeconds(1);
+        private String collapseKeyField = DEFAULT_COLLAPSE_KEY;
+        private BinaryOperator<PushNotification> merger = (older, newer) -> newer;
+
+        private Builder(NotificationChannel<PushNotification> delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Tiempo que espera el primer push de una clave a que lleguen otros.
+         */
+        public Builder window(Duration window) { this.window = window; return this; }
+
+        /**
+         * Campo de {@code getData()} que actúa de collapse key.
+         */
+        public Builder collapseKeyField(String collapseKeyField) { this.collapseKeyField = collapseKeyField; return this; }
+
+        /**
+         * Combina el pendiente con uno nuevo (ej: "3 mensajes nuevos"). Por
+         * defecto el nuevo reemplaza al anterior.
+         */
+        public Builder merge(BinaryOperator<PushNotification> merger) { this.merger = merger; return this; }
+
+        public CoalescingPushChannel build() {
+            if (delegate == null) throw new IllegalArgumentException("El canal decorado es obligatorio");
+            if (window.isNegative() || window.isZero()) throw new IllegalArgumentException("window debe ser > 0");
+            if (collapseKeyField == null) throw new IllegalArgumentException("collapseKeyField es obligatorio");
+            return new CoalescingPushChannel(this);
+        }
+    }
+}
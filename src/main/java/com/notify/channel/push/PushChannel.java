@@ -7,6 +7,8 @@ import com.notify.core.NotificationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Canal de notificación por Push Notification.
  */
@@ -30,11 +32,26 @@ public class PushChannel implements NotificationChannel<PushNotification> {
         return provider.send(notification);
     }
 
+    /**
+     * Delega directamente en el envío asíncrono del proveedor, sin pasar
+     * por el pool del método por defecto de NotificationChannel.
+     */
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+        log.debug("Delegando envío asíncrono al proveedor: {}", provider.getProviderName());
+        return provider.sendAsync(notification);
+    }
+
     @Override
     public ChannelType getChannelType() {
         return ChannelType.PUSH_NOTIFICATION;
     }
 
+    @Override
+    public String getProviderName() {
+        return provider.getProviderName();
+    }
+
     @Override
     public boolean isAvailable() {
         return provider != null;
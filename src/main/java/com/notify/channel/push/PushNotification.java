@@ -2,7 +2,11 @@ package com.notify.channel.push;
 
 import com.notify.core.ChannelType;
 import com.notify.core.Notification;
+import com.notify.core.Priority;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
@@ -15,7 +19,7 @@ public class PushNotification extends Notification {
     private final Map<String, String> data;    // Payload personalizado para la app
 
     private PushNotification(Builder builder) {
-        super(builder.deviceToken, builder.message, builder.metadata);
+        super(builder.id, builder.createdAt, builder.deviceToken, builder.message, builder.metadata, builder.priority, builder.tenantId, builder.expiresAt);
         this.title = builder.title;
         this.imageUrl = builder.imageUrl;
         this.data = builder.data != null ? Map.copyOf(builder.data) : Map.of();
@@ -51,6 +55,11 @@ public class PushNotification extends Notification {
         private String imageUrl;
         private Map<String, String> data;
         private Map<String, String> metadata;
+        private Priority priority;
+        private String tenantId;
+        private Instant expiresAt;
+        private String id;
+        private LocalDateTime createdAt;
 
         public Builder deviceToken(String deviceToken) { this.deviceToken = deviceToken; return this; }
         public Builder message(String message) { this.message = message; return this; }
@@ -58,6 +67,19 @@ public class PushNotification extends Notification {
         public Builder imageUrl(String imageUrl) { this.imageUrl = imageUrl; return this; }
         public Builder data(Map<String, String> data) { this.data = data; return this; }
         public Builder metadata(Map<String, String> metadata) { this.metadata = metadata; return this; }
+        public Builder priority(Priority priority) { this.priority = priority; return this; }
+        public Builder tenant(String tenantId) { this.tenantId = tenantId; return this; }
+        public Builder expiresAt(Instant expiresAt) { this.expiresAt = expiresAt; return this; }
+
+        /**
+         * Tiempo de vida desde ahora (atajo de expiresAt).
+         */
+        public Builder ttl(Duration ttl) { this.expiresAt = Instant.now().plus(ttl); return this; }
+
+        /**
+         * Id y creación de una notificación existente (copia reenviada por otro nodo).
+         */
+        public Builder identity(String id, LocalDateTime createdAt) { this.id = id; this.createdAt = createdAt; return this; }
 
         public PushNotification build() {
             return new PushNotification(this);
@@ -4,24 +4,64 @@ import com.notify.channel.push.PushNotification;
 import com.notify.config.ProviderConfig;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.ratelimit.ProviderRateLimiter;
+import com.notify.transport.HttpTransport;
+import com.notify.transport.ProviderCall;
+import com.notify.transport.TransportRequest;
+import com.notify.transport.TransportResponse;
+import com.notify.transport.json.ByteBufferPool;
+import com.notify.transport.json.JsonFragment;
+import com.notify.transport.json.JsonWriter;
+import com.notify.transport.json.PooledBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Proveedor de Push: Firebase Cloud Messaging.
+ *
+ * Con un {@link HttpTransport} usa la API HTTP v1
+ * (POST /v1/projects/{projectId}/messages:send). El token OAuth2 se toma de
+ * la propiedad "accessToken": su obtención/renovación a partir del service
+ * account queda fuera de la librería.
  */
 public class FirebaseProvider implements PushProvider {
 
     private static final Logger log = LoggerFactory.getLogger(FirebaseProvider.class);
 
+    private static final String DEFAULT_ENDPOINT = "https://fcm.googleapis.com";
+
+    // Fragmentos JSON constantes, codificados una sola vez
+    private static final JsonFragment MESSAGE = JsonFragment.name("message");
+    private static final JsonFragment TOKEN = JsonFragment.name("token");
+    private static final JsonFragment NOTIFICATION = JsonFragment.name("notification");
+    private static final JsonFragment TITLE = JsonFragment.name("title");
+    private static final JsonFragment BODY = JsonFragment.name("body");
+    private static final JsonFragment IMAGE = JsonFragment.name("image");
+    private static final JsonFragment DATA = JsonFragment.name("data");
+
     private final ProviderConfig config;
+    private final ProviderCall call;        // null = simulación
+    private final String sendUrl;           // Depende del projectId: se calcula una vez
 
     public FirebaseProvider(ProviderConfig config) {
+        this(config, null);
+    }
+
+    public FirebaseProvider(ProviderConfig config, HttpTransport transport) {
         config.getRequiredProperty("projectId");
         config.getRequiredProperty("serviceAccountKey");
+        if (transport != null) {
+            config.getRequiredProperty("accessToken");
+        }
         this.config = config;
+        this.call = transport != null
+                ? new ProviderCall("Firebase FCM", transport, ProviderRateLimiter.fromConfig(config))
+                : null;
+        this.sendUrl = config.getProperty("endpoint", DEFAULT_ENDPOINT) +
+                "/v1/projects/" + config.getRequiredProperty("projectId") + "/messages:send";
     }
 
     @Override
@@ -42,6 +82,10 @@ public class FirebaseProvider implements PushProvider {
             log.info("  Data payload: {}", notification.getData().keySet());
         }
 
+        if (call != null) {
+            return HttpTransport.await(sendHttp(notification));
+        }
+
         try {
             // SIMULACIÓN
             // HTTP POST con OAuth2 Bearer token
@@ -57,6 +101,59 @@ public class FirebaseProvider implements PushProvider {
         }
     }
 
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+        if (call != null) {
+            return sendHttp(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(send(notification));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<NotificationResult> sendHttp(PushNotification notification) {
+        return call.execute(() -> buildRequest(notification), response -> accepted(notification, response));
+    }
+
+    private TransportRequest buildRequest(PushNotification notification) {
+        return TransportRequest.post(sendUrl)
+                .bearerAuth(config.getRequiredProperty("accessToken"))
+                .json(buildPayload(notification))
+                .build();
+    }
+
+    /**
+     * FCM responde {"name": "projects/{id}/messages/{messageId}"}.
+     */
+    private NotificationResult accepted(PushNotification notification, TransportResponse response) {
+        String messageId = response.jsonField("name");
+        log.info("[Firebase FCM] Push enviado (HTTP {}). MessageId: {}", response.getStatusCode(), messageId);
+        return NotificationResult.success(notification.getId(), messageId);
+    }
+
+    /**
+     * Serializa el mensaje FCM v1 directamente en buffers del pool.
+     */
+    private PooledBody buildPayload(PushNotification notification) {
+        JsonWriter json = JsonWriter.create(ByteBufferPool.shared())
+                .beginObject()
+                .name(MESSAGE).beginObject()
+                .field(TOKEN, notification.getRecipient())
+                .name(NOTIFICATION).beginObject()
+                .field(TITLE, notification.getTitle())
+                .field(BODY, notification.getMessage())
+                .field(IMAGE, notification.getImageUrl())
+                .endObject();
+        if (!notification.getData().isEmpty()) {
+            json.name(DATA).beginObject();
+            notification.getData().forEach((key, value) -> json.name(key).value(value));
+            json.endObject();
+        }
+        return json.endObject().endObject().toBody();
+    }
+
     @Override
     public String getProviderName() {
         return "Firebase FCM";
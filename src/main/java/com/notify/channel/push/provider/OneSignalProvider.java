@@ -4,24 +4,57 @@ import com.notify.channel.push.PushNotification;
 import com.notify.config.ProviderConfig;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.ratelimit.ProviderRateLimiter;
+import com.notify.transport.HttpTransport;
+import com.notify.transport.ProviderCall;
+import com.notify.transport.TransportRequest;
+import com.notify.transport.TransportResponse;
+import com.notify.transport.json.ByteBufferPool;
+import com.notify.transport.json.JsonFragment;
+import com.notify.transport.json.JsonWriter;
+import com.notify.transport.json.PooledBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Proveedor de Push: OneSignal .
+ *
+ * Con un {@link HttpTransport} se hace POST a /api/v1/notifications.
  */
 public class OneSignalProvider implements PushProvider {
 
     private static final Logger log = LoggerFactory.getLogger(OneSignalProvider.class);
 
+    private static final String DEFAULT_ENDPOINT = "https://onesignal.com";
+
+    // Fragmentos JSON constantes, codificados una sola vez
+    private static final JsonFragment APP_ID = JsonFragment.name("app_id");
+    private static final JsonFragment PLAYER_IDS = JsonFragment.name("include_player_ids");
+    private static final JsonFragment HEADINGS = JsonFragment.name("headings");
+    private static final JsonFragment CONTENTS = JsonFragment.name("contents");
+    private static final JsonFragment EN = JsonFragment.name("en");
+    private static final JsonFragment BIG_PICTURE = JsonFragment.name("big_picture");
+    private static final JsonFragment DATA = JsonFragment.name("data");
+
     private final ProviderConfig config;
+    private final ProviderCall call;        // null = simulación
+    private final JsonFragment appIdValue;
 
     public OneSignalProvider(ProviderConfig config) {
+        this(config, null);
+    }
+
+    public OneSignalProvider(ProviderConfig config, HttpTransport transport) {
         config.getRequiredProperty("appId");
         config.getRequiredProperty("apiKey");
         this.config = config;
+        this.call = transport != null
+                ? new ProviderCall("OneSignal", transport, ProviderRateLimiter.fromConfig(config))
+                : null;
+        this.appIdValue = JsonFragment.string(config.getRequiredProperty("appId"));
     }
 
     @Override
@@ -33,6 +66,10 @@ public class OneSignalProvider implements PushProvider {
         log.info("  Title: {}", notification.getTitle());
         log.info("  Body: {}", notification.getMessage());
 
+        if (call != null) {
+            return HttpTransport.await(sendHttp(notification));
+        }
+
         try {
             String messageId = "os-" + UUID.randomUUID().toString().substring(0, 12);
 
@@ -45,6 +82,58 @@ public class OneSignalProvider implements PushProvider {
         }
     }
 
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+        if (call != null) {
+            return sendHttp(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(send(notification));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<NotificationResult> sendHttp(PushNotification notification) {
+        return call.execute(() -> buildRequest(notification), response -> accepted(notification, response));
+    }
+
+    private TransportRequest buildRequest(PushNotification notification) {
+        return TransportRequest
+                .post(config.getProperty("endpoint", DEFAULT_ENDPOINT) + "/api/v1/notifications")
+                .header("Authorization", "Basic " + config.getRequiredProperty("apiKey"))
+                .json(buildPayload(notification))
+                .build();
+    }
+
+    /**
+     * OneSignal responde {"id": "...", "recipients": 1}.
+     */
+    private NotificationResult accepted(PushNotification notification, TransportResponse response) {
+        String messageId = response.jsonField("id");
+        log.info("[OneSignal] Push enviado (HTTP {}). Id: {}", response.getStatusCode(), messageId);
+        return NotificationResult.success(notification.getId(), messageId);
+    }
+
+    /**
+     * Serializa la notificación directamente en buffers del pool.
+     */
+    private PooledBody buildPayload(PushNotification notification) {
+        JsonWriter json = JsonWriter.create(ByteBufferPool.shared())
+                .beginObject()
+                .name(APP_ID).value(appIdValue)
+                .name(PLAYER_IDS).beginArray().value(notification.getRecipient()).endArray()
+                .name(HEADINGS).beginObject().field(EN, notification.getTitle()).endObject()
+                .name(CONTENTS).beginObject().field(EN, notification.getMessage()).endObject()
+                .field(BIG_PICTURE, notification.getImageUrl());
+        if (!notification.getData().isEmpty()) {
+            json.name(DATA).beginObject();
+            notification.getData().forEach((key, value) -> json.name(key).value(value));
+            json.endObject();
+        }
+        return json.endObject().toBody();
+    }
+
     @Override
     public String getProviderName() {
         return "OneSignal";
@@ -1,8 +1,11 @@
 package com.notify.channel.push.provider;
 
 import com.notify.channel.push.PushNotification;
+import com.notify.core.Futures;
 import com.notify.core.NotificationResult;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Contrato para proveedores de Push Notification (Firebase FCM, OneSignal, etc.).
  */
@@ -10,5 +13,20 @@ public interface PushProvider {
 
     NotificationResult send(PushNotification notification);
 
+    /**
+     * Envía de forma asíncrona sin ocupar un hilo por envío en curso.
+     *
+     * Los proveedores con transporte no bloqueante deben sobreescribirlo; la
+     * implementación por defecto solo mueve el envío bloqueante a un pool
+     * (compatibilidad con proveedores existentes). Cancelar el future evita el
+     * envío si aún no empezó e interrumpe el hilo si ya está en marcha.
+     *
+     * @param notification Notificación a enviar
+     * @return CompletableFuture con el resultado del proveedor
+     */
+    default CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+        return Futures.supplyInterruptibly(() -> send(notification));
+    }
+
     String getProviderName();
 }
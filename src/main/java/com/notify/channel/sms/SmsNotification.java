@@ -2,7 +2,11 @@ package com.notify.channel.sms;
 
 import com.notify.core.ChannelType;
 import com.notify.core.Notification;
+import com.notify.core.Priority;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
@@ -23,7 +27,7 @@ public class SmsNotification extends Notification {
     private final String from;  // Número de origen (ej: "+15551234567")
 
     private SmsNotification(Builder builder) {
-        super(builder.to, builder.message, builder.metadata);
+        super(builder.id, builder.createdAt, builder.to, builder.message, builder.metadata, builder.priority, builder.tenantId, builder.expiresAt);
         this.from = builder.from;
     }
 
@@ -47,11 +51,29 @@ public class SmsNotification extends Notification {
         private String message;
         private String from;
         private Map<String, String> metadata;
+        private Priority priority;
+        private String tenantId;
+        private Instant expiresAt;
+        private String id;
+        private LocalDateTime createdAt;
 
         public Builder to(String to) { this.to = to; return this; }
         public Builder message(String message) { this.message = message; return this; }
         public Builder from(String from) { this.from = from; return this; }
         public Builder metadata(Map<String, String> metadata) { this.metadata = metadata; return this; }
+        public Builder priority(Priority priority) { this.priority = priority; return this; }
+        public Builder tenant(String tenantId) { this.tenantId = tenantId; return this; }
+        public Builder expiresAt(Instant expiresAt) { this.expiresAt = expiresAt; return this; }
+
+        /**
+         * Tiempo de vida desde ahora (atajo de expiresAt).
+         */
+        public Builder ttl(Duration ttl) { this.expiresAt = Instant.now().plus(ttl); return this; }
+
+        /**
+         * Id y creación de una notificación existente (copia reenviada por otro nodo).
+         */
+        public Builder identity(String id, LocalDateTime createdAt) { this.id = id; this.createdAt = createdAt; return this; }
 
         public SmsNotification build() {
             return new SmsNotification(this);
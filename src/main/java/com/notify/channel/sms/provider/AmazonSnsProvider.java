@@ -4,13 +4,25 @@ import com.notify.channel.sms.SmsNotification;
 import com.notify.config.ProviderConfig;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.ratelimit.ProviderRateLimiter;
+import com.notify.transport.HttpTransport;
+import com.notify.transport.ProviderCall;
+import com.notify.transport.TransportRequest;
+import com.notify.transport.TransportResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Proveedor de SMS: Amazon SNS (simulado).
+ * Proveedor de SMS: Amazon SNS.
  *
  * SIMULACIÓN basada en la API real de AWS SNS:
  * - Requiere: accessKey y secretKey (credenciales IAM)
@@ -19,6 +31,9 @@ import java.util.UUID;
  * - Action: Publish
  * - Response: XML con <MessageId> UUID </MessageId>
  *
+ * Con un {@link HttpTransport} la petición Publish se envía de verdad,
+ * firmada con AWS Signature V4.
+ *
  * Demuestra que se puede cambiar de Twilio a AWS SNS transparentemente.
  */
 public class AmazonSnsProvider implements SmsProvider {
@@ -26,12 +41,20 @@ public class AmazonSnsProvider implements SmsProvider {
     private static final Logger log = LoggerFactory.getLogger(AmazonSnsProvider.class);
 
     private final ProviderConfig config;
+    private final ProviderCall call;        // null = simulación
 
     public AmazonSnsProvider(ProviderConfig config) {
+        this(config, null);
+    }
+
+    public AmazonSnsProvider(ProviderConfig config, HttpTransport transport) {
         config.getRequiredProperty("accessKey");
         config.getRequiredProperty("secretKey");
         config.getRequiredProperty("region");
         this.config = config;
+        this.call = transport != null
+                ? new ProviderCall("Amazon SNS", transport, ProviderRateLimiter.fromConfig(config))
+                : null;
     }
 
     @Override
@@ -42,6 +65,10 @@ public class AmazonSnsProvider implements SmsProvider {
         log.info("  To: {}", notification.getRecipient());
         log.info("  Body: {}", notification.getMessage());
 
+        if (call != null) {
+            return HttpTransport.await(sendHttp(notification));
+        }
+
         try {
             //SIMULACIÓN
             //AWS SDK SNSClient.publish(PublishRequest)
@@ -56,6 +83,52 @@ public class AmazonSnsProvider implements SmsProvider {
         }
     }
 
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(SmsNotification notification) {
+        if (call != null) {
+            return sendHttp(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(send(notification));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<NotificationResult> sendHttp(SmsNotification notification) {
+        return call.execute(() -> buildRequest(notification), response -> accepted(notification, response));
+    }
+
+    private TransportRequest buildRequest(SmsNotification notification) {
+        String region = config.getRequiredProperty("region");
+        URI uri = URI.create(config.getProperty("endpoint", "https://sns." + region + ".amazonaws.com") + "/");
+
+        String body = TransportRequest.formEncode(List.of(
+                Map.entry("Action", "Publish"),
+                Map.entry("PhoneNumber", notification.getRecipient()),
+                Map.entry("Message", notification.getMessage()),
+                Map.entry("Version", "2010-03-31")));
+
+        AwsSigV4Signer signer = new AwsSigV4Signer(
+                config.getRequiredProperty("accessKey"), config.getRequiredProperty("secretKey"), region, "sns");
+        String[] signature = signer.sign(uri, body, Instant.now());
+
+        return TransportRequest.post(uri.toString())
+                .header("X-Amz-Date", signature[0])
+                .header("Authorization", signature[1])
+                .body(AwsSigV4Signer.CONTENT_TYPE, HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * Respuesta XML de la acción Publish (Query API).
+     */
+    private NotificationResult accepted(SmsNotification notification, TransportResponse response) {
+        String messageId = response.xmlElement("MessageId");
+        log.info("[Amazon SNS] SMS publicado (HTTP {}). MessageId: {}", response.getStatusCode(), messageId);
+        return NotificationResult.success(notification.getId(), messageId);
+    }
+
     @Override
     public String getProviderName() {
         return "Amazon SNS";
@@ -0,0 +1,90 @@
+package com.notify.channel.sms.provider;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+
+/**
+ * Firma AWS Signature Version 4 para peticiones POST form-urlencoded.
+ *
+ * Implementa solo lo que necesita SNS (path "/", sin query string), evitando
+ * depender del AWS SDK completo.
+ */
+class AwsSigV4Signer {
+
+    static final String CONTENT_TYPE = "application/x-www-form-urlencoded; charset=utf-8";
+
+    private static final DateTimeFormatter AMZ_DATE =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final String SIGNED_HEADERS = "content-type;host;x-amz-date";
+
+    private final String accessKey;
+    private final String secretKey;
+    private final String region;
+    private final String service;
+
+    AwsSigV4Signer(String accessKey, String secretKey, String region, String service) {
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.region = region;
+        this.service = service;
+    }
+
+    /**
+     * Cabeceras firmadas para la petición.
+     *
+     * @return {x-amz-date, Authorization}
+     */
+    String[] sign(URI uri, String body, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String date = amzDate.substring(0, 8);
+        String host = uri.getPort() == -1 ? uri.getHost() : uri.getHost() + ":" + uri.getPort();
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+
+        String canonicalRequest = "POST\n" + path + "\n\n" +
+                "content-type:" + CONTENT_TYPE + "\n" +
+                "host:" + host + "\n" +
+                "x-amz-date:" + amzDate + "\n\n" +
+                SIGNED_HEADERS + "\n" +
+                sha256Hex(body);
+
+        String scope = date + "/" + region + "/" + service + "/aws4_request";
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n" + sha256Hex(canonicalRequest);
+
+        byte[] signingKey = hmac(("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        signingKey = hmac(signingKey, region);
+        signingKey = hmac(signingKey, service);
+        signingKey = hmac(signingKey, "aws4_request");
+        String signature = HexFormat.of().formatHex(hmac(signingKey, stringToSign));
+
+        String authorization = "AWS4-HMAC-SHA256 Credential=" + accessKey + "/" + scope +
+                ", SignedHeaders=" + SIGNED_HEADERS + ", Signature=" + signature;
+        return new String[]{amzDate, authorization};
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 no disponible", e);
+        }
+    }
+}
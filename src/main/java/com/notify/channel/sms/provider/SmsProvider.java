@@ -1,8 +1,11 @@
 package com.notify.channel.sms.provider;
 
 import com.notify.channel.sms.SmsNotification;
+import com.notify.core.Futures;
 import com.notify.core.NotificationResult;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Contrato para proveedores de SMS (Twilio, Amazon SNS, Vonage, etc.).
  */
@@ -10,5 +13,20 @@ public interface SmsProvider {
 
     NotificationResult send(SmsNotification notification);
 
+    /**
+     * Envía de forma asíncrona sin ocupar un hilo por envío en curso.
+     *
+     * Los proveedores con transporte no bloqueante deben sobreescribirlo; la
+     * implementación por defecto solo mueve el envío bloqueante a un pool
+     * (compatibilidad con proveedores existentes). Cancelar el future evita el
+     * envío si aún no empezó e interrumpe el hilo si ya está en marcha.
+     *
+     * @param notification Notificación a enviar
+     * @return CompletableFuture con el resultado del proveedor
+     */
+    default CompletableFuture<NotificationResult> sendAsync(SmsNotification notification) {
+        return Futures.supplyInterruptibly(() -> send(notification));
+    }
+
     String getProviderName();
 }
@@ -4,25 +4,44 @@ import com.notify.channel.sms.SmsNotification;
 import com.notify.config.ProviderConfig;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.ratelimit.ProviderRateLimiter;
+import com.notify.transport.HttpTransport;
+import com.notify.transport.ProviderCall;
+import com.notify.transport.TransportRequest;
+import com.notify.transport.TransportResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Proveedor de SMS: Twilio.
+ *
+ * Sin transporte el envío es simulado. Con un {@link HttpTransport} se hace
+ * POST a /2010-04-01/Accounts/{AccountSid}/Messages.json con Basic Auth.
  */
 public class TwilioProvider implements SmsProvider {
 
     private static final Logger log = LoggerFactory.getLogger(TwilioProvider.class);
 
+    private static final String DEFAULT_ENDPOINT = "https://api.twilio.com";
+
     private final ProviderConfig config;
+    private final ProviderCall call;        // null = simulación
 
     public TwilioProvider(ProviderConfig config) {
+        this(config, null);
+    }
+
+    public TwilioProvider(ProviderConfig config, HttpTransport transport) {
         config.getRequiredProperty("accountSid");
         config.getRequiredProperty("authToken");
         config.getRequiredProperty("fromNumber");
         this.config = config;
+        this.call = transport != null
+                ? new ProviderCall("Twilio", transport, ProviderRateLimiter.fromConfig(config))
+                : null;
     }
 
     @Override
@@ -34,6 +53,10 @@ public class TwilioProvider implements SmsProvider {
         log.info("  To: {}", notification.getRecipient());
         log.info("  Body: {}", notification.getMessage());
 
+        if (call != null) {
+            return HttpTransport.await(sendHttp(notification));
+        }
+
         try {
             //SIMULACIÓN
             //POST a Twilio REST API con Basic Auth
@@ -48,6 +71,45 @@ public class TwilioProvider implements SmsProvider {
         }
     }
 
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(SmsNotification notification) {
+        if (call != null) {
+            return sendHttp(notification);
+        }
+        try {
+            return CompletableFuture.completedFuture(send(notification));
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<NotificationResult> sendHttp(SmsNotification notification) {
+        return call.execute(() -> buildRequest(notification), response -> accepted(notification, response));
+    }
+
+    private TransportRequest buildRequest(SmsNotification notification) {
+        String accountSid = config.getRequiredProperty("accountSid");
+        String from = notification.getFrom() != null ? notification.getFrom() : config.getRequiredProperty("fromNumber");
+
+        return TransportRequest
+                .post(config.getProperty("endpoint", DEFAULT_ENDPOINT) +
+                        "/2010-04-01/Accounts/" + accountSid + "/Messages.json")
+                .basicAuth(accountSid, config.getRequiredProperty("authToken"))
+                .formField("To", notification.getRecipient())
+                .formField("From", from)
+                .formField("Body", notification.getMessage())
+                .build();
+    }
+
+    /**
+     * Twilio responde 201 con {"sid": "SM...", "status": "queued"}.
+     */
+    private NotificationResult accepted(SmsNotification notification, TransportResponse response) {
+        String messageSid = response.jsonField("sid");
+        log.info("[Twilio] SMS encolado (HTTP {}). SID: {}", response.getStatusCode(), messageSid);
+        return NotificationResult.success(notification.getId(), messageSid);
+    }
+
     @Override
     public String getProviderName() {
         return "Twilio";
@@ -0,0 +1,298 @@
+package com.notify.cluster;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.push.PushNotification;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import com.notify.core.Priority;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario de los mensajes entre nodos.
+ *
+ * Cada trama es {@code [int longitud][byte tipo][contenido]}. Los strings
+ * van como {@code [int bytes][UTF-8]} (-1 = null), sin el límite de 64 KB
+ * de writeUTF, para no cortar cuerpos HTML largos.
+ *
+ * Las notificaciones conservan su id y su createdAt, para que el estado que
+ * registra el nodo dueño se consulte con el id que recibió quien la envió.
+ * Los adjuntos de email son rutas locales y no viajan: una notificación con
+ * adjuntos no se puede reenviar.
+ */
+final class ClusterCodec {
+
+    static final byte SEND = 1;      // requestId, notificación
+    static final byte RESULT = 2;    // requestId, estado, providerMessageId, error
+    static final byte JOIN = 3;      // miembro que se anuncia
+    static final byte MEMBERS = 4;   // lista de miembros conocidos
+    static final byte LEAVE = 5;     // nodeId que sale
+
+    static final int MAX_FRAME_BYTES = 16 << 20;
+
+    /**
+     * Miembro del clúster: id y dirección de su transporte.
+     */
+    record Member(String nodeId, String host, int port) {
+    }
+
+    /**
+     * Trama recibida: tipo y contenido pendiente de leer.
+     */
+    record Frame(byte type, DataInput body) {
+    }
+
+    /**
+     * Escritura del contenido de una trama.
+     */
+    @FunctionalInterface
+    interface Body {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private ClusterCodec() {
+    }
+
+    // --- Tramas ---
+
+    /**
+     * Serializa una trama completa. Se codifica fuera del lock de escritura
+     * de la conexión: bajo el lock solo se copian los bytes.
+     */
+    static byte[] encode(byte type, Body body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(0);   // Longitud, se rellena al final
+        out.writeByte(type);
+        body.write(out);
+        byte[] frame = buffer.toByteArray();
+        int length = frame.length - Integer.BYTES;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    static void write(OutputStream out, byte[] frame) throws IOException {
+        synchronized (out) {
+            out.write(frame);
+            out.flush();
+        }
+    }
+
+    /**
+     * Lee la siguiente trama.
+     *
+     * @throws EOFException si el otro extremo cerró la conexión
+     */
+    static Frame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 1 || length > MAX_FRAME_BYTES) {
+            throw new ProtocolException("Trama de " + length + " bytes");
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return new Frame(frame[0], new DataInputStream(new ByteArrayInputStream(frame, 1, length - 1)));
+    }
+
+    // --- Notificaciones ---
+
+    static void writeNotification(DataOutput out, Notification notification) throws IOException {
+        out.writeByte(notification.getChannelType().ordinal());
+        writeString(out, notification.getId());
+        writeString(out, notification.getCreatedAt().toString());
+        writeString(out, notification.getRecipient());
+        writeString(out, notification.getMessage());
+        writeMap(out, notification.getMetadata());
+        out.writeByte(notification.getPriority().ordinal());
+        writeString(out, notification.getTenantId());
+        out.writeLong(notification.getExpiresAt() != null ? notification.getExpiresAt().toEpochMilli() : Long.MIN_VALUE);
+
+        switch (notification) {
+            case EmailNotification email -> {
+                writeString(out, email.getSubject());
+                writeString(out, email.getFrom());
+                writeString(out, email.getHtmlContent());
+                writeList(out, email.getCc());
+                writeList(out, email.getBcc());
+                if (!email.getAttachments().isEmpty()) {
+                    throw new IllegalArgumentException("Los adjuntos no se pueden reenviar a otro nodo: " + email.getId());
+                }
+            }
+            case SmsNotification sms -> writeString(out, sms.getFrom());
+            case PushNotification push -> {
+                writeString(out, push.getTitle());
+                writeString(out, push.getImageUrl());
+                writeMap(out, push.getData());
+            }
+            default -> throw new IllegalArgumentException("Tipo de notificación no reenviable: " + notification.getClass());
+        }
+    }
+
+    static Notification readNotification(DataInput in) throws IOException {
+        ChannelType type = ChannelType.values()[in.readUnsignedByte()];
+        String id = readString(in);
+        LocalDateTime createdAt = LocalDateTime.parse(readString(in));
+        String recipient = readString(in);
+        String message = readString(in);
+        Map<String, String> metadata = readMap(in);
+        Priority priority = Priority.values()[in.readUnsignedByte()];
+        String tenant = readString(in);
+        long expiresAtMillis = in.readLong();
+        Instant expiresAt = expiresAtMillis != Long.MIN_VALUE ? Instant.ofEpochMilli(expiresAtMillis) : null;
+
+        return switch (type) {
+            case EMAIL -> EmailNotification.builder()
+                    .identity(id, createdAt)
+                    .to(recipient).message(message).metadata(metadata).priority(priority).tenant(tenant).expiresAt(expiresAt)
+                    .subject(readString(in))
+                    .from(readString(in))
+                    .htmlContent(readString(in))
+                    .cc(readList(in))
+                    .bcc(readList(in))
+                    .build();
+            case SMS -> SmsNotification.builder()
+                    .identity(id, createdAt)
+                    .to(recipient).message(message).metadata(metadata).priority(priority).tenant(tenant).expiresAt(expiresAt)
+                    .from(readString(in))
+                    .build();
+            case PUSH_NOTIFICATION -> PushNotification.builder()
+                    .identity(id, createdAt)
+                    .deviceToken(recipient).message(message).metadata(metadata).priority(priority).tenant(tenant).expiresAt(expiresAt)
+                    .title(readString(in))
+                    .imageUrl(readString(in))
+                    .data(readMap(in))
+                    .build();
+        };
+    }
+
+    // --- Resultados ---
+
+    static void writeResult(DataOutput out, NotificationResult result) throws IOException {
+        out.writeByte(result.getStatus().ordinal());
+        writeString(out, result.getProviderMessageId());
+        writeString(out, result.getErrorMessage());
+    }
+
+    /**
+     * Lee un resultado y lo asocia a la notificación pendiente de esa
+     * petición (la copia del nodo dueño tiene el mismo id).
+     */
+    static NotificationResult readResult(DataInput in, String notificationId) throws IOException {
+        NotificationStatus status = NotificationStatus.values()[in.readUnsignedByte()];
+        String providerMessageId = readString(in);
+        String error = readString(in);
+        return switch (status) {
+            case SENT -> NotificationResult.success(notificationId, providerMessageId);
+            case EXPIRED -> NotificationResult.expired(notificationId);
+            case REJECTED -> NotificationResult.rejected(notificationId, error);
+            case SHED -> NotificationResult.shed(notificationId);
+            case CAPPED -> NotificationResult.capped(notificationId, error);
+            case SUPPRESSED -> NotificationResult.suppressed(notificationId);
+            case COALESCED -> NotificationResult.coalesced(notificationId, error);
+            case PENDING -> NotificationResult.pending(notificationId, error);
+            case FAILED -> NotificationResult.failure(notificationId, error);
+            default -> NotificationResult.failure(notificationId, "Estado inesperado del nodo dueño: " + status);
+        };
+    }
+
+    // --- Miembros ---
+
+    static void writeMember(DataOutput out, Member member) throws IOException {
+        writeString(out, member.nodeId());
+        writeString(out, member.host());
+        out.writeInt(member.port());
+    }
+
+    static Member readMember(DataInput in) throws IOException {
+        return new Member(readString(in), readString(in), in.readInt());
+    }
+
+    // --- Primitivas ---
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_FRAME_BYTES) {
+            throw new ProtocolException("String de " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeList(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readList(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeMap(DataOutput out, Map<String, String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+    }
+
+    private static Map<String, String> readMap(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            values.put(readString(in), readString(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,696 @@
+package com.notify.cluster;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.core.Futures;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Nodo de un clúster de envío repartido por destinatario.
+ *
+ * Cada destinatario tiene un nodo dueño, elegido con hash consistente
+ * ({@link HashRing}); {@link #send} lo envía localmente si el dueño es este
+ * nodo o lo reenvía al dueño por TCP. Así el estado en memoria por
+ * destinatario (deduplicación, límites de frecuencia, orden de
+ * {@code KeyedDispatcher}, agrupación) vive en un único nodo y no hace falta
+ * compartirlo.
+ *
+ * Membresía:
+ * <ul>
+ *   <li>Al arrancar, el nodo se anuncia a las semillas (JOIN) y estas le
+ *       responden con los miembros que conocen, a los que también se anuncia.</li>
+ *   <li>Al cerrarse avisa a los demás (LEAVE), y quien recibe el aviso lo
+ *       reenvía al resto por si alguno no lo recibió.</li>
+ *   <li>Cada {@code gossipInterval} intercambia la lista de miembros con un
+ *       nodo al azar: los cambios se propagan aunque se pierda un anuncio.</li>
+ *   <li>Si falla la conexión con un nodo (o el intercambio), pasa a
+ *       sospechoso: sale del anillo (sus destinatarios pasan al siguiente
+ *       nodo) y se reintenta conectar con backoff. Si vuelve a responder, o
+ *       se anuncia de nuevo, recupera su sitio; si sigue sin responder tras
+ *       {@code suspectTimeout}, se le expulsa.</li>
+ * </ul>
+ * Con cada entrada o salida solo cambian de dueño ~1/N de los destinatarios.
+ * El estado en memoria de esos destinatarios no se migra: empieza vacío en
+ * el nuevo dueño (p. ej. un duplicado puede pasar una vez tras un rebalanceo).
+ *
+ * Entrega: un envío que no llegó a escribirse en la conexión se reintenta en
+ * el nuevo dueño; si la conexión se pierde con el envío ya escrito, el
+ * resultado es desconocido y se devuelve como fallo para no duplicarlo.
+ */
+public final class ClusterNode implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterNode.class);
+
+    private static final int MAX_REROUTES = 3;
+    private static final Duration RECONNECT_INITIAL = Duration.ofMillis(100);
+    private static final Duration RECONNECT_MAX = Duration.ofSeconds(5);
+
+    /**
+     * Nodo que dejó de responder: fuera del anillo mientras se reintenta.
+     */
+    private static final class Suspect {
+        final long sinceNanos = System.nanoTime();
+    }
+
+    private final String nodeId;
+    private final NotificationService service;
+    private final Function<Notification, String> key;
+    private final Duration forwardTimeout;
+    private final Duration connectTimeout;
+    private final Duration suspectTimeout;
+    private final Duration gossipInterval;
+    private final ClusterCodec.Member self;
+    private final ServerSocket server;
+
+    private final Object membership = new Object();
+    private final Map<String, ClusterCodec.Member> members = new ConcurrentHashMap<>();
+    private final Map<String, Suspect> suspects = new HashMap<>();   // Bajo membership
+    private final Map<String, Long> departed = new HashMap<>();      // Bajo membership: nodeId → nanoTime de la salida
+    private final Map<String, PeerLink> links = new ConcurrentHashMap<>();
+    private final Map<String, Object> connecting = new ConcurrentHashMap<>();
+    private final Set<Socket> inbound = ConcurrentHashMap.newKeySet();
+    private volatile HashRing ring;
+    private volatile ScheduledFuture<?> gossipTimer;
+    private volatile boolean closed;
+
+    private final AtomicLong forwardedCount = new AtomicLong();
+    private final AtomicLong servedCount = new AtomicLong();
+
+    private ClusterNode(Builder builder, ServerSocket server) {
+        this.nodeId = builder.nodeId;
+        this.service = builder.service;
+        this.key = builder.key;
+        this.forwardTimeout = builder.forwardTimeout;
+        this.connectTimeout = builder.connectTimeout;
+        this.suspectTimeout = builder.suspectTimeout;
+        this.gossipInterval = builder.gossipInterval;
+        this.server = server;
+        String host = builder.address.getAddress() != null && !builder.address.getAddress().isAnyLocalAddress()
+                ? builder.address.getAddress().getHostAddress()
+                : "127.0.0.1";
+        this.self = new ClusterCodec.Member(nodeId, host, server.getLocalPort());
+        this.members.put(nodeId, self);
+        this.ring = HashRing.of(Set.of(nodeId), builder.virtualNodes);
+    }
+
+    // --- Envío ---
+
+    /**
+     * Envía la notificación desde el nodo dueño de su destinatario.
+     * Nunca completa excepcionalmente por problemas del clúster: los
+     * reporta como resultado FAILED.
+     */
+    public CompletableFuture<NotificationResult> send(Notification notification) {
+        if (closed) {
+            return CompletableFuture.completedFuture(
+                    NotificationResult.failure(notification.getId(), "Nodo " + nodeId + " cerrado"));
+        }
+        return route(notification, 0);
+    }
+
+    private CompletableFuture<NotificationResult> route(Notification notification, int reroutes) {
+        String owner = ownerOf(notification);
+        if (owner.equals(nodeId)) {
+            return service.sendAsync(notification);
+        }
+        if (notification instanceof EmailNotification email && !email.getAttachments().isEmpty()) {
+            // Los adjuntos son rutas de este nodo: el dueño no podría leerlos
+            return CompletableFuture.completedFuture(NotificationResult.failure(notification.getId(),
+                    "Notificación con adjuntos: no se puede reenviar al nodo " + owner));
+        }
+        CompletableFuture<NotificationResult> forwarded;
+        try {
+            forwarded = linkTo(owner).forward(notification);
+        } catch (IOException e) {
+            // No llegó al dueño: queda sospechoso (fuera del anillo) y se envía al siguiente
+            suspect(owner, "no responde: " + e.getMessage());
+            if (reroutes >= MAX_REROUTES) {
+                return CompletableFuture.completedFuture(NotificationResult.failure(notification.getId(),
+                        "Sin nodo disponible para " + notification.getRecipient() + ": " + e.getMessage()));
+            }
+            return route(notification, reroutes + 1);
+        }
+        forwardedCount.incrementAndGet();
+        return Futures.withTimeout(forwarded, forwardTimeout, () -> NotificationResult.failure(notification.getId(),
+                "Sin respuesta del nodo " + owner + " en " + forwardTimeout));
+    }
+
+    /**
+     * Nodo dueño de la notificación según el anillo actual.
+     */
+    public String ownerOf(Notification notification) {
+        String routingKey = key.apply(notification);
+        return ring.owner(routingKey != null ? routingKey : notification.getId());
+    }
+
+    private PeerLink linkTo(String owner) throws IOException {
+        PeerLink link = links.get(owner);
+        if (link != null && !link.isClosed()) {
+            return link;
+        }
+        ClusterCodec.Member member = members.get(owner);
+        if (member == null) {
+            throw new IOException("Nodo " + owner + " desconocido");
+        }
+        // Lock por nodo: conectar con uno que no responde no bloquea los envíos a los demás
+        synchronized (connecting.computeIfAbsent(owner, id -> new Object())) {
+            link = links.get(owner);
+            if (link == null || link.isClosed()) {
+                link = PeerLink.connect(member, connectTimeout, this::linkBroken);
+                links.put(owner, link);
+            }
+            return link;
+        }
+    }
+
+    private void linkBroken(PeerLink broken) {
+        String id = broken.getMember().nodeId();
+        // Una conexión ya reemplazada no dice nada del nodo
+        if (links.remove(id, broken)) {
+            suspect(id, "conexión perdida");
+        }
+    }
+
+    // --- Membresía ---
+
+    /**
+     * Se anuncia a un nodo del clúster y, transitivamente, a todos los que
+     * este conozca.
+     *
+     * @throws IOException si la semilla no responde
+     */
+    public void join(InetSocketAddress seed) throws IOException {
+        Deque<InetSocketAddress> pendingAnnounce = new ArrayDeque<>();
+        pendingAnnounce.add(seed);
+        boolean first = true;
+        while (!pendingAnnounce.isEmpty()) {
+            InetSocketAddress address = pendingAnnounce.poll();
+            List<ClusterCodec.Member> known;
+            try {
+                known = exchangeMembers(address);
+            } catch (IOException e) {
+                if (first) {
+                    throw e;
+                }
+                log.warn("No se pudo anunciar el nodo {} a {}: {}", nodeId, address, e.toString());
+                continue;
+            }
+            first = false;
+            for (ClusterCodec.Member member : known) {
+                if (addMember(member, false)) {
+                    pendingAnnounce.add(new InetSocketAddress(member.host(), member.port()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Envía JOIN y lee la lista de miembros de la respuesta.
+     */
+    private List<ClusterCodec.Member> exchangeMembers(InetSocketAddress address) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(address, (int) connectTimeout.toMillis());
+            socket.setSoTimeout((int) connectTimeout.toMillis());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            ClusterCodec.write(out, ClusterCodec.encode(ClusterCodec.JOIN, body -> ClusterCodec.writeMember(body, self)));
+            ClusterCodec.Frame reply = ClusterCodec.read(new DataInputStream(new BufferedInputStream(socket.getInputStream())));
+            if (reply.type() != ClusterCodec.MEMBERS) {
+                throw new IOException("Respuesta inesperada a JOIN: tipo " + reply.type());
+            }
+            int count = reply.body().readInt();
+            List<ClusterCodec.Member> known = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                known.add(ClusterCodec.readMember(reply.body()));
+            }
+            return known;
+        }
+    }
+
+    /**
+     * @param direct true si lo anuncia el propio nodo (JOIN o su respuesta);
+     *               false si se conoce por la lista de otro
+     * @return true si el miembro es nuevo (o cambió de dirección)
+     */
+    private boolean addMember(ClusterCodec.Member member, boolean direct) {
+        String id = member.nodeId();
+        if (id.equals(nodeId) || closed) {
+            return false;
+        }
+        synchronized (membership) {
+            if (direct) {
+                departed.remove(id);
+            } else if (recentlyDeparted(id)) {
+                return false;   // Un nodo que ya salió no vuelve por una lista desactualizada
+            }
+            ClusterCodec.Member previous = members.put(id, member);
+            boolean moved = previous != null && !member.equals(previous);
+            if (moved) {
+                // Reiniciado en otra dirección: la conexión anterior ya no sirve
+                closeLink(id);
+            }
+            boolean recovered = direct && suspects.remove(id) != null;
+            if ((previous != null && !moved && !recovered) || suspects.containsKey(id)) {
+                return false;
+            }
+            ring = ring.with(id);
+            if (recovered) {
+                log.info("Nodo {} vuelve a responder a {} ({} nodos)", id, nodeId, ring.size());
+            } else {
+                log.info("Nodo {} entra en el clúster de {} ({} nodos)", id, nodeId, ring.size());
+            }
+            return previous == null || moved;
+        }
+    }
+
+    /**
+     * @return true si el nodo era miembro
+     */
+    private boolean removeMember(String id, String reason) {
+        synchronized (membership) {
+            if (members.remove(id) == null) {
+                return false;
+            }
+            suspects.remove(id);
+            departed.put(id, System.nanoTime());
+            ring = ring.without(id);
+            log.info("Nodo {} sale del clúster de {} ({}; quedan {} nodos)", id, nodeId, reason, ring.size());
+        }
+        closeLink(id);
+        connecting.remove(id);
+        return true;
+    }
+
+    // Fuera del anillo mientras se reintenta conectar; no se le expulsa todavía
+    private void suspect(String id, String reason) {
+        if (closed) {
+            return;
+        }
+        synchronized (membership) {
+            if (!members.containsKey(id) || suspects.containsKey(id)) {
+                return;
+            }
+            suspects.put(id, new Suspect());
+            ring = ring.without(id);
+            log.warn("Nodo {} sospechoso para {} ({}); fuera del anillo mientras se reintenta ({} nodos)",
+                    id, nodeId, reason, ring.size());
+        }
+        closeLink(id);
+        scheduleProbe(id, RECONNECT_INITIAL);
+    }
+
+    private void scheduleProbe(String id, Duration delay) {
+        // El temporizador es compartido: conectar bloquea, así que se hace en un hilo virtual
+        Futures.schedule(() -> Thread.ofVirtual().name("cluster-probe-" + id).start(() -> probe(id, delay)), delay);
+    }
+
+    private void probe(String id, Duration delay) {
+        Suspect suspect;
+        synchronized (membership) {
+            suspect = suspects.get(id);
+        }
+        if (closed || suspect == null) {
+            return;
+        }
+        try {
+            linkTo(id);
+        } catch (IOException e) {
+            if (System.nanoTime() - suspect.sinceNanos < suspectTimeout.toNanos()) {
+                Duration next = delay.multipliedBy(2);
+                scheduleProbe(id, next.compareTo(RECONNECT_MAX) > 0 ? RECONNECT_MAX : next);
+                return;
+            }
+            synchronized (membership) {
+                if (suspects.get(id) != suspect) {
+                    return;
+                }
+            }
+            removeMember(id, "sin respuesta en " + suspectTimeout);
+            return;
+        }
+        synchronized (membership) {
+            if (suspects.remove(id, suspect) && members.containsKey(id)) {
+                ring = ring.with(id);
+                log.info("Nodo {} vuelve a responder a {} ({} nodos)", id, nodeId, ring.size());
+            }
+        }
+    }
+
+    private boolean recentlyDeparted(String id) {
+        Long at = departed.get(id);
+        if (at == null) {
+            return false;
+        }
+        if (System.nanoTime() - at < suspectTimeout.toNanos()) {
+            return true;
+        }
+        departed.remove(id);
+        return false;
+    }
+
+    // Intercambia la lista de miembros con un nodo al azar; si no responde queda sospechoso
+    private void gossip() {
+        if (closed) {
+            return;
+        }
+        List<String> peers = new ArrayList<>(ring.getNodes());
+        peers.remove(nodeId);
+        if (!peers.isEmpty()) {
+            String peer = peers.get(ThreadLocalRandom.current().nextInt(peers.size()));
+            ClusterCodec.Member member = members.get(peer);
+            if (member != null) {
+                try {
+                    for (ClusterCodec.Member known : exchangeMembers(new InetSocketAddress(member.host(), member.port()))) {
+                        addMember(known, known.nodeId().equals(peer));
+                    }
+                } catch (IOException e) {
+                    suspect(peer, "sin respuesta al intercambio de miembros: " + e.getMessage());
+                }
+            }
+        }
+        scheduleGossip();
+    }
+
+    private void scheduleGossip() {
+        if (!closed) {
+            gossipTimer = Futures.schedule(
+                    () -> Thread.ofVirtual().name("cluster-gossip-" + nodeId).start(this::gossip), gossipInterval);
+        }
+    }
+
+    // Reenvía una salida anunciada al resto: quien ya la conocía la ignora
+    private void rebroadcastLeave(String id) {
+        byte[] leave;
+        try {
+            leave = leaveFrame(id);
+        } catch (IOException e) {
+            log.warn("No se pudo codificar la salida de {}", id, e);
+            return;
+        }
+        for (String peer : ring.getNodes()) {
+            if (!peer.equals(nodeId)) {
+                try {
+                    linkTo(peer).send(leave);
+                } catch (IOException e) {
+                    log.debug("No se pudo reenviar la salida de {} a {}: {}", id, peer, e.toString());
+                }
+            }
+        }
+    }
+
+    private static byte[] leaveFrame(String id) throws IOException {
+        return ClusterCodec.encode(ClusterCodec.LEAVE, body -> ClusterCodec.writeString(body, id));
+    }
+
+    private void closeLink(String id) {
+        PeerLink link = links.remove(id);
+        if (link != null) {
+            link.close();
+        }
+    }
+
+    // --- Servidor ---
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                inbound.add(socket);
+                Thread.ofVirtual().name("cluster-peer").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    log.error("Error aceptando conexiones del clúster en {}", nodeId, e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (!closed) {
+                ClusterCodec.Frame frame = ClusterCodec.read(in);
+                switch (frame.type()) {
+                    case ClusterCodec.SEND -> serveSend(frame, out);
+                    case ClusterCodec.JOIN -> {
+                        addMember(ClusterCodec.readMember(frame.body()), true);
+                        List<ClusterCodec.Member> known = List.copyOf(members.values());
+                        ClusterCodec.write(out, ClusterCodec.encode(ClusterCodec.MEMBERS, body -> {
+                            body.writeInt(known.size());
+                            for (ClusterCodec.Member member : known) {
+                                ClusterCodec.writeMember(body, member);
+                            }
+                        }));
+                    }
+                    case ClusterCodec.LEAVE -> {
+                        String id = ClusterCodec.readString(frame.body());
+                        if (removeMember(id, "salida anunciada")) {
+                            Thread.ofVirtual().name("cluster-leave-" + id).start(() -> rebroadcastLeave(id));
+                        }
+                    }
+                    default -> log.warn("Trama desconocida en {}: tipo {}", nodeId, frame.type());
+                }
+            }
+        } catch (EOFException | SocketException e) {
+            // El otro extremo cerró la conexión
+        } catch (IOException e) {
+            log.warn("Conexión entrante cerrada en {}: {}", nodeId, e.toString());
+        } finally {
+            inbound.remove(socket);
+        }
+    }
+
+    /**
+     * Envía localmente una notificación reenviada por otro nodo. No vuelve a
+     * consultar el anillo: si los nodos discrepan durante un rebalanceo, la
+     * envía igualmente en lugar de reenviarla en círculo.
+     */
+    private void serveSend(ClusterCodec.Frame frame, OutputStream out) throws IOException {
+        long requestId = frame.body().readLong();
+        Notification notification = ClusterCodec.readNotification(frame.body());
+        servedCount.incrementAndGet();
+        service.sendAsync(notification).whenComplete((result, error) -> {
+            NotificationResult reply = result != null ? result
+                    : NotificationResult.failure(notification.getId(), String.valueOf(error));
+            try {
+                ClusterCodec.write(out, ClusterCodec.encode(ClusterCodec.RESULT, body -> {
+                    body.writeLong(requestId);
+                    ClusterCodec.writeResult(body, reply);
+                }));
+            } catch (IOException e) {
+                log.warn("No se pudo devolver el resultado de {} desde {}: {}", notification.getId(), nodeId, e.toString());
+            }
+        });
+    }
+
+    // --- Consultas ---
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Dirección del transporte del nodo (útil con puerto 0).
+     */
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(self.host(), self.port());
+    }
+
+    /**
+     * Ids de los nodos del anillo actual, incluido este.
+     */
+    public Set<String> getMembers() {
+        return ring.getNodes();
+    }
+
+    /**
+     * Nodos que dejaron de responder: fuera del anillo mientras se reintenta
+     * conectar, hasta que vuelven o se les expulsa.
+     */
+    public Set<String> getSuspects() {
+        synchronized (membership) {
+            return Set.copyOf(suspects.keySet());
+        }
+    }
+
+    public HashRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Notificaciones reenviadas a otros nodos.
+     */
+    public long getForwardedCount() {
+        return forwardedCount.get();
+    }
+
+    /**
+     * Notificaciones recibidas de otros nodos y enviadas aquí.
+     */
+    public long getServedCount() {
+        return servedCount.get();
+    }
+
+    /**
+     * Anuncia la salida a los demás nodos y cierra el transporte. Los envíos
+     * locales en curso terminan en el NotificationService, que no se cierra.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        ScheduledFuture<?> gossiping = gossipTimer;
+        if (gossiping != null) {
+            gossiping.cancel(false);
+        }
+        try {
+            byte[] leave = leaveFrame(nodeId);
+            for (String id : List.copyOf(ring.getNodes())) {
+                if (!id.equals(nodeId)) {
+                    try {
+                        linkTo(id).send(leave);
+                    } catch (IOException e) {
+                        log.debug("No se pudo avisar la salida a {}: {}", id, e.toString());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo codificar la salida de {}", nodeId, e);
+        }
+        closed = true;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+            // Ya cerrado
+        }
+        for (Socket socket : inbound) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Ya cerrado
+            }
+        }
+        for (String id : List.copyOf(links.keySet())) {
+            closeLink(id);
+        }
+        log.info("Nodo {} fuera del clúster", nodeId);
+    }
+
+    public static Builder builder(String nodeId, NotificationService service) {
+        return new Builder(nodeId, service);
+    }
+
+    //Builder
+    public static class Builder {
+        private final String nodeId;
+        private final NotificationService service;
+        private InetSocketAddress address = new InetSocketAddress("127.0.0.1", 7070);
+        private int virtualNodes = 128;
+        private Function<Notification, String> key = Notification::getRecipient;
+        private Duration forwardTimeout = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration suspectTimeout = Duration.ofSeconds(30);
+        private Duration gossipInterval = Duration.ofSeconds(1);
+        private final List<InetSocketAddress> seeds = new ArrayList<>();
+
+        private Builder(String nodeId, NotificationService service) {
+            if (nodeId == null || nodeId.isBlank()) {
+                throw new IllegalArgumentException("nodeId es obligatorio");
+            }
+            if (service == null) {
+                throw new IllegalArgumentException("service es obligatorio");
+            }
+            this.nodeId = nodeId;
+            this.service = service;
+        }
+
+        /** Dirección de escucha del transporte; con puerto 0 se elige uno libre. */
+        public Builder address(InetSocketAddress address) { this.address = address; return this; }
+        public Builder port(int port) { this.address = new InetSocketAddress("127.0.0.1", port); return this; }
+        public Builder virtualNodes(int virtualNodes) { this.virtualNodes = virtualNodes; return this; }
+        /** Clave de reparto; por defecto el destinatario. Si devuelve null se usa el id de la notificación. */
+        public Builder key(Function<Notification, String> key) { this.key = key; return this; }
+        public Builder forwardTimeout(Duration forwardTimeout) { this.forwardTimeout = forwardTimeout; return this; }
+        public Builder connectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; return this; }
+        /** Tiempo que un nodo puede seguir sin responder (sospechoso) antes de expulsarlo. */
+        public Builder suspectTimeout(Duration suspectTimeout) { this.suspectTimeout = suspectTimeout; return this; }
+        /** Frecuencia del intercambio de miembros con un nodo al azar. */
+        public Builder gossipInterval(Duration gossipInterval) { this.gossipInterval = gossipInterval; return this; }
+        /** Nodo ya presente en el clúster al que anunciarse al arrancar. */
+        public Builder seed(InetSocketAddress seed) { this.seeds.add(seed); return this; }
+
+        /**
+         * Abre el transporte y se une al clúster a través de las semillas.
+         * Sin semillas el nodo arranca solo y los demás se unen a él.
+         *
+         * @throws IOException si no se puede escuchar en la dirección o ninguna semilla responde
+         */
+        public ClusterNode start() throws IOException {
+            if (virtualNodes < 1) {
+                throw new IllegalArgumentException("virtualNodes debe ser >= 1");
+            }
+            if (forwardTimeout == null || forwardTimeout.isNegative() || forwardTimeout.isZero()) {
+                throw new IllegalArgumentException("forwardTimeout debe ser positivo");
+            }
+            if (suspectTimeout == null || suspectTimeout.isNegative()) {
+                throw new IllegalArgumentException("suspectTimeout no puede ser negativo");
+            }
+            if (gossipInterval == null || gossipInterval.isNegative() || gossipInterval.isZero()) {
+                throw new IllegalArgumentException("gossipInterval debe ser positivo");
+            }
+            ServerSocket server = new ServerSocket();
+            server.bind(address, 128);
+            ClusterNode node = new ClusterNode(this, server);
+            Thread.ofVirtual().name("cluster-accept-" + nodeId).start(node::acceptLoop);
+
+            IOException lastError = null;
+            boolean joined = seeds.isEmpty();
+            for (InetSocketAddress seed : seeds) {
+                try {
+                    node.join(seed);
+                    joined = true;
+                } catch (IOException e) {
+                    lastError = e;
+                    log.warn("Semilla {} no responde: {}", seed, e.toString());
+                }
+            }
+            if (!joined) {
+                node.close();
+                throw lastError;
+            }
+            node.scheduleGossip();
+            log.info("Nodo {} escuchando en {} ({} nodos en el clúster)", nodeId, node.getAddress(), node.ring.size());
+            return node;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.notify.cluster;
+
+import com.notify.filter.Fingerprint;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Anillo de hash consistente con nodos virtuales.
+ *
+ * Cada nodo ocupa {@code virtualNodes} puntos del anillo de 64 bits; una
+ * clave pertenece al primer punto igual o posterior a su hash. Con 128
+ * puntos por nodo el reparto queda a unos pocos % del ideal, y al entrar o
+ * salir un nodo solo cambian de dueño ~1/N de las claves: las suyas.
+ *
+ * Inmutable: {@link #with} y {@link #without} devuelven un anillo nuevo,
+ * que se publica con una escritura volátil (copy-on-write). Las búsquedas
+ * son una búsqueda binaria sobre un long[] ordenado, sin locks.
+ */
+public final class HashRing {
+
+    private final int virtualNodes;
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    private HashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes debe ser >= 1");
+        }
+        this.virtualNodes = virtualNodes;
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+
+        int size = this.nodes.size() * virtualNodes;
+        long[] hashes = new long[size];
+        String[] names = new String[size];
+        int i = 0;
+        for (String node : this.nodes) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i] = Fingerprint.exact(node + "#" + v);
+                names[i++] = node;
+            }
+        }
+        // Ordena los puntos arrastrando su dueño
+        Integer[] order = new Integer[size];
+        for (int k = 0; k < size; k++) {
+            order[k] = k;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        this.points = new long[size];
+        this.owners = new String[size];
+        for (int k = 0; k < size; k++) {
+            points[k] = hashes[order[k]];
+            owners[k] = names[order[k]];
+        }
+    }
+
+    public static HashRing of(Collection<String> nodes, int virtualNodes) {
+        return new HashRing(nodes, virtualNodes);
+    }
+
+    /**
+     * Anillo con un nodo más (o este mismo si ya estaba).
+     */
+    public HashRing with(String node) {
+        if (nodes.contains(node)) {
+            return this;
+        }
+        Set<String> next = new TreeSet<>(nodes);
+        next.add(node);
+        return new HashRing(next, virtualNodes);
+    }
+
+    /**
+     * Anillo sin un nodo (o este mismo si no estaba).
+     */
+    public HashRing without(String node) {
+        if (!nodes.contains(node)) {
+            return this;
+        }
+        Set<String> next = new TreeSet<>(nodes);
+        next.remove(node);
+        return new HashRing(next, virtualNodes);
+    }
+
+    /**
+     * Nodo dueño de una clave, o null si el anillo está vacío. La clave se
+     * normaliza como un destinatario (espacios y mayúsculas no cuentan).
+     */
+    public String owner(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        long hash = Fingerprint.of(key);
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public String toString() {
+        return "HashRing" + nodes;
+    }
+}
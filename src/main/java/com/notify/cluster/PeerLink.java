@@ -0,0 +1,171 @@
+package com.notify.cluster;
+
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Conexión saliente hacia otro nodo.
+ *
+ * Una sola conexión TCP por par de nodos, multiplexada: cada envío lleva un
+ * requestId y un hilo virtual lector completa el future que le corresponde
+ * al llegar su RESULT, en el orden en que terminen (no en el de envío).
+ */
+final class PeerLink implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(PeerLink.class);
+
+    private record Pending(String notificationId, CompletableFuture<NotificationResult> future) {
+    }
+
+    private final ClusterCodec.Member member;
+    private final Socket socket;
+    private final OutputStream out;
+    private final DataInputStream in;
+    private final Consumer<PeerLink> onBroken;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private PeerLink(ClusterCodec.Member member, Socket socket, Consumer<PeerLink> onBroken) throws IOException {
+        this.member = member;
+        this.socket = socket;
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.onBroken = onBroken;
+    }
+
+    /**
+     * Abre la conexión y arranca su lector.
+     *
+     * @param onBroken Se invoca una vez si la conexión se pierde (no al cerrarla con {@link #close()})
+     */
+    static PeerLink connect(ClusterCodec.Member member, Duration connectTimeout,
+                            Consumer<PeerLink> onBroken) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(member.host(), member.port()), (int) connectTimeout.toMillis());
+            PeerLink link = new PeerLink(member, socket, onBroken);
+            Thread.ofVirtual().name("cluster-link-" + member.nodeId()).start(link::readLoop);
+            return link;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    ClusterCodec.Member getMember() {
+        return member;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * Reenvía una notificación al nodo.
+     *
+     * @throws IOException si no se pudo escribir: el nodo no la recibió y es
+     *                     seguro enviarla a otro
+     */
+    CompletableFuture<NotificationResult> forward(Notification notification) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Conexión con " + member.nodeId() + " cerrada");
+        }
+        long requestId = sequence.incrementAndGet();
+        byte[] frame = ClusterCodec.encode(ClusterCodec.SEND, body -> {
+            body.writeLong(requestId);
+            ClusterCodec.writeNotification(body, notification);
+        });
+        CompletableFuture<NotificationResult> future = new CompletableFuture<>();
+        pending.put(requestId, new Pending(notification.getId(), future));
+        // Cancelar solo libera la entrada: el nodo dueño no tiene forma de deshacer el envío
+        future.whenComplete((result, error) -> pending.remove(requestId));
+        try {
+            ClusterCodec.write(out, frame);
+        } catch (IOException e) {
+            pending.remove(requestId);
+            broken(e);
+            throw e;
+        }
+        return future;
+    }
+
+    /**
+     * Envía una trama sin respuesta asociada (LEAVE).
+     */
+    void send(byte[] frame) throws IOException {
+        ClusterCodec.write(out, frame);
+    }
+
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            shutdown("Conexión con " + member.nodeId() + " cerrada");
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed.get()) {
+                ClusterCodec.Frame frame = ClusterCodec.read(in);
+                if (frame.type() != ClusterCodec.RESULT) {
+                    log.warn("Trama inesperada de {}: tipo {}", member.nodeId(), frame.type());
+                    continue;
+                }
+                long requestId = frame.body().readLong();
+                Pending entry = pending.remove(requestId);
+                if (entry != null) {
+                    entry.future().complete(ClusterCodec.readResult(frame.body(), entry.notificationId()));
+                }
+            }
+        } catch (IOException e) {
+            broken(e);
+        }
+    }
+
+    private void broken(IOException cause) {
+        if (closed.compareAndSet(false, true)) {
+            log.warn("Conexión con el nodo {} perdida: {}", member.nodeId(), cause.toString());
+            // Ya escritos: el nodo pudo enviarlos o no. Reintentarlos en otro arriesga duplicados
+            shutdown("Conexión con " + member.nodeId() + " perdida; resultado desconocido");
+            onBroken.accept(this);
+        }
+    }
+
+    private void shutdown(String reason) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Ya cerrado
+        }
+        for (Long requestId : pending.keySet()) {
+            Pending entry = pending.remove(requestId);
+            if (entry != null) {
+                entry.future().complete(NotificationResult.failure(entry.notificationId(), reason));
+            }
+        }
+    }
+}
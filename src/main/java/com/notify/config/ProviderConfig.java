@@ -27,6 +27,14 @@ public class ProviderConfig {
         return properties.get(key);
     }
 
+    /**
+     * Obtiene una propiedad opcional con valor por defecto.
+     */
+    public String getProperty(String key, String defaultValue) {
+        String value = properties.get(key);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
     /**
      * Obtiene una propiedad obligatoria. Lanza excepción si no existe.
      * Para validar que las credenciales necesarias están presentes.
@@ -0,0 +1,281 @@
+package com.notify.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Registro de canales ChannelType → NotificationChannel reconfigurable en caliente.
+ *
+ * Además del canal por defecto de cada tipo guarda canales con nombre: los
+ * destinos de las reglas del {@link com.notify.routing.Router} (ej: "sns"
+ * para los SMS a Brasil). Se reemplazan y retiran igual que los de tipo.
+ *
+ * Copy-on-write: cada tabla (por tipo y por nombre) es una instantánea
+ * inmutable publicada en un campo volatile. El envío hace una sola lectura volatile y un incremento
+ * atómico (envíos en curso), sin locks; añadir, reemplazar o retirar un
+ * canal copia la instantánea y la publica entera.
+ *
+ * Al reemplazar o retirar un canal, el anterior deja de recibir envíos nuevos
+ * y el futuro devuelto se completa cuando terminan los que ya tenía en curso:
+ * en ese momento se puede cerrar (ej: rotar la API key de SendGrid creando un
+ * provider con el nuevo {@link com.notify.config.ProviderConfig}).
+ */
+public class ChannelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelRegistry.class);
+
+    /**
+     * Canal registrado con su contador de envíos en curso.
+     */
+    static final class Registration {
+        private final NotificationChannel<?> channel;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final CompletableFuture<Void> drained = new CompletableFuture<>();
+        private volatile boolean retired;
+
+        private Registration(NotificationChannel<?> channel) {
+            this.channel = channel;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T extends Notification> NotificationChannel<T> channel() {
+            return (NotificationChannel<T>) channel;
+        }
+
+        /**
+         * Marca el fin de un envío obtenido con {@link #acquire}.
+         */
+        void release() {
+            if (inFlight.decrementAndGet() == 0 && retired) {
+                drained.complete(null);
+            }
+        }
+
+        private CompletableFuture<Void> retire() {
+            retired = true;
+            if (inFlight.get() == 0) {
+                drained.complete(null);
+            }
+            return drained;
+        }
+    }
+
+    private volatile Map<ChannelType, Registration> snapshot = Collections.emptyMap();
+    private volatile Map<String, Registration> named = Collections.emptyMap();
+
+    public ChannelRegistry() {
+    }
+
+    public ChannelRegistry(Iterable<? extends NotificationChannel<?>> channels) {
+        this(channels, Map.of());
+    }
+
+    /**
+     * Registro con canales por defecto y canales con nombre.
+     */
+    public ChannelRegistry(Iterable<? extends NotificationChannel<?>> channels,
+                           Map<String, ? extends NotificationChannel<?>> namedChannels) {
+        for (NotificationChannel<?> channel : channels) {
+            put(channel);
+        }
+        for (Map.Entry<String, ? extends NotificationChannel<?>> entry : namedChannels.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Añade un canal o reemplaza el registrado para su ChannelType.
+     *
+     * @return futuro que se completa cuando el canal reemplazado termina sus
+     *         envíos en curso (completado si no había ninguno)
+     */
+    public synchronized CompletableFuture<Void> register(NotificationChannel<?> channel) {
+        return put(channel);
+    }
+
+    // Privado: el constructor lo usa sin exponer un this a medio construir a subclases
+    private CompletableFuture<Void> put(NotificationChannel<?> channel) {
+        if (channel == null) {
+            throw new IllegalArgumentException("El canal no puede ser nulo");
+        }
+        Map<ChannelType, Registration> next = copy();
+        Registration previous = next.put(channel.getChannelType(), new Registration(channel));
+        snapshot = Collections.unmodifiableMap(next);
+        if (previous == null) {
+            log.info("Canal {} registrado ({})", channel.getChannelType(), channel.getProviderName());
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Canal {} reemplazado: {} -> {}", channel.getChannelType(),
+                previous.channel.getProviderName(), channel.getProviderName());
+        return previous.retire();
+    }
+
+    /**
+     * Añade o reemplaza un canal con nombre (destino de reglas de enrutado).
+     * El sustituto debe ser del mismo ChannelType que el anterior, porque las
+     * reglas que lo eligen son de ese tipo.
+     *
+     * @return futuro que se completa cuando el canal reemplazado termina sus
+     *         envíos en curso (completado si no había ninguno)
+     * @throws IllegalArgumentException si cambia el ChannelType del nombre
+     */
+    public synchronized CompletableFuture<Void> register(String name, NotificationChannel<?> channel) {
+        return put(name, channel);
+    }
+
+    private CompletableFuture<Void> put(String name, NotificationChannel<?> channel) {
+        if (name == null || channel == null) {
+            throw new IllegalArgumentException("El nombre y el canal no pueden ser nulos");
+        }
+        Registration current = named.get(name);
+        if (current != null && current.channel.getChannelType() != channel.getChannelType()) {
+            throw new IllegalArgumentException("El canal '" + name + "' es de tipo "
+                    + current.channel.getChannelType() + ", no " + channel.getChannelType());
+        }
+        Map<String, Registration> next = new HashMap<>(named);
+        Registration previous = next.put(name, new Registration(channel));
+        named = Collections.unmodifiableMap(next);
+        if (previous == null) {
+            log.info("Canal '{}' registrado ({})", name, channel.getProviderName());
+            return CompletableFuture.completedFuture(null);
+        }
+        log.info("Canal '{}' reemplazado: {} -> {}", name,
+                previous.channel.getProviderName(), channel.getProviderName());
+        return previous.retire();
+    }
+
+    /**
+     * Retira el canal de un tipo: no recibe envíos nuevos.
+     *
+     * @return futuro que se completa cuando terminan sus envíos en curso
+     *         (completado si no había canal para ese tipo)
+     */
+    public synchronized CompletableFuture<Void> drain(ChannelType type) {
+        Map<ChannelType, Registration> next = copy();
+        Registration previous = next.remove(type);
+        if (previous == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        snapshot = Collections.unmodifiableMap(next);
+        log.info("Canal {} retirado ({}), {} envíos en curso", type,
+                previous.channel.getProviderName(), previous.inFlight.get());
+        return previous.retire();
+    }
+
+    /**
+     * Retira un canal con nombre: las reglas que lo eligen dejan de encontrar
+     * canal y sus envíos fallan hasta que se registre otro.
+     *
+     * @return futuro que se completa cuando terminan sus envíos en curso
+     *         (completado si no había canal con ese nombre)
+     */
+    public synchronized CompletableFuture<Void> drain(String name) {
+        Map<String, Registration> next = new HashMap<>(named);
+        Registration previous = next.remove(name);
+        if (previous == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        named = Collections.unmodifiableMap(next);
+        log.info("Canal '{}' retirado ({}), {} envíos en curso", name,
+                previous.channel.getProviderName(), previous.inFlight.get());
+        return previous.retire();
+    }
+
+    /**
+     * Canal activo para un tipo, o null.
+     */
+    public NotificationChannel<?> get(ChannelType type) {
+        Registration registration = snapshot.get(type);
+        return registration != null ? registration.channel : null;
+    }
+
+    /**
+     * Canal activo con un nombre, o null.
+     */
+    public NotificationChannel<?> get(String name) {
+        Registration registration = named.get(name);
+        return registration != null ? registration.channel : null;
+    }
+
+    /**
+     * Tipos con canal registrado.
+     */
+    public Set<ChannelType> types() {
+        return snapshot.keySet();
+    }
+
+    /**
+     * Nombres con canal registrado.
+     */
+    public Set<String> names() {
+        return named.keySet();
+    }
+
+    public boolean isEmpty() {
+        return snapshot.isEmpty();
+    }
+
+    /**
+     * Envíos en curso en el canal activo de un tipo.
+     */
+    public int getInFlight(ChannelType type) {
+        Registration registration = snapshot.get(type);
+        return registration != null ? registration.inFlight.get() : 0;
+    }
+
+    /**
+     * Envíos en curso en el canal con un nombre.
+     */
+    public int getInFlight(String name) {
+        Registration registration = named.get(name);
+        return registration != null ? registration.inFlight.get() : 0;
+    }
+
+    /**
+     * Reserva el canal activo de un tipo para un envío; el llamador debe
+     * invocar {@link Registration#release()} al terminar.
+     *
+     * @return null si no hay canal para ese tipo
+     */
+    Registration acquire(ChannelType type) {
+        return acquire(() -> snapshot.get(type));
+    }
+
+    /**
+     * Reserva el canal con un nombre, como {@link #acquire(ChannelType)}.
+     *
+     * @return null si no hay canal con ese nombre
+     */
+    Registration acquire(String name) {
+        return acquire(() -> named.get(name));
+    }
+
+    private static Registration acquire(Supplier<Registration> current) {
+        while (true) {
+            Registration registration = current.get();
+            if (registration == null) {
+                return null;
+            }
+            registration.inFlight.incrementAndGet();
+            if (!registration.retired) {
+                return registration;
+            }
+            // Reemplazado entre la lectura y el incremento: se reintenta con la instantánea nueva
+            registration.release();
+        }
+    }
+
+    private Map<ChannelType, Registration> copy() {
+        Map<ChannelType, Registration> current = snapshot;
+        return current.isEmpty() ? new EnumMap<>(ChannelType.class) : new EnumMap<>(current);
+    }
+}
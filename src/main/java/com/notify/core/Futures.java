@@ -0,0 +1,198 @@
+package com.notify.core;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Utilidades de CompletableFuture para timeouts y cancelación.
+ *
+ * Un CompletableFuture derivado (thenApply, whenComplete, thenCompose...) no
+ * cancela su origen al cancelarse: sin propagación, cancelar el future de
+ * sendAsync deja la petición HTTP, el hueco de concurrencia o la tarea del
+ * pool ocupados hasta que terminan por su cuenta. Estas utilidades enlazan
+ * la cancelación hacia abajo en cada etapa de la cadena.
+ */
+public final class Futures {
+
+    // Un hilo para todos los temporizadores; al cancelarse se retiran de la cola (sin acumular millones)
+    private static final ScheduledThreadPoolExecutor TIMERS = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "notify-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMERS.setRemoveOnCancelPolicy(true);
+    }
+
+    private Futures() {
+    }
+
+    /**
+     * Vista de {@code derived} cuya cancelación cancela también {@code source}.
+     *
+     * Se devuelve una copia y no derived: una etapa cancelada directamente ya
+     * no ejecuta su acción, así que las limpiezas encadenadas en derived
+     * (liberar huecos, registrar el resultado) se perderían. Con la copia,
+     * derived se completa cuando lo hace source y sus acciones se ejecutan.
+     */
+    public static <T> CompletableFuture<T> cancelling(CompletableFuture<T> derived, Future<?> source) {
+        CompletableFuture<T> view = derived.copy();
+        propagateCancel(view, source);
+        return view;
+    }
+
+    /**
+     * Cancela {@code target} cuando se cancela {@code future}. Para futures
+     * raíz (creados con new, sin acciones propias), que se entregan tal cual.
+     */
+    public static void propagateCancel(CompletableFuture<?> future, Future<?> target) {
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                target.cancel(true);
+            }
+        });
+    }
+
+    /**
+     * Equivalente a {@code first.thenCompose(next)}, pero cancelar el future
+     * resultante cancela la etapa en curso (first, o la devuelta por next).
+     */
+    public static <A, B> CompletableFuture<B> composeCancellable(CompletableFuture<A> first,
+                                                                 Function<? super A, CompletableFuture<B>> next) {
+        CompletableFuture<B> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<B>> second = new AtomicReference<>();
+        first.whenComplete((value, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            if (result.isDone()) {
+                return;   // Cancelado mientras esperaba la primera etapa
+            }
+            CompletableFuture<B> stage;
+            try {
+                stage = next.apply(value);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            second.set(stage);
+            stage.whenComplete((secondValue, secondError) -> {
+                if (secondError != null) {
+                    result.completeExceptionally(secondError);
+                } else {
+                    result.complete(secondValue);
+                }
+            });
+            if (result.isCancelled()) {
+                stage.cancel(true);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                first.cancel(true);
+                CompletableFuture<B> stage = second.get();
+                if (stage != null) {
+                    stage.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ejecuta una tarea bloqueante en el pool común de forma cancelable: si
+     * el future se cancela antes de empezar, la tarea no se ejecuta; si ya
+     * está en marcha, se interrumpe su hilo.
+     */
+    public static <T> CompletableFuture<T> supplyInterruptibly(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Object lock = new Object();
+        Thread[] runner = new Thread[1];
+        CompletableFuture.runAsync(() -> {
+            synchronized (lock) {
+                if (result.isDone()) {
+                    return;
+                }
+                runner[0] = Thread.currentThread();
+            }
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                synchronized (lock) {
+                    runner[0] = null;
+                    Thread.interrupted();   // El hilo vuelve al pool sin la interrupción de una cancelación
+                }
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                synchronized (lock) {
+                    if (runner[0] != null) {
+                        runner[0].interrupt();
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Limita el tiempo de {@code source}: si no termina en {@code timeout},
+     * el future devuelto se completa con {@code onTimeout} y source se
+     * cancela. Cancelar el future devuelto también cancela source.
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> source, Duration timeout,
+                                                       Supplier<T> onTimeout) {
+        if (timeout == null || source.isDone()) {
+            return source;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean expired = new AtomicBoolean();
+        // La cancelación dispara las etapas dependientes: se ejecuta en el pool común, no en el temporizador.
+        // Source se cancela antes de completar el resultado: quien espera el resultado ya ve los recursos liberados
+        ScheduledFuture<?> timer = schedule(() -> ForkJoinPool.commonPool().execute(() -> {
+            if (!result.isDone() && expired.compareAndSet(false, true)) {
+                source.cancel(true);
+                result.complete(onTimeout.get());
+            }
+        }), timeout);
+        source.whenComplete((value, error) -> {
+            if (expired.get()) {
+                return;
+            }
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        result.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (result.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Programa una acción en el temporizador compartido. La acción corre en
+     * el hilo del temporizador: debe ser breve o saltar a otro executor.
+     */
+    public static ScheduledFuture<?> schedule(Runnable action, Duration delay) {
+        return TIMERS.schedule(action, Math.max(1, delay.toNanos()), TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,5 +1,6 @@
 package com.notify.core;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,16 +28,69 @@ public abstract class Notification {
     // {"priority": "high", "campaign": "black-friday"}
     private final Map<String, String> metadata;
 
+    // Clase de prioridad (si no se indica, se toma de metadata "priority")
+    private final Priority priority;
+
+    // Equipo/cliente que origina el envío (si no se indica, metadata "tenant")
+    private final String tenantId;
+
+    // Momento a partir del cual ya no tiene sentido enviarla (null = sin caducidad)
+    private final Instant expiresAt;
+
+    // Tenant asignado cuando la notificación no indica ninguno
+    public static final String DEFAULT_TENANT = "default";
+
     /**
      * Constructor protegido: solo accesible por subclases.
      * Genera automáticamente el ID y timestamp de creación.
      */
     protected Notification(String recipient, String message, Map<String, String> metadata) {
-        this.id = UUID.randomUUID().toString();
+        this(recipient, message, metadata, null);
+    }
+
+    /**
+     * Constructor con prioridad explícita. Si priority es null se usa la
+     * clave "priority" de la metadata (o NORMAL).
+     */
+    protected Notification(String recipient, String message, Map<String, String> metadata, Priority priority) {
+        this(recipient, message, metadata, priority, null);
+    }
+
+    /**
+     * Constructor con prioridad y tenant explícitos. Si tenantId es null se
+     * usa la clave "tenant" de la metadata (o {@link #DEFAULT_TENANT}).
+     */
+    protected Notification(String recipient, String message, Map<String, String> metadata,
+                           Priority priority, String tenantId) {
+        this(recipient, message, metadata, priority, tenantId, null);
+    }
+
+    /**
+     * Constructor completo. expiresAt es el deadline de envío: pasado ese
+     * instante la notificación se descarta con estado EXPIRED en lugar de
+     * enviarse (ej: un OTP que ya no es válido).
+     */
+    protected Notification(String recipient, String message, Map<String, String> metadata,
+                           Priority priority, String tenantId, Instant expiresAt) {
+        this(null, null, recipient, message, metadata, priority, tenantId, expiresAt);
+    }
+
+    /**
+     * Constructor que conserva la identidad de una notificación ya creada
+     * (ej: la copia que otro nodo del clúster recibe al reenviarla), para que
+     * su estado y sus logs usen el mismo id que vio quien la envió. Si id o
+     * createdAt son null se generan como en los demás constructores.
+     */
+    protected Notification(String id, LocalDateTime createdAt, String recipient, String message,
+                           Map<String, String> metadata, Priority priority, String tenantId, Instant expiresAt) {
+        this.id = id != null ? id : UUID.randomUUID().toString();
         this.recipient = recipient;
         this.message = message;
-        this.createdAt = LocalDateTime.now();
+        this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
         this.metadata = metadata != null ? new HashMap<>(metadata) : new HashMap<>();
+        this.priority = priority != null ? priority : Priority.fromMetadata(this.metadata.get("priority"));
+        this.tenantId = resolveTenant(tenantId != null ? tenantId : this.metadata.get("tenant"));
+        this.expiresAt = expiresAt;
     }
 
     /**
@@ -63,10 +117,43 @@ public abstract class Notification {
         return createdAt;
     }
 
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Indica si el deadline de envío ya pasó.
+     */
+    public boolean isExpired() {
+        return expiresAt != null && !Instant.now().isBefore(expiresAt);
+    }
+
+    /**
+     * Milisegundos hasta el deadline (0 si ya pasó, Long.MAX_VALUE si no tiene).
+     */
+    public long remainingMillis() {
+        if (expiresAt == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis());
+    }
+
     public Map<String, String> getMetadata() {
         return new HashMap<>(metadata); // Copia defensiva: evita mutación externa
     }
 
+    private static String resolveTenant(String tenantId) {
+        return tenantId == null || tenantId.isBlank() ? DEFAULT_TENANT : tenantId.trim();
+    }
+
     @Override
     public String toString() {
         return String.format("[%s] id=%s, to=%s, message=%s",
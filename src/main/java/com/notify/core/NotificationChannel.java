@@ -1,5 +1,7 @@
 package com.notify.core;
 
+import com.notify.jfr.QueueEvent;
+
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -22,11 +24,19 @@ public interface NotificationChannel<T extends Notification> {
      * Los canales pueden sobreescribir esto si su proveedor soporta
      * llamadas asíncronas nativas (ej: HTTP async con CompletableFuture).
      *
+     * Cancelar el future evita el envío si aún no empezó e interrumpe el
+     * hilo si ya está en marcha.
+     *
      * @param notification La notificación a enviar
      * @return CompletableFuture con el resultado del envío
      */
     default CompletableFuture<NotificationResult> sendAsync(T notification) {
-        return CompletableFuture.supplyAsync(() -> send(notification));
+        // Mide (JFR) cuánto espera la tarea en el pool antes de ejecutarse
+        QueueEvent queued = QueueEvent.start(notification, getProviderName());
+        return Futures.supplyInterruptibly(() -> {
+            queued.finish("DEQUEUED");
+            return send(notification);
+        });
     }
 
     /**
@@ -35,6 +45,13 @@ public interface NotificationChannel<T extends Notification> {
      */
     ChannelType getChannelType();
 
+    /**
+     * Nombre del proveedor que usa el canal (para logs, métricas y eventos JFR).
+     */
+    default String getProviderName() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * Verifica si el canal está correctamente configurado y operativo.
      * Útil para health-checks y validación en startup.
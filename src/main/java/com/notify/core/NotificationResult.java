@@ -44,6 +44,65 @@ public class NotificationResult {
         return new NotificationResult(notificationId, NotificationStatus.FAILED, null, errorMessage);
     }
 
+    /**
+     * Factory method para una notificación descartada por haber superado su
+     * deadline antes de llegar al proveedor.
+     */
+    public static NotificationResult expired(String notificationId) {
+        return new NotificationResult(notificationId, NotificationStatus.EXPIRED, null,
+                "Deadline superado antes del envío");
+    }
+
+    /**
+     * Factory method para una notificación rechazada por control de carga
+     * (límite de concurrencia o cola llena) sin llegar al proveedor.
+     */
+    public static NotificationResult rejected(String notificationId, String reason) {
+        return new NotificationResult(notificationId, NotificationStatus.REJECTED, null, reason);
+    }
+
+    /**
+     * Factory method para una notificación descartada por el control de carga
+     * del dispatcher (la cola llevaba demasiado tiempo por encima de su objetivo).
+     */
+    public static NotificationResult shed(String notificationId) {
+        return new NotificationResult(notificationId, NotificationStatus.SHED, null,
+                "Descartada por sobrecarga");
+    }
+
+    /**
+     * Factory method para una notificación no enviada porque el destinatario
+     * ya recibió el máximo permitido en la ventana (frequency capping).
+     */
+    public static NotificationResult capped(String notificationId, String reason) {
+        return new NotificationResult(notificationId, NotificationStatus.CAPPED, null, reason);
+    }
+
+    /**
+     * Factory method para una notificación no enviada porque su destinatario
+     * está en la lista de supresión (rebotó, se dio de baja o el token es inválido).
+     */
+    public static NotificationResult suppressed(String notificationId) {
+        return new NotificationResult(notificationId, NotificationStatus.SUPPRESSED, null,
+                "Destinatario en lista de supresión");
+    }
+
+    /**
+     * Factory method para una notificación que no se envió por separado porque
+     * una posterior al mismo destino la reemplazó o absorbió (push coalescing).
+     */
+    public static NotificationResult coalesced(String notificationId, String reason) {
+        return new NotificationResult(notificationId, NotificationStatus.COALESCED, null, reason);
+    }
+
+    /**
+     * Factory method para una notificación aceptada pero aún no enviada: se
+     * entregará más adelante agrupada con otras (ej: resumen de emails).
+     */
+    public static NotificationResult pending(String notificationId, String reason) {
+        return new NotificationResult(notificationId, NotificationStatus.PENDING, null, reason);
+    }
+
     /**
      * Verificación rápida de éxito — evita comparar enums manualmente.
      */
@@ -79,7 +138,7 @@ public class NotificationResult {
             return String.format("Result[SUCCESS] notifId=%s, providerId=%s",
                     notificationId, providerMessageId);
         }
-        return String.format("Result[FAILED] notifId=%s, error=%s",
-                notificationId, errorMessage);
+        return String.format("Result[%s] notifId=%s, error=%s",
+                status, notificationId, errorMessage);
     }
 }
@@ -1,16 +1,32 @@
 package com.notify.core;
 
+import com.notify.dispatch.Dispatcher;
+import com.notify.event.EventFanOut;
+import com.notify.event.EventResult;
+import com.notify.event.NotificationEvent;
 import com.notify.exception.ChannelNotFoundException;
 import com.notify.exception.ValidationException;
+import com.notify.filter.NotificationFilter;
+import com.notify.jfr.ProviderCallEvent;
+import com.notify.jfr.ValidationEvent;
+import com.notify.plan.DeliveryPlan;
+import com.notify.plan.PlanExecution;
+import com.notify.receipt.DeliveryStatusStore;
+import com.notify.routing.Router;
 import com.notify.validation.NotificationValidator;
 import com.notify.validation.ValidationResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -21,63 +37,136 @@ public class NotificationService {
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
     // Registro de canales: ChannelType -> NotificationChannel
-    // Cada tipo de canal tiene una única implementación activa
-    private final Map<ChannelType, NotificationChannel<?>> channels;
+    // Cada tipo de canal tiene una única implementación activa, reemplazable en caliente
+    private final ChannelRegistry channels;
 
     // Validador de notificaciones
     private final NotificationValidator validator;
 
+    // Planificador de envíos asíncronos (null = se envía directamente)
+    private final Dispatcher dispatcher;
+
+    // Etapas previas al envío, en orden de registro (capping, supresión...)
+    private final List<NotificationFilter> filters;
+
+    // Timeout de sendAsync por tipo de canal (sin entrada = sin límite)
+    private final Map<ChannelType, Duration> timeouts;
+
+    // Reglas que eligen un canal con nombre del registro en lugar del de su ChannelType (null = sin reglas)
+    private final Router router;
+
+    // Estado tras el envío, actualizable con acuses del proveedor (null = no se registra)
+    private final DeliveryStatusStore statusStore;
+
     /**
      * Constructor privado(se crea mediante Builder para control de configuración)
      */
     private NotificationService(Map<ChannelType, NotificationChannel<?>> channels,
-                                NotificationValidator validator) {
-        this.channels = new HashMap<>(channels);
+                                NotificationValidator validator,
+                                Dispatcher dispatcher,
+                                List<NotificationFilter> filters,
+                                Router router,
+                                DeliveryStatusStore statusStore,
+                                Map<ChannelType, Duration> timeouts) {
+        this.channels = new ChannelRegistry(channels.values(), router != null ? router.getChannels() : Map.of());
         this.validator = validator;
+        this.dispatcher = dispatcher;
+        this.filters = List.copyOf(filters);
+        this.router = router;
+        this.statusStore = statusStore;
+        this.timeouts = new EnumMap<>(timeouts);
     }
 
     /**
      * Envío SÍNCRONO de una notificación.
      *
      * @param notification Notificación a enviar (Email, SMS, Push)
-     * @return NotificationResult con estado del envío
+     * @return NotificationResult con estado del envío (EXPIRED si ya pasó su deadline)
      * @throws ValidationException si la notificación tiene datos inválidos
      * @throws ChannelNotFoundException si no hay canal registrado para ese tipo
      */
-    @SuppressWarnings("unchecked")
     public NotificationResult send(Notification notification) {
         log.info("Procesando notificación: {}", notification);
 
         //Valida la notificación
         validateNotification(notification);
 
-        //Obtiene el canal adecuado
-        NotificationChannel<Notification> channel = getChannelFor(notification.getChannelType());
+        return deliver(notification);
+    }
 
-        //Delega envío al canal y retornar resultado
+    // Envío síncrono de una notificación ya validada
+    private NotificationResult deliver(Notification notification) {
+        //Obtiene del registro el canal adecuado: el elegido por las reglas de enrutado
+        //o el de su ChannelType (queda reservado hasta terminar el envío)
+        ChannelRegistry.Registration registration = acquireChannel(notification.getChannelType(), route(notification));
         try {
-            NotificationResult result = channel.send(notification);
-            log.info("Resultado del envío: {}", result);
-            return result;
-        } catch (Exception e) {
-            log.error("Error inesperado enviando notificación: {}", e.getMessage(), e);
-            return NotificationResult.failure(notification.getId(), "Error interno: " + e.getMessage());
+            NotificationChannel<Notification> channel = registration.channel();
+
+            //Descarta si ya pasó su deadline (no se paga una llamada inútil)
+            if (notification.isExpired()) {
+                return track(expired(notification));
+            }
+
+            //Etapas previas (capping, supresión): pueden cortar el envío
+            NotificationResult filtered = applyFilters(notification);
+            if (filtered != null) {
+                return track(filtered);
+            }
+
+            //Delega envío al canal y retornar resultado
+            ProviderCallEvent call = ProviderCallEvent.start(notification, channel.getProviderName());
+            try {
+                NotificationResult result = channel.send(notification);
+                call.finish(result, null);
+                log.info("Resultado del envío: {}", result);
+                return track(result);
+            } catch (Exception e) {
+                call.finish(null, e);
+                return track(internalError(notification, e));
+            }
+        } finally {
+            registration.release();
         }
     }
 
     /**
      * Envío ASÍNCRONO de una notificación (no bloqueante).
      *
+     * Si el servicio tiene un Dispatcher, el envío se encola en él (carriles
+     * por prioridad, límites de concurrencia y tasa); si no, se delega
+     * directamente en el canal.
+     *
+     * Cancelar el future cancela el envío: si aún está en cola no llega a
+     * ejecutarse, y si está en curso se cancela la petición al proveedor y se
+     * libera su hueco de concurrencia. Aplica el timeout del canal, si se
+     * configuró uno.
+     *
      * @param notification Notificación a enviar
      * @return CompletableFuture con el resultado
      */
     public CompletableFuture<NotificationResult> sendAsync(Notification notification) {
+        return sendAsync(notification, timeouts.get(notification.getChannelType()));
+    }
+
+    /**
+     * Envío ASÍNCRONO con un timeout para esta llamada (incluye la espera en
+     * cola). Si vence, el future se completa con FAILED y el envío se cancela.
+     *
+     * @param notification Notificación a enviar
+     * @param timeout      Tiempo máximo hasta el resultado (null = sin límite)
+     * @return CompletableFuture con el resultado
+     */
+    public CompletableFuture<NotificationResult> sendAsync(Notification notification, Duration timeout) {
         log.info("Procesando notificación asíncrona: {}", notification);
 
         try {
             validateNotification(notification);
-            NotificationChannel<Notification> channel = getChannelFor(notification.getChannelType());
-            return channel.sendAsync(notification);
+            String target = route(notification);
+            checkChannelFor(notification.getChannelType(), target);
+            CompletableFuture<NotificationResult> sending = dispatcher != null
+                    ? dispatcher.dispatch(notification, providerFor(notification, target), () -> invokeAsync(notification, target))
+                    : invokeAsync(notification, target);
+            return Futures.withTimeout(sending, timeout, () -> timedOut(notification, timeout));
         } catch (Exception e) {
             return CompletableFuture.completedFuture(
                     NotificationResult.failure(notification.getId(), e.getMessage())
@@ -108,6 +197,62 @@ public class NotificationService {
                         .collect(Collectors.toList()));
     }
 
+    /**
+     * Envía un evento por todos sus canales en paralelo (ej: "pedido enviado"
+     * por email, push y SMS) y devuelve el resultado agregado.
+     *
+     * Todas las notificaciones se validan antes de enviar ninguna; cada canal
+     * se envía en un hilo virtual y, si vence el plazo del evento o un canal
+     * devuelve un error fatal, se cancelan los que sigan en curso.
+     *
+     * @throws ValidationException si alguna notificación es inválida (no se envía ninguna)
+     * @throws ChannelNotFoundException si falta el canal de alguna
+     */
+    public EventResult sendEvent(NotificationEvent event) {
+        log.info("Procesando evento: {}", event);
+        for (Notification notification : event.getNotifications()) {
+            validateNotification(notification);
+            checkChannelFor(notification.getChannelType(), route(notification));
+        }
+        return EventFanOut.send(event, this::deliver);
+    }
+
+    /**
+     * Ejecuta un plan de entrega con alternativas (ej: push → SMS → email):
+     * cada paso se envía con {@link #sendAsync} y, si falla o no se confirma
+     * antes de su deadline, se pasa al siguiente. No bloquea ningún hilo.
+     *
+     * @param plan Pasos del plan
+     * @return Ejecución en curso (resultado y cancelación)
+     * @throws IllegalStateException si el plan espera acuses y no hay statusStore
+     */
+    public PlanExecution sendPlan(DeliveryPlan plan) {
+        log.info("Iniciando plan de entrega de {} pasos", plan.getSteps().size());
+        return PlanExecution.start(plan, this::sendAsync, statusStore);
+    }
+
+    /**
+     * Dispatcher configurado (para consultar colas y envíos en curso), o null.
+     */
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Registro de canales: permite añadir, reemplazar o retirar canales en
+     * caliente (ej: rotar credenciales de un proveedor) sin reconstruir el servicio.
+     */
+    public ChannelRegistry getChannelRegistry() {
+        return channels;
+    }
+
+    /**
+     * Almacén de estados de entrega configurado, o null.
+     */
+    public DeliveryStatusStore getStatusStore() {
+        return statusStore;
+    }
+
     /**
      * Verifica si un canal específico está registrado y disponible.
      */
@@ -118,8 +263,94 @@ public class NotificationService {
 
     //Métodos privados auxiliares
 
+    private NotificationResult applyFilters(Notification notification) {
+        for (NotificationFilter filter : filters) {
+            NotificationResult result = filter.apply(notification);
+            if (result != null) {
+                log.info("Notificación {} detenida antes del envío: {}", notification.getId(), result.getStatus());
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private NotificationResult track(NotificationResult result) {
+        if (statusStore != null && result != null) {
+            statusStore.record(result);
+        }
+        return result;
+    }
+
+    private NotificationResult timedOut(Notification notification, Duration timeout) {
+        log.warn("Notificación {} cancelada: sin resultado en {}", notification.getId(), timeout);
+        return track(NotificationResult.failure(notification.getId(), "Timeout: sin resultado en " + timeout));
+    }
+
+    private NotificationResult expired(Notification notification) {
+        log.warn("Notificación {} descartada: deadline {} superado", notification.getId(), notification.getExpiresAt());
+        return NotificationResult.expired(notification.getId());
+    }
+
+    // Se invoca en el momento del envío real (tras la cola del dispatcher, si lo hay):
+    // usa el canal activo en ese momento, aunque se haya reemplazado mientras esperaba.
+    // Los filtros se aplican aquí y no al encolar, para que lo descartado, rechazado,
+    // caducado o cancelado en cola no consuma cupo del frequency capping
+    private CompletableFuture<NotificationResult> invokeAsync(Notification notification, String target) {
+        if (notification.isExpired()) {
+            return CompletableFuture.completedFuture(track(expired(notification)));
+        }
+        NotificationResult filtered = applyFilters(notification);
+        if (filtered != null) {
+            return CompletableFuture.completedFuture(track(filtered));
+        }
+        ChannelRegistry.Registration registration = target != null
+                ? channels.acquire(target)
+                : channels.acquire(notification.getChannelType());
+        if (registration == null) {
+            // Retirado mientras esperaba en la cola del dispatcher
+            return CompletableFuture.completedFuture(track(NotificationResult.failure(notification.getId(),
+                    channelNotFound(notification.getChannelType(), target).getMessage())));
+        }
+        NotificationChannel<Notification> channel = registration.channel();
+        ProviderCallEvent call = ProviderCallEvent.start(notification, channel.getProviderName());
+        CompletableFuture<NotificationResult> sending;
+        try {
+            sending = channel.sendAsync(notification);
+        } catch (RuntimeException e) {
+            call.finish(null, e);
+            registration.release();
+            return CompletableFuture.completedFuture(track(internalError(notification, e)));
+        }
+        return Futures.cancelling(sending
+                .whenComplete(call::finish)
+                .whenComplete((result, error) -> {
+                    registration.release();
+                    // Un fallo también se registra: quien espera el acuse no aguarda a su deadline
+                    track(error != null ? internalError(notification, error) : result);
+                }), sending);
+    }
+
+    // Resultado FAILED de un canal que lanzó o completó con excepción
+    private NotificationResult internalError(Notification notification, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return NotificationResult.failure(notification.getId(), "Envío cancelado");
+        }
+        log.error("Error inesperado enviando notificación {}: {}", notification.getId(), cause.getMessage(), cause);
+        return NotificationResult.failure(notification.getId(), "Error interno: " + cause.getMessage());
+    }
+
+    // Proveedor previsto al encolar; si el canal se reemplaza mientras espera, el evento
+    // de cola conserva el anterior y el de llamada al proveedor registra el nuevo
+    private String providerFor(Notification notification, String target) {
+        NotificationChannel<?> channel = target != null ? channels.get(target) : channels.get(notification.getChannelType());
+        return channel != null ? channel.getProviderName() : null;
+    }
+
     private void validateNotification(Notification notification) {
+        ValidationEvent event = ValidationEvent.start(notification);
         ValidationResult validationResult = validator.validate(notification);
+        event.finish(validationResult.isValid() ? "VALID" : "INVALID");
         if (!validationResult.isValid()) {
             throw new ValidationException(
                     "Notificación inválida: " + String.join(", ", validationResult.getErrors())
@@ -127,16 +358,36 @@ public class NotificationService {
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private NotificationChannel<Notification> getChannelFor(ChannelType type) {
-        NotificationChannel<?> channel = channels.get(type);
-        if (channel == null) {
-            throw new ChannelNotFoundException(
-                    "No hay canal registrado para: " + type +
-                    ". Canales disponibles: " + channels.keySet()
+    // Nombre del canal elegido por las reglas, o null para el canal del ChannelType
+    private String route(Notification notification) {
+        return router != null ? router.target(notification) : null;
+    }
+
+    private void checkChannelFor(ChannelType type, String target) {
+        if ((target != null ? channels.get(target) : channels.get(type)) == null) {
+            throw channelNotFound(type, target);
+        }
+    }
+
+    private ChannelRegistry.Registration acquireChannel(ChannelType type, String target) {
+        ChannelRegistry.Registration registration = target != null ? channels.acquire(target) : channels.acquire(type);
+        if (registration == null) {
+            throw channelNotFound(type, target);
+        }
+        return registration;
+    }
+
+    private ChannelNotFoundException channelNotFound(ChannelType type, String target) {
+        if (target != null) {
+            return new ChannelNotFoundException(
+                    "No hay canal registrado con nombre '" + target + "' para " + type +
+                    ". Canales con nombre: " + channels.names()
             );
         }
-        return (NotificationChannel<Notification>) channel;
+        return new ChannelNotFoundException(
+                "No hay canal registrado para: " + type +
+                ". Canales disponibles: " + channels.types()
+        );
     }
 
     // --- Builder Pattern para construir el servicio ---
@@ -160,6 +411,11 @@ public class NotificationService {
 
         private final Map<ChannelType, NotificationChannel<?>> channels = new HashMap<>();
         private NotificationValidator validator;
+        private Dispatcher dispatcher;
+        private final List<NotificationFilter> filters = new ArrayList<>();
+        private Router router;
+        private DeliveryStatusStore statusStore;
+        private final Map<ChannelType, Duration> timeouts = new EnumMap<>(ChannelType.class);
 
         /**
          * Registra un canal de notificación.
@@ -179,6 +435,55 @@ public class NotificationService {
             return this;
         }
 
+        /**
+         * Planificador para sendAsync/sendBatch (ej: PriorityDispatcher).
+         * Sin dispatcher, cada envío asíncrono va directo al canal.
+         */
+        public Builder dispatcher(Dispatcher dispatcher) {
+            this.dispatcher = dispatcher;
+            return this;
+        }
+
+        /**
+         * Añade una etapa previa al envío (se aplican en orden de registro).
+         */
+        public Builder filter(NotificationFilter filter) {
+            if (filter == null) {
+                throw new IllegalArgumentException("El filtro no puede ser nulo");
+            }
+            this.filters.add(filter);
+            return this;
+        }
+
+        /**
+         * Reglas de enrutado (destinatario, metadata) hacia canales con nombre.
+         * Sus canales se registran por nombre en el ChannelRegistry, donde se
+         * pueden reemplazar en caliente. Las notificaciones que no encajan en
+         * ninguna regla van al canal de su ChannelType.
+         */
+        public Builder router(Router router) {
+            this.router = router;
+            return this;
+        }
+
+        /**
+         * Timeout por defecto de sendAsync para un tipo de canal (incluye la
+         * espera en cola). Al vencer, el envío se cancela y el resultado es FAILED.
+         */
+        public Builder timeout(ChannelType type, Duration timeout) {
+            this.timeouts.put(type, timeout);
+            return this;
+        }
+
+        /**
+         * Registra el resultado de cada envío en el almacén de estados, donde
+         * los acuses del proveedor (webhooks) lo hacen avanzar.
+         */
+        public Builder statusStore(DeliveryStatusStore statusStore) {
+            this.statusStore = statusStore;
+            return this;
+        }
+
         /**
          * Construye el NotificationService con los canales registrados.
          *
@@ -197,7 +502,7 @@ public class NotificationService {
             }
 
             log.info("NotificationService creado con canales: {}", channels.keySet());
-            return new NotificationService(channels, validator);
+            return new NotificationService(channels, validator, dispatcher, filters, router, statusStore, timeouts);
         }
     }
 }
@@ -7,6 +7,15 @@ public enum NotificationStatus {
 
     PENDING,    // Notificación creada, esperando ser enviada
     SENT,       // Envío exitoso confirmado por el proveedor
+    DELIVERED,  // Entregada al dispositivo/buzón (acuse del proveedor)
+    READ,       // Leída/abierta por el destinatario (acuse del proveedor)
+    BOUNCED,    // Aceptada por el proveedor pero rechazada por el destino (rebote)
     FAILED,     // Error en el envío (validación o proveedor)
-    RETRYING    // Reintentando tras un fallo temporal
+    RETRYING,   // Reintentando tras un fallo temporal
+    EXPIRED,    // Descartada sin enviar: se alcanzó su deadline
+    REJECTED,   // Rechazada sin enviar: se superó el límite de concurrencia
+    SHED,       // Descartada sin enviar para acotar la latencia en sobrecarga
+    CAPPED,     // No enviada: el destinatario alcanzó su límite de frecuencia
+    SUPPRESSED, // No enviada: destinatario en lista de supresión (rebote, baja, token inválido)
+    COALESCED   // No enviada por separado: se fusionó con una notificación posterior al mismo destino
 }
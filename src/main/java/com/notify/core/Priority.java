@@ -0,0 +1,32 @@
+package com.notify.core;
+
+/**
+ * Clase de prioridad de una notificación.
+ *
+ * Determina el carril (cola, concurrencia y rate limit) por el que se despacha
+ * en un PriorityDispatcher. El orden de declaración es el orden de precedencia.
+ */
+public enum Priority {
+
+    CRITICAL,   // OTP, alertas de seguridad: nunca esperan detrás de otro tráfico
+    HIGH,       // Transaccional: reset de contraseña, confirmaciones de pedido
+    NORMAL,     // Valor por defecto
+    BULK;       // Campañas de marketing y envíos masivos
+
+    /**
+     * Interpreta el valor de la clave "priority" de la metadata.
+     * Acepta los nombres del enum (sin distinguir mayúsculas) y los alias
+     * "low" y "marketing" para BULK. Valores desconocidos o nulos: NORMAL.
+     */
+    public static Priority fromMetadata(String value) {
+        if (value == null || value.isBlank()) {
+            return NORMAL;
+        }
+        return switch (value.trim().toLowerCase()) {
+            case "critical", "urgent" -> CRITICAL;
+            case "high" -> HIGH;
+            case "bulk", "low", "marketing" -> BULK;
+            default -> NORMAL;
+        };
+    }
+}
@@ -0,0 +1,102 @@
+package com.notify.dispatch;
+
+import java.time.Duration;
+
+/**
+ * Control de admisión basado en el tiempo de permanencia en cola (CoDel).
+ *
+ * No mira la longitud de la cola sino cuánto esperan los elementos: si la
+ * espera se mantiene por encima de {@code target} durante todo un
+ * {@code interval}, el dispatcher entra en modo descarte y va eliminando
+ * elementos con una cadencia creciente (interval / sqrt(n)) hasta que la
+ * espera vuelve a bajar del objetivo. Una ráfaga corta no provoca descartes;
+ * una cola que no se vacía (proveedor degradado), sí.
+ *
+ * El estado solo se modifica desde el bucle de drenado del dispatcher. La
+ * instancia que recibe el dispatcher sirve de plantilla: cada carril lleva
+ * su propia copia, para que las esperas cortas de un carril prioritario no
+ * anulen la sobrecarga que acumula otro.
+ */
+public class CoDel {
+
+    private final long targetNanos;
+    private final long intervalNanos;
+
+    private long firstAboveTime;    // 0 = la espera está por debajo del objetivo
+    private long dropNext;
+    private int count;
+    private volatile boolean dropping;
+
+    /**
+     * @param target   Espera en cola tolerable (ej: 100ms)
+     * @param interval Ventana durante la que debe mantenerse por encima para descartar (ej: 1s)
+     */
+    public CoDel(Duration target, Duration interval) {
+        if (target.isNegative() || target.isZero() || interval.compareTo(target) < 0) {
+            throw new IllegalArgumentException("Se requiere 0 < target <= interval");
+        }
+        this.targetNanos = target.toNanos();
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Instancia nueva con los mismos parámetros y sin estado.
+     */
+    CoDel copy() {
+        return new CoDel(getTarget(), getInterval());
+    }
+
+    /**
+     * Registra la espera del elemento que acaba de salir de la cola.
+     *
+     * @param sojournNanos Tiempo que pasó en cola
+     * @param now          System.nanoTime() actual
+     * @return true si toca descartar un elemento
+     */
+    boolean onDequeue(long sojournNanos, long now) {
+        if (sojournNanos < targetNanos) {
+            firstAboveTime = 0;
+            dropping = false;
+            return false;
+        }
+        if (firstAboveTime == 0) {
+            firstAboveTime = now + intervalNanos;
+            return false;
+        }
+        if (!dropping) {
+            if (now - firstAboveTime < 0) {
+                return false;
+            }
+            dropping = true;
+            // Si se acaba de salir de un episodio de descarte, retomar cerca de su cadencia
+            count = count > 2 && now - dropNext < 8 * intervalNanos ? count - 2 : 1;
+            dropNext = controlLaw(now);
+            return true;
+        }
+        if (now - dropNext >= 0) {
+            count++;
+            dropNext = controlLaw(dropNext);
+            return true;
+        }
+        return false;
+    }
+
+    private long controlLaw(long from) {
+        return from + (long) (intervalNanos / Math.sqrt(count));
+    }
+
+    /**
+     * Indica si el dispatcher está descartando por sobrecarga.
+     */
+    public boolean isDropping() {
+        return dropping;
+    }
+
+    public Duration getTarget() {
+        return Duration.ofNanos(targetNanos);
+    }
+
+    public Duration getInterval() {
+        return Duration.ofNanos(intervalNanos);
+    }
+}
@@ -0,0 +1,45 @@
+package com.notify.dispatch;
+
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Planificador de envíos asíncronos de NotificationService.
+ *
+ * Decide CUÁNDO se ejecuta cada envío (colas, concurrencia, rate limits);
+ * el envío en sí lo aporta el servicio como un Supplier que invoca al canal.
+ */
+public interface Dispatcher {
+
+    /**
+     * Encola un envío y retorna un future que se completa con su resultado.
+     *
+     * @param notification Notificación ya validada
+     * @param providerName Proveedor que hará el envío (para los eventos JFR de cola; puede ser null)
+     * @param send         Acción que realiza el envío cuando el dispatcher lo decide
+     * @return CompletableFuture con el resultado del envío (o del rechazo)
+     */
+    CompletableFuture<NotificationResult> dispatch(Notification notification, String providerName,
+                                                   Supplier<CompletableFuture<NotificationResult>> send);
+
+    /**
+     * Encola un envío sin proveedor conocido.
+     */
+    default CompletableFuture<NotificationResult> dispatch(Notification notification,
+                                                           Supplier<CompletableFuture<NotificationResult>> send) {
+        return dispatch(notification, null, send);
+    }
+
+    /**
+     * Envíos encolados esperando turno.
+     */
+    int getQueuedCount();
+
+    /**
+     * Envíos en curso (ya entregados al canal y sin completar).
+     */
+    int getInFlightCount();
+}
@@ -0,0 +1,233 @@
+package com.notify.dispatch;
+
+import com.notify.core.Futures;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Dispatcher que conserva el orden por clave: los envíos con la misma clave
+ * (por defecto el destinatario) salen en el orden en que se encolaron, y
+ * cada uno empieza cuando el anterior ha terminado. Así "pedido realizado"
+ * nunca llega al dispositivo después de "pedido enviado".
+ *
+ * La clave se reparte por hash entre un número fijo de carriles serie. Cada
+ * carril tiene su propia cola sin locks y a lo sumo un envío en curso; el
+ * carril que termina un envío lanza el siguiente desde el callback del
+ * future, sin hilos propios. Carriles distintos avanzan en paralelo sin
+ * compartir nada: no hay lock ni bucle de drenado global.
+ *
+ * El número de carriles es a la vez el máximo de envíos en curso y el
+ * grado de aislamiento: dos claves que caen en el mismo carril se esperan
+ * entre sí. Con claves aleatorias y C carriles, un envío lento retrasa a
+ * ~1/C del tráfico.
+ */
+public class KeyedDispatcher implements Dispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyedDispatcher.class);
+
+    private final SerialLane[] lanes;
+    private final int mask;
+    private final Function<Notification, ?> keyExtractor;
+    private final int maxQueueSize;
+
+    private KeyedDispatcher(Builder builder) {
+        int count = Integer.highestOneBit(builder.lanes - 1) << 1;   // Siguiente potencia de dos
+        this.lanes = new SerialLane[Math.max(1, count)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new SerialLane(i);
+        }
+        this.mask = lanes.length - 1;
+        this.keyExtractor = builder.keyExtractor;
+        this.maxQueueSize = builder.maxQueueSize;
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> dispatch(Notification notification, String providerName,
+                                                          Supplier<CompletableFuture<NotificationResult>> send) {
+        if (notification.isExpired()) {
+            return CompletableFuture.completedFuture(NotificationResult.expired(notification.getId()));
+        }
+        SerialLane lane = laneFor(notification);
+        QueuedTask task = new QueuedTask(notification, providerName, send);
+        if (!lane.offer(task)) {
+            task.queueEvent.finish("REJECTED");
+            log.warn("Carril {} lleno ({} elementos). Rechazando notificación {}",
+                    lane.index, maxQueueSize, notification.getId());
+            return CompletableFuture.completedFuture(NotificationResult.failure(
+                    notification.getId(), "Carril " + lane.index + " lleno"));
+        }
+        lane.drain();
+        return task.result;
+    }
+
+    /**
+     * Carril que corresponde a una notificación. Una clave nula no exige
+     * orden: se reparte por el id de la notificación.
+     */
+    SerialLane laneFor(Notification notification) {
+        Object key = keyExtractor.apply(notification);
+        return lanes[spread((key != null ? key : notification.getId()).hashCode()) & mask];
+    }
+
+    /**
+     * Índice de carril de una notificación (mismo índice = mismo orden).
+     */
+    public int laneOf(Notification notification) {
+        return laneFor(notification).index;
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    @Override
+    public int getQueuedCount() {
+        int total = 0;
+        for (SerialLane lane : lanes) {
+            total += lane.size.get();
+        }
+        return total;
+    }
+
+    @Override
+    public int getInFlightCount() {
+        int total = 0;
+        for (SerialLane lane : lanes) {
+            if (lane.running) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // Mezcla los bits altos del hash: las claves con hashCode parecidos (teléfonos, ids secuenciales) no se agrupan
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // --- Carril serie ---
+
+    /**
+     * Cola MPSC con a lo sumo un envío en curso. Cualquier hilo puede encolar;
+     * el que gana el CAS de {@code busy} lanza el siguiente envío y lo suelta
+     * en cuanto el envío está en vuelo (o la cola vacía).
+     */
+    final class SerialLane {
+        private final int index;
+        private final Queue<QueuedTask> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private volatile boolean running;   // Hay un envío en vuelo: nadie más lanza hasta que termine
+
+        private SerialLane(int index) {
+            this.index = index;
+        }
+
+        boolean offer(QueuedTask task) {
+            if (size.incrementAndGet() > maxQueueSize) {
+                size.decrementAndGet();
+                return false;
+            }
+            queue.offer(task);
+            return true;
+        }
+
+        /**
+         * Lanza el siguiente envío si el carril está libre. Los envíos que se
+         * completan en el acto se encadenan en bucle (sin recursión).
+         */
+        void drain() {
+            while (!running && !queue.isEmpty() && busy.compareAndSet(false, true)) {
+                QueuedTask task;
+                while (!running && (task = queue.poll()) != null) {
+                    size.decrementAndGet();
+                    if (task.result.isCancelled()) {
+                        task.queueEvent.finish("CANCELLED");
+                        continue;
+                    }
+                    if (task.notification.isExpired()) {
+                        task.queueEvent.finish("EXPIRED");
+                        log.warn("Notificación {} expirada tras {}ms en cola", task.notification.getId(),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAtNanos));
+                        task.result.complete(NotificationResult.expired(task.notification.getId()));
+                        continue;
+                    }
+                    start(task);
+                }
+                busy.set(false);
+                // Se vuelve a comprobar tras soltar busy: un envío que terminó o una tarea que
+                // llegó mientras se tenía busy no encontraron el carril libre y cuentan con este bucle
+            }
+        }
+
+        // Si el envío queda en vuelo, running impide lanzar otro hasta su callback
+        private void start(QueuedTask task) {
+            task.queueEvent.finish("DEQUEUED");
+            running = true;
+            CompletableFuture<NotificationResult> sending;
+            try {
+                sending = task.send.get();
+            } catch (Exception e) {
+                sending = CompletableFuture.failedFuture(e);
+            }
+            Futures.propagateCancel(task.result, sending);
+            // Si ya terminó, el callback corre aquí mismo y su drain() no consigue busy: sigue este bucle
+            sending.whenComplete((result, error) -> {
+                running = false;
+                if (error != null) {
+                    task.result.completeExceptionally(error);
+                } else {
+                    task.result.complete(result);
+                }
+                drain();
+            });
+        }
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int lanes = 64;
+        private Function<Notification, ?> keyExtractor = Notification::getRecipient;
+        private int maxQueueSize = 10_000;
+
+        /**
+         * Número de carriles (se redondea a potencia de dos): máximo de envíos en curso.
+         */
+        public Builder lanes(int lanes) { this.lanes = lanes; return this; }
+
+        /**
+         * Clave de orden (por defecto el destinatario). Ej: n -> n.getMetadata().get("orderId").
+         */
+        public Builder key(Function<Notification, ?> keyExtractor) { this.keyExtractor = keyExtractor; return this; }
+
+        /**
+         * Máximo de envíos encolados por carril.
+         */
+        public Builder maxQueueSize(int maxQueueSize) { this.maxQueueSize = maxQueueSize; return this; }
+
+        public KeyedDispatcher build() {
+            if (lanes < 1) throw new IllegalArgumentException("lanes debe ser >= 1");
+            if (lanes > 1 << 20) throw new IllegalArgumentException("lanes debe ser <= 2^20");
+            if (keyExtractor == null) throw new IllegalArgumentException("La clave de orden es obligatoria");
+            if (maxQueueSize < 1) throw new IllegalArgumentException("maxQueueSize debe ser >= 1");
+            return new KeyedDispatcher(this);
+        }
+    }
+}
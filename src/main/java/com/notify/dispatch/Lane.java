@@ -0,0 +1,104 @@
+package com.notify.dispatch;
+
+import com.notify.ratelimit.TokenBucket;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carril de despacho: cola propia + límites de concurrencia y tasa.
+ *
+ * Productores concurrentes encolan con {@link #offer}; solo el bucle de
+ * drenado del dispatcher (un hilo a la vez) consume con {@link #poll}.
+ *
+ * Un carril vacío e inactivo puede retirarse ({@link #retireIfIdle}): a
+ * partir de ese momento rechaza los offer y el dispatcher pide otro carril.
+ */
+final class Lane {
+
+    private static final int RETIRED = -1;
+
+    final String name;
+    final LaneConfig config;
+    final TokenBucket rateLimiter;   // null = sin límite de tasa
+
+    private final Queue<QueuedTask> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicBoolean wakeupScheduled = new AtomicBoolean();
+
+    private volatile long lastActiveNanos = System.nanoTime();
+
+    // Estado de planificación y de CoDel propio, solo accedidos desde el bucle de drenado
+    long schedulingCredit;
+    CoDel shedder;
+
+    Lane(String name, LaneConfig config) {
+        this.name = name;
+        this.config = config;
+        this.rateLimiter = config.getRatePerSecond() > 0
+                ? new TokenBucket(config.getRatePerSecond(), config.getBurst())
+                : null;
+    }
+
+    /**
+     * Encola respetando el tamaño máximo.
+     *
+     * @return false si la cola está llena o el carril se retiró
+     */
+    boolean offer(QueuedTask task) {
+        int current;
+        do {
+            current = queued.get();
+            if (current == RETIRED || current >= config.getMaxQueueSize()) {
+                return false;
+            }
+        } while (!queued.compareAndSet(current, current + 1));
+        lastActiveNanos = System.nanoTime();
+        queue.offer(task);
+        return true;
+    }
+
+    QueuedTask poll() {
+        QueuedTask task = queue.poll();
+        if (task != null) {
+            queued.decrementAndGet();
+        }
+        return task;
+    }
+
+    QueuedTask peek() {
+        return queue.peek();
+    }
+
+    boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    boolean hasCapacity() {
+        return inFlight.get() < config.getMaxConcurrency();
+    }
+
+    int queuedCount() {
+        return Math.max(0, queued.get());
+    }
+
+    /**
+     * Retira el carril si no tiene nada encolado ni en curso y no recibe
+     * envíos desde {@code idleSinceNanos}. Solo desde el bucle de drenado,
+     * que es el único que incrementa inFlight.
+     *
+     * @return true si se retiró
+     */
+    boolean retireIfIdle(long idleSinceNanos) {
+        return inFlight.get() == 0
+                && lastActiveNanos - idleSinceNanos < 0
+                && queued.compareAndSet(0, RETIRED);
+    }
+
+    boolean isRetired() {
+        return queued.get() == RETIRED;
+    }
+}
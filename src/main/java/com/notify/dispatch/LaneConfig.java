@@ -0,0 +1,76 @@
+package com.notify.dispatch;
+
+/**
+ * Configuración de un carril de despacho (una cola con sus límites).
+ */
+public class LaneConfig {
+
+    private final int maxConcurrency;     // Envíos en curso simultáneos del carril
+    private final double ratePerSecond;   // 0 = sin límite de tasa
+    private final int burst;              // Ráfaga permitida por el rate limit
+    private final int maxQueueSize;       // Envíos encolados antes de rechazar
+    private final int weight;             // Peso en la planificación ponderada
+
+    private LaneConfig(Builder builder) {
+        this.maxConcurrency = builder.maxConcurrency;
+        this.ratePerSecond = builder.ratePerSecond;
+        this.burst = builder.burst;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.weight = builder.weight;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public int getMaxQueueSize() {
+        return maxQueueSize;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    @Override
+    public String toString() {
+        return "LaneConfig[concurrency=" + maxConcurrency + ", rate=" + ratePerSecond +
+                "/s, queue=" + maxQueueSize + ", weight=" + weight + "]";
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxConcurrency = Integer.MAX_VALUE;
+        private double ratePerSecond = 0;
+        private int burst = 1;
+        private int maxQueueSize = Integer.MAX_VALUE;
+        private int weight = 1;
+
+        public Builder maxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; return this; }
+        public Builder ratePerSecond(double ratePerSecond) { this.ratePerSecond = ratePerSecond; return this; }
+        public Builder burst(int burst) { this.burst = burst; return this; }
+        public Builder maxQueueSize(int maxQueueSize) { this.maxQueueSize = maxQueueSize; return this; }
+        public Builder weight(int weight) { this.weight = weight; return this; }
+
+        public LaneConfig build() {
+            if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency debe ser >= 1");
+            if (ratePerSecond < 0) throw new IllegalArgumentException("ratePerSecond debe ser >= 0");
+            if (burst < 1) throw new IllegalArgumentException("burst debe ser >= 1");
+            if (maxQueueSize < 0) throw new IllegalArgumentException("maxQueueSize debe ser >= 0");
+            if (weight < 1) throw new IllegalArgumentException("weight debe ser >= 1");
+            return new LaneConfig(this);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.notify.dispatch;
+
+import com.notify.core.Futures;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Base de los dispatchers basados en carriles.
+ *
+ * No usa hilos propios ni locks: cada encolado y cada envío completado
+ * disparan el bucle de drenado, que un único hilo ejecuta a la vez (contador
+ * "work in progress"). Las subclases solo deciden a qué carril va cada
+ * notificación y qué carril se atiende a continuación.
+ *
+ * Opcionalmente aplica control de carga {@link CoDel}: si la espera en cola
+ * de un carril se mantiene por encima del objetivo, descarta envíos con
+ * estado SHED en el carril que indique {@link #sheddingLane(Lane)}. Cada
+ * carril mide su propia espera: los envíos rápidos de un carril no anulan
+ * la sobrecarga de otro. Un carril que se vacía sale del modo descarte (como
+ * en CoDel, una cola vacía no está sobrecargada).
+ */
+abstract class LaneDispatcher implements Dispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(LaneDispatcher.class);
+
+    private final int maxConcurrency;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final CoDel shedder;   // Plantilla de los CoDel por carril; null = sin descarte por sobrecarga
+    private final List<Lane> sheddingLanes = new CopyOnWriteArrayList<>();   // Carriles con CoDel propio
+    private final AtomicLong shedCount = new AtomicLong();
+
+    LaneDispatcher(int maxConcurrency, CoDel shedder) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency debe ser >= 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.shedder = shedder;
+    }
+
+    /**
+     * Carril al que pertenece la notificación.
+     */
+    abstract Lane laneFor(Notification notification);
+
+    /**
+     * Elige el próximo carril a atender, o null si ninguno puede avanzar.
+     * Se invoca solo desde el bucle de drenado. El carril retornado debe
+     * tener elementos, capacidad y (si aplica) un token ya consumido.
+     */
+    abstract Lane nextLane();
+
+    /**
+     * Carril del que descartar cuando CoDel lo indica, o null para no
+     * descartar. Si retorna el carril actual se descarta el elemento que
+     * acaba de salir de él. Por defecto: el carril actual (CoDel clásico).
+     */
+    Lane sheddingLane(Lane current) {
+        return current;
+    }
+
+    /**
+     * Indica si un envío nuevo se descarta al llegar, sin encolarlo.
+     * Por defecto nunca.
+     */
+    boolean shedOnArrival(Lane lane) {
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> dispatch(Notification notification, String providerName,
+                                                          Supplier<CompletableFuture<NotificationResult>> send) {
+        if (notification.isExpired()) {
+            return CompletableFuture.completedFuture(NotificationResult.expired(notification.getId()));
+        }
+        Lane lane = laneFor(notification);
+        QueuedTask task = new QueuedTask(notification, providerName, send);
+        if (shedOnArrival(lane)) {
+            shed(task);
+            return task.result;
+        }
+        while (!lane.offer(task)) {
+            if (lane.isRetired()) {
+                lane = laneFor(notification);   // Retirado por inactividad entre laneFor y offer
+                continue;
+            }
+            task.queueEvent.finish("REJECTED");
+            log.warn("Cola '{}' llena ({} elementos). Rechazando notificación {}",
+                    lane.name, lane.config.getMaxQueueSize(), notification.getId());
+            return CompletableFuture.completedFuture(NotificationResult.failure(
+                    notification.getId(), "Cola '" + lane.name + "' llena"));
+        }
+        drain();
+        return task.result;
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Ejecuta envíos mientras haya capacidad global y algún carril listo.
+     */
+    final void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;  // Otro hilo está drenando; verá nuestro incremento y repetirá
+        }
+        int missed = 1;
+        do {
+            while (inFlight.get() < maxConcurrency) {
+                Lane lane = nextLane();
+                if (lane == null) {
+                    break;
+                }
+                QueuedTask task = lane.poll();
+                if (task == null) {
+                    break;
+                }
+                if (task.result.isCancelled()) {
+                    task.queueEvent.finish("CANCELLED");   // Cancelado en cola: no llega a ocupar hueco
+                    continue;
+                }
+                if (task.notification.isExpired()) {
+                    expire(task);   // No ocupa hueco de concurrencia
+                    continue;
+                }
+                if (shedder != null && shedVictim(lane, task)) {
+                    continue;       // Se descartó el propio elemento
+                }
+                start(lane, task);
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Indica si el carril tiene elementos, capacidad y token disponible.
+     * Si solo le falta el token, programa un drenado para cuando lo haya.
+     */
+    final boolean isReady(Lane lane) {
+        if (lane.isEmpty() || !lane.hasCapacity()) {
+            return false;
+        }
+        if (lane.rateLimiter != null) {
+            long wait = lane.rateLimiter.nanosUntilAvailable();
+            if (wait > 0) {
+                scheduleWakeup(lane, wait);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Consume un token del carril si tiene rate limit. Si no hay token,
+     * programa un nuevo drenado para cuando lo haya.
+     *
+     * @return true si el carril puede despachar ahora
+     */
+    final boolean acquireRate(Lane lane) {
+        if (lane.rateLimiter == null || lane.rateLimiter.tryAcquire()) {
+            return true;
+        }
+        scheduleWakeup(lane, lane.rateLimiter.nanosUntilAvailable());
+        return false;
+    }
+
+    /**
+     * Programa un drenado diferido (una sola espera pendiente por carril).
+     */
+    final void scheduleWakeup(Lane lane, long delayNanos) {
+        if (lane.wakeupScheduled.compareAndSet(false, true)) {
+            // El drenado despacha envíos: sale del hilo del temporizador compartido
+            Futures.schedule(() -> ForkJoinPool.commonPool().execute(() -> {
+                lane.wakeupScheduled.set(false);
+                drain();
+            }), Duration.ofNanos(Math.max(delayNanos, 1)));
+        }
+    }
+
+    /**
+     * Consulta CoDel con la espera del elemento y, si toca, descarta uno.
+     *
+     * @return true si el descartado fue el propio elemento
+     */
+    private boolean shedVictim(Lane lane, QueuedTask task) {
+        if (lane.shedder == null) {
+            lane.shedder = shedder.copy();
+            sheddingLanes.add(lane);
+        }
+        long now = System.nanoTime();
+        // Si era el último elemento la cola se vació: cuenta como espera bajo el objetivo
+        long sojourn = lane.isEmpty() ? 0 : now - task.enqueuedAtNanos;
+        if (!lane.shedder.onDequeue(sojourn, now)) {
+            return false;
+        }
+        Lane victimLane = sheddingLane(lane);
+        if (victimLane == null) {
+            return false;
+        }
+        if (victimLane != lane) {
+            QueuedTask victim = victimLane.poll();
+            if (victim != null) {
+                shed(victim);
+                return false;
+            }
+        }
+        shed(task);
+        return true;
+    }
+
+    /**
+     * Completa con SHED un envío descartado por sobrecarga.
+     */
+    void shed(QueuedTask task) {
+        shedCount.incrementAndGet();
+        task.queueEvent.finish("SHED");
+        log.warn("Notificación {} descartada por sobrecarga (prioridad {}, {}ms en cola)",
+                task.notification.getId(), task.notification.getPriority(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAtNanos));
+        task.result.complete(NotificationResult.shed(task.notification.getId()));
+    }
+
+    /**
+     * Envíos descartados por sobrecarga desde la creación del dispatcher.
+     */
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
+    /**
+     * Indica si el control de carga está descartando en este momento (en
+     * algún carril con elementos en cola). Un carril que quedó en modo
+     * descarte y se vació, aunque no vuelva a salir nada de él, no cuenta.
+     */
+    public boolean isShedding() {
+        for (Lane lane : sheddingLanes) {
+            if (lane.shedder.isDropping() && !lane.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Completa con EXPIRED un envío que superó su deadline mientras esperaba en cola.
+     */
+    void expire(QueuedTask task) {
+        task.queueEvent.finish("EXPIRED");
+        log.warn("Notificación {} expirada tras {}ms en cola", task.notification.getId(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueuedAtNanos));
+        task.result.complete(NotificationResult.expired(task.notification.getId()));
+    }
+
+    /**
+     * Lanza el envío y, al completarse, libera la capacidad y vuelve a drenar.
+     * Cancelar el future del envío cancela el del canal, que libera la
+     * capacidad en ese momento.
+     */
+    void start(Lane lane, QueuedTask task) {
+        lane.inFlight.incrementAndGet();
+        inFlight.incrementAndGet();
+        task.queueEvent.finish("DEQUEUED");
+
+        CompletableFuture<NotificationResult> sending;
+        try {
+            sending = task.send.get();
+        } catch (Exception e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+
+        sending.whenComplete((result, error) -> {
+            lane.inFlight.decrementAndGet();
+            inFlight.decrementAndGet();
+            if (error != null) {
+                task.result.completeExceptionally(error);
+            } else {
+                task.result.complete(result);
+            }
+            drain();
+        });
+        Futures.propagateCancel(task.result, sending);
+    }
+}
@@ -0,0 +1,194 @@
+package com.notify.dispatch;
+
+import com.notify.core.Notification;
+import com.notify.core.Priority;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Dispatcher con un carril por {@link Priority}.
+ *
+ * Cada prioridad tiene su propia cola, cuota de concurrencia y rate limit,
+ * así que una campaña BULK con millones de elementos encolados no retrasa a
+ * un OTP CRITICAL: este entra en otra cola y se atiende primero.
+ *
+ * Planificación:
+ * - STRICT: siempre se atiende el carril de mayor prioridad que pueda avanzar.
+ * - WEIGHTED: CRITICAL sigue siendo estricto; el resto se reparte con round
+ *   robin ponderado suave según el peso de cada carril, evitando inanición
+ *   de BULK cuando hay tráfico HIGH/NORMAL constante.
+ *
+ * Por defecto BULK puede usar como máximo la mitad de la concurrencia global,
+ * dejando siempre capacidad libre para el resto de prioridades.
+ *
+ * Con {@link Builder#loadShedding(CoDel)}, cuando la espera en cola se
+ * mantiene por encima del objetivo se descarta primero el tráfico de menor
+ * prioridad (BULK, luego NORMAL, luego HIGH) y, mientras dura la sobrecarga,
+ * los BULK nuevos se descartan al llegar. CRITICAL nunca se descarta.
+ */
+public class PriorityDispatcher extends LaneDispatcher {
+
+    public enum Scheduling {
+        STRICT,
+        WEIGHTED
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final Lane[] laneArray = new Lane[PRIORITIES.length];
+    private final Scheduling scheduling;
+
+    private PriorityDispatcher(Builder builder) {
+        super(builder.maxConcurrency, builder.shedder);
+        this.scheduling = builder.scheduling;
+        for (Priority priority : PRIORITIES) {
+            LaneConfig config = builder.lanes.getOrDefault(priority, defaultConfig(priority, builder.maxConcurrency));
+            Lane lane = new Lane(priority.name(), config);
+            lanes.put(priority, lane);
+            laneArray[priority.ordinal()] = lane;
+        }
+    }
+
+    private static LaneConfig defaultConfig(Priority priority, int maxConcurrency) {
+        return switch (priority) {
+            case CRITICAL -> LaneConfig.builder().weight(8).build();
+            case HIGH -> LaneConfig.builder().weight(4).build();
+            case NORMAL -> LaneConfig.builder().weight(2).build();
+            case BULK -> LaneConfig.builder().weight(1).maxConcurrency(Math.max(1, maxConcurrency / 2)).build();
+        };
+    }
+
+    @Override
+    Lane laneFor(Notification notification) {
+        return lanes.get(notification.getPriority());
+    }
+
+    @Override
+    Lane nextLane() {
+        return scheduling == Scheduling.STRICT ? nextStrict() : nextWeighted();
+    }
+
+    private Lane nextStrict() {
+        for (Lane lane : laneArray) {
+            if (isReady(lane) && acquireRate(lane)) {
+                return lane;
+            }
+        }
+        return null;
+    }
+
+    // Smooth weighted round robin (como nginx) entre los carriles no críticos listos
+    private Lane nextWeighted() {
+        Lane critical = laneArray[Priority.CRITICAL.ordinal()];
+        if (isReady(critical) && acquireRate(critical)) {
+            return critical;
+        }
+
+        Lane best = null;
+        long totalWeight = 0;
+        for (int i = Priority.CRITICAL.ordinal() + 1; i < laneArray.length; i++) {
+            Lane lane = laneArray[i];
+            if (!isReady(lane)) {
+                continue;
+            }
+            lane.schedulingCredit += lane.config.getWeight();
+            totalWeight += lane.config.getWeight();
+            if (best == null || lane.schedulingCredit > best.schedulingCredit) {
+                best = lane;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.schedulingCredit -= totalWeight;
+        return acquireRate(best) ? best : null;
+    }
+
+    // El carril pendiente de menor prioridad; el actual si no hay ninguno por debajo
+    @Override
+    Lane sheddingLane(Lane current) {
+        for (int i = laneArray.length - 1; i > Priority.CRITICAL.ordinal(); i--) {
+            Lane lane = laneArray[i];
+            if (lane == current || !lane.isEmpty()) {
+                return lane;
+            }
+        }
+        return null;   // Solo queda CRITICAL
+    }
+
+    @Override
+    boolean shedOnArrival(Lane lane) {
+        return lane == laneArray[Priority.BULK.ordinal()] && isShedding();
+    }
+
+    /**
+     * Elementos encolados en una prioridad concreta.
+     */
+    public int getQueuedCount(Priority priority) {
+        return lanes.get(priority).queuedCount();
+    }
+
+    /**
+     * Envíos en curso de una prioridad concreta.
+     */
+    public int getInFlightCount(Priority priority) {
+        return lanes.get(priority).inFlight.get();
+    }
+
+    @Override
+    public int getQueuedCount() {
+        int total = 0;
+        for (Lane lane : laneArray) {
+            total += lane.queuedCount();
+        }
+        return total;
+    }
+
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxConcurrency = 64;
+        private Scheduling scheduling = Scheduling.STRICT;
+        private final Map<Priority, LaneConfig> lanes = new EnumMap<>(Priority.class);
+        private CoDel shedder;
+
+        /**
+         * Envíos en curso simultáneos entre todos los carriles.
+         */
+        public Builder maxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; return this; }
+        public Builder scheduling(Scheduling scheduling) { this.scheduling = scheduling; return this; }
+
+        /**
+         * Configura el carril de una prioridad (las no configuradas usan valores por defecto).
+         */
+        public Builder lane(Priority priority, LaneConfig config) {
+            this.lanes.put(priority, config);
+            return this;
+        }
+
+        /**
+         * Activa el descarte por sobrecarga (ej: new CoDel(100ms, 1s)).
+         */
+        public Builder loadShedding(CoDel shedder) {
+            this.shedder = shedder;
+            return this;
+        }
+
+        public PriorityDispatcher build() {
+            if (scheduling == null) {
+                throw new IllegalArgumentException("scheduling es obligatorio");
+            }
+            return new PriorityDispatcher(this);
+        }
+    }
+}
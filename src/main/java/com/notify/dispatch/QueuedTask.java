@@ -0,0 +1,28 @@
+package com.notify.dispatch;
+
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import com.notify.jfr.QueueEvent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Envío encolado en un carril, a la espera de que el dispatcher lo ejecute.
+ */
+final class QueuedTask {
+
+    final Notification notification;
+    final Supplier<CompletableFuture<NotificationResult>> send;
+    final CompletableFuture<NotificationResult> result = new CompletableFuture<>();
+    final QueueEvent queueEvent;
+    final long enqueuedAtNanos;
+
+    QueuedTask(Notification notification, String providerName,
+               Supplier<CompletableFuture<NotificationResult>> send) {
+        this.notification = notification;
+        this.send = send;
+        this.queueEvent = QueueEvent.start(notification, providerName);
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,249 @@
+package com.notify.dispatch;
+
+import com.notify.core.Notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Dispatcher con un carril por tenant (equipo o cliente que origina el envío).
+ *
+ * Cada tenant tiene su propia cola acotada y sus límites de concurrencia y
+ * tasa (bulkhead): un envío masivo de un tenant llena SU cola y consume SU
+ * cuota, pero no los workers del resto.
+ *
+ * Entre tenants se reparte con Deficit Round Robin: al llegarle el turno,
+ * cada carril recibe un quantum igual a su peso y despacha mientras le quede
+ * crédito; un carril que se vacía pierde el crédito acumulado. Así cada
+ * tenant con tráfico pendiente obtiene una fracción proporcional a su peso,
+ * independientemente de cuánto haya encolado.
+ *
+ * Los carriles se crean al recibir el primer envío de cada tenant, con la
+ * configuración registrada para él o la configuración por defecto, y se
+ * retiran tras {@code idleTimeout} sin envíos, vacíos y sin nada en curso.
+ * Como mucho hay {@code maxTenants} carriles propios; a partir de ahí los
+ * tenants sin configuración registrada comparten un carril común con la
+ * configuración por defecto. Así ids de tenant efímeros o muy numerosos no
+ * hacen crecer la memoria ni alargan cada ronda.
+ */
+public class TenantDispatcher extends LaneDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantDispatcher.class);
+
+    private static final String OVERFLOW_LANE = "(compartido)";
+
+    private final Map<String, LaneConfig> tenantConfigs;
+    private final LaneConfig defaultConfig;
+    private final int maxTenants;
+    private final long idleTimeoutNanos;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    // Orden de la ronda; se añade al crear un tenant (poco frecuente) y se lee en cada drenado
+    private final List<Lane> order = new CopyOnWriteArrayList<>();
+
+    private volatile Lane overflow;
+
+    // Posición de la ronda y próxima limpieza, solo accedidas desde el bucle de drenado
+    private int cursor;
+    private long nextSweepNanos;
+
+    private TenantDispatcher(Builder builder) {
+        super(builder.maxConcurrency, null);
+        this.tenantConfigs = new HashMap<>(builder.tenants);
+        this.defaultConfig = builder.defaultConfig != null
+                ? builder.defaultConfig
+                : LaneConfig.builder()
+                        .maxConcurrency(Math.max(1, builder.maxConcurrency / 4))
+                        .maxQueueSize(10_000)
+                        .build();
+        this.maxTenants = builder.maxTenants;
+        this.idleTimeoutNanos = builder.idleTimeout.toNanos();
+        this.nextSweepNanos = System.nanoTime() + idleTimeoutNanos;
+    }
+
+    @Override
+    Lane laneFor(Notification notification) {
+        String tenant = notification.getTenantId();
+        Lane lane = lanes.get(tenant);
+        if (lane != null && lane.isRetired()) {
+            lanes.remove(tenant, lane);
+            lane = null;
+        }
+        if (lane != null) {
+            return lane;
+        }
+        if (lanes.size() >= maxTenants && !tenantConfigs.containsKey(tenant)) {
+            return overflowLane();
+        }
+        return lanes.computeIfAbsent(tenant, id -> {
+            Lane created = new Lane(id, tenantConfigs.getOrDefault(id, defaultConfig));
+            order.add(created);
+            return created;
+        });
+    }
+
+    private Lane overflowLane() {
+        Lane lane = overflow;
+        if (lane == null) {
+            synchronized (this) {
+                lane = overflow;
+                if (lane == null) {
+                    lane = new Lane(OVERFLOW_LANE, defaultConfig);
+                    order.add(lane);
+                    overflow = lane;
+                    log.warn("Superado el máximo de {} tenants con carril propio: el resto comparte uno", maxTenants);
+                }
+            }
+        }
+        return lane;
+    }
+
+    @Override
+    Lane nextLane() {
+        long now = System.nanoTime();
+        if (now - nextSweepNanos >= 0) {
+            nextSweepNanos = now + idleTimeoutNanos;
+            retireIdleLanes(now - idleTimeoutNanos);
+        }
+        int size = order.size();
+        if (size == 0) {
+            return null;
+        }
+        // size + 1 visitas: el carril inicial tiene otra oportunidad tras recargar su quantum
+        for (int visited = 0; visited <= size; visited++) {
+            if (cursor >= size) {
+                cursor = 0;
+            }
+            Lane lane = order.get(cursor);
+            if (lane.schedulingCredit > 0 && isReady(lane) && acquireRate(lane)) {
+                lane.schedulingCredit--;
+                return lane;
+            }
+            if (lane.isEmpty()) {
+                lane.schedulingCredit = 0;
+            }
+
+            cursor = (cursor + 1) % size;
+            Lane next = order.get(cursor);
+            if (!next.isEmpty()) {
+                // Crédito acotado al quantum: un carril bloqueado no acumula ráfagas
+                int quantum = next.config.getWeight();
+                next.schedulingCredit = Math.min(next.schedulingCredit + quantum, quantum);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retira los carriles sin actividad desde {@code idleSinceNanos}. El
+     * carril compartido se conserva.
+     */
+    private void retireIdleLanes(long idleSinceNanos) {
+        List<Lane> retired = new ArrayList<>();
+        for (Lane lane : order) {
+            if (lane != overflow && lane.retireIfIdle(idleSinceNanos)) {
+                lanes.remove(lane.name, lane);
+                retired.add(lane);
+            }
+        }
+        if (!retired.isEmpty()) {
+            order.removeAll(retired);
+            log.debug("Retirados {} carriles de tenant inactivos ({} activos)", retired.size(), order.size());
+        }
+    }
+
+    /**
+     * Elementos encolados de un tenant (0 si no tiene carril propio).
+     */
+    public int getQueuedCount(String tenantId) {
+        Lane lane = lanes.get(tenantId);
+        return lane != null ? lane.queuedCount() : 0;
+    }
+
+    /**
+     * Envíos en curso de un tenant.
+     */
+    public int getInFlightCount(String tenantId) {
+        Lane lane = lanes.get(tenantId);
+        return lane != null ? lane.inFlight.get() : 0;
+    }
+
+    @Override
+    public int getQueuedCount() {
+        int total = 0;
+        for (Lane lane : order) {
+            total += lane.queuedCount();
+        }
+        return total;
+    }
+
+    /**
+     * Tenants con carril propio en este momento (los inactivos se retiran).
+     */
+    public Set<String> getTenants() {
+        return Set.copyOf(lanes.keySet());
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxConcurrency = 64;
+        private LaneConfig defaultConfig;
+        private final Map<String, LaneConfig> tenants = new HashMap<>();
+        private int maxTenants = 1_000;
+        private Duration idleTimeout = Duration.ofMinutes(5);
+
+        /**
+         * Envíos en curso simultáneos entre todos los tenants.
+         */
+        public Builder maxConcurrency(int maxConcurrency) { this.maxConcurrency = maxConcurrency; return this; }
+
+        /**
+         * Configuración de los tenants sin configuración propia. Por defecto:
+         * cola de 10.000 elementos y un cuarto de la concurrencia global.
+         */
+        public Builder defaultTenant(LaneConfig config) { this.defaultConfig = config; return this; }
+
+        /**
+         * Límites y peso de un tenant concreto.
+         */
+        public Builder tenant(String tenantId, LaneConfig config) {
+            this.tenants.put(tenantId, config);
+            return this;
+        }
+
+        /**
+         * Máximo de carriles propios; los tenants sin configuración que
+         * lleguen después comparten un carril. Por defecto 1.000.
+         */
+        public Builder maxTenants(int maxTenants) { this.maxTenants = maxTenants; return this; }
+
+        /**
+         * Inactividad tras la que se retira el carril de un tenant. Por defecto 5 minutos.
+         */
+        public Builder idleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; return this; }
+
+        public TenantDispatcher build() {
+            if (maxTenants < 1) {
+                throw new IllegalArgumentException("maxTenants debe ser >= 1");
+            }
+            if (idleTimeout == null || idleTimeout.isNegative() || idleTimeout.isZero()) {
+                throw new IllegalArgumentException("idleTimeout debe ser positivo");
+            }
+            return new TenantDispatcher(this);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.notify.event;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Envío en paralelo de las notificaciones de un {@link NotificationEvent},
+ * con concurrencia estructurada sobre hilos virtuales.
+ *
+ * Cada canal corre en su propio hilo virtual dentro de un ámbito que no
+ * sobrevive a la llamada: al volver, todos los envíos han terminado o se
+ * han cancelado (interrumpiendo su hilo). Si un canal devuelve un error
+ * fatal o vence el plazo común, se cancela el resto.
+ *
+ * Es el patrón de StructuredTaskScope.ShutdownOnFailure; en Java 21 esa API
+ * es preview, así que el ámbito es un ExecutorService de hilos virtuales
+ * cerrado con try-with-resources (close espera a todas las tareas).
+ */
+public final class EventFanOut {
+
+    private static final Logger log = LoggerFactory.getLogger(EventFanOut.class);
+
+    private EventFanOut() {
+    }
+
+    /**
+     * Envía todas las notificaciones del evento y espera el resultado agregado.
+     *
+     * @param sender Envío síncrono de una notificación ya validada
+     */
+    public static EventResult send(NotificationEvent event, Function<Notification, NotificationResult> sender) {
+        Map<ChannelType, NotificationResult> results = new EnumMap<>(ChannelType.class);
+        Map<Future<NotificationResult>, Notification> pending = new HashMap<>();
+        String cancelReason = null;
+
+        try (ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor()) {
+            ExecutorCompletionService<NotificationResult> completion = new ExecutorCompletionService<>(scope);
+            for (Notification notification : event.getNotifications()) {
+                pending.put(completion.submit(() -> sender.apply(notification)), notification);
+            }
+
+            long deadline = event.getDeadline() != null ? System.nanoTime() + event.getDeadline().toNanos() : 0;
+            try {
+                while (!pending.isEmpty() && cancelReason == null) {
+                    Future<NotificationResult> done = event.getDeadline() == null
+                            ? completion.take()
+                            : completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        cancelReason = "Plazo del evento superado (" + event.getDeadline() + ")";
+                        break;
+                    }
+                    Notification notification = pending.remove(done);
+                    NotificationResult result = resultOf(done, notification);
+                    results.put(notification.getChannelType(), result);
+                    if (event.isFatal(result)) {
+                        cancelReason = "Cancelado por fallo en " + notification.getChannelType();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelReason = "Envío del evento interrumpido";
+            }
+
+            if (cancelReason != null && !pending.isEmpty()) {
+                log.warn("{}: {}, se cancelan {} canales", event, cancelReason, pending.size());
+                for (Map.Entry<Future<NotificationResult>, Notification> entry : pending.entrySet()) {
+                    entry.getKey().cancel(true);
+                    results.put(entry.getValue().getChannelType(),
+                            NotificationResult.failure(entry.getValue().getId(), cancelReason));
+                }
+            }
+        }
+
+        EventResult eventResult = new EventResult(event.getName(), results);
+        log.info("Evento enviado: {}", eventResult);
+        return eventResult;
+    }
+
+    private static NotificationResult resultOf(Future<NotificationResult> done, Notification notification) {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            return NotificationResult.failure(notification.getId(), "Error interno: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            // No ocurre: el futuro ya está completado
+            Thread.currentThread().interrupt();
+            return NotificationResult.failure(notification.getId(), "Interrumpido");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.notify.event;
+
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resultado agregado de un {@link NotificationEvent}: uno por canal.
+ */
+public final class EventResult {
+
+    private final String eventName;
+    private final Map<ChannelType, NotificationResult> results;
+
+    EventResult(String eventName, Map<ChannelType, NotificationResult> results) {
+        this.eventName = eventName;
+        this.results = Collections.unmodifiableMap(new EnumMap<>(results));
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    /**
+     * Resultado de un canal, o null si el evento no lo incluía.
+     */
+    public NotificationResult get(ChannelType type) {
+        return results.get(type);
+    }
+
+    public Map<ChannelType, NotificationResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Canales enviados con éxito.
+     */
+    public long getSentCount() {
+        return results.values().stream().filter(r -> r.getStatus() == NotificationStatus.SENT).count();
+    }
+
+    /**
+     * Si todos los canales se enviaron con éxito.
+     */
+    public boolean isAllSent() {
+        return getSentCount() == results.size();
+    }
+
+    @Override
+    public String toString() {
+        return "EventResult[" + eventName + ", enviados=" + getSentCount() + "/" + results.size() + "]";
+    }
+}
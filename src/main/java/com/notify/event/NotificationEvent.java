@@ -0,0 +1,117 @@
+package com.notify.event;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Evento de negocio que se comunica por varios canales a la vez (ej: "pedido
+ * enviado" por email, push y SMS), con una notificación por canal.
+ *
+ * Se envía con {@code NotificationService.sendEvent}: todas las
+ * notificaciones se validan antes de enviar ninguna, los canales se envían
+ * en paralelo y el resultado agrega el de cada uno.
+ */
+public final class NotificationEvent {
+
+    private final String name;
+    private final Map<ChannelType, Notification> notifications;
+    private final Duration deadline;
+    private final Predicate<NotificationResult> fatal;
+
+    private NotificationEvent(Builder builder) {
+        this.name = builder.name;
+        this.notifications = new EnumMap<>(builder.notifications);
+        this.deadline = builder.deadline;
+        this.fatal = builder.fatal;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Collection<Notification> getNotifications() {
+        return notifications.values();
+    }
+
+    /**
+     * Plazo común para todos los canales (null = sin límite).
+     */
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Si un resultado es un error fatal que cancela el resto de canales.
+     */
+    public boolean isFatal(NotificationResult result) {
+        return fatal != null && fatal.test(result);
+    }
+
+    @Override
+    public String toString() {
+        return "Event[" + name + ", canales=" + notifications.keySet() + "]";
+    }
+
+    //Builder
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public static class Builder {
+        private final String name;
+        private final Map<ChannelType, Notification> notifications = new EnumMap<>(ChannelType.class);
+        private Duration deadline;
+        private Predicate<NotificationResult> fatal;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Añade la notificación de un canal (una por ChannelType).
+         */
+        public Builder notification(Notification notification) {
+            if (notification == null) {
+                throw new IllegalArgumentException("La notificación no puede ser nula");
+            }
+            if (notifications.putIfAbsent(notification.getChannelType(), notification) != null) {
+                throw new IllegalArgumentException("El evento ya tiene una notificación para " + notification.getChannelType());
+            }
+            return this;
+        }
+
+        /**
+         * Plazo común: los canales que no terminen a tiempo se cancelan.
+         */
+        public Builder deadline(Duration deadline) { this.deadline = deadline; return this; }
+
+        /**
+         * Cancela el resto de canales en cuanto uno falla (resultado FAILED).
+         */
+        public Builder cancelOnFailure() { this.fatal = result -> result.getStatus() == NotificationStatus.FAILED; return this; }
+
+        /**
+         * Cancela el resto de canales cuando un resultado cumple el criterio.
+         */
+        public Builder cancelOn(Predicate<NotificationResult> fatal) { this.fatal = fatal; return this; }
+
+        public NotificationEvent build() {
+            if (notifications.isEmpty()) {
+                throw new IllegalStateException("El evento necesita al menos una notificación");
+            }
+            if (deadline != null && (deadline.isNegative() || deadline.isZero())) {
+                throw new IllegalArgumentException("El deadline del evento debe ser > 0");
+            }
+            return new NotificationEvent(this);
+        }
+    }
+}
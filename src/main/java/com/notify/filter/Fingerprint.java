@@ -0,0 +1,68 @@
+package com.notify.filter;
+
+import com.notify.core.ChannelType;
+
+import java.util.Locale;
+
+/**
+ * Huella de 64 bits de un destinatario.
+ *
+ * Permite guardar millones de destinatarios como longs (sketches, índices
+ * fuera del heap) en lugar de Strings. Con 64 bits la probabilidad de
+ * colisión es despreciable a esa escala (~n²/2^65).
+ */
+public final class Fingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Fingerprint() {
+    }
+
+    /**
+     * Huella de un destinatario normalizado (sin espacios y en minúsculas,
+     * para que "User@Mail.com " y "user@mail.com" coincidan).
+     */
+    public static long of(String recipient) {
+        return hash(normalize(recipient), FNV_OFFSET);
+    }
+
+    /**
+     * Huella de un destinatario dentro de un canal: el mismo valor en
+     * canales distintos produce huellas distintas.
+     */
+    public static long of(ChannelType channel, String recipient) {
+        return hash(normalize(recipient), hash(channel.name(), FNV_OFFSET) * FNV_PRIME);
+    }
+
+    /**
+     * Huella de un identificador tal cual, sin normalizar (ej: ids de
+     * proveedor, donde mayúsculas y minúsculas son significativas).
+     */
+    public static long exact(String value) {
+        return hash(value, FNV_OFFSET);
+    }
+
+    public static String normalize(String recipient) {
+        return recipient.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // FNV-1a sobre los chars + mezcla final de MurmurHash3 para repartir todos los bits
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        return mix(h);
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,356 @@
+package com.notify.filter;
+
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import com.notify.core.Priority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Predicate;
+
+/**
+ * Frequency capping: como máximo N notificaciones por destinatario y canal
+ * dentro de una ventana deslizante (ej: 3 push de marketing al día).
+ *
+ * Los contadores son un count-min sketch por franja de tiempo: la ventana se
+ * divide en {@code buckets} franjas y cada una tiene {@code depth} filas de
+ * {@code width} contadores de 8 bits (saturan en 255), empaquetados de 8 en
+ * 8 en AtomicLongArray. La memoria es fija: buckets * depth * width bytes
+ * (por defecto 8 * 3 * 2^22 = 96MB).
+ *
+ * Dimensionado: la estimación suma el mínimo de cada franja, así que el
+ * ruido de las colisiones se acumula entre franjas. Lo que cuenta es la
+ * relación entre width y los envíos contados por franja. Con depth 3 y
+ * limit 3, medido con envíos uniformes:
+ * - width ≈ 1,3x envíos por franja: ~10% de cortes indebidos;
+ * - 2,6x: ~1,3%;
+ * - 5x: ~0,3%;
+ * - 10x: ~0,03%.
+ * {@link Builder#expectedSends(long)} elige width para ≥ 4x (menos de un 0,5%),
+ * lo que cuesta unos 12 bytes por envío esperado en la ventana. El valor por
+ * defecto cubre ~8M envíos por ventana; 50M destinatarios a un envío de
+ * marketing al día necesitan width 2^25 (768MB con 8 franjas).
+ *
+ * Propiedades:
+ * - Sin locks: lecturas e incrementos con CAS sobre cada palabra.
+ * - El sketch nunca subestima, así que nunca se envía de más por una
+ *   colisión; puede sobrestimar y cortar algo antes (error acotado por width).
+ *   La actualización conservadora (solo se incrementan los contadores mínimos)
+ *   reduce esa sobreestimación.
+ * - Comprobar y contar no es atómico entre hilos: dos envíos simultáneos al
+ *   mismo destinatario pueden superar el límite en uno.
+ * - La ventana avanza por franjas: al empezar una nueva se recicla la más
+ *   antigua (los incrementos concurrentes con el reciclado pueden perderse).
+ *
+ * El estado puede guardarse y recuperarse de disco ({@link #snapshotTo(Path)} /
+ * {@link #restoreFrom(Path)}) para no perder la ventana al reiniciar.
+ */
+public class FrequencyCapper implements NotificationFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(FrequencyCapper.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x4e464331;   // "NFC1"
+    private static final int MAX_COUNT = 0xFF;
+
+    private final int limit;
+    private final long bucketMillis;
+    private final int buckets;
+    private final int depth;
+    private final int width;
+    private final Predicate<Notification> appliesTo;
+    private final Clock clock;
+
+    private final AtomicLongArray[] counters;   // Por franja: depth * width contadores de 8 bits
+    private final AtomicLongArray epochs;       // Franja temporal que contiene cada slot (-1 = vacío)
+
+    private FrequencyCapper(Builder builder) {
+        this.limit = builder.limit;
+        this.buckets = builder.buckets;
+        this.bucketMillis = Math.max(1, builder.window.toMillis() / builder.buckets);
+        this.depth = builder.depth;
+        this.width = builder.width;
+        this.appliesTo = builder.appliesTo;
+        this.clock = builder.clock;
+
+        int words = depth * width / 8;
+        this.counters = new AtomicLongArray[buckets];
+        this.epochs = new AtomicLongArray(buckets);
+        for (int i = 0; i < buckets; i++) {
+            counters[i] = new AtomicLongArray(words);
+            epochs.set(i, -1);
+        }
+    }
+
+    @Override
+    public NotificationResult apply(Notification notification) {
+        if (!appliesTo.test(notification)) {
+            return null;
+        }
+        long fingerprint = Fingerprint.of(notification.getChannelType(), notification.getRecipient());
+        if (tryAcquire(fingerprint)) {
+            return null;
+        }
+        log.info("Notificación {} no enviada: {} alcanzó el límite de {} en la ventana",
+                notification.getId(), notification.getChannelType(), limit);
+        return NotificationResult.capped(notification.getId(),
+                "Límite de frecuencia alcanzado (" + limit + " por ventana)");
+    }
+
+    /**
+     * Cuenta un envío para la huella si aún no alcanzó el límite.
+     *
+     * @return false si ya alcanzó el límite (no se cuenta)
+     */
+    public boolean tryAcquire(long fingerprint) {
+        long epoch = currentEpoch();
+        if (estimate(fingerprint, epoch) >= limit) {
+            return false;
+        }
+        increment(bucketFor(epoch), fingerprint);
+        return true;
+    }
+
+    /**
+     * Envíos estimados para la huella en la ventana actual (nunca menos que los reales).
+     */
+    public int estimate(long fingerprint) {
+        return estimate(fingerprint, currentEpoch());
+    }
+
+    private int estimate(long fingerprint, long epoch) {
+        int total = 0;
+        for (int slot = 0; slot < buckets; slot++) {
+            long slotEpoch = epochs.get(slot);
+            if (slotEpoch > epoch - buckets && slotEpoch <= epoch) {
+                total += minCount(counters[slot], fingerprint);
+            }
+        }
+        return total;
+    }
+
+    private int minCount(AtomicLongArray bucket, long fingerprint) {
+        int min = MAX_COUNT;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, read(bucket, index(fingerprint, row)));
+        }
+        return min;
+    }
+
+    // Actualización conservadora: solo suben los contadores que están en el mínimo
+    private void increment(AtomicLongArray bucket, long fingerprint) {
+        int min = minCount(bucket, fingerprint);
+        if (min >= MAX_COUNT) {
+            return;
+        }
+        for (int row = 0; row < depth; row++) {
+            int counter = index(fingerprint, row);
+            int word = counter >>> 3;
+            int shift = (counter & 7) << 3;
+            while (true) {
+                long current = bucket.get(word);
+                int value = (int) (current >>> shift) & MAX_COUNT;
+                if (value > min) {
+                    break;
+                }
+                if (bucket.compareAndSet(word, current, current + (1L << shift))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int read(AtomicLongArray bucket, int counter) {
+        return (int) (bucket.get(counter >>> 3) >>> ((counter & 7) << 3)) & MAX_COUNT;
+    }
+
+    // Doble hashing: las filas usan h1 + row * h2 sobre las dos mitades de la huella
+    private int index(long fingerprint, int row) {
+        int h1 = (int) fingerprint;
+        int h2 = (int) (fingerprint >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+
+    private long currentEpoch() {
+        return clock.millis() / bucketMillis;
+    }
+
+    private AtomicLongArray bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        long slotEpoch = epochs.get(slot);
+        if (slotEpoch < epoch && epochs.compareAndSet(slot, slotEpoch, epoch)) {
+            AtomicLongArray bucket = counters[slot];
+            for (int i = 0; i < bucket.length(); i++) {
+                bucket.set(i, 0);
+            }
+        }
+        return counters[slot];
+    }
+
+    // --- Snapshot ---
+
+    /**
+     * Guarda la ventana en disco (escritura a un temporal y renombrado atómico).
+     */
+    public void snapshotTo(Path path) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(buckets).putInt(depth).putInt(width).putLong(bucketMillis);
+            for (int slot = 0; slot < buckets; slot++) {
+                writeLong(channel, buffer, epochs.get(slot));
+                AtomicLongArray bucket = counters[slot];
+                for (int i = 0; i < bucket.length(); i++) {
+                    writeLong(channel, buffer, bucket.get(i));
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Snapshot de frequency capping guardado en {}", path);
+    }
+
+    /**
+     * Recupera una ventana guardada. Debe haberse generado con la misma
+     * configuración (franjas, depth, width); las franjas ya vencidas se ignoran.
+     */
+    public void restoreFrom(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer.limit(24);
+            readFully(channel, buffer);
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != buckets || buffer.getInt() != depth
+                    || buffer.getInt() != width || buffer.getLong() != bucketMillis) {
+                throw new IOException("El snapshot " + path + " no corresponde a esta configuración");
+            }
+            buffer.clear().flip();
+            for (int slot = 0; slot < buckets; slot++) {
+                ensure(channel, buffer);
+                epochs.set(slot, buffer.getLong());
+                AtomicLongArray bucket = counters[slot];
+                for (int i = 0; i < bucket.length(); i++) {
+                    ensure(channel, buffer);
+                    bucket.set(i, buffer.getLong());
+                }
+            }
+        }
+        log.info("Snapshot de frequency capping recuperado de {}", path);
+    }
+
+    private static void writeLong(FileChannel channel, ByteBuffer buffer, long value) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        buffer.putLong(value);
+    }
+
+    // Garantiza al menos un long legible en el buffer
+    private static void ensure(FileChannel channel, ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            buffer.compact();
+            readFully(channel, buffer);
+            if (buffer.remaining() < Long.BYTES) {
+                throw new IOException("Snapshot de frequency capping truncado");
+            }
+        }
+    }
+
+    // Llena el buffer hasta su límite (o fin de fichero) y lo deja listo para leer
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // sigue leyendo
+        }
+        buffer.flip();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public Duration getWindow() {
+        return Duration.ofMillis(bucketMillis * buckets);
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int limit = 3;
+        private Duration window = Duration.ofDays(1);
+        private int buckets = 8;
+        private int depth = 3;
+        private int width = 1 << 22;
+        private long expectedSends;
+        private Predicate<Notification> appliesTo = notification -> notification.getPriority() == Priority.BULK;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Envíos permitidos por destinatario y canal dentro de la ventana.
+         */
+        public Builder limit(int limit) { this.limit = limit; return this; }
+        public Builder window(Duration window) { this.window = window; return this; }
+
+        /**
+         * Franjas en que se divide la ventana (más franjas = deslizamiento más fino).
+         */
+        public Builder buckets(int buckets) { this.buckets = buckets; return this; }
+
+        /**
+         * Filas (funciones hash) y contadores por fila del sketch. width debe
+         * ser potencia de 2; a mayor width, menor sobreestimación.
+         */
+        public Builder sketch(int depth, int width) { this.depth = depth; this.width = width; return this; }
+
+        /**
+         * Envíos contados esperados por ventana (en el pico): fija width a la
+         * potencia de 2 que da al menos 4 contadores por envío de cada franja.
+         * Sustituye al width de {@link #sketch}.
+         */
+        public Builder expectedSends(long expectedSends) { this.expectedSends = expectedSends; return this; }
+
+        /**
+         * Notificaciones a las que se aplica el límite. Por defecto: prioridad BULK (marketing).
+         */
+        public Builder appliesTo(Predicate<Notification> appliesTo) { this.appliesTo = appliesTo; return this; }
+        public Builder clock(Clock clock) { this.clock = clock; return this; }
+
+        public FrequencyCapper build() {
+            if (expectedSends > 0 && buckets >= 1) {
+                long target = Math.max(8, 4 * Math.ceilDiv(expectedSends, buckets));
+                width = (int) Math.min(1L << 30, Long.highestOneBit(target - 1) << 1);
+            }
+            if (limit < 1 || limit >= MAX_COUNT) throw new IllegalArgumentException("limit debe estar entre 1 y 254");
+            if (buckets < 1) throw new IllegalArgumentException("buckets debe ser >= 1");
+            if (depth < 1) throw new IllegalArgumentException("depth debe ser >= 1");
+            if (width < 8 || Integer.bitCount(width) != 1) {
+                throw new IllegalArgumentException("width debe ser potencia de 2 y >= 8");
+            }
+            if ((long) depth * width > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("depth * width demasiado grande");
+            }
+            if (window.toMillis() < buckets) throw new IllegalArgumentException("La ventana es demasiado corta");
+            return new FrequencyCapper(this);
+        }
+    }
+}
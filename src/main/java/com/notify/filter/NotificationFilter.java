@@ -0,0 +1,24 @@
+package com.notify.filter;
+
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+
+/**
+ * Etapa previa al envío de NotificationService (frequency capping, listas de
+ * supresión, etc.).
+ *
+ * Se ejecuta justo antes de llamar al canal: en sendAsync, al salir de la
+ * cola del dispatcher, de modo que lo que se descarta o caduca en cola no
+ * pasa por los filtros (ni consume cupo de capping). Un filtro que corta el
+ * envío retorna el resultado final de la notificación; así el proveedor
+ * nunca se llama para algo que no debe enviarse.
+ */
+@FunctionalInterface
+public interface NotificationFilter {
+
+    /**
+     * @param notification Notificación ya validada
+     * @return null para continuar con el envío, o el resultado con el que se descarta
+     */
+    NotificationResult apply(Notification notification);
+}
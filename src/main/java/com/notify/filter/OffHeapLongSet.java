@@ -0,0 +1,180 @@
+package com.notify.filter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.LongConsumer;
+
+/**
+ * Conjunto de longs fuera del heap: tabla hash de direccionamiento abierto
+ * (sondeo lineal) sobre un ByteBuffer directo.
+ *
+ * Decenas de millones de huellas ocupan 16 bytes cada una (factor de carga
+ * 0.5) sin crear objetos ni dar trabajo al GC. Las lecturas no usan locks
+ * (acceso acquire/release por VarHandle); las escrituras se serializan.
+ * Al crecer se construye una tabla nueva y se publica de forma atómica, así
+ * que los lectores siempre ven una tabla completa.
+ */
+final class OffHeapLongSet {
+
+    private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final long EMPTY = 0;
+    private static final long DELETED = 1;
+    // Valores reservados se reasignan a constantes (colisión despreciable con 64 bits)
+    private static final long EMPTY_ALIAS = 0x9E3779B97F4A7C15L;
+    private static final long DELETED_ALIAS = 0xC2B2AE3D27D4EB4FL;
+
+    private static final int MAX_CAPACITY = 1 << 27;   // 1GB: límite de un ByteBuffer
+    private static final double MAX_LOAD = 0.7;
+
+    private record Table(ByteBuffer slots, int mask) {
+    }
+
+    private volatile Table table;
+    private int size;
+    private int used;   // Ocupados + borrados (los borrados también alargan el sondeo)
+
+    OffHeapLongSet(int expectedSize) {
+        this.table = allocate(capacityFor(expectedSize));
+    }
+
+    boolean contains(long key) {
+        key = encode(key);
+        Table t = table;
+        int index = (int) key & t.mask;
+        while (true) {
+            long value = (long) SLOT.getAcquire(t.slots, index << 3);
+            if (value == key) {
+                return true;
+            }
+            if (value == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & t.mask;
+        }
+    }
+
+    synchronized boolean add(long key) {
+        key = encode(key);
+        if (used + 1 > (t().mask + 1) * MAX_LOAD) {
+            rehash(capacityFor(size + 1));
+        }
+        Table t = t();
+        int index = (int) key & t.mask;
+        int firstDeleted = -1;
+        while (true) {
+            long value = (long) SLOT.getAcquire(t.slots, index << 3);
+            if (value == key) {
+                return false;
+            }
+            if (value == DELETED && firstDeleted < 0) {
+                firstDeleted = index;
+            } else if (value == EMPTY) {
+                if (firstDeleted >= 0) {
+                    index = firstDeleted;   // Reutiliza el hueco: used no cambia
+                } else {
+                    used++;
+                }
+                SLOT.setRelease(t.slots, index << 3, key);
+                size++;
+                return true;
+            }
+            index = (index + 1) & t.mask;
+        }
+    }
+
+    synchronized boolean remove(long key) {
+        key = encode(key);
+        Table t = t();
+        int index = (int) key & t.mask;
+        while (true) {
+            long value = (long) SLOT.getAcquire(t.slots, index << 3);
+            if (value == key) {
+                SLOT.setRelease(t.slots, index << 3, DELETED);
+                size--;
+                return true;
+            }
+            if (value == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & t.mask;
+        }
+    }
+
+    /**
+     * Prepara la tabla para {@code expectedSize} elementos sin redimensionar
+     * durante una carga masiva.
+     */
+    synchronized void ensureCapacity(int expectedSize) {
+        if (expectedSize > (t().mask + 1) * MAX_LOAD) {
+            rehash(capacityFor(expectedSize));
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Recorre todas las claves (en orden de tabla, no ordenadas).
+     */
+    synchronized void forEach(LongConsumer action) {
+        Table t = t();
+        for (int i = 0; i <= t.mask; i++) {
+            long value = (long) SLOT.getAcquire(t.slots, i << 3);
+            if (value != EMPTY && value != DELETED) {
+                action.accept(value);
+            }
+        }
+    }
+
+    // Lectura de la tabla dentro de los métodos sincronizados
+    private Table t() {
+        return table;
+    }
+
+    private void rehash(int capacity) {
+        Table old = t();
+        Table next = allocate(capacity);
+        for (int i = 0; i <= old.mask; i++) {
+            long value = (long) SLOT.getAcquire(old.slots, i << 3);
+            if (value != EMPTY && value != DELETED) {
+                int index = (int) value & next.mask;
+                while ((long) SLOT.getAcquire(next.slots, index << 3) != EMPTY) {
+                    index = (index + 1) & next.mask;
+                }
+                SLOT.setRelease(next.slots, index << 3, value);
+            }
+        }
+        used = size;
+        table = next;   // Publicación atómica
+    }
+
+    private static Table allocate(int capacity) {
+        return new Table(ByteBuffer.allocateDirect(capacity << 3).order(ByteOrder.nativeOrder()), capacity - 1);
+    }
+
+    // Potencia de 2 con factor de carga ~0.5 para el tamaño esperado
+    private static int capacityFor(int expectedSize) {
+        long wanted = Math.max(16L, (long) expectedSize * 2);
+        if (wanted > MAX_CAPACITY) {
+            if (expectedSize > MAX_CAPACITY * MAX_LOAD) {
+                throw new IllegalStateException("Conjunto fuera del heap lleno: " + expectedSize + " elementos");
+            }
+            return MAX_CAPACITY;
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private static long encode(long key) {
+        if (key == EMPTY) {
+            return EMPTY_ALIAS;
+        }
+        if (key == DELETED) {
+            return DELETED_ALIAS;
+        }
+        return key;
+    }
+}
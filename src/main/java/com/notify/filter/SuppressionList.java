@@ -0,0 +1,244 @@
+package com.notify.filter;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lista de supresión: destinatarios a los que no se debe enviar nunca
+ * (emails rebotados, teléfonos dados de baja, tokens push invalidados).
+ *
+ * Cada destinatario se guarda como su huella de 64 bits por canal
+ * ({@link Fingerprint#of(ChannelType, String)}) en un conjunto hash fuera del
+ * heap, así que decenas de millones de entradas no cuestan nada al GC. Delante
+ * hay un filtro de Bloom: la inmensa mayoría de destinatarios no están
+ * suprimidos y se descartan con unos pocos bits, sin tocar la tabla.
+ *
+ * Propiedades:
+ * - Consultas sin locks; altas y bajas incrementales (serializadas entre sí).
+ * - El Bloom no admite bajas: los bits de una entrada eliminada quedan
+ *   puestos y solo cuestan una consulta extra a la tabla (nunca un falso
+ *   negativo).
+ * - Si la lista crece mucho por encima de {@code expectedSize} la tabla se
+ *   redimensiona sola, pero el Bloom pierde eficacia: conviene dimensionarlo
+ *   con margen.
+ *
+ * Para cargas masivas, {@link #loadSorted(Path)} lee un fichero de huellas
+ * ordenadas mapeándolo en memoria ({@link #writeSorted(Path)} lo genera).
+ */
+public class SuppressionList implements NotificationFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SuppressionList.class);
+
+    private static final int BLOOM_HASHES = 7;
+    private static final long MAX_BLOOM_BITS = 1L << 36;   // 2^30 longs (8GB) como máximo
+    private static final long MAX_MAPPED_CHUNK = 1L << 30;
+
+    private final OffHeapLongSet fingerprints;
+    private final AtomicLongArray bloom;
+    private final long bloomMask;
+
+    private SuppressionList(Builder builder) {
+        this.fingerprints = new OffHeapLongSet(builder.expectedSize);
+        long bits = Math.max(64L, (long) builder.expectedSize * builder.bloomBitsPerEntry);
+        bits = Math.min(Long.highestOneBit(bits - 1) << 1, MAX_BLOOM_BITS);
+        this.bloom = new AtomicLongArray((int) (bits >>> 6));
+        this.bloomMask = ((long) bloom.length() << 6) - 1;
+    }
+
+    @Override
+    public NotificationResult apply(Notification notification) {
+        if (!contains(notification.getChannelType(), notification.getRecipient())) {
+            return null;
+        }
+        log.info("Notificación {} no enviada: destinatario {} en lista de supresión",
+                notification.getId(), notification.getChannelType());
+        return NotificationResult.suppressed(notification.getId());
+    }
+
+    public boolean contains(ChannelType channel, String recipient) {
+        return contains(Fingerprint.of(channel, recipient));
+    }
+
+    public boolean contains(long fingerprint) {
+        return mightContain(fingerprint) && fingerprints.contains(fingerprint);
+    }
+
+    /**
+     * @return true si el destinatario no estaba ya suprimido
+     */
+    public boolean add(ChannelType channel, String recipient) {
+        return add(Fingerprint.of(channel, recipient));
+    }
+
+    public boolean add(long fingerprint) {
+        // Primero el Bloom: un lector concurrente nunca ve la entrada en la tabla sin sus bits
+        markBloom(fingerprint);
+        return fingerprints.add(fingerprint);
+    }
+
+    /**
+     * @return true si el destinatario estaba suprimido
+     */
+    public boolean remove(ChannelType channel, String recipient) {
+        return remove(Fingerprint.of(channel, recipient));
+    }
+
+    public boolean remove(long fingerprint) {
+        return fingerprints.remove(fingerprint);
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+
+    // --- Bloom ---
+
+    private boolean mightContain(long fingerprint) {
+        long h1 = fingerprint;
+        long h2 = Fingerprint.mix(fingerprint ^ 0x5DEECE66DL) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = (h1 + i * h2) & bloomMask;
+            if ((bloom.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markBloom(long fingerprint) {
+        long h1 = fingerprint;
+        long h2 = Fingerprint.mix(fingerprint ^ 0x5DEECE66DL) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = (h1 + i * h2) & bloomMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bloom.get(word);
+            while ((current & mask) == 0 && !bloom.compareAndSet(word, current, current | mask)) {
+                current = bloom.get(word);
+            }
+        }
+    }
+
+    // --- Fichero ordenado ---
+
+    /**
+     * Añade las huellas de un fichero de longs big-endian en orden ascendente
+     * (sin cabecera). El fichero se mapea en memoria por bloques y se recorre
+     * secuencialmente; el orden permite detectar ficheros corruptos o truncados.
+     *
+     * @return huellas nuevas añadidas
+     */
+    public int loadSorted(Path path) throws IOException {
+        int added = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % Long.BYTES != 0) {
+                throw new IOException("Fichero de supresión truncado: " + path);
+            }
+            // Se dimensiona una sola vez en lugar de redimensionar durante la carga
+            fingerprints.ensureCapacity((int) Math.min(Integer.MAX_VALUE, size() + size / Long.BYTES));
+            long previous = Long.MIN_VALUE;
+            boolean first = true;
+            for (long position = 0; position < size; position += MAX_MAPPED_CHUNK) {
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAX_MAPPED_CHUNK, size - position));
+                while (chunk.hasRemaining()) {
+                    long fingerprint = chunk.getLong();
+                    if (!first && fingerprint <= previous) {
+                        throw new IOException("Fichero de supresión desordenado en el byte "
+                                + (position + chunk.position() - Long.BYTES) + ": " + path);
+                    }
+                    first = false;
+                    previous = fingerprint;
+                    if (add(fingerprint)) {
+                        added++;
+                    }
+                }
+            }
+        }
+        log.info("Lista de supresión: {} huellas cargadas de {} ({} en total)", added, path, size());
+        return added;
+    }
+
+    /**
+     * Guarda las huellas ordenadas en el formato de {@link #loadSorted(Path)}
+     * (escritura a un temporal y renombrado atómico). Ordena una copia en el
+     * heap: 8 bytes por entrada durante la escritura.
+     */
+    public void writeSorted(Path path) throws IOException {
+        long[] sorted = new long[size()];
+        int[] count = {0};
+        fingerprints.forEach(fingerprint -> {
+            if (count[0] < sorted.length) {
+                sorted[count[0]++] = fingerprint;
+            }
+        });
+        Arrays.sort(sorted, 0, count[0]);
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < count[0]; i++) {
+                if (!buffer.hasRemaining()) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(sorted[i]);
+            }
+            flush(channel, buffer);
+            channel.force(false);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Lista de supresión guardada en {} ({} huellas)", path, count[0]);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int expectedSize = 1_000_000;
+        private int bloomBitsPerEntry = 10;
+
+        /**
+         * Entradas previstas: dimensiona la tabla y el Bloom desde el inicio.
+         */
+        public Builder expectedSize(int expectedSize) { this.expectedSize = expectedSize; return this; }
+
+        /**
+         * Bits de Bloom por entrada (10 ≈ 1% de falsos positivos, que solo
+         * cuestan una consulta a la tabla).
+         */
+        public Builder bloomBitsPerEntry(int bloomBitsPerEntry) { this.bloomBitsPerEntry = bloomBitsPerEntry; return this; }
+
+        public SuppressionList build() {
+            if (expectedSize < 1) throw new IllegalArgumentException("expectedSize debe ser >= 1");
+            if (bloomBitsPerEntry < 1) throw new IllegalArgumentException("bloomBitsPerEntry debe ser >= 1");
+            return new SuppressionList(this);
+        }
+    }
+}
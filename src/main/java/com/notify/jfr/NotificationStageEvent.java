@@ -0,0 +1,55 @@
+package com.notify.jfr;
+
+import com.notify.core.Notification;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base de los eventos JFR emitidos por cada etapa del envío.
+ *
+ * Todos los eventos comparten los mismos campos (id, canal, proveedor y
+ * resultado) para poder correlacionar las etapas de una misma notificación
+ * en JDK Mission Control. Si JFR está deshabilitado, begin()/commit() son
+ * prácticamente gratuitos y no se rellenan los campos.
+ */
+@Category({"Notification Library", "Send Pipeline"})
+@StackTrace(false)
+public abstract class NotificationStageEvent extends Event {
+
+    @Label("Notification Id")
+    String notificationId;
+
+    @Label("Channel")
+    String channel;
+
+    @Label("Provider")
+    String provider;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Copia los datos de la notificación e inicia la medición.
+     */
+    void init(Notification notification, String providerName) {
+        if (isEnabled() && notification != null) {
+            this.notificationId = notification.getId();
+            this.channel = String.valueOf(notification.getChannelType());
+            this.provider = providerName;
+        }
+        begin();
+    }
+
+    /**
+     * Cierra la medición y registra el evento con el resultado indicado.
+     */
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
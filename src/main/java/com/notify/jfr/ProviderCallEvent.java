@@ -0,0 +1,36 @@
+package com.notify.jfr;
+
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duración de la llamada al canal/proveedor (síncrona o asíncrona).
+ */
+@Name("com.notify.ProviderCall")
+@Label("Provider Call")
+@Description("Envío de una notificación a través del canal y su proveedor")
+public class ProviderCallEvent extends NotificationStageEvent {
+
+    public static ProviderCallEvent start(Notification notification, String providerName) {
+        ProviderCallEvent event = new ProviderCallEvent();
+        event.init(notification, providerName);
+        return event;
+    }
+
+    /**
+     * Cierra el evento a partir del resultado o la excepción del envío.
+     * Pensado para usarse directamente en CompletableFuture.whenComplete.
+     */
+    public void finish(NotificationResult result, Throwable error) {
+        if (error != null) {
+            finish("EXCEPTION");
+        } else if (result == null) {
+            finish("UNKNOWN");
+        } else {
+            finish(String.valueOf(result.getStatus()));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.notify.jfr;
+
+import com.notify.core.Notification;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Tiempo que una notificación asíncrona espera en cola hasta que un hilo
+ * empieza a procesarla.
+ */
+@Name("com.notify.Queue")
+@Label("Notification Queued")
+@Description("Espera en cola de una notificación enviada con sendAsync")
+public class QueueEvent extends NotificationStageEvent {
+
+    public static QueueEvent start(Notification notification, String providerName) {
+        QueueEvent event = new QueueEvent();
+        event.init(notification, providerName);
+        return event;
+    }
+}
@@ -0,0 +1,41 @@
+package com.notify.jfr;
+
+import com.notify.core.Notification;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Un intento individual dentro de RetryExecutor.
+ */
+@Name("com.notify.RetryAttempt")
+@Label("Retry Attempt")
+@Description("Intento de envío ejecutado por RetryExecutor")
+public class RetryAttemptEvent extends NotificationStageEvent {
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Max Attempts")
+    int maxAttempts;
+
+    @Label("Backoff Delay")
+    @Timespan(Timespan.MILLISECONDS)
+    long delayMs;
+
+    public static RetryAttemptEvent start(Notification notification, int attempt, int maxAttempts) {
+        RetryAttemptEvent event = new RetryAttemptEvent();
+        event.attempt = attempt;
+        event.maxAttempts = maxAttempts;
+        event.init(notification, null);
+        return event;
+    }
+
+    /**
+     * Delay que se aplicará antes del siguiente intento (0 si no hay más).
+     */
+    public void setDelayMs(long delayMs) {
+        this.delayMs = delayMs;
+    }
+}
@@ -0,0 +1,49 @@
+package com.notify.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Renderizado de un MessageTemplate.
+ *
+ * No hereda de NotificationStageEvent porque el template se renderiza antes
+ * de que exista la notificación.
+ */
+@Name("com.notify.TemplateRender")
+@Label("Template Render")
+@Description("Renderizado de un MessageTemplate")
+@Category({"Notification Library", "Send Pipeline"})
+@StackTrace(false)
+public class TemplateRenderEvent extends Event {
+
+    @Label("Variables")
+    int variables;
+
+    @Label("Output Length")
+    @DataAmount(DataAmount.BYTES)
+    long outputLength;
+
+    @Label("Outcome")
+    String outcome;
+
+    public static TemplateRenderEvent start(int variables) {
+        TemplateRenderEvent event = new TemplateRenderEvent();
+        event.variables = variables;
+        event.begin();
+        return event;
+    }
+
+    public void finish(String outcome, int outputLength) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            this.outputLength = outputLength;
+            commit();
+        }
+    }
+}
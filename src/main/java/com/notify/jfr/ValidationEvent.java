@@ -0,0 +1,21 @@
+package com.notify.jfr;
+
+import com.notify.core.Notification;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Tiempo dedicado a validar una notificación antes de enrutarla.
+ */
+@Name("com.notify.Validation")
+@Label("Notification Validation")
+@Description("Validación de una notificación en NotificationService")
+public class ValidationEvent extends NotificationStageEvent {
+
+    public static ValidationEvent start(Notification notification) {
+        ValidationEvent event = new ValidationEvent();
+        event.init(notification, null);
+        return event;
+    }
+}
@@ -0,0 +1,74 @@
+package com.notify.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra las pausas de GC mientras dura una prueba de carga, a partir de
+ * las notificaciones JMX de cada colector.
+ *
+ * Solo cuenta pausas: los ciclos concurrentes (G1 Concurrent GC, "ZGC
+ * Cycles", "Shenandoah Cycles") no detienen la aplicación y se ignoran.
+ */
+final class GcMonitor implements AutoCloseable {
+
+    private final LatencyHistogram pauses = new LatencyHistogram();
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private volatile boolean recording;
+    private final NotificationListener listener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (recording && isPause(info.getGcName())) {
+                pauses.record(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+            }
+        }
+    };
+
+    GcMonitor() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (collector instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(listener, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * Empieza a registrar pausas (las anteriores, del calentamiento, no cuentan).
+     */
+    void start() {
+        recording = true;
+    }
+
+    /**
+     * Pausas registradas hasta ahora (nanosegundos, con resolución de ms).
+     */
+    LatencyHistogram getPauses() {
+        return pauses;
+    }
+
+    private static boolean isPause(String gcName) {
+        return !gcName.contains("Concurrent") && !gcName.endsWith("Cycles");
+    }
+
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (ListenerNotFoundException ignored) {
+                // Ya retirado
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.notify.loadtest;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias log-lineal, seguro para grabar desde varios hilos.
+ *
+ * Misma idea que HdrHistogram sin la dependencia: los valores menores de 256
+ * se guardan exactos y el resto en 128 sub-buckets por potencia de dos, con
+ * un error relativo máximo de 1/128 (~0.8%) en todo el rango de un long.
+ * Ocupa 7.296 contadores (~57 KB) sea cual sea el número de muestras.
+ *
+ * {@link #writePercentileDistribution} escribe el formato de percentiles de
+ * HdrHistogram (.hgrm), que entienden sus herramientas de gráficas.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int HALF = 1 << SUB_BITS;                 // 128
+    private static final int BUCKETS = (64 - SUB_BITS) * HALF;    // Índice máximo: 55 * 128 + 255
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Registra un valor (nanosegundos; los negativos cuentan como 0).
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        max.accumulateAndGet(v, Math::max);
+        min.accumulateAndGet(v, Math::min);
+    }
+
+    /**
+     * Suma las muestras de otro histograma a este.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        total.addAndGet(other.total.get());
+        sum.addAndGet(other.sum.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+        min.accumulateAndGet(other.min.get(), Math::min);
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMin() {
+        return total.get() == 0 ? 0 : min.get();
+    }
+
+    public double getMean() {
+        long count = total.get();
+        return count == 0 ? 0 : (double) sum.get() / count;
+    }
+
+    /**
+     * Valor en el percentil indicado (0-100): el límite superior del bucket
+     * que lo contiene, acotado al máximo registrado.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Distribución de percentiles en el formato .hgrm de HdrHistogram.
+     *
+     * @param scale Divisor de los valores (ej: 1e6 para escribir milisegundos)
+     */
+    public void writePercentileDistribution(Appendable out, double scale) throws IOException {
+        long count = total.get();
+        out.append(String.format(Locale.ROOT, "%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)"));
+        if (count > 0) {
+            // 5 marcas por cada mitad de la distancia restante hasta el 100%, como HdrHistogram
+            double lastPercentile = -1;
+            for (int tick = 0; ; tick++) {
+                double percentile = 100 * (1 - Math.pow(0.5, tick / 5.0));
+                long value = getValueAtPercentile(percentile);
+                if (percentile - lastPercentile > 1e-12) {
+                    out.append(String.format(Locale.ROOT, "%12.3f %2.12f %10d %14.2f%n",
+                            value / scale, percentile / 100, countAtOrBelow(value), 1 / (1 - percentile / 100)));
+                    lastPercentile = percentile;
+                }
+                if (value >= max.get() || tick > 200) {
+                    break;
+                }
+            }
+            out.append(String.format(Locale.ROOT, "%12.3f %2.12f %10d%n", max.get() / scale, 1.0, count));
+        }
+        out.append(String.format(Locale.ROOT, "#[Mean    = %12.3f, StdDeviation   = %12.3f]%n", getMean() / scale, stdDeviation() / scale));
+        out.append(String.format(Locale.ROOT, "#[Max     = %12.3f, Total count    = %12d]%n", max.get() / scale, count));
+        out.append(String.format(Locale.ROOT, "#[Buckets = %12d, SubBuckets     = %12d]%n", 64 - SUB_BITS, HALF * 2));
+    }
+
+    // --- Internos ---
+
+    static int indexOf(long value) {
+        if (value < 2 * HALF) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    static long highestEquivalent(int index) {
+        if (index < 2 * HALF) {
+            return index;
+        }
+        int shift = index / HALF - 1;
+        long sub = index - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    private long countAtOrBelow(long value) {
+        long seen = 0;
+        int last = indexOf(value);
+        for (int i = 0; i <= last; i++) {
+            seen += counts.get(i);
+        }
+        return seen;
+    }
+
+    private double stdDeviation() {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        double mean = getMean();
+        double squares = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount > 0) {
+                double deviation = highestEquivalent(i) - mean;
+                squares += deviation * deviation * bucketCount;
+            }
+        }
+        return Math.sqrt(squares / count);
+    }
+}
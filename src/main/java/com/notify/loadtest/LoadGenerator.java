@@ -0,0 +1,255 @@
+package com.notify.loadtest;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.core.NotificationStatus;
+import com.notify.dispatch.Dispatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Generador de carga extremo a extremo sobre un NotificationService ya
+ * construido (canales, dispatcher, filtros, reintentos...).
+ *
+ * Bucle abierto: el envío i sale en {@code inicio + i / tasa} tanto si los
+ * anteriores han terminado como si no, igual que el tráfico real, que no
+ * espera a que el servicio se recupere. La latencia de cada envío se mide
+ * desde ese instante previsto; si el generador o el servicio se atascan,
+ * el retraso acumulado aparece en la latencia en lugar de desaparecer
+ * (coordinated omission).
+ *
+ * Un único hilo lanza los envíos (sendAsync) y, entre envío y envío, muestrea
+ * la profundidad de las colas. Los resultados se agregan sin bloqueo en los
+ * callbacks de cada future.
+ */
+public final class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private record Traffic(int weight, Supplier<? extends Notification> factory) {
+    }
+
+    private final NotificationService service;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration sampleInterval;
+    private final Duration drainTimeout;
+    private final List<Traffic> traffic;
+    private final int totalWeight;
+    private final Random random;
+
+    private LoadGenerator(Builder builder) {
+        this.service = builder.service;
+        this.rate = builder.rate;
+        this.duration = builder.duration;
+        this.warmup = builder.warmup;
+        this.sampleInterval = builder.sampleInterval;
+        this.drainTimeout = builder.drainTimeout;
+        this.traffic = List.copyOf(builder.traffic);
+        this.totalWeight = traffic.stream().mapToInt(Traffic::weight).sum();
+        this.random = builder.seed != null ? new Random(builder.seed) : new Random();
+    }
+
+    /**
+     * Ejecuta la prueba (calentamiento + fase medida) y espera a que terminen
+     * los envíos en curso, como mucho {@code drainTimeout}.
+     */
+    public LoadReport run() {
+        LoadReport.Series total = new LoadReport.Series();
+        Map<ChannelType, LoadReport.Series> channels = new ConcurrentHashMap<>();
+        Map<String, LoadReport.Series> providers = new ConcurrentHashMap<>();
+        AtomicLong outstanding = new AtomicLong();
+        Map<String, Depth> depths = new LinkedHashMap<>();
+        Dispatcher dispatcher = service.getDispatcher();
+
+        double nanosPerSend = 1e9 / rate;
+        long sent = 0;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long nextSample = measureFrom;
+        log.info("Prueba de carga: {}/s durante {} (calentamiento {})", rate, duration, warmup);
+
+        try (GcMonitor gc = new GcMonitor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * nanosPerSend);
+                if (intended >= end) {
+                    break;
+                }
+                // Espera al instante previsto; mientras, muestrea colas
+                long now;
+                while ((now = System.nanoTime()) < intended || (now >= nextSample && now < end)) {
+                    if (now >= nextSample) {
+                        sample(depths, "generator", outstanding.get());
+                        if (dispatcher != null) {
+                            sample(depths, "dispatcher.queued", dispatcher.getQueuedCount());
+                            sample(depths, "dispatcher.inFlight", dispatcher.getInFlightCount());
+                        }
+                        nextSample = now + sampleInterval.toNanos();
+                        continue;
+                    }
+                    LockSupport.parkNanos(Math.min(intended, nextSample) - now);
+                }
+                boolean measured = intended >= measureFrom;
+                if (measured) {
+                    gc.start();   // Las pausas del calentamiento no cuentan
+                }
+
+                Notification notification = pick().get();
+                ChannelType type = notification.getChannelType();
+                String provider = providerOf(type);
+                outstanding.incrementAndGet();
+                if (measured) {
+                    sent++;
+                }
+                CompletableFuture<NotificationResult> future;
+                try {
+                    future = service.sendAsync(notification);
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                future.whenComplete((result, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    outstanding.decrementAndGet();
+                    if (measured) {
+                        NotificationStatus status = result != null ? result.getStatus() : NotificationStatus.FAILED;
+                        total.record(latency, status);
+                        channels.computeIfAbsent(type, t -> new LoadReport.Series()).record(latency, status);
+                        providers.computeIfAbsent(provider, p -> new LoadReport.Series()).record(latency, status);
+                    }
+                });
+            }
+            long issuedUntil = Math.max(end, System.nanoTime());
+
+            long drainDeadline = System.nanoTime() + drainTimeout.toNanos();
+            while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+            if (outstanding.get() > 0) {
+                log.warn("Prueba de carga: {} envíos sin completar tras {}", outstanding.get(), drainTimeout);
+            }
+
+            Map<String, LoadReport.DepthStats> queues = new LinkedHashMap<>();
+            depths.forEach((name, depth) -> queues.put(name, depth.stats()));
+            LoadReport report = new LoadReport(rate, Duration.ofNanos(issuedUntil - measureFrom), sent, outstanding.get(),
+                    total, new EnumMap<>(channels), new TreeMap<>(providers), queues, gc.getPauses());
+            log.info("Prueba de carga terminada: {}", report);
+            return report;
+        }
+    }
+
+    // --- Internos ---
+
+    private Supplier<? extends Notification> pick() {
+        if (traffic.size() == 1) {
+            return traffic.get(0).factory();
+        }
+        int ticket = random.nextInt(totalWeight);
+        for (Traffic entry : traffic) {
+            ticket -= entry.weight();
+            if (ticket < 0) {
+                return entry.factory();
+            }
+        }
+        return traffic.get(traffic.size() - 1).factory();
+    }
+
+    // Proveedor del canal registrado en el momento del envío (las rutas del Router no se distinguen)
+    private String providerOf(ChannelType type) {
+        NotificationChannel<?> channel = service.getChannelRegistry().get(type);
+        return channel != null ? channel.getProviderName() : type.name();
+    }
+
+    private static void sample(Map<String, Depth> depths, String name, long value) {
+        depths.computeIfAbsent(name, n -> new Depth()).add(value);
+    }
+
+    // Solo la toca el hilo del generador
+    private static final class Depth {
+        private long samples;
+        private long sum;
+        private long max;
+
+        void add(long value) {
+            samples++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        LoadReport.DepthStats stats() {
+            return new LoadReport.DepthStats(samples, samples == 0 ? 0 : (double) sum / samples, max);
+        }
+    }
+
+    //Builder
+
+    public static Builder builder(NotificationService service) {
+        return new Builder(service);
+    }
+
+    public static class Builder {
+        private final NotificationService service;
+        private double rate = 100;
+        private Duration duration = Duration.ofSeconds(30);
+        private Duration warmup = Duration.ofSeconds(5);
+        private Duration sampleInterval = Duration.ofMillis(100);
+        private Duration drainTimeout = Duration.ofSeconds(30);
+        private final List<Traffic> traffic = new ArrayList<>();
+        private Long seed;
+
+        private Builder(NotificationService service) {
+            this.service = service;
+        }
+
+        /**
+         * Envíos por segundo (objetivo en bucle abierto).
+         */
+        public Builder rate(double rate) { this.rate = rate; return this; }
+        public Builder duration(Duration duration) { this.duration = duration; return this; }
+        public Builder warmup(Duration warmup) { this.warmup = warmup; return this; }
+        public Builder sampleInterval(Duration sampleInterval) { this.sampleInterval = sampleInterval; return this; }
+        public Builder drainTimeout(Duration drainTimeout) { this.drainTimeout = drainTimeout; return this; }
+        public Builder seed(long seed) { this.seed = seed; return this; }
+
+        /**
+         * Añade un tipo de tráfico con su peso en la mezcla. La factoría se
+         * invoca una vez por envío y debe crear una notificación nueva.
+         */
+        public Builder traffic(int weight, Supplier<? extends Notification> factory) {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("El peso debe ser > 0");
+            }
+            traffic.add(new Traffic(weight, factory));
+            return this;
+        }
+
+        public LoadGenerator build() {
+            if (service == null) throw new IllegalArgumentException("El servicio es obligatorio");
+            if (traffic.isEmpty()) throw new IllegalStateException("Se necesita al menos un tipo de tráfico");
+            if (rate <= 0) throw new IllegalArgumentException("La tasa debe ser > 0");
+            if (duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("La duración debe ser > 0");
+            if (warmup.isNegative()) throw new IllegalArgumentException("El calentamiento debe ser >= 0");
+            if (sampleInterval.isNegative() || sampleInterval.isZero()) throw new IllegalArgumentException("El intervalo de muestreo debe ser > 0");
+            return new LoadGenerator(this);
+        }
+    }
+}
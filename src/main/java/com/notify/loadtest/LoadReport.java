@@ -0,0 +1,256 @@
+package com.notify.loadtest;
+
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationStatus;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Resultado de una prueba de carga de {@link LoadGenerator}: throughput,
+ * percentiles de latencia por canal y por proveedor, profundidad de colas y
+ * pausas de GC. Se exporta como texto, JSON o log de histogramas (.hgrm).
+ *
+ * Las latencias se miden desde el instante en que el envío DEBÍA salir según
+ * la tasa objetivo, no desde que salió (corrección de coordinated omission).
+ */
+public final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double MS = 1_000_000.0;
+
+    /**
+     * Latencias y estados de un grupo de envíos (un canal, un proveedor o el total).
+     */
+    public static final class Series {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLongArray statuses = new AtomicLongArray(NotificationStatus.values().length);
+
+        void record(long latencyNanos, NotificationStatus status) {
+            latency.record(latencyNanos);
+            statuses.incrementAndGet(status.ordinal());
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getCount(NotificationStatus status) {
+            return statuses.get(status.ordinal());
+        }
+    }
+
+    /**
+     * Profundidad de una cola muestreada periódicamente.
+     */
+    public record DepthStats(long samples, double mean, long max) {
+    }
+
+    private final double targetRate;
+    private final Duration elapsed;
+    private final long sent;
+    private final long unfinished;
+    private final Series total;
+    private final Map<ChannelType, Series> channels;
+    private final Map<String, Series> providers;
+    private final Map<String, DepthStats> queues;
+    private final LatencyHistogram gcPauses;
+
+    LoadReport(double targetRate, Duration elapsed, long sent, long unfinished, Series total,
+               Map<ChannelType, Series> channels, Map<String, Series> providers,
+               Map<String, DepthStats> queues, LatencyHistogram gcPauses) {
+        this.targetRate = targetRate;
+        this.elapsed = elapsed;
+        this.sent = sent;
+        this.unfinished = unfinished;
+        this.total = total;
+        this.channels = Collections.unmodifiableMap(channels);
+        this.providers = Collections.unmodifiableMap(providers);
+        this.queues = Collections.unmodifiableMap(queues);
+        this.gcPauses = gcPauses;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Duración de la fase medida (sin el calentamiento).
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Envíos lanzados en la fase medida.
+     */
+    public long getSentCount() {
+        return sent;
+    }
+
+    /**
+     * Envíos completados (con cualquier estado) en la fase medida.
+     */
+    public long getCompletedCount() {
+        return total.latency.getCount();
+    }
+
+    /**
+     * Envíos que no terminaron antes de agotar la espera final.
+     */
+    public long getUnfinishedCount() {
+        return unfinished;
+    }
+
+    /**
+     * Envíos completados por segundo.
+     */
+    public double getThroughput() {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds == 0 ? 0 : getCompletedCount() / seconds;
+    }
+
+    public Series getTotal() {
+        return total;
+    }
+
+    public Map<ChannelType, Series> getChannels() {
+        return channels;
+    }
+
+    public Map<String, Series> getProviders() {
+        return providers;
+    }
+
+    /**
+     * Profundidad de colas: "generator" (envíos sin completar) y, si el
+     * servicio tiene dispatcher, "dispatcher.queued" y "dispatcher.inFlight".
+     */
+    public Map<String, DepthStats> getQueues() {
+        return queues;
+    }
+
+    public LatencyHistogram getGcPauses() {
+        return gcPauses;
+    }
+
+    // --- Formatos ---
+
+    public String toText() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "=== Prueba de carga: %.1fs a %.0f/s ===%n", elapsed.toMillis() / 1000.0, targetRate));
+        out.append(String.format(Locale.ROOT, "Enviadas: %d  completadas: %d  sin completar: %d  throughput: %.1f/s%n",
+                sent, getCompletedCount(), unfinished, getThroughput()));
+        out.append(String.format(Locale.ROOT, "%n%-22s %9s %9s %9s %9s %9s %9s %9s%n",
+                "Latencia (ms)", "envíos", "p50", "p90", "p99", "p99.9", "max", "fallos"));
+        textRow(out, "TOTAL", total);
+        channels.forEach((type, series) -> textRow(out, type.name(), series));
+        providers.forEach((provider, series) -> textRow(out, "[" + provider + "]", series));
+
+        out.append(String.format("%nEstados:"));
+        for (NotificationStatus status : NotificationStatus.values()) {
+            if (total.getCount(status) > 0) {
+                out.append(' ').append(status).append('=').append(total.getCount(status));
+            }
+        }
+        out.append(String.format("%n%nColas (muestras, media, max):%n"));
+        queues.forEach((name, depth) -> out.append(String.format(Locale.ROOT, "  %-20s %6d %9.1f %6d%n",
+                name, depth.samples(), depth.mean(), depth.max())));
+        out.append(String.format(Locale.ROOT, "%nGC: %d pausas, max %.1f ms, p99 %.1f ms, total %.1f ms%n",
+                gcPauses.getCount(), gcPauses.getMax() / MS, gcPauses.getValueAtPercentile(99) / MS,
+                gcPauses.getMean() * gcPauses.getCount() / MS));
+        return out.toString();
+    }
+
+    public String toJson() {
+        StringBuilder out = new StringBuilder("{");
+        out.append(String.format(Locale.ROOT, "\"targetRate\":%.1f,\"elapsedMs\":%d,\"sent\":%d,\"completed\":%d,"
+                        + "\"unfinished\":%d,\"throughput\":%.2f,",
+                targetRate, elapsed.toMillis(), sent, getCompletedCount(), unfinished, getThroughput()));
+        out.append("\"total\":");
+        jsonSeries(out, total);
+        out.append(",\"channels\":{");
+        String separator = "";
+        for (Map.Entry<ChannelType, Series> entry : channels.entrySet()) {
+            out.append(separator).append('"').append(entry.getKey()).append("\":");
+            jsonSeries(out, entry.getValue());
+            separator = ",";
+        }
+        out.append("},\"providers\":{");
+        separator = "";
+        for (Map.Entry<String, Series> entry : providers.entrySet()) {
+            out.append(separator).append('"').append(escape(entry.getKey())).append("\":");
+            jsonSeries(out, entry.getValue());
+            separator = ",";
+        }
+        out.append("},\"queues\":{");
+        separator = "";
+        for (Map.Entry<String, DepthStats> entry : queues.entrySet()) {
+            DepthStats depth = entry.getValue();
+            out.append(separator).append(String.format(Locale.ROOT, "\"%s\":{\"samples\":%d,\"mean\":%.2f,\"max\":%d}",
+                    entry.getKey(), depth.samples(), depth.mean(), depth.max()));
+            separator = ",";
+        }
+        out.append(String.format(Locale.ROOT, "},\"gc\":{\"pauses\":%d,\"maxMs\":%.3f,\"p99Ms\":%.3f,\"totalMs\":%.3f}}",
+                gcPauses.getCount(), gcPauses.getMax() / MS, gcPauses.getValueAtPercentile(99) / MS,
+                gcPauses.getMean() * gcPauses.getCount() / MS));
+        return out.toString();
+    }
+
+    /**
+     * Distribución de percentiles (.hgrm, en ms) del total, de cada canal y
+     * de cada proveedor, una tras otra precedidas de "# nombre".
+     */
+    public void writeHistogramLog(Appendable out) throws IOException {
+        out.append("# TOTAL\n");
+        total.latency.writePercentileDistribution(out, MS);
+        for (Map.Entry<ChannelType, Series> entry : channels.entrySet()) {
+            out.append("\n# ").append(entry.getKey().name()).append('\n');
+            entry.getValue().latency.writePercentileDistribution(out, MS);
+        }
+        for (Map.Entry<String, Series> entry : providers.entrySet()) {
+            out.append("\n# ").append(entry.getKey()).append('\n');
+            entry.getValue().latency.writePercentileDistribution(out, MS);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "LoadReport[%.1f/s, p99=%.1fms, enviadas=%d]",
+                getThroughput(), total.latency.getValueAtPercentile(99) / MS, sent);
+    }
+
+    // --- Internos ---
+
+    private static void textRow(StringBuilder out, String name, Series series) {
+        LatencyHistogram latency = series.latency;
+        out.append(String.format(Locale.ROOT, "%-22s %9d", name, latency.getCount()));
+        for (double percentile : PERCENTILES) {
+            out.append(String.format(Locale.ROOT, " %9.2f", latency.getValueAtPercentile(percentile) / MS));
+        }
+        out.append(String.format(Locale.ROOT, " %9.2f %9d%n", latency.getMax() / MS, failures(series)));
+    }
+
+    private static void jsonSeries(StringBuilder out, Series series) {
+        LatencyHistogram latency = series.latency;
+        out.append(String.format(Locale.ROOT, "{\"count\":%d,\"failures\":%d,\"meanMs\":%.3f,\"p50Ms\":%.3f,"
+                        + "\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"p999Ms\":%.3f,\"maxMs\":%.3f}",
+                latency.getCount(), failures(series), latency.getMean() / MS,
+                latency.getValueAtPercentile(50) / MS, latency.getValueAtPercentile(90) / MS,
+                latency.getValueAtPercentile(99) / MS, latency.getValueAtPercentile(99.9) / MS, latency.getMax() / MS));
+    }
+
+    // Todo lo que no llegó al proveedor o este no aceptó
+    private static long failures(Series series) {
+        return series.latency.getCount() - series.getCount(NotificationStatus.SENT)
+                - series.getCount(NotificationStatus.DELIVERED) - series.getCount(NotificationStatus.READ);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
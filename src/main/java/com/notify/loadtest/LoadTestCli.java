@@ -0,0 +1,267 @@
+package com.notify.loadtest;
+
+import com.notify.channel.email.EmailChannel;
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.email.provider.SendGridProvider;
+import com.notify.channel.push.PushChannel;
+import com.notify.channel.push.PushNotification;
+import com.notify.channel.push.provider.FirebaseProvider;
+import com.notify.channel.sms.SmsChannel;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.channel.sms.provider.TwilioProvider;
+import com.notify.config.ProviderConfig;
+import com.notify.core.NotificationService;
+import com.notify.dispatch.PriorityDispatcher;
+import com.notify.simulator.FaultProfile;
+import com.notify.simulator.FaultScript;
+import com.notify.simulator.LatencyModel;
+import com.notify.simulator.ProviderSimulator;
+import com.notify.simulator.ProviderStubServer;
+import com.notify.transport.HttpTransport;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Línea de comandos del generador de carga: construye un NotificationService
+ * con SendGrid, Twilio y Firebase contra proveedores simulados y lanza una
+ * prueba de carga. Pensado para ejecutarse antes de cada actualización y
+ * comparar el informe con el anterior.
+ *
+ * <pre>
+ * java -cp ... com.notify.loadtest.LoadTestCli --rate 500 --duration 60s \
+ *     --mix email=5,sms=3,push=2 --profile flaky --format json --out carga.json
+ * </pre>
+ *
+ * Opciones:
+ * <ul>
+ *   <li>--rate N: envíos por segundo (200)</li>
+ *   <li>--duration D / --warmup D: fase medida (30s) y calentamiento (5s); D en ms, s o m</li>
+ *   <li>--mix email=N,sms=N,push=N: pesos de cada canal (1,1,1)</li>
+ *   <li>--target simulated|stub: proveedores decorados con el simulador o
+ *       proveedores HTTP reales contra un ProviderStubServer local (simulated)</li>
+ *   <li>--profile healthy|flaky|incident: guion de fallos (healthy)</li>
+ *   <li>--concurrency N: PriorityDispatcher con N envíos en curso (sin dispatcher)</li>
+ *   <li>--format text|json|hgrm y --out fichero (text, salida estándar)</li>
+ *   <li>--seed N y --verbose (mantiene los logs de cada envío)</li>
+ * </ul>
+ */
+public final class LoadTestCli {
+
+    private LoadTestCli() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        if (!options.containsKey("verbose")) {
+            silenceLogs();
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "30s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "5s"));
+        FaultScript script = profile(options.getOrDefault("profile", "healthy"), warmup.plus(duration));
+        Long seed = options.containsKey("seed") ? Long.parseLong(options.get("seed")) : null;
+
+        List<ProviderStubServer> stubs = new ArrayList<>();
+        try {
+            NotificationService.Builder service = NotificationService.builder();
+            if (options.containsKey("concurrency")) {
+                service.dispatcher(PriorityDispatcher.builder()
+                        .maxConcurrency(Integer.parseInt(options.get("concurrency")))
+                        .build());
+            }
+            if ("stub".equals(options.getOrDefault("target", "simulated"))) {
+                HttpTransport transport = HttpTransport.builder().requestTimeout(Duration.ofSeconds(10)).build();
+                service.channel(new EmailChannel(new SendGridProvider(sendGrid(endpoint(stubs, script, seed)), transport)))
+                        .channel(new SmsChannel(new TwilioProvider(twilio(endpoint(stubs, script, seed)), transport)))
+                        .channel(new PushChannel(new FirebaseProvider(firebase(endpoint(stubs, script, seed)), transport)));
+            } else {
+                service.channel(new EmailChannel(simulator(script, seed).email(new SendGridProvider(sendGrid(null)))))
+                        .channel(new SmsChannel(simulator(script, seed).sms(new TwilioProvider(twilio(null)))))
+                        .channel(new PushChannel(simulator(script, seed).push(new FirebaseProvider(firebase(null)))));
+            }
+
+            LoadGenerator.Builder generator = LoadGenerator.builder(service.build())
+                    .rate(rate)
+                    .duration(duration)
+                    .warmup(warmup);
+            if (seed != null) {
+                generator.seed(seed);
+            }
+            addTraffic(generator, options.getOrDefault("mix", "email=1,sms=1,push=1"));
+
+            LoadReport report = generator.build().run();
+            write(report, options.getOrDefault("format", "text"), options.get("out"));
+        } finally {
+            stubs.forEach(ProviderStubServer::close);
+        }
+    }
+
+    // --- Configuración ---
+
+    private static FaultScript profile(String name, Duration total) {
+        FaultProfile healthy = FaultProfile.builder()
+                .latency(LatencyModel.logNormal(Duration.ofMillis(60), 0.5)
+                        .withTail(0.005, LatencyModel.uniform(Duration.ofMillis(500), Duration.ofSeconds(2))))
+                .build();
+        return switch (name) {
+            case "healthy" -> FaultScript.constant(healthy);
+            case "flaky" -> FaultScript.constant(FaultProfile.builder()
+                    .latency(healthy.getLatency())
+                    .errorRate(0.02)
+                    .throttleRate(0.02)
+                    .retryAfter(Duration.ofSeconds(1))
+                    .build());
+            // Caída de 5s a un tercio de la prueba seguida de 10s de throttling
+            case "incident" -> {
+                Duration third = total.dividedBy(3);
+                yield FaultScript.builder(healthy)
+                        .outage(third, Duration.ofSeconds(5))
+                        .during(third.plusSeconds(5), Duration.ofSeconds(10), FaultProfile.builder()
+                                .latency(healthy.getLatency())
+                                .throttleRate(0.3)
+                                .retryAfter(Duration.ofSeconds(1))
+                                .build())
+                        .build();
+            }
+            default -> throw new IllegalArgumentException("Perfil desconocido: " + name + " (healthy|flaky|incident)");
+        };
+    }
+
+    private static ProviderSimulator simulator(FaultScript script, Long seed) {
+        ProviderSimulator.Builder builder = ProviderSimulator.builder(script);
+        if (seed != null) {
+            builder.seed(seed);
+        }
+        return builder.build();
+    }
+
+    // Un stub por proveedor, cada uno con su simulador
+    private static String endpoint(List<ProviderStubServer> stubs, FaultScript script, Long seed) throws IOException {
+        ProviderStubServer stub = ProviderStubServer.builder(simulator(script, seed))
+                .address(new InetSocketAddress("127.0.0.1", 0))
+                .start();
+        stubs.add(stub);
+        return stub.getEndpoint();
+    }
+
+    private static ProviderConfig sendGrid(String endpoint) {
+        return withEndpoint(ProviderConfig.builder("sendgrid")
+                .property("apiKey", "SG.load-test")
+                .property("fromEmail", "noreply@load.test"), endpoint);
+    }
+
+    private static ProviderConfig twilio(String endpoint) {
+        return withEndpoint(ProviderConfig.builder("twilio")
+                .property("accountSid", "AC-load-test")
+                .property("authToken", "load-test")
+                .property("fromNumber", "+15550000000"), endpoint);
+    }
+
+    private static ProviderConfig firebase(String endpoint) {
+        return withEndpoint(ProviderConfig.builder("firebase")
+                .property("projectId", "load-test")
+                .property("serviceAccountKey", "{\"type\":\"service_account\"}")
+                .property("accessToken", "load-test"), endpoint);
+    }
+
+    private static ProviderConfig withEndpoint(ProviderConfig.Builder builder, String endpoint) {
+        return endpoint != null ? builder.property("endpoint", endpoint).build() : builder.build();
+    }
+
+    private static void addTraffic(LoadGenerator.Builder generator, String mix) {
+        AtomicLong sequence = new AtomicLong();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1;
+            switch (parts[0].trim().toLowerCase()) {
+                case "email" -> generator.traffic(weight, () -> EmailNotification.builder()
+                        .to("user" + sequence.incrementAndGet() + "@load.test")
+                        .subject("Prueba de carga")
+                        .message("Mensaje de prueba de carga")
+                        .build());
+                case "sms" -> generator.traffic(weight, () -> SmsNotification.builder()
+                        .to(String.format("+519%08d", sequence.incrementAndGet() % 100_000_000))
+                        .message("Prueba de carga")
+                        .build());
+                case "push" -> generator.traffic(weight, () -> PushNotification.builder()
+                        .deviceToken("load-test-token-" + sequence.incrementAndGet())
+                        .title("Prueba de carga")
+                        .message("Mensaje de prueba de carga")
+                        .build());
+                default -> throw new IllegalArgumentException("Canal desconocido en --mix: " + entry);
+            }
+        }
+    }
+
+    // --- Salida ---
+
+    private static void write(LoadReport report, String format, String out) throws IOException {
+        if (out == null) {
+            PrintStream stdout = System.out;
+            writeTo(report, format, stdout);
+            stdout.flush();
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(Path.of(out), StandardCharsets.UTF_8)) {
+            writeTo(report, format, writer);
+        }
+    }
+
+    private static void writeTo(LoadReport report, String format, Appendable out) throws IOException {
+        switch (format) {
+            case "text" -> out.append(report.toText());
+            case "json" -> out.append(report.toJson()).append('\n');
+            case "hgrm" -> report.writeHistogramLog(out);
+            default -> throw new IllegalArgumentException("Formato desconocido: " + format + " (text|json|hgrm)");
+        }
+    }
+
+    // --- Argumentos ---
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inesperado: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            boolean flag = i + 1 >= args.length || args[i + 1].startsWith("--");
+            options.put(name, flag ? "true" : args[++i]);
+        }
+        return options;
+    }
+
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(trimmed));
+    }
+
+    // Los logs por envío distorsionan la medida: se silencian si el backend es Logback
+    private static void silenceLogs() {
+        if (LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME) instanceof ch.qos.logback.classic.Logger root) {
+            root.setLevel(ch.qos.logback.classic.Level.OFF);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.notify.plan;
+
+import com.notify.core.Notification;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plan de entrega con alternativas: una secuencia de notificaciones (una por
+ * canal) que se intentan en orden hasta que una se confirma.
+ *
+ * Ejemplo para una alerta crítica: push; si falla o no se confirma en 10s,
+ * SMS; si tampoco, email.
+ * <pre>
+ *   DeliveryPlan.builder()
+ *       .step(push, Duration.ofSeconds(10))
+ *       .step(sms, Duration.ofSeconds(30))
+ *       .step(email)
+ *       .build();
+ * </pre>
+ *
+ * Cada paso tiene un deadline opcional. Con {@link Builder#step} el paso se
+ * confirma cuando el proveedor acepta el envío (SENT) antes del deadline; con
+ * {@link Builder#deliveredStep} hace falta además un acuse de entrega o
+ * lectura en el {@link com.notify.receipt.DeliveryStatusStore} del servicio.
+ */
+public final class DeliveryPlan {
+
+    /**
+     * Paso del plan.
+     *
+     * @param notification  Notificación a enviar
+     * @param deadline      Tiempo máximo para confirmar el paso (null = sin límite)
+     * @param awaitDelivery Si exige acuse de entrega en lugar de solo la aceptación del proveedor
+     */
+    public record Step(Notification notification, Duration deadline, boolean awaitDelivery) {
+    }
+
+    private final List<Step> steps;
+
+    private DeliveryPlan(List<Step> steps) {
+        this.steps = List.copyOf(steps);
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    /**
+     * Si algún paso necesita acuses de entrega (y por tanto un almacén de estados).
+     */
+    public boolean requiresReceipts() {
+        return steps.stream().anyMatch(Step::awaitDelivery);
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final List<Step> steps = new ArrayList<>();
+
+        /**
+         * Paso sin deadline: se confirma (o falla) con la respuesta del proveedor.
+         */
+        public Builder step(Notification notification) { return add(notification, null, false); }
+
+        /**
+         * Paso que debe ser aceptado por el proveedor antes del deadline.
+         */
+        public Builder step(Notification notification, Duration deadline) { return add(notification, deadline, false); }
+
+        /**
+         * Paso que debe recibir un acuse de entrega (DELIVERED/READ) antes del deadline.
+         */
+        public Builder deliveredStep(Notification notification, Duration deadline) {
+            if (deadline == null) {
+                throw new IllegalArgumentException("Un paso que espera acuse necesita deadline");
+            }
+            return add(notification, deadline, true);
+        }
+
+        private Builder add(Notification notification, Duration deadline, boolean awaitDelivery) {
+            if (notification == null) {
+                throw new IllegalArgumentException("La notificación del paso no puede ser nula");
+            }
+            if (deadline != null && (deadline.isNegative() || deadline.isZero())) {
+                throw new IllegalArgumentException("El deadline del paso debe ser > 0");
+            }
+            steps.add(new Step(notification, deadline, awaitDelivery));
+            return this;
+        }
+
+        public DeliveryPlan build() {
+            if (steps.isEmpty()) {
+                throw new IllegalStateException("El plan necesita al menos un paso");
+            }
+            return new DeliveryPlan(steps);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.notify.plan;
+
+import com.notify.core.Futures;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import com.notify.receipt.DeliveryStatusStore;
+import com.notify.receipt.DeliveryStatusStore.StatusEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Ejecución en curso de un {@link DeliveryPlan}.
+ *
+ * Totalmente asíncrona: ningún hilo espera a un paso. Cada paso es un
+ * sendAsync más, opcionalmente, un temporizador con su deadline; lo que
+ * ocurra primero (respuesta o deadline) avanza el plan mediante un CAS
+ * sobre el índice del paso actual, así que una respuesta tardía de un paso
+ * ya superado se ignora. Los temporizadores de todos los planes comparten
+ * un único hilo y se retiran de la cola al cancelarse, de modo que millones
+ * de planes en vuelo cuestan un puñado de objetos cada uno.
+ *
+ * Un paso que espera acuse se decide en cuanto el acuse llega al
+ * {@link DeliveryStatusStore} (entregada o leída confirma; rebotada o fallida
+ * pasa al siguiente sin esperar al deadline).
+ *
+ * Resultados que no son SENT ni fallo:
+ * <ul>
+ *   <li>PENDING: el canal lo aplazó (ej: resumen de email) y aún no se envió.
+ *       No confirma ni falla: decide el deadline del paso; sin deadline se
+ *       confirma, ya que el canal se hace cargo del envío.</li>
+ *   <li>COALESCED: se fusionó con otra notificación y no se enviará por
+ *       separado, así que cuenta como no entregada y se pasa al siguiente.</li>
+ * </ul>
+ *
+ * Al cancelar (con {@link #cancel()} o cancelando {@link #result()}) se
+ * cancela el envío en curso y no se ejecutan más pasos.
+ */
+public final class PlanExecution {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanExecution.class);
+
+    private static final int DONE = Integer.MAX_VALUE;
+
+    private final List<DeliveryPlan.Step> steps;
+    private final Function<Notification, CompletableFuture<NotificationResult>> sender;
+    private final DeliveryStatusStore statusStore;
+
+    private final AtomicInteger current = new AtomicInteger();
+    private final AtomicReferenceArray<NotificationResult> attempts;
+    private final CompletableFuture<PlanResult> result = new CompletableFuture<>();
+    private volatile ScheduledFuture<?> timer;
+    private volatile CompletableFuture<NotificationResult> sending;
+    private volatile CompletableFuture<StatusEntry> receipt;
+
+    private PlanExecution(DeliveryPlan plan,
+                          Function<Notification, CompletableFuture<NotificationResult>> sender,
+                          DeliveryStatusStore statusStore) {
+        this.steps = plan.getSteps();
+        this.sender = sender;
+        this.statusStore = statusStore;
+        this.attempts = new AtomicReferenceArray<>(steps.size());
+        result.whenComplete((planResult, error) -> {
+            if (result.isCancelled()) {
+                stop();
+            }
+        });
+    }
+
+    /**
+     * Arranca un plan.
+     *
+     * @param sender      Envío asíncrono de cada paso (normalmente NotificationService::sendAsync)
+     * @param statusStore Almacén de acuses para los pasos que esperan entrega (puede ser null si no hay)
+     */
+    public static PlanExecution start(DeliveryPlan plan,
+                                      Function<Notification, CompletableFuture<NotificationResult>> sender,
+                                      DeliveryStatusStore statusStore) {
+        if (plan.requiresReceipts() && statusStore == null) {
+            throw new IllegalStateException("El plan espera acuses de entrega y no hay almacén de estados");
+        }
+        PlanExecution execution = new PlanExecution(plan, sender, statusStore);
+        execution.run(0);
+        return execution;
+    }
+
+    /**
+     * Resultado del plan: se completa al confirmarse un paso o al agotarlos todos.
+     */
+    public CompletableFuture<PlanResult> result() {
+        return result;
+    }
+
+    /**
+     * Paso en curso (o el número de pasos si el plan terminó).
+     */
+    public int getCurrentStep() {
+        int step = current.get();
+        return step == DONE ? steps.size() : step;
+    }
+
+    /**
+     * Cancela el plan: el envío en curso se cancela y no se ejecutan más pasos.
+     *
+     * @return false si el plan ya había terminado
+     */
+    public boolean cancel() {
+        return result.cancel(true);
+    }
+
+    // --- Internos ---
+
+    private void run(int index) {
+        if (current.get() != index) {
+            return;
+        }
+        if (index >= steps.size()) {
+            if (current.compareAndSet(index, DONE)) {
+                log.warn("Plan de entrega agotado sin confirmar ({} pasos)", steps.size());
+                result.complete(new PlanResult(attemptsUpTo(steps.size()), -1));
+            }
+            return;
+        }
+        DeliveryPlan.Step step = steps.get(index);
+        if (step.deadline() != null) {
+            // El temporizador es compartido: la acción salta al pool común
+            timer = Futures.schedule(() -> ForkJoinPool.commonPool().execute(() -> onDeadline(index)), step.deadline());
+        }
+
+        CompletableFuture<NotificationResult> future;
+        try {
+            future = sender.apply(step.notification());
+        } catch (Exception e) {
+            future = CompletableFuture.completedFuture(NotificationResult.failure(step.notification().getId(), e.getMessage()));
+        }
+        sending = future;
+        if (current.get() != index) {
+            future.cancel(true);   // Cancelado mientras se lanzaba el paso
+            return;
+        }
+        future.whenComplete((stepResult, error) -> onSent(index, stepResult != null ? stepResult
+                : NotificationResult.failure(step.notification().getId(), String.valueOf(error))));
+    }
+
+    private void onSent(int index, NotificationResult stepResult) {
+        DeliveryPlan.Step step = steps.get(index);
+        switch (stepResult.getStatus()) {
+            case SENT -> {
+                if (step.awaitDelivery()) {
+                    awaitReceipt(index, stepResult);
+                } else {
+                    confirm(index, stepResult);
+                }
+            }
+            case PENDING -> {
+                if (step.deadline() == null) {
+                    confirm(index, stepResult);
+                } else {
+                    attempts.set(index, stepResult);   // Aplazado por el canal: decide el deadline
+                }
+            }
+            default -> advance(index, stepResult, false);
+        }
+    }
+
+    // Aceptado por el proveedor: el paso se decide al llegar el acuse (o al vencer el deadline)
+    private void awaitReceipt(int index, NotificationResult accepted) {
+        attempts.set(index, accepted);
+        CompletableFuture<StatusEntry> outcome = statusStore.awaitOutcome(steps.get(index).notification().getId());
+        receipt = outcome;
+        if (current.get() != index) {
+            outcome.cancel(false);   // El paso terminó mientras se registraba la espera
+            return;
+        }
+        outcome.thenAccept(entry -> onReceipt(index, accepted, entry));
+    }
+
+    private void onReceipt(int index, NotificationResult accepted, StatusEntry entry) {
+        if (entry.status() == NotificationStatus.DELIVERED || entry.status() == NotificationStatus.READ) {
+            confirm(index, accepted);
+        } else {
+            advance(index, NotificationResult.failure(accepted.getNotificationId(), "Acuse " + entry.status()), false);
+        }
+    }
+
+    private void onDeadline(int index) {
+        DeliveryPlan.Step step = steps.get(index);
+        NotificationResult accepted = attempts.get(index);
+        if (accepted != null && step.awaitDelivery() && delivered(step.notification())) {
+            confirm(index, accepted);
+            return;
+        }
+        String reason;
+        if (accepted == null) {
+            reason = "Sin confirmación del proveedor en " + step.deadline();
+        } else if (accepted.getStatus() == NotificationStatus.PENDING) {
+            reason = "Aplazada por el canal sin enviar en " + step.deadline();
+        } else {
+            reason = "Sin acuse de entrega en " + step.deadline();
+        }
+        // Si el proveedor no respondió, su envío se cancela antes de lanzar el paso siguiente
+        advance(index, NotificationResult.failure(step.notification().getId(), reason), accepted == null);
+    }
+
+    private boolean delivered(Notification notification) {
+        return statusStore.findById(notification.getId())
+                .map(entry -> entry.status() == NotificationStatus.DELIVERED || entry.status() == NotificationStatus.READ)
+                .orElse(false);
+    }
+
+    private void advance(int index, NotificationResult stepResult, boolean cancelSending) {
+        if (!current.compareAndSet(index, index + 1)) {
+            return;
+        }
+        cancelTimer();
+        CompletableFuture<NotificationResult> stale = sending;
+        if (cancelSending && stale != null) {
+            stale.cancel(true);
+        }
+        attempts.set(index, stepResult);
+        log.info("Plan de entrega: paso {} no confirmado ({}), pasando al siguiente",
+                index, stepResult.getErrorMessage() != null ? stepResult.getErrorMessage() : stepResult.getStatus());
+        run(index + 1);
+    }
+
+    private void confirm(int index, NotificationResult stepResult) {
+        if (current.compareAndSet(index, DONE)) {
+            cancelTimer();
+            attempts.set(index, stepResult);
+            result.complete(new PlanResult(attemptsUpTo(index + 1), index));
+        }
+    }
+
+    private void stop() {
+        if (current.getAndSet(DONE) != DONE) {
+            cancelTimer();
+            CompletableFuture<NotificationResult> inFlight = sending;
+            if (inFlight != null) {
+                inFlight.cancel(true);
+            }
+        }
+    }
+
+    private void cancelTimer() {
+        ScheduledFuture<?> scheduled = timer;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        CompletableFuture<StatusEntry> waiting = receipt;
+        if (waiting != null) {
+            waiting.cancel(false);
+        }
+    }
+
+    private List<NotificationResult> attemptsUpTo(int count) {
+        List<NotificationResult> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(attempts.get(i));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,54 @@
+package com.notify.plan;
+
+import com.notify.core.NotificationResult;
+
+import java.util.List;
+
+/**
+ * Resultado de un {@link DeliveryPlan}: el intento de cada paso ejecutado y
+ * cuál de ellos (si alguno) se confirmó.
+ */
+public final class PlanResult {
+
+    private final List<NotificationResult> attempts;
+    private final int confirmedStep;
+
+    PlanResult(List<NotificationResult> attempts, int confirmedStep) {
+        this.attempts = List.copyOf(attempts);
+        this.confirmedStep = confirmedStep;
+    }
+
+    /**
+     * Si algún paso se confirmó.
+     */
+    public boolean isConfirmed() {
+        return confirmedStep >= 0;
+    }
+
+    /**
+     * Índice del paso confirmado, o -1 si se agotaron todos.
+     */
+    public int getConfirmedStep() {
+        return confirmedStep;
+    }
+
+    /**
+     * Resultado del paso confirmado, o el del último intento si ninguno se confirmó.
+     */
+    public NotificationResult getResult() {
+        return isConfirmed() ? attempts.get(confirmedStep) : attempts.get(attempts.size() - 1);
+    }
+
+    /**
+     * Un resultado por paso ejecutado, en orden (los que vencieron su deadline como FAILED).
+     */
+    public List<NotificationResult> getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanResult[" + (isConfirmed() ? "confirmado en paso " + confirmedStep : "sin confirmar")
+                + ", intentos=" + attempts.size() + "]";
+    }
+}
@@ -0,0 +1,198 @@
+package com.notify.ratelimit;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Futures;
+import com.notify.core.Notification;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decorador de canal que limita los envíos en curso hacia su proveedor con
+ * un {@link AdaptiveConcurrencyLimit}.
+ *
+ * Uso:
+ * <pre>
+ *   NotificationService.builder()
+ *       .channel(new AdaptiveConcurrencyChannel&lt;&gt;(new SmsChannel(twilio),
+ *               AdaptiveConcurrencyLimit.builder().build(), 1_000))
+ *       .build();
+ * </pre>
+ *
+ * Por encima del límite, sendAsync encola hasta maxQueueSize envíos (se
+ * lanzan al liberarse huecos) y rechaza el resto con estado REJECTED. El
+ * envío síncrono nunca espera: sin hueco libre se rechaza directamente.
+ */
+public class AdaptiveConcurrencyChannel<T extends Notification> implements NotificationChannel<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyChannel.class);
+
+    private final NotificationChannel<T> delegate;
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxQueueSize;
+
+    private final Queue<Pending<T>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * @param delegate     Canal decorado
+     * @param limit        Límite adaptativo (uno por proveedor)
+     * @param maxQueueSize Envíos asíncronos que pueden esperar hueco (0 = rechazar al momento)
+     */
+    public AdaptiveConcurrencyChannel(NotificationChannel<T> delegate, AdaptiveConcurrencyLimit limit, int maxQueueSize) {
+        if (delegate == null || limit == null) {
+            throw new IllegalArgumentException("El canal y el límite son obligatorios");
+        }
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("maxQueueSize debe ser >= 0");
+        }
+        this.delegate = delegate;
+        this.limit = limit;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    @Override
+    public NotificationResult send(T notification) {
+        if (!limit.tryAcquire()) {
+            return reject(notification);
+        }
+        int inFlightAtStart = limit.getInFlight();
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            NotificationResult result = delegate.send(notification);
+            dropped = isDropped(result);
+            return result;
+        } finally {
+            limit.onSample(System.nanoTime() - start, inFlightAtStart, dropped);
+            drainQueue();
+        }
+    }
+
+    @Override
+    public CompletableFuture<NotificationResult> sendAsync(T notification) {
+        if (limit.tryAcquire()) {
+            return start(notification);
+        }
+        if (queued.incrementAndGet() > maxQueueSize) {
+            queued.decrementAndGet();
+            return CompletableFuture.completedFuture(reject(notification));
+        }
+        Pending<T> pending = new Pending<>(notification);
+        queue.offer(pending);
+        // Un hueco pudo liberarse entre el tryAcquire y el encolado
+        drainQueue();
+        return pending.result;
+    }
+
+    private CompletableFuture<NotificationResult> start(T notification) {
+        int inFlightAtStart = limit.getInFlight();
+        long start = System.nanoTime();
+        CompletableFuture<NotificationResult> sending;
+        try {
+            sending = delegate.sendAsync(notification);
+        } catch (Exception e) {
+            sending = CompletableFuture.failedFuture(e);
+        }
+        // Cancelar el envío libera el hueco en cuanto se cancela, no cuando el proveedor responde
+        CompletableFuture<NotificationResult> observed = sending;
+        return Futures.cancelling(sending.whenComplete((result, error) -> {
+            if (observed.isCancelled() || isCancellation(error)) {
+                // Cancelación o timeout del llamador: no dice nada de la congestión del proveedor
+                limit.release();
+            } else {
+                limit.onSample(System.nanoTime() - start, inFlightAtStart, error != null || isDropped(result));
+            }
+            drainQueue();
+        }), sending);
+    }
+
+    // Lanza envíos encolados mientras haya huecos
+    private void drainQueue() {
+        while (!queue.isEmpty() && limit.tryAcquire()) {
+            Pending<T> pending = queue.poll();
+            if (pending == null) {
+                limit.release();
+                return;
+            }
+            queued.decrementAndGet();
+            if (pending.result.isDone()) {
+                limit.release();   // Cancelado mientras esperaba en cola
+                continue;
+            }
+            CompletableFuture<NotificationResult> started = start(pending.notification);
+            started.whenComplete((result, error) -> {
+                if (error != null) {
+                    pending.result.completeExceptionally(error);
+                } else {
+                    pending.result.complete(result);
+                }
+            });
+            Futures.propagateCancel(pending.result, started);
+        }
+    }
+
+    private static boolean isCancellation(Throwable error) {
+        return error instanceof CancellationException
+                || (error instanceof CompletionException && error.getCause() instanceof CancellationException);
+    }
+
+    private static boolean isDropped(NotificationResult result) {
+        return result == null || result.getStatus() == NotificationStatus.FAILED;
+    }
+
+    private NotificationResult reject(T notification) {
+        log.warn("[{}] Límite de concurrencia alcanzado ({}). Rechazando notificación {}",
+                delegate.getProviderName(), limit.getLimit(), notification.getId());
+        return NotificationResult.rejected(notification.getId(),
+                "Límite de concurrencia de " + delegate.getProviderName() + " alcanzado");
+    }
+
+    /**
+     * Límite actual (métrica: baja cuando el proveedor se ralentiza o falla).
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return limit.getInFlight();
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    @Override
+    public ChannelType getChannelType() {
+        return delegate.getChannelType();
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    private static final class Pending<T> {
+        final T notification;
+        final CompletableFuture<NotificationResult> result = new CompletableFuture<>();
+
+        Pending(T notification) {
+            this.notification = notification;
+        }
+    }
+}
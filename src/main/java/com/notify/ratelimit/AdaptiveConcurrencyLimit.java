@@ -0,0 +1,177 @@
+package com.notify.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Límite de concurrencia adaptativo (estilo TCP Vegas + AIMD).
+ *
+ * En lugar de fijar a mano cuántos envíos en curso admite un proveedor, el
+ * límite se ajusta con cada respuesta:
+ * - Se mide la latencia mínima observada (minRtt) como referencia sin cola.
+ * - Con cada envío exitoso se estima cuántas peticiones están haciendo cola
+ *   en el proveedor: {@code limit * (1 - minRtt / rtt)}. Si la cola estimada
+ *   es menor que alpha el límite crece en 1; si supera beta, baja en 1.
+ * - Un error o timeout reduce el límite multiplicativamente (backoffRatio).
+ *
+ * Como se ajusta en cada muestra, un proveedor que se ralentiza ve bajar su
+ * límite en pocos segundos. La referencia minRtt se renueva periódicamente
+ * para adaptarse a cambios permanentes de latencia.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimit.class);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int alpha;
+    private final int beta;
+    private final double backoffRatio;
+    private final long minRttWindowNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Escrito bajo el monitor de esta instancia; leído sin él en tryAcquire
+    private volatile double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long minRttResetAt;
+
+    private AdaptiveConcurrencyLimit(Builder builder) {
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.alpha = builder.alpha;
+        this.beta = builder.beta;
+        this.backoffRatio = builder.backoffRatio;
+        this.minRttWindowNanos = builder.minRttWindow.toNanos();
+        this.limit = builder.initialLimit;
+        this.minRttResetAt = System.nanoTime() + minRttWindowNanos;
+    }
+
+    /**
+     * Ocupa un hueco si hay capacidad bajo el límite actual.
+     *
+     * @return true si se puede enviar; el llamador debe cerrar con
+     *         {@link #onSample} o {@link #release()}
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera un hueco sin registrar muestra (el envío no llegó a realizarse).
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Libera el hueco y ajusta el límite con la muestra del envío.
+     *
+     * @param rttNanos        Duración del envío
+     * @param inFlightAtStart Envíos en curso al iniciarlo (incluido él)
+     * @param dropped         true si falló, expiró o fue rechazado por el proveedor
+     */
+    public void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            double previous = limit;
+            double next = dropped ? previous * backoffRatio : vegas(previous, rttNanos, inFlightAtStart);
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+            if ((int) limit != (int) previous && log.isDebugEnabled()) {
+                log.debug("Límite de concurrencia {} -> {} (rtt={}ms, minRtt={}ms)", (int) previous, (int) limit,
+                        rttNanos / 1_000_000, minRttNanos / 1_000_000);
+            }
+        }
+    }
+
+    private double vegas(double current, long rttNanos, int inFlightAtStart) {
+        long now = System.nanoTime();
+        if (now >= minRttResetAt) {
+            minRttNanos = rttNanos;
+            minRttResetAt = now + minRttWindowNanos;
+        } else if (rttNanos < minRttNanos) {
+            minRttNanos = rttNanos;
+        }
+        if (rttNanos <= 0) {
+            return current;
+        }
+
+        double queue = current * (1 - (double) minRttNanos / rttNanos);
+        if (queue > beta) {
+            return current - 1;
+        }
+        // Solo crece si el límite se estaba usando: con poco tráfico la muestra no dice nada
+        if (queue < alpha && inFlightAtStart * 2 >= current) {
+            return current + 1;
+        }
+        return current;
+    }
+
+    /**
+     * Límite actual de envíos en curso.
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private int alpha = 3;
+        private int beta = 6;
+        private double backoffRatio = 0.9;
+        private Duration minRttWindow = Duration.ofSeconds(30);
+
+        public Builder initialLimit(int initialLimit) { this.initialLimit = initialLimit; return this; }
+        public Builder minLimit(int minLimit) { this.minLimit = minLimit; return this; }
+        public Builder maxLimit(int maxLimit) { this.maxLimit = maxLimit; return this; }
+
+        /**
+         * Cola estimada por debajo de la cual el límite crece / por encima de la cual baja.
+         */
+        public Builder queueThresholds(int alpha, int beta) { this.alpha = alpha; this.beta = beta; return this; }
+
+        /**
+         * Factor aplicado al límite ante un error (ej: 0.9 = -10%).
+         */
+        public Builder backoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; return this; }
+
+        /**
+         * Cada cuánto se renueva la latencia de referencia.
+         */
+        public Builder minRttWindow(Duration minRttWindow) { this.minRttWindow = minRttWindow; return this; }
+
+        public AdaptiveConcurrencyLimit build() {
+            if (minLimit < 1) throw new IllegalArgumentException("minLimit debe ser >= 1");
+            if (maxLimit < minLimit) throw new IllegalArgumentException("maxLimit debe ser >= minLimit");
+            if (initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException("initialLimit debe estar entre minLimit y maxLimit");
+            }
+            if (alpha < 0 || beta < alpha) throw new IllegalArgumentException("Se requiere 0 <= alpha <= beta");
+            if (backoffRatio <= 0 || backoffRatio >= 1) throw new IllegalArgumentException("backoffRatio debe estar en (0, 1)");
+            return new AdaptiveConcurrencyLimit(this);
+        }
+    }
+}
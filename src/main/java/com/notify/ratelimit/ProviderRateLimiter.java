@@ -0,0 +1,178 @@
+package com.notify.ratelimit;
+
+import com.notify.config.ProviderConfig;
+import com.notify.exception.SendException;
+import com.notify.transport.TransportResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rate limiter de un proveedor, para respetar su cuota (ej: Twilio limita
+ * los mensajes por segundo de cada número; SendGrid y FCM, las peticiones).
+ *
+ * Se configura con propiedades del {@link ProviderConfig}:
+ * - rateLimitPerSecond: tasa sostenida permitida (sin ella, no hay límite)
+ * - rateLimitBurst: ráfaga permitida (por defecto 1)
+ * - rateLimitMaxWaitMs: espera máxima por turno (por defecto 60000); si el
+ *   turno llegaría más tarde el envío falla en lugar de quedar reservado
+ *
+ * Además escucha las respuestas del proveedor: un 429 o 503 detiene los
+ * envíos durante el Retry-After indicado (1 segundo si no lo indica), tanto
+ * si hay tasa configurada como si no. Así se envía a la máxima tasa permitida
+ * sin acumular respuestas de throttling que luego habría que reintentar.
+ */
+public final class ProviderRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderRateLimiter.class);
+
+    public static final String RATE_PROPERTY = "rateLimitPerSecond";
+    public static final String BURST_PROPERTY = "rateLimitBurst";
+    public static final String MAX_WAIT_PROPERTY = "rateLimitMaxWaitMs";
+
+    private static final Duration DEFAULT_THROTTLE_PAUSE = Duration.ofSeconds(1);
+    private static final Duration MAX_THROTTLE_PAUSE = Duration.ofMinutes(5);
+
+    private final String providerName;
+    private final TokenBucket bucket;   // null = sin tasa configurada
+    private final AtomicLong resumeAtNanos = new AtomicLong(System.nanoTime());
+
+    private ProviderRateLimiter(String providerName, TokenBucket bucket) {
+        this.providerName = providerName;
+        this.bucket = bucket;
+    }
+
+    /**
+     * Crea el limitador a partir de las propiedades del proveedor.
+     */
+    public static ProviderRateLimiter fromConfig(ProviderConfig config) {
+        String rate = config.getProperty(RATE_PROPERTY);
+        if (rate == null || rate.isBlank()) {
+            return new ProviderRateLimiter(config.getProviderName(), null);
+        }
+        try {
+            int burst = Integer.parseInt(config.getProperty(BURST_PROPERTY, "1"));
+            String maxWait = config.getProperty(MAX_WAIT_PROPERTY);
+            Duration maxWaitDuration = maxWait == null || maxWait.isBlank()
+                    ? TokenBucket.DEFAULT_MAX_WAIT
+                    : Duration.ofMillis(Long.parseLong(maxWait.trim()));
+            return new ProviderRateLimiter(config.getProviderName(),
+                    new TokenBucket(Double.parseDouble(rate), burst, maxWaitDuration));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Rate limit inválido para proveedor: " + config.getProviderName(), e);
+        }
+    }
+
+    /**
+     * Espera bloqueante hasta poder enviar (para el envío síncrono).
+     */
+    public void acquire() {
+        if (bucket != null) {
+            bucket.acquire();
+        }
+        TokenBucket.parkUntil(resumeAtNanos.get());
+    }
+
+    /**
+     * Espera no bloqueante hasta poder enviar. Sin límite ni pausa activa
+     * retorna un future ya completado; si el turno superaría la espera
+     * máxima del bucket, uno fallido con SendException.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long wait;
+        try {
+            wait = bucket != null ? bucket.reserve() : 0;
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        wait = Math.max(wait, pauseRemaining());
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return TokenBucket.delay(wait).thenCompose(ignored -> awaitPause());
+    }
+
+    // Un Retry-After recibido durante la espera la alarga
+    private CompletableFuture<Void> awaitPause() {
+        long remaining = pauseRemaining();
+        if (remaining <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return TokenBucket.delay(remaining).thenCompose(ignored -> awaitPause());
+    }
+
+    /**
+     * Revisa la respuesta del proveedor y aplica su señal de throttling, si la hay.
+     */
+    public void onResponse(TransportResponse response) {
+        int status = response.getStatusCode();
+        if (status == 429 || status == 503) {
+            Duration retryAfter = parseRetryAfter(response.header("Retry-After"));
+            throttled(retryAfter != null ? retryAfter : DEFAULT_THROTTLE_PAUSE);
+        }
+    }
+
+    /**
+     * Detiene los envíos del proveedor durante el tiempo indicado.
+     */
+    public void throttled(Duration pause) {
+        if (pause.compareTo(MAX_THROTTLE_PAUSE) > 0) {
+            pause = MAX_THROTTLE_PAUSE;
+        }
+        long nanos = pause.toNanos();
+        if (nanos <= 0) {
+            return;
+        }
+        log.warn("[{}] Throttling del proveedor: pausando envíos {}ms", providerName, pause.toMillis());
+        resumeAtNanos.accumulateAndGet(System.nanoTime() + nanos, Math::max);
+        if (bucket != null) {
+            bucket.pause(nanos);
+        }
+    }
+
+    private long pauseRemaining() {
+        return Math.max(0, resumeAtNanos.get() - System.nanoTime());
+    }
+
+    public boolean isLimited() {
+        return bucket != null;
+    }
+
+    /**
+     * Bucket subyacente, o null si no hay tasa configurada.
+     */
+    public TokenBucket getBucket() {
+        return bucket;
+    }
+
+    /**
+     * Interpreta Retry-After en sus dos formatos: segundos o fecha HTTP.
+     *
+     * @return la espera indicada, o null si falta o no es válida
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException ignored) {
+            // No son segundos: probar como fecha HTTP
+        }
+        try {
+            Instant at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            long millis = at.toEpochMilli() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(0, millis));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.notify.ratelimit;
+
+import com.notify.core.Futures;
+import com.notify.exception.SendException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket sin locks.
+ *
+ * Implementado como GCRA (Generic Cell Rate Algorithm): en lugar de contar
+ * tokens guarda un único instante teórico de llegada (TAT) en un AtomicLong y
+ * lo avanza con CAS. Es equivalente a un bucket de capacidad {@code burst}
+ * que se rellena a {@code permitsPerSecond}, sin hilos de recarga.
+ *
+ * Modos de uso:
+ * - {@link #tryAcquire()}: no espera; el llamador decide qué hacer sin token.
+ * - {@link #acquire()}: bloquea el hilo hasta su turno.
+ * - {@link #acquireAsync()}: future que se completa en su turno, sin ocupar hilos.
+ *
+ * acquire y acquireAsync reservan el token al invocarse (orden de llegada):
+ * la espera es exactamente la necesaria, sin sondeos. La reserva se limita a
+ * {@code maxWait}: si el token llegaría más tarde falla sin reservar, así una
+ * ráfaga no acumula reservas sin fin (ni esperas que ya no sirven).
+ */
+public class TokenBucket {
+
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofMinutes(1);
+
+    private final long intervalNanos;     // Tiempo entre tokens
+    private final long burstNanos;        // Ventana de ráfaga: burst * interval
+    private final long maxWaitNanos;      // Espera máxima que acepta una reserva
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param permitsPerSecond Tasa sostenida (> 0)
+     * @param burst            Tokens que pueden consumirse de golpe (>= 1)
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, DEFAULT_MAX_WAIT);
+    }
+
+    /**
+     * @param permitsPerSecond Tasa sostenida (> 0)
+     * @param burst            Tokens que pueden consumirse de golpe (>= 1)
+     * @param maxWait          Espera máxima de una reserva (>= 0)
+     */
+    public TokenBucket(double permitsPerSecond, int burst, Duration maxWait) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond debe ser > 0");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst debe ser >= 1");
+        }
+        if (maxWait.isNegative()) {
+            throw new IllegalArgumentException("maxWait debe ser >= 0");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Intenta consumir un token sin esperar.
+     *
+     * @return true si había token disponible
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserva el siguiente token aunque aún no esté disponible.
+     *
+     * @return nanosegundos que el llamador debe esperar antes de usarlo (0 = ya)
+     * @throws SendException si la espera superaría maxWait (no se reserva nada)
+     */
+    public long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = Math.max(0, next - burstNanos - now);
+            if (wait > maxWaitNanos) {
+                throw new SendException("Rate limit saturado: el próximo token llega en "
+                        + TimeUnit.NANOSECONDS.toMillis(wait) + "ms (máximo "
+                        + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms)");
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Consume un token, bloqueando el hilo hasta que esté disponible.
+     *
+     * @throws SendException si la espera superaría maxWait o si el hilo se
+     *                       interrumpe durante la espera
+     */
+    public void acquire() {
+        long wait = reserve();
+        if (wait > 0) {
+            parkUntil(System.nanoTime() + wait);
+        }
+    }
+
+    /**
+     * Consume un token sin bloquear: el future se completa cuando está
+     * disponible, o falla con SendException si la espera superaría maxWait.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        try {
+            return delay(reserve());
+        } catch (SendException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Detiene el bucket durante el tiempo indicado (ej: Retry-After de un 429).
+     * Al reanudarse dispone de un solo token y se rellena a la tasa normal,
+     * así que no hay ráfaga justo al terminar la pausa. Mientras la pausa
+     * restante supere maxWait, las reservas fallan en lugar de esperar.
+     */
+    public void pause(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        long resumeTat = System.nanoTime() + nanos + burstNanos - intervalNanos;
+        theoreticalArrival.accumulateAndGet(resumeTat, Math::max);
+    }
+
+    /**
+     * Nanosegundos hasta que haya al menos un token (0 si ya lo hay).
+     */
+    public long nanosUntilAvailable() {
+        long now = System.nanoTime();
+        long wait = theoreticalArrival.get() + intervalNanos - burstNanos - now;
+        return Math.max(0, wait);
+    }
+
+    /**
+     * Future que se completa tras la espera indicada (inmediato si es 0).
+     * Cancelarlo retira la espera del temporizador compartido.
+     */
+    static CompletableFuture<Void> delay(long nanos) {
+        if (nanos <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> delay = new CompletableFuture<>();
+        // Lo que dependa del future no debe ejecutarse en el hilo del temporizador
+        ScheduledFuture<?> timer = Futures.schedule(
+                () -> ForkJoinPool.commonPool().execute(() -> delay.complete(null)), Duration.ofNanos(nanos));
+        Futures.propagateCancel(delay, timer);
+        return delay;
+    }
+
+    /**
+     * Bloquea hasta el instante indicado (System.nanoTime).
+     */
+    static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new SendException("Espera de rate limit interrumpida");
+            }
+        }
+    }
+
+    public double getPermitsPerSecond() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    public int getBurst() {
+        return (int) (burstNanos / intervalNanos);
+    }
+
+    public Duration getMaxWait() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+}
@@ -0,0 +1,16 @@
+package com.notify.receipt;
+
+import com.notify.core.NotificationStatus;
+
+import java.time.Instant;
+
+/**
+ * Acuse de un proveedor sobre un mensaje ya aceptado (entregado, leído,
+ * rebotado), identificado por el id que el proveedor devolvió al enviar.
+ *
+ * @param providerMessageId Id del mensaje en el proveedor (MessageSid, X-Message-Id...)
+ * @param status            Nuevo estado
+ * @param occurredAt        Momento del evento según el proveedor
+ */
+public record DeliveryReceipt(String providerMessageId, NotificationStatus status, Instant occurredAt) {
+}
@@ -0,0 +1,371 @@
+package com.notify.receipt;
+
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import com.notify.filter.Fingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Almacén del estado de cada notificación tras el envío, consultable por id
+ * de notificación y por id de mensaje del proveedor, y actualizable con los
+ * acuses del proveedor (entregada, leída, rebotada).
+ *
+ * Pensado para cientos de millones de entradas:
+ * - Fuera del heap: cada entrada son dos slots de 24 bytes en tablas
+ *   {@link LongTable} (id → [id proveedor, estado], id proveedor → [id,
+ *   estado anticipado]), con huellas de 64 bits en lugar de Strings.
+ * - Shards: cada tabla se reparte en {@code shards} partes con su propio
+ *   lock, así que la ingesta de acuses y las consultas no compiten entre sí.
+ * - Expulsión por tiempo sin recorrer entradas: el almacén se organiza en
+ *   {@code generations} generaciones de {@code retention / generations};
+ *   al abrir una generación nueva se descarta entera la más antigua. Una
+ *   entrada vive entre {@code retention - span} y {@code retention}.
+ *
+ * Un acuse puede llegar antes de que el envío se registre (el webhook gana
+ * a la respuesta del proveedor): se guarda como estado anticipado y se
+ * aplica al registrar el envío. Los estados no retroceden: un DELIVERED
+ * tardío no pisa un READ.
+ *
+ * Quien necesita reaccionar a un acuse (ej: un paso de un plan de entrega)
+ * lo espera con {@link #awaitOutcome} en lugar de consultar periódicamente.
+ */
+public class DeliveryStatusStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DeliveryStatusStore.class);
+
+    private static final NotificationStatus[] STATUSES = NotificationStatus.values();
+
+    /**
+     * Estado de una notificación y cuándo se actualizó por última vez.
+     */
+    public record StatusEntry(NotificationStatus status, Instant updatedAt) {
+    }
+
+    private static final class Shard {
+        final LongTable byId;         // id → [huella id proveedor, estado]
+        final LongTable byProvider;   // id proveedor → [huella id (0 = aún sin envío), estado anticipado]
+
+        Shard(int expected) {
+            this.byId = new LongTable(2, expected);
+            this.byProvider = new LongTable(2, expected);
+        }
+    }
+
+    private record Generation(long startMillis, Shard[] shards) {
+    }
+
+    private final int shardMask;
+    private final int generations;
+    private final long spanMillis;
+    private final int expectedPerShard;
+    private final Clock clock;
+
+    private volatile Generation[] ring;   // La más reciente primero
+
+    // huella del id → quienes esperan su desenlace (solo los envíos vigilados)
+    private final ConcurrentHashMap<Long, List<CompletableFuture<StatusEntry>>> watchers = new ConcurrentHashMap<>();
+
+    private DeliveryStatusStore(Builder builder) {
+        this.shardMask = builder.shards - 1;
+        this.generations = builder.generations;
+        this.spanMillis = Math.max(1, builder.retention.toMillis() / builder.generations);
+        this.expectedPerShard = Math.max(16, builder.expectedPerGeneration / builder.shards);
+        this.clock = builder.clock;
+        this.ring = new Generation[]{newGeneration(clock.millis())};
+    }
+
+    /**
+     * Registra el resultado de un envío (id de notificación, id del proveedor y estado).
+     */
+    public void record(NotificationResult result) {
+        if (result.getNotificationId() == null) {
+            return;
+        }
+        long now = clock.millis();
+        long id = Fingerprint.exact(result.getNotificationId());
+        long provider = result.getProviderMessageId() != null ? Fingerprint.exact(result.getProviderMessageId()) : 0;
+        long meta = pack(result.getStatus(), now);
+        long[] values = new long[2];
+
+        if (provider != 0) {
+            // ¿Llegó un acuse antes que el resultado del envío?
+            Generation early = findProvider(provider, values);
+            if (early != null && values[0] == 0 && values[1] != 0 && rank(values[1]) > rank(meta)) {
+                meta = values[1];
+            }
+            Shard shard = shard(current(now), provider);
+            synchronized (shard) {
+                shard.byProvider.put(provider, id, 0);
+            }
+        }
+        Shard shard = shard(current(now), id);
+        synchronized (shard) {
+            shard.byId.put(id, provider, meta);
+        }
+        settle(id, meta);
+    }
+
+    /**
+     * Aplica un acuse del proveedor.
+     *
+     * @return true si correspondía a un envío registrado; false si se guardó
+     *         como anticipado (o era más antiguo que el estado actual)
+     */
+    public boolean apply(DeliveryReceipt receipt) {
+        long provider = Fingerprint.exact(receipt.providerMessageId());
+        long occurred = receipt.occurredAt() != null ? receipt.occurredAt().toEpochMilli() : clock.millis();
+        long meta = pack(receipt.status(), occurred);
+        long[] values = new long[2];
+
+        Generation generation = findProvider(provider, values);
+        if (generation == null || values[0] == 0) {
+            Generation target = generation != null ? generation : current(clock.millis());
+            Shard shard = shard(target, provider);
+            synchronized (shard) {
+                long[] existing = new long[2];
+                if (!shard.byProvider.get(provider, existing) || rank(meta) > rank(existing[1])) {
+                    shard.byProvider.put(provider, 0, meta);
+                }
+            }
+            return false;
+        }
+
+        long id = values[0];
+        Shard shard = shard(generation, id);
+        synchronized (shard) {
+            if (!shard.byId.get(id, values)) {
+                return false;
+            }
+            if (rank(meta) <= rank(values[1])) {
+                return false;
+            }
+            shard.byId.put(id, provider, meta);
+        }
+        settle(id, meta);
+        return true;
+    }
+
+    /**
+     * Futuro que se completa cuando la notificación sale de SENT: entregada,
+     * leída, rebotada o fallida (completado si ya lo está). Si deja de
+     * interesar (ej: vence el plazo de quien espera) se cancela y se retira.
+     */
+    public CompletableFuture<StatusEntry> awaitOutcome(String notificationId) {
+        long id = Fingerprint.exact(notificationId);
+        CompletableFuture<StatusEntry> outcome = new CompletableFuture<>();
+        watchers.compute(id, (key, waiting) -> {
+            List<CompletableFuture<StatusEntry>> list = waiting != null ? waiting : new ArrayList<>(1);
+            list.add(outcome);
+            return list;
+        });
+        outcome.whenComplete((entry, error) -> {
+            if (outcome.isCancelled()) {
+                unwatch(id, outcome);
+            }
+        });
+        // Tras registrarse: un acuse aplicado antes no se pierde
+        findById(notificationId).filter(entry -> rank(entry.status()) > 1).ifPresent(entry -> {
+            unwatch(id, outcome);
+            outcome.complete(entry);
+        });
+        return outcome;
+    }
+
+    public Optional<StatusEntry> findById(String notificationId) {
+        long id = Fingerprint.exact(notificationId);
+        long[] values = new long[2];
+        for (Generation generation : ring) {
+            Shard shard = shard(generation, id);
+            synchronized (shard) {
+                if (shard.byId.get(id, values)) {
+                    return Optional.of(unpack(values[1]));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<StatusEntry> findByProviderMessageId(String providerMessageId) {
+        long provider = Fingerprint.exact(providerMessageId);
+        long[] values = new long[2];
+        Generation generation = findProvider(provider, values);
+        if (generation == null) {
+            return Optional.empty();
+        }
+        if (values[0] == 0) {
+            return Optional.of(unpack(values[1]));   // Solo hay un acuse anticipado
+        }
+        long id = values[0];
+        Shard shard = shard(generation, id);
+        synchronized (shard) {
+            return shard.byId.get(id, values) ? Optional.of(unpack(values[1])) : Optional.empty();
+        }
+    }
+
+    /**
+     * Notificaciones registradas en las generaciones vivas.
+     */
+    public long size() {
+        long size = 0;
+        for (Generation generation : ring) {
+            for (Shard shard : generation.shards()) {
+                synchronized (shard) {
+                    size += shard.byId.size();
+                }
+            }
+        }
+        return size;
+    }
+
+    // --- Internos ---
+
+    private void settle(long id, long meta) {
+        if (watchers.isEmpty() || rank(meta) <= 1) {
+            return;
+        }
+        List<CompletableFuture<StatusEntry>> waiting = watchers.remove(id);
+        if (waiting != null) {
+            StatusEntry entry = unpack(meta);
+            waiting.forEach(outcome -> outcome.complete(entry));
+        }
+    }
+
+    private void unwatch(long id, CompletableFuture<StatusEntry> outcome) {
+        watchers.computeIfPresent(id, (key, waiting) -> {
+            waiting.remove(outcome);
+            return waiting.isEmpty() ? null : waiting;
+        });
+    }
+
+    private Generation findProvider(long provider, long[] out) {
+        for (Generation generation : ring) {
+            Shard shard = shard(generation, provider);
+            synchronized (shard) {
+                if (shard.byProvider.get(provider, out)) {
+                    return generation;
+                }
+            }
+        }
+        return null;
+    }
+
+    // Generación activa; abre una nueva al cumplirse su intervalo y expulsa las que superan la retención
+    private Generation current(long now) {
+        Generation[] generations = ring;
+        if (now - generations[0].startMillis() < spanMillis) {
+            return generations[0];
+        }
+        synchronized (this) {
+            generations = ring;
+            if (now - generations[0].startMillis() >= spanMillis) {
+                long oldest = now - spanMillis * this.generations;
+                int kept = 0;
+                while (kept < generations.length && kept < this.generations - 1
+                        && generations[kept].startMillis() > oldest) {
+                    kept++;
+                }
+                Generation[] rotated = new Generation[kept + 1];
+                rotated[0] = newGeneration(now);
+                System.arraycopy(generations, 0, rotated, 1, kept);
+                if (kept < generations.length) {
+                    log.debug("Estados de entrega: expulsadas {} generaciones (la más antigua iniciada en {})",
+                            generations.length - kept,
+                            Instant.ofEpochMilli(generations[generations.length - 1].startMillis()));
+                }
+                ring = rotated;
+            }
+            return ring[0];
+        }
+    }
+
+    private Generation newGeneration(long startMillis) {
+        Shard[] shards = new Shard[shardMask + 1];
+        Arrays.setAll(shards, i -> new Shard(expectedPerShard));
+        return new Generation(startMillis, shards);
+    }
+
+    private Shard shard(Generation generation, long fingerprint) {
+        return generation.shards()[(int) (fingerprint >>> 40) & shardMask];
+    }
+
+    private static long pack(NotificationStatus status, long millis) {
+        return millis << 8 | status.ordinal();
+    }
+
+    private static StatusEntry unpack(long meta) {
+        return new StatusEntry(STATUSES[(int) (meta & 0xFF)], Instant.ofEpochMilli(meta >>> 8));
+    }
+
+    // Orden del ciclo de vida: un estado solo se sustituye por otro más avanzado
+    private static int rank(long meta) {
+        return rank(STATUSES[(int) (meta & 0xFF)]);
+    }
+
+    private static int rank(NotificationStatus status) {
+        return switch (status) {
+            case SENT -> 1;
+            case DELIVERED -> 2;
+            case READ, BOUNCED, FAILED -> 3;
+            default -> 0;
+        };
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Duration retention = Duration.ofDays(7);
+        private int generations = 7;
+        private int shards = 64;
+        private int expectedPerGeneration = 1_000_000;
+        private Clock clock = Clock.systemUTC();
+
+        /**
+         * Tiempo que se conservan los estados (por defecto 7 días).
+         */
+        public Builder retention(Duration retention) { this.retention = retention; return this; }
+
+        /**
+         * Generaciones en que se divide la retención (granularidad de la expulsión).
+         */
+        public Builder generations(int generations) { this.generations = generations; return this; }
+
+        /**
+         * Número de shards (potencia de 2): más shards, menos contención.
+         */
+        public Builder shards(int shards) { this.shards = shards; return this; }
+
+        /**
+         * Envíos previstos por generación: dimensiona las tablas desde el inicio.
+         */
+        public Builder expectedPerGeneration(int expectedPerGeneration) {
+            this.expectedPerGeneration = expectedPerGeneration;
+            return this;
+        }
+
+        public Builder clock(Clock clock) { this.clock = clock; return this; }
+
+        public DeliveryStatusStore build() {
+            if (generations < 1) throw new IllegalArgumentException("generations debe ser >= 1");
+            if (shards < 1 || Integer.bitCount(shards) != 1) {
+                throw new IllegalArgumentException("shards debe ser potencia de 2");
+            }
+            if (retention.isNegative() || retention.isZero()) throw new IllegalArgumentException("retention debe ser > 0");
+            return new DeliveryStatusStore(this);
+        }
+    }
+}
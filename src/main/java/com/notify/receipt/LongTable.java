@@ -0,0 +1,117 @@
+package com.notify.receipt;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Mapa long → N longs fuera del heap: tabla hash de direccionamiento abierto
+ * (sondeo lineal) sobre un ByteBuffer directo, con slots de {@code 8 * (1 + N)}
+ * bytes y sin objetos por entrada.
+ *
+ * No admite borrados individuales: el {@link DeliveryStatusStore} expulsa
+ * tablas completas por antigüedad. No es thread-safe; cada shard del store
+ * la protege con su lock.
+ */
+final class LongTable {
+
+    private static final long EMPTY = 0;
+    private static final long EMPTY_ALIAS = 0x9E3779B97F4A7C15L;
+    private static final double MAX_LOAD = 0.7;
+    private static final long MAX_BYTES = Integer.MAX_VALUE;
+
+    private final int values;
+    private final int slotBytes;
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+
+    LongTable(int values, int expectedSize) {
+        this.values = values;
+        this.slotBytes = Long.BYTES * (1 + values);
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Copia los valores de la clave en {@code out}.
+     *
+     * @return false si la clave no está
+     */
+    boolean get(long key, long[] out) {
+        int base = find(encode(key)) * slotBytes;
+        if (slots.getLong(base) == EMPTY) {
+            return false;
+        }
+        for (int i = 0; i < values; i++) {
+            out[i] = slots.getLong(base + Long.BYTES * (1 + i));
+        }
+        return true;
+    }
+
+    void put(long key, long... entry) {
+        key = encode(key);
+        if (size + 1 > (mask + 1) * MAX_LOAD) {
+            rehash(capacityFor(size + 1));
+        }
+        int base = find(key) * slotBytes;
+        if (slots.getLong(base) == EMPTY) {
+            slots.putLong(base, key);
+            size++;
+        }
+        for (int i = 0; i < values; i++) {
+            slots.putLong(base + Long.BYTES * (1 + i), entry[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int find(long key) {
+        int slot = (int) key & mask;
+        while (true) {
+            long current = slots.getLong(slot * slotBytes);
+            if (current == key || current == EMPTY) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        ByteBuffer old = slots;
+        int oldCapacity = mask + 1;
+        allocate(capacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            int source = i * slotBytes;
+            long key = old.getLong(source);
+            if (key != EMPTY) {
+                int target = find(key) * slotBytes;
+                for (int j = 0; j < slotBytes; j += Long.BYTES) {
+                    slots.putLong(target + j, old.getLong(source + j));
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = ByteBuffer.allocateDirect(capacity * slotBytes).order(ByteOrder.nativeOrder());
+        mask = capacity - 1;
+    }
+
+    // Potencia de 2 con factor de carga ~0.5 para el tamaño esperado
+    private int capacityFor(int expectedSize) {
+        int maxCapacity = Integer.highestOneBit((int) (MAX_BYTES / slotBytes));
+        long wanted = Math.max(16L, (long) expectedSize * 2);
+        if (wanted > maxCapacity) {
+            if (expectedSize > maxCapacity * MAX_LOAD) {
+                throw new IllegalStateException("Tabla de estados llena: " + expectedSize + " entradas");
+            }
+            return maxCapacity;
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    private static long encode(long key) {
+        return key == EMPTY ? EMPTY_ALIAS : key;
+    }
+}
@@ -0,0 +1,133 @@
+package com.notify.receipt;
+
+import com.notify.core.NotificationStatus;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsers de los webhooks de acuse de cada proveedor.
+ *
+ * Como {@code TransportResponse.jsonField}, el JSON se lee con expresiones
+ * regulares sobre los campos conocidos: los eventos son objetos planos y no
+ * hace falta un mapper genérico. Los eventos sin equivalente en el ciclo de
+ * vida (processed, queued, deferred...) se ignoran.
+ */
+public final class ReceiptParsers {
+
+    // Objetos JSON planos (sin objetos anidados) dentro de un array de eventos
+    private static final Pattern FLAT_OBJECT = Pattern.compile("\\{[^{}]*}");
+
+    private ReceiptParsers() {
+    }
+
+    /**
+     * Convierte el cuerpo de un webhook en acuses.
+     */
+    @FunctionalInterface
+    public interface ReceiptParser {
+        List<DeliveryReceipt> parse(String body);
+    }
+
+    /**
+     * Twilio status callback (application/x-www-form-urlencoded): MessageSid + MessageStatus.
+     */
+    public static ReceiptParser twilio() {
+        return body -> {
+            Map<String, String> form = formDecode(body);
+            String sid = form.get("MessageSid");
+            NotificationStatus status = switch (form.getOrDefault("MessageStatus", "")) {
+                case "delivered" -> NotificationStatus.DELIVERED;
+                case "read" -> NotificationStatus.READ;
+                case "undelivered" -> NotificationStatus.BOUNCED;
+                case "failed" -> NotificationStatus.FAILED;
+                default -> null;
+            };
+            return sid == null || status == null ? List.of() : List.of(new DeliveryReceipt(sid, status, null));
+        };
+    }
+
+    /**
+     * SendGrid Event Webhook: array JSON de eventos. sg_message_id es el
+     * X-Message-Id devuelto al enviar seguido de ".filter..." (se recorta).
+     */
+    public static ReceiptParser sendGrid() {
+        return body -> {
+            List<DeliveryReceipt> receipts = new ArrayList<>();
+            Matcher events = FLAT_OBJECT.matcher(body);
+            while (events.find()) {
+                String event = events.group();
+                String messageId = stringField(event, "sg_message_id");
+                NotificationStatus status = switch (String.valueOf(stringField(event, "event"))) {
+                    case "delivered" -> NotificationStatus.DELIVERED;
+                    case "open" -> NotificationStatus.READ;
+                    case "bounce", "dropped" -> NotificationStatus.BOUNCED;
+                    default -> null;
+                };
+                if (messageId != null && status != null) {
+                    int dot = messageId.indexOf('.');
+                    String timestamp = numberField(event, "timestamp");
+                    receipts.add(new DeliveryReceipt(dot > 0 ? messageId.substring(0, dot) : messageId, status,
+                            timestamp != null ? Instant.ofEpochSecond(Long.parseLong(timestamp)) : null));
+                }
+            }
+            return receipts;
+        };
+    }
+
+    /**
+     * Acuses de push. FCM no tiene webhook de entrega: la app confirma la
+     * recepción/apertura a nuestro backend con el message_id (el "name" que
+     * devolvió FCM). Acepta un objeto o un array:
+     * {@code {"message_id": "projects/p/messages/1", "event": "delivered" | "opened"}}.
+     */
+    public static ReceiptParser fcm() {
+        return body -> {
+            List<DeliveryReceipt> receipts = new ArrayList<>();
+            Matcher events = FLAT_OBJECT.matcher(body);
+            while (events.find()) {
+                String event = events.group();
+                String messageId = stringField(event, "message_id");
+                NotificationStatus status = switch (String.valueOf(stringField(event, "event"))) {
+                    case "delivered" -> NotificationStatus.DELIVERED;
+                    case "opened" -> NotificationStatus.READ;
+                    default -> null;
+                };
+                if (messageId != null && status != null) {
+                    receipts.add(new DeliveryReceipt(messageId, status, null));
+                }
+            }
+            return receipts;
+        };
+    }
+
+    private static String stringField(String json, String field) {
+        Matcher matcher = Pattern.compile("\"" + Pattern.quote(field) + "\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"")
+                .matcher(json);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String numberField(String json, String field) {
+        Matcher matcher = Pattern.compile("\"" + Pattern.quote(field) + "\"\\s*:\\s*(\\d+)").matcher(json);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    static Map<String, String> formDecode(String body) {
+        Map<String, String> fields = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                fields.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,181 @@
+package com.notify.receipt;
+
+import com.sun.net.httpserver.Headers;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.TreeMap;
+
+/**
+ * Verificadores de autenticidad de los webhooks de acuse de cada proveedor.
+ *
+ * Un acuse falsificado adelanta o retrocede estados en el store y evita los
+ * fallbacks que esperan la entrega, así que {@link ReceiptWebhookServer}
+ * solo aplica las peticiones que su verificador acepta (401 en otro caso).
+ */
+public final class ReceiptVerifiers {
+
+    /**
+     * Antigüedad máxima por defecto del timestamp firmado de SendGrid.
+     */
+    public static final Duration SENDGRID_TOLERANCE = Duration.ofMinutes(5);
+
+    private ReceiptVerifiers() {
+    }
+
+    /**
+     * Decide si una petición viene realmente del proveedor.
+     */
+    @FunctionalInterface
+    public interface ReceiptVerifier {
+        boolean verify(WebhookRequest request);
+    }
+
+    /**
+     * Petición recibida: URL tal como la ve el servidor (Host + ruta + query),
+     * cabeceras y cuerpo sin interpretar.
+     */
+    public record WebhookRequest(URI uri, Headers headers, byte[] body) {
+
+        public String header(String name) {
+            return headers.getFirst(name);
+        }
+    }
+
+    /**
+     * Twilio: X-Twilio-Signature = Base64(HMAC-SHA1(authToken, URL + parámetros
+     * del formulario ordenados como clave+valor)). La URL es la reconstruida
+     * desde la petición.
+     */
+    public static ReceiptVerifier twilio(String authToken) {
+        return twilio(authToken, null);
+    }
+
+    /**
+     * Twilio detrás de un proxy o balanceador: {@code publicUrl} es la URL
+     * exacta configurada en Twilio como status callback.
+     */
+    public static ReceiptVerifier twilio(String authToken, String publicUrl) {
+        byte[] key = requireSecret(authToken, "authToken").getBytes(StandardCharsets.UTF_8);
+        return request -> {
+            String signature = request.header("X-Twilio-Signature");
+            if (signature == null) {
+                return false;
+            }
+            StringBuilder data = new StringBuilder(publicUrl != null ? publicUrl : request.uri().toString());
+            new TreeMap<>(ReceiptParsers.formDecode(new String(request.body(), StandardCharsets.UTF_8)))
+                    .forEach((name, value) -> data.append(name).append(value));
+            return matches(hmac("HmacSHA1", key, data.toString().getBytes(StandardCharsets.UTF_8)), signature);
+        };
+    }
+
+    /**
+     * SendGrid Signed Event Webhook: firma ECDSA (P-256, SHA-256) de
+     * timestamp + cuerpo en las cabeceras X-Twilio-Email-Event-Webhook-*.
+     * Rechaza los timestamps a más de {@link #SENDGRID_TOLERANCE} del reloj
+     * local, para que un webhook capturado no pueda reenviarse después.
+     *
+     * @param publicKey clave de verificación en Base64 tal como la muestra SendGrid
+     */
+    public static ReceiptVerifier sendGrid(String publicKey) {
+        return sendGrid(publicKey, SENDGRID_TOLERANCE);
+    }
+
+    /**
+     * SendGrid con otra tolerancia para el timestamp firmado (ej: si los
+     * webhooks se reintentan desde una cola con retraso).
+     */
+    public static ReceiptVerifier sendGrid(String publicKey, Duration tolerance) {
+        return sendGrid(publicKey, tolerance, Clock.systemUTC());
+    }
+
+    static ReceiptVerifier sendGrid(String publicKey, Duration tolerance, Clock clock) {
+        if (tolerance == null || tolerance.isNegative()) {
+            throw new IllegalArgumentException("La tolerancia del timestamp no puede ser negativa");
+        }
+        long toleranceSeconds = tolerance.toSeconds();
+        PublicKey key;
+        try {
+            key = KeyFactory.getInstance("EC").generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(requireSecret(publicKey, "publicKey"))));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Clave pública de SendGrid inválida: " + e.getMessage(), e);
+        }
+        return request -> {
+            String signature = request.header("X-Twilio-Email-Event-Webhook-Signature");
+            String timestamp = request.header("X-Twilio-Email-Event-Webhook-Timestamp");
+            if (signature == null || timestamp == null) {
+                return false;
+            }
+            try {
+                if (Math.abs(clock.instant().getEpochSecond() - Long.parseLong(timestamp)) > toleranceSeconds) {
+                    return false;
+                }
+                Signature ecdsa = Signature.getInstance("SHA256withECDSA");
+                ecdsa.initVerify(key);
+                ecdsa.update(timestamp.getBytes(StandardCharsets.UTF_8));
+                ecdsa.update(request.body());
+                return ecdsa.verify(Base64.getDecoder().decode(signature));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Secreto compartido con la app (acuses de push): cabecera
+     * {@code Authorization: Bearer <secret>}, comparada en tiempo constante.
+     */
+    public static ReceiptVerifier sharedSecret(String secret) {
+        byte[] expected = ("Bearer " + requireSecret(secret, "secret")).getBytes(StandardCharsets.UTF_8);
+        return request -> {
+            String authorization = request.header("Authorization");
+            return authorization != null
+                    && MessageDigest.isEqual(expected, authorization.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    /**
+     * Acepta todo: solo para rutas ya autenticadas por delante (ej: un proxy
+     * que valida la firma).
+     */
+    public static ReceiptVerifier none() {
+        return request -> true;
+    }
+
+    private static boolean matches(byte[] expected, String signature) {
+        try {
+            return MessageDigest.isEqual(expected, Base64.getDecoder().decode(signature));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static byte[] hmac(String algorithm, byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(key, algorithm));
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm + " no disponible", e);
+        }
+    }
+
+    private static String requireSecret(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(name + " es obligatorio");
+        }
+        return value;
+    }
+}
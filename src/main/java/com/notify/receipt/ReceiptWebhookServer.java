@@ -0,0 +1,194 @@
+package com.notify.receipt;
+
+import com.notify.receipt.ReceiptParsers.ReceiptParser;
+import com.notify.receipt.ReceiptVerifiers.ReceiptVerifier;
+import com.notify.receipt.ReceiptVerifiers.WebhookRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Endpoint HTTP (JDK HttpServer) que recibe los webhooks de acuse de los
+ * proveedores y los aplica al {@link DeliveryStatusStore}.
+ *
+ * Rutas por defecto:
+ * <ul>
+ *   <li>POST /receipts/twilio — status callback de Twilio</li>
+ *   <li>POST /receipts/sendgrid — Event Webhook de SendGrid</li>
+ *   <li>POST /receipts/fcm — confirmaciones de la app para push</li>
+ * </ul>
+ *
+ * Cada petición se atiende en un hilo virtual y responde 204 en cuanto el
+ * acuse está aplicado (el store no bloquea más allá del lock de su shard).
+ * Un cuerpo que no se puede interpretar responde 400 para que el proveedor
+ * no lo reintente indefinidamente... pero queda registrado en el log.
+ *
+ * Cada ruta autentica sus peticiones con un {@link ReceiptVerifier} (firma
+ * del proveedor o secreto compartido); sin firma válida responde 401, y una
+ * ruta sin verificador configurado rechaza todo. Por defecto escucha solo en
+ * loopback: exponerlo es una decisión explícita con {@link Builder#address}.
+ */
+public class ReceiptWebhookServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceiptWebhookServer.class);
+
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final DeliveryStatusStore store;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+
+    private ReceiptWebhookServer(Builder builder) throws IOException {
+        this.store = builder.store;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(builder.address, builder.backlog);
+        server.setExecutor(executor);
+        builder.parsers.forEach((path, parser) -> {
+            ReceiptVerifier verifier = builder.verifiers.get(path);
+            if (verifier == null) {
+                log.warn("Webhook {} sin verificador: se rechazarán todas sus peticiones", path);
+                verifier = request -> false;
+            }
+            ReceiptVerifier routeVerifier = verifier;
+            server.createContext(path, exchange -> handle(exchange, parser, routeVerifier));
+        });
+        server.start();
+        log.info("Webhook de acuses escuchando en {} ({})", server.getAddress(), builder.parsers.keySet());
+    }
+
+    private void handle(HttpExchange exchange, ReceiptParser parser, ReceiptVerifier verifier) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            if (!verifier.verify(new WebhookRequest(requestUri(exchange), exchange.getRequestHeaders(), body))) {
+                log.warn("Webhook {} sin firma válida desde {}", exchange.getRequestURI().getPath(),
+                        exchange.getRemoteAddress());
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+            List<DeliveryReceipt> receipts;
+            try {
+                receipts = parser.parse(new String(body, StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                log.warn("Webhook {} con cuerpo inválido: {}", exchange.getRequestURI().getPath(), e.getMessage());
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            for (DeliveryReceipt receipt : receipts) {
+                received.incrementAndGet();
+                if (store.apply(receipt)) {
+                    applied.incrementAndGet();
+                }
+            }
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    // URL que firmó el proveedor, tal como llegó (Host de la petición)
+    private URI requestUri(HttpExchange exchange) {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        if (host == null) {
+            host = server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+        }
+        return URI.create("http://" + host + exchange.getRequestURI());
+    }
+
+    // null si supera el máximo
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Acuses recibidos (incluidos los anticipados o desconocidos).
+     */
+    public long getReceivedCount() {
+        return received.get();
+    }
+
+    /**
+     * Acuses que actualizaron un envío registrado.
+     */
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    //Builder
+
+    public static Builder builder(DeliveryStatusStore store) {
+        return new Builder(store);
+    }
+
+    public static class Builder {
+        private final DeliveryStatusStore store;
+        private InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 8085);
+        private int backlog = 1024;
+        private final Map<String, ReceiptParser> parsers = new LinkedHashMap<>();
+        private final Map<String, ReceiptVerifier> verifiers = new LinkedHashMap<>();
+
+        private Builder(DeliveryStatusStore store) {
+            this.store = store;
+            parsers.put("/receipts/twilio", ReceiptParsers.twilio());
+            parsers.put("/receipts/sendgrid", ReceiptParsers.sendGrid());
+            parsers.put("/receipts/fcm", ReceiptParsers.fcm());
+        }
+
+        /**
+         * Dirección de escucha (por defecto loopback:8085; puerto 0 = efímero, útil en tests).
+         */
+        public Builder address(InetSocketAddress address) { this.address = address; return this; }
+        public Builder backlog(int backlog) { this.backlog = backlog; return this; }
+
+        /**
+         * Añade o reemplaza la ruta de un proveedor.
+         */
+        public Builder parser(String path, ReceiptParser parser) { this.parsers.put(path, parser); return this; }
+
+        /**
+         * Verificador de autenticidad de una ruta (ej: {@link ReceiptVerifiers#twilio(String)}).
+         */
+        public Builder verifier(String path, ReceiptVerifier verifier) { this.verifiers.put(path, verifier); return this; }
+
+        /**
+         * Crea el servidor y empieza a escuchar.
+         */
+        public ReceiptWebhookServer start() throws IOException {
+            if (store == null) throw new IllegalArgumentException("El store de estados es obligatorio");
+            return new ReceiptWebhookServer(this);
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.notify.retry;
 
+import com.notify.core.Notification;
 import com.notify.core.NotificationResult;
 import com.notify.exception.SendException;
+import com.notify.jfr.RetryAttemptEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,9 +30,31 @@ public class RetryExecutor {
      * @throws SendException si todos los intentos fallan
      */
     public NotificationResult execute(Supplier<NotificationResult> operation) {
+        return execute(null, operation);
+    }
+
+    /**
+     * Igual que {@link #execute(Supplier)}, pero asociando cada intento a la
+     * notificación para que los eventos JFR lleven su id y canal.
+     *
+     * Respeta además el deadline de la notificación: no se lanza ningún intento
+     * pasado su expiresAt y la espera entre intentos nunca lo supera. Si el
+     * backoff consumiría todo el tiempo restante, se retorna EXPIRED sin esperar.
+     *
+     * @param notification Notificación que se está enviando (puede ser null)
+     * @param operation    Operación a ejecutar
+     * @return NotificationResult del intento exitoso, o EXPIRED si se alcanzó el deadline
+     * @throws SendException si todos los intentos fallan
+     */
+    public NotificationResult execute(Notification notification, Supplier<NotificationResult> operation) {
         Exception lastException = null;
 
         for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            if (notification != null && notification.isExpired()) {
+                return expired(notification, attempt);
+            }
+            RetryAttemptEvent event = RetryAttemptEvent.start(notification, attempt, policy.getMaxAttempts());
+            String outcome;
             try {
                 log.debug("Intento {}/{}", attempt, policy.getMaxAttempts());
 
@@ -38,22 +62,35 @@ public class RetryExecutor {
 
                 // el resultado indica fallo pero no lanzó excepción, reintentar
                 if (result.isSuccess()) {
+                    event.finish(String.valueOf(result.getStatus()));
                     return result;
                 }
 
                 log.warn("Intento {} falló con resultado: {}", attempt, result);
                 lastException = new SendException(result.getErrorMessage());
+                outcome = String.valueOf(result.getStatus());
 
             } catch (SendException e) {
                 lastException = e;
+                outcome = "EXCEPTION";
                 log.warn("Intento {} lanzó excepción: {}", attempt, e.getMessage());
             }
 
             // Espera antes del siguiente intento (excepto en el último)
             if (attempt < policy.getMaxAttempts()) {
                 long delay = policy.getDelayForAttempt(attempt);
+                long remaining = notification != null ? notification.remainingMillis() : Long.MAX_VALUE;
+                if (delay >= remaining) {
+                    // Tras esperar ya no quedaría tiempo para otro intento
+                    event.finish(outcome);
+                    return expired(notification, attempt + 1);
+                }
+                event.setDelayMs(delay);
+                event.finish(outcome);
                 log.info("Esperando {}ms antes del siguiente intento...", delay);
                 sleep(delay);
+            } else {
+                event.finish(outcome);
             }
         }
 
@@ -66,6 +103,12 @@ public class RetryExecutor {
         );
     }
 
+    private NotificationResult expired(Notification notification, int attempt) {
+        log.warn("Deadline de {} alcanzado antes del intento {}/{}", notification.getId(),
+                attempt, policy.getMaxAttempts());
+        return NotificationResult.expired(notification.getId());
+    }
+
     /**
      * Sleep con manejo de InterruptedException.
      */
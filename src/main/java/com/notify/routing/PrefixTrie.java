@@ -0,0 +1,95 @@
+package com.notify.routing;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Trie inmutable de prefijos de destinatario → bitset de reglas.
+ *
+ * Cada nodo guarda el bitset acumulado de su camino (sus reglas y las de
+ * todos sus ancestros), así que buscar es bajar por el trie mientras haya
+ * hijo y devolver el bitset del último nodo alcanzado, sin combinar nada.
+ * Los hijos se guardan como arrays ordenados y se buscan por bisección.
+ */
+final class PrefixTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final PrefixTrie[] NO_CHILDREN = new PrefixTrie[0];
+
+    private final char[] keys;
+    private final PrefixTrie[] children;
+    private final long[] matches;
+
+    private PrefixTrie(char[] keys, PrefixTrie[] children, long[] matches) {
+        this.keys = keys;
+        this.children = children;
+        this.matches = matches;
+    }
+
+    /**
+     * Reglas cuyo prefijo es prefijo de {@code value} (incluidas las de prefijo vacío).
+     */
+    long[] match(String value) {
+        PrefixTrie node = this;
+        for (int i = 0; i < value.length(); i++) {
+            int child = Arrays.binarySearch(node.keys, value.charAt(i));
+            if (child < 0) {
+                break;
+            }
+            node = node.children[child];
+        }
+        return node.matches;
+    }
+
+    /**
+     * Construcción mutable; {@link #build()} congela el trie.
+     */
+    static final class Builder {
+        private final int words;
+        private final Node root;
+
+        Builder(int words) {
+            this.words = words;
+            this.root = new Node(words);
+        }
+
+        void add(String prefix, int rule) {
+            Node node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node(words));
+            }
+            node.rules[rule >>> 6] |= 1L << rule;
+        }
+
+        PrefixTrie build() {
+            return freeze(root, new long[words]);
+        }
+
+        private static PrefixTrie freeze(Node node, long[] inherited) {
+            long[] matches = new long[inherited.length];
+            for (int i = 0; i < matches.length; i++) {
+                matches[i] = inherited[i] | node.rules[i];
+            }
+            if (node.children.isEmpty()) {
+                return new PrefixTrie(NO_KEYS, NO_CHILDREN, matches);
+            }
+            char[] keys = new char[node.children.size()];
+            PrefixTrie[] children = new PrefixTrie[keys.length];
+            int i = 0;
+            for (var entry : node.children.entrySet()) {   // TreeMap: claves ya ordenadas
+                keys[i] = entry.getKey();
+                children[i++] = freeze(entry.getValue(), matches);
+            }
+            return new PrefixTrie(keys, children, matches);
+        }
+    }
+
+    private static final class Node {
+        final long[] rules;
+        final TreeMap<Character, Node> children = new TreeMap<>();
+
+        Node(int words) {
+            this.rules = new long[words];
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.notify.routing;
+
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Enrutador por reglas: elige el canal de cada notificación según su tipo,
+ * su destinatario y su metadata (ej: SMS a Brasil por SNS, email de campaña
+ * por Mailgun, transaccional por SendGrid).
+ *
+ * Las reglas no se evalúan una a una: al construir el Router se compilan,
+ * por ChannelType, en una tabla de decisión indexada:
+ * - Prefijos de destinatario en un trie; cada nodo guarda ya el conjunto de
+ *   reglas que cumple cualquier destinatario que pase por él.
+ * - Dominios y valores exactos de metadata en tablas hash.
+ * Cada índice devuelve un bitset de reglas; se intersecan y gana la regla
+ * de menor índice (la primera declarada). El coste depende de la longitud
+ * del destinatario y del número de claves de metadata, no del de reglas.
+ *
+ * Si ninguna regla encaja, {@link #route} devuelve null y el servicio usa
+ * el canal por defecto del ChannelType.
+ *
+ * Las reglas eligen un nombre, no una instancia: el NotificationService
+ * registra los canales del Router en su {@link com.notify.core.ChannelRegistry}
+ * y resuelve allí el nombre de {@link #target} en cada envío, así que un
+ * destino se puede reemplazar o retirar en caliente (ej: rotar la API key de
+ * SendGrid) sin reconstruir el Router.
+ */
+public class Router {
+
+    private static final Logger log = LoggerFactory.getLogger(Router.class);
+
+    private final Map<ChannelType, DecisionTable> tables;
+    private final Map<String, NotificationChannel<?>> channels;
+    private final int ruleCount;
+
+    private Router(Builder builder) {
+        Map<ChannelType, List<RoutingRule>> rulesByType = new EnumMap<>(ChannelType.class);
+        for (RoutingRule rule : builder.rules) {
+            rulesByType.computeIfAbsent(rule.getChannelType(), type -> new ArrayList<>()).add(rule);
+        }
+        Map<ChannelType, DecisionTable> compiled = new EnumMap<>(ChannelType.class);
+        rulesByType.forEach((type, rules) -> compiled.put(type, new DecisionTable(rules, builder.channels)));
+        this.tables = compiled;
+        this.channels = Collections.unmodifiableMap(new LinkedHashMap<>(builder.channels));
+        this.ruleCount = builder.rules.size();
+        log.info("Router compilado: {} reglas para {}", ruleCount, tables.keySet());
+    }
+
+    /**
+     * Nombre del canal elegido por las reglas, o null si ninguna encaja.
+     */
+    public String target(Notification notification) {
+        RoutingRule rule = match(notification);
+        return rule != null ? rule.getTarget() : null;
+    }
+
+    /**
+     * Canal con el que se construyó el Router para el destino elegido, o null
+     * si ninguna regla encaja. No refleja los reemplazos hechos en el registro
+     * del servicio.
+     */
+    public NotificationChannel<?> route(Notification notification) {
+        DecisionTable table = tables.get(notification.getChannelType());
+        if (table == null) {
+            return null;
+        }
+        int rule = table.match(notification);
+        return rule >= 0 ? table.channels[rule] : null;
+    }
+
+    /**
+     * Regla que se aplicaría a la notificación, o null (útil para depurar el enrutado).
+     */
+    public RoutingRule match(Notification notification) {
+        DecisionTable table = tables.get(notification.getChannelType());
+        if (table == null) {
+            return null;
+        }
+        int rule = table.match(notification);
+        return rule >= 0 ? table.rules[rule] : null;
+    }
+
+    /**
+     * Canales con nombre con los que se construyó el Router.
+     */
+    public Map<String, NotificationChannel<?>> getChannels() {
+        return channels;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Tabla de decisión compilada de un ChannelType.
+     */
+    private static final class DecisionTable {
+        final RoutingRule[] rules;
+        final NotificationChannel<?>[] channels;
+        final int words;
+        final PrefixTrie prefixes;                                // incluye las reglas sin condición de destinatario
+        final Map<String, long[]> domains = new HashMap<>();
+        final long[] anyMetadata;                                  // reglas sin condición de metadata
+        final Map<String, long[]> metadataPresent = new HashMap<>();
+        final Map<String, Map<String, long[]>> metadataExact = new HashMap<>();
+
+        DecisionTable(List<RoutingRule> rules, Map<String, NotificationChannel<?>> channelsByName) {
+            this.rules = rules.toArray(new RoutingRule[0]);
+            this.channels = new NotificationChannel<?>[this.rules.length];
+            this.words = (this.rules.length + 63) >>> 6;
+            this.anyMetadata = new long[words];
+            PrefixTrie.Builder trie = new PrefixTrie.Builder(words);
+
+            for (int i = 0; i < this.rules.length; i++) {
+                RoutingRule rule = this.rules[i];
+                channels[i] = channelsByName.get(rule.getTarget());
+
+                if (rule.getRecipientDomain() != null) {
+                    set(domains.computeIfAbsent(rule.getRecipientDomain(), d -> new long[words]), i);
+                } else {
+                    trie.add(rule.getRecipientPrefix() != null ? rule.getRecipientPrefix() : "", i);
+                }
+
+                if (rule.getMetadataKey() == null) {
+                    set(anyMetadata, i);
+                } else if (RoutingRule.ANY_VALUE.equals(rule.getMetadataValue())) {
+                    set(metadataPresent.computeIfAbsent(rule.getMetadataKey(), k -> new long[words]), i);
+                } else {
+                    set(metadataExact.computeIfAbsent(rule.getMetadataKey(), k -> new HashMap<>())
+                            .computeIfAbsent(rule.getMetadataValue(), v -> new long[words]), i);
+                }
+            }
+            this.prefixes = trie.build();
+        }
+
+        // Índice de la primera regla que encaja, o -1
+        int match(Notification notification) {
+            String recipient = notification.getRecipient() != null ? notification.getRecipient() : "";
+            long[] byPrefix = prefixes.match(recipient);
+            long[] byDomain = domains.isEmpty() ? null : domains.get(domainOf(recipient));
+
+            long[] byMetadata = anyMetadata.clone();
+            if (!metadataPresent.isEmpty() || !metadataExact.isEmpty()) {
+                for (Map.Entry<String, String> entry : notification.getMetadata().entrySet()) {
+                    or(byMetadata, metadataPresent.get(entry.getKey()));
+                    Map<String, long[]> values = metadataExact.get(entry.getKey());
+                    if (values != null) {
+                        or(byMetadata, values.get(entry.getValue()));
+                    }
+                }
+            }
+
+            for (int w = 0; w < words; w++) {
+                long candidates = (byPrefix[w] | (byDomain != null ? byDomain[w] : 0)) & byMetadata[w];
+                if (candidates != 0) {
+                    return (w << 6) + Long.numberOfTrailingZeros(candidates);
+                }
+            }
+            return -1;
+        }
+
+        private static String domainOf(String recipient) {
+            int at = recipient.lastIndexOf('@');
+            return at >= 0 ? recipient.substring(at + 1).toLowerCase(Locale.ROOT) : "";
+        }
+
+        private static void set(long[] bits, int index) {
+            bits[index >>> 6] |= 1L << index;
+        }
+
+        private static void or(long[] target, long[] source) {
+            if (source != null) {
+                for (int i = 0; i < target.length; i++) {
+                    target[i] |= source[i];
+                }
+            }
+        }
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final Map<String, NotificationChannel<?>> channels = new LinkedHashMap<>();
+        private final List<RoutingRule> rules = new ArrayList<>();
+
+        /**
+         * Registra un canal con nombre, para usarlo como destino de las reglas.
+         */
+        public Builder channel(String name, NotificationChannel<?> channel) {
+            if (channel == null) {
+                throw new IllegalArgumentException("El canal '" + name + "' no puede ser nulo");
+            }
+            this.channels.put(name, channel);
+            return this;
+        }
+
+        /**
+         * Añade una regla. Si varias encajan, gana la añadida primero.
+         */
+        public Builder rule(RoutingRule rule) { this.rules.add(rule); return this; }
+
+        public Router build() {
+            for (RoutingRule rule : rules) {
+                NotificationChannel<?> channel = channels.get(rule.getTarget());
+                if (channel == null) {
+                    throw new IllegalStateException("Canal destino no registrado: " + rule);
+                }
+                if (channel.getChannelType() != rule.getChannelType()) {
+                    throw new IllegalStateException("El canal '" + rule.getTarget() + "' es de tipo "
+                            + channel.getChannelType() + ": " + rule);
+                }
+            }
+            return new Router(this);
+        }
+    }
+}
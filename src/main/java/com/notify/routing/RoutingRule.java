@@ -0,0 +1,127 @@
+package com.notify.routing;
+
+import com.notify.core.ChannelType;
+
+import java.util.Locale;
+
+/**
+ * Regla de enrutado: si una notificación del tipo de canal indicado cumple
+ * las condiciones, se envía por el canal con nombre {@code target} en lugar
+ * del canal por defecto de su ChannelType.
+ *
+ * Condiciones (todas opcionales, se combinan con AND):
+ * - Destinatario: prefijo ({@code "+55"}) o dominio de email ({@code "empresa.com"}).
+ * - Metadata: una clave con valor exacto, o con {@link #ANY_VALUE} si basta con que exista.
+ *
+ * Ejemplos:
+ *   RoutingRule.builder(ChannelType.SMS).recipientPrefix("+55").target("sns").build()
+ *   RoutingRule.builder(ChannelType.EMAIL).metadata("campaign", "*").target("mailgun").build()
+ */
+public final class RoutingRule {
+
+    /**
+     * Valor de metadata que acepta cualquier valor presente.
+     */
+    public static final String ANY_VALUE = "*";
+
+    private final ChannelType channelType;
+    private final String recipientPrefix;
+    private final String recipientDomain;
+    private final String metadataKey;
+    private final String metadataValue;
+    private final String target;
+
+    private RoutingRule(Builder builder) {
+        this.channelType = builder.channelType;
+        this.recipientPrefix = builder.recipientPrefix;
+        this.recipientDomain = builder.recipientDomain != null ? builder.recipientDomain.toLowerCase(Locale.ROOT) : null;
+        this.metadataKey = builder.metadataKey;
+        this.metadataValue = builder.metadataValue;
+        this.target = builder.target;
+    }
+
+    public ChannelType getChannelType() {
+        return channelType;
+    }
+
+    public String getRecipientPrefix() {
+        return recipientPrefix;
+    }
+
+    public String getRecipientDomain() {
+        return recipientDomain;
+    }
+
+    public String getMetadataKey() {
+        return metadataKey;
+    }
+
+    public String getMetadataValue() {
+        return metadataValue;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Rule[").append(channelType);
+        if (recipientPrefix != null) sb.append(", prefix=").append(recipientPrefix);
+        if (recipientDomain != null) sb.append(", domain=").append(recipientDomain);
+        if (metadataKey != null) sb.append(", ").append(metadataKey).append('=').append(metadataValue);
+        return sb.append(" -> ").append(target).append(']').toString();
+    }
+
+    //Builder
+
+    public static Builder builder(ChannelType channelType) {
+        return new Builder(channelType);
+    }
+
+    public static class Builder {
+        private final ChannelType channelType;
+        private String recipientPrefix;
+        private String recipientDomain;
+        private String metadataKey;
+        private String metadataValue;
+        private String target;
+
+        private Builder(ChannelType channelType) {
+            if (channelType == null) {
+                throw new IllegalArgumentException("El tipo de canal de la regla es obligatorio");
+            }
+            this.channelType = channelType;
+        }
+
+        public Builder recipientPrefix(String recipientPrefix) { this.recipientPrefix = recipientPrefix; return this; }
+        public Builder recipientDomain(String recipientDomain) { this.recipientDomain = recipientDomain; return this; }
+
+        /**
+         * Condición sobre metadata; value = {@link #ANY_VALUE} acepta cualquier valor.
+         */
+        public Builder metadata(String key, String value) {
+            this.metadataKey = key;
+            this.metadataValue = value;
+            return this;
+        }
+
+        /**
+         * Nombre del canal destino (registrado en el {@link Router}).
+         */
+        public Builder target(String target) { this.target = target; return this; }
+
+        public RoutingRule build() {
+            if (target == null || target.isBlank()) {
+                throw new IllegalArgumentException("La regla necesita un canal destino");
+            }
+            if (recipientPrefix != null && recipientDomain != null) {
+                throw new IllegalArgumentException("Una regla admite prefijo o dominio de destinatario, no ambos");
+            }
+            if (metadataKey != null && metadataValue == null) {
+                throw new IllegalArgumentException("Falta el valor de metadata para la clave " + metadataKey);
+            }
+            return new RoutingRule(this);
+        }
+    }
+}
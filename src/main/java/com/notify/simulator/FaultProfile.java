@@ -0,0 +1,120 @@
+package com.notify.simulator;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Comportamiento de un proveedor simulado durante un tramo del
+ * {@link FaultScript}: latencia, tasa de errores, tasa de throttling (429 con
+ * Retry-After) y si está caído.
+ *
+ * Las tasas son independientes y se evalúan en orden: caída, throttling,
+ * error. Una llamada que no cae en ninguna se delega en el proveedor real.
+ */
+public final class FaultProfile {
+
+    private static final FaultProfile HEALTHY = builder().build();
+
+    private final LatencyModel latency;
+    private final double errorRate;
+    private final double throttleRate;
+    private final Duration retryAfter;
+    private final boolean down;
+
+    private FaultProfile(Builder builder) {
+        this.latency = builder.latency;
+        this.errorRate = builder.errorRate;
+        this.throttleRate = builder.throttleRate;
+        this.retryAfter = builder.retryAfter;
+        this.down = builder.down;
+    }
+
+    /**
+     * Sin latencia ni errores.
+     */
+    public static FaultProfile healthy() {
+        return HEALTHY;
+    }
+
+    /**
+     * Proveedor caído: todas las llamadas responden 503 sin latencia.
+     */
+    public static FaultProfile outage() {
+        return builder().down().build();
+    }
+
+    public LatencyModel getLatency() {
+        return latency;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public double getThrottleRate() {
+        return throttleRate;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public boolean isDown() {
+        return down;
+    }
+
+    ProviderSimulator.Outcome decide(Random random) {
+        if (down) {
+            return ProviderSimulator.Outcome.OUTAGE;
+        }
+        if (throttleRate > 0 && random.nextDouble() < throttleRate) {
+            return ProviderSimulator.Outcome.THROTTLED;
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            return ProviderSimulator.Outcome.ERROR;
+        }
+        return ProviderSimulator.Outcome.OK;
+    }
+
+    @Override
+    public String toString() {
+        return down ? "FaultProfile[caído]"
+                : "FaultProfile[errores=" + errorRate + ", throttling=" + throttleRate + "]";
+    }
+
+    //Builder
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private LatencyModel latency = LatencyModel.none();
+        private double errorRate;
+        private double throttleRate;
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private boolean down;
+
+        public Builder latency(LatencyModel latency) { this.latency = latency; return this; }
+
+        /**
+         * Fracción de llamadas que fallan con HTTP 500.
+         */
+        public Builder errorRate(double errorRate) { this.errorRate = errorRate; return this; }
+
+        /**
+         * Fracción de llamadas que responden 429 con el Retry-After indicado.
+         */
+        public Builder throttleRate(double throttleRate) { this.throttleRate = throttleRate; return this; }
+        public Builder retryAfter(Duration retryAfter) { this.retryAfter = retryAfter; return this; }
+        public Builder down() { this.down = true; return this; }
+
+        public FaultProfile build() {
+            if (latency == null) throw new IllegalArgumentException("El modelo de latencia es obligatorio");
+            if (errorRate < 0 || errorRate > 1) throw new IllegalArgumentException("errorRate debe estar entre 0 y 1");
+            if (throttleRate < 0 || throttleRate > 1) throw new IllegalArgumentException("throttleRate debe estar entre 0 y 1");
+            if (retryAfter == null || retryAfter.isNegative()) throw new IllegalArgumentException("retryAfter debe ser >= 0");
+            return new FaultProfile(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.notify.simulator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guion temporal de un proveedor simulado: un {@link FaultProfile} base y
+ * tramos que lo sustituyen durante un intervalo medido desde el arranque
+ * de la simulación (ej: "a los 30s, 10s de caída; de 60s a 90s, 20% de 429").
+ *
+ * Si varios tramos se solapan gana el último declarado. Con
+ * {@link Builder#repeatEvery} el guion se repite cíclicamente, útil para
+ * pruebas de carga largas.
+ */
+public final class FaultScript {
+
+    private record Segment(long fromNanos, long toNanos, FaultProfile profile) {
+    }
+
+    private final FaultProfile baseline;
+    private final Segment[] segments;
+    private final long periodNanos;   // 0 = sin repetición
+
+    private FaultScript(Builder builder) {
+        this.baseline = builder.baseline;
+        this.segments = builder.segments.toArray(new Segment[0]);
+        this.periodNanos = builder.period != null ? builder.period.toNanos() : 0;
+    }
+
+    /**
+     * Guion sin tramos: siempre el mismo perfil.
+     */
+    public static FaultScript constant(FaultProfile profile) {
+        return builder(profile).build();
+    }
+
+    /**
+     * Perfil vigente tras {@code elapsed} desde el arranque.
+     */
+    public FaultProfile profileAt(Duration elapsed) {
+        long at = elapsed.toNanos();
+        if (periodNanos > 0) {
+            at %= periodNanos;
+        }
+        for (int i = segments.length - 1; i >= 0; i--) {
+            Segment segment = segments[i];
+            if (at >= segment.fromNanos && at < segment.toNanos) {
+                return segment.profile;
+            }
+        }
+        return baseline;
+    }
+
+    //Builder
+
+    public static Builder builder(FaultProfile baseline) {
+        return new Builder(baseline);
+    }
+
+    public static class Builder {
+        private final FaultProfile baseline;
+        private final List<Segment> segments = new ArrayList<>();
+        private Duration period;
+
+        private Builder(FaultProfile baseline) {
+            this.baseline = baseline;
+        }
+
+        /**
+         * Aplica {@code profile} durante {@code length} a partir de {@code from}.
+         */
+        public Builder during(Duration from, Duration length, FaultProfile profile) {
+            if (from.isNegative() || length.isNegative() || length.isZero()) {
+                throw new IllegalArgumentException("El tramo debe empezar en >= 0 y durar > 0");
+            }
+            segments.add(new Segment(from.toNanos(), from.plus(length).toNanos(), profile));
+            return this;
+        }
+
+        /**
+         * Ventana de caída total (503) durante {@code length} a partir de {@code from}.
+         */
+        public Builder outage(Duration from, Duration length) { return during(from, length, FaultProfile.outage()); }
+
+        /**
+         * Repite el guion cada {@code period}.
+         */
+        public Builder repeatEvery(Duration period) { this.period = period; return this; }
+
+        public FaultScript build() {
+            if (baseline == null) throw new IllegalArgumentException("El perfil base es obligatorio");
+            if (period != null && (period.isNegative() || period.isZero())) {
+                throw new IllegalArgumentException("El periodo debe ser > 0");
+            }
+            return new FaultScript(this);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.notify.simulator;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Distribución de la latencia simulada de un proveedor.
+ *
+ * Las latencias reales de un API no son normales: la mayoría de llamadas se
+ * agrupa cerca de la mediana y una pequeña fracción tarda órdenes de magnitud
+ * más. {@link #logNormal} modela el cuerpo y {@link #withTail} añade esa cola.
+ */
+@FunctionalInterface
+public interface LatencyModel {
+
+    /**
+     * Extrae una latencia en nanosegundos (>= 0).
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * Sin latencia.
+     */
+    static LatencyModel none() {
+        return random -> 0;
+    }
+
+    static LatencyModel fixed(Duration latency) {
+        long nanos = latency.toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * Uniforme entre min y max.
+     */
+    static LatencyModel uniform(Duration min, Duration max) {
+        long low = min.toNanos();
+        long span = max.toNanos() - low;
+        if (span < 0) {
+            throw new IllegalArgumentException("max debe ser >= min");
+        }
+        return random -> low + (span == 0 ? 0 : (long) (random.nextDouble() * span));
+    }
+
+    /**
+     * Lognormal con la mediana indicada. Con sigma 0.5 el p99 es ~3.2x la
+     * mediana; con sigma 1.0, ~10x.
+     */
+    static LatencyModel logNormal(Duration median, double sigma) {
+        if (sigma < 0) {
+            throw new IllegalArgumentException("sigma debe ser >= 0");
+        }
+        double mu = Math.log(Math.max(1, median.toNanos()));
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * Con probabilidad {@code probability} la latencia sale de {@code tail}
+     * en lugar de este modelo (ej: pausas de GC o reintentos TCP del proveedor).
+     */
+    default LatencyModel withTail(double probability, LatencyModel tail) {
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("La probabilidad debe estar entre 0 y 1");
+        }
+        return random -> random.nextDouble() < probability ? tail.sampleNanos(random) : sampleNanos(random);
+    }
+
+    /**
+     * Limita la latencia a un máximo (el timeout del lado del proveedor).
+     */
+    default LatencyModel capped(Duration max) {
+        long cap = max.toNanos();
+        return random -> Math.min(cap, sampleNanos(random));
+    }
+}
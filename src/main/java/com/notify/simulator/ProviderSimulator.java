@@ -0,0 +1,239 @@
+package com.notify.simulator;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.email.provider.EmailProvider;
+import com.notify.channel.push.PushNotification;
+import com.notify.channel.push.provider.PushProvider;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.channel.sms.provider.SmsProvider;
+import com.notify.core.Futures;
+import com.notify.core.NotificationResult;
+import com.notify.exception.SendException;
+import com.notify.transport.HttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Simulador de proveedores para reproducir incidentes en local: latencia,
+ * errores, throttling y caídas según un {@link FaultScript}.
+ *
+ * Se usa de dos formas, con el mismo guion:
+ * <ul>
+ *   <li>Como decorador de un EmailProvider, SmsProvider o PushProvider
+ *       ({@link #email}, {@link #sms}, {@link #push}): los fallos llegan como
+ *       SendException, igual que los de un proveedor HTTP real. Sirve para
+ *       probar reintentos, planes de entrega y límites de concurrencia.</li>
+ *   <li>Detrás de {@link ProviderStubServer}: los proveedores reales hablan
+ *       HTTP con el stub y reciben 429 con Retry-After, 500 y 503, así que
+ *       también se ejercitan el transporte y el rate limiter.</li>
+ * </ul>
+ *
+ * La latencia se espera sin bloquear hilos, en el temporizador compartido
+ * de {@link Futures#schedule}: cancelar la llamada retira su espera. Con una
+ * semilla fija la secuencia de decisiones es reproducible en un solo hilo.
+ */
+public final class ProviderSimulator {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderSimulator.class);
+
+    /**
+     * Resultado simulado de una llamada.
+     */
+    public enum Outcome {
+        OK, ERROR, THROTTLED, OUTAGE
+    }
+
+    /**
+     * Decisión para una llamada: resultado, latencia y perfil vigente.
+     */
+    record Verdict(Outcome outcome, long latencyNanos, FaultProfile profile) {
+    }
+
+    private final FaultScript script;
+    private final Clock clock;
+    private final Random random;
+    private final Instant start;
+    private final AtomicLongArray counts = new AtomicLongArray(Outcome.values().length);
+
+    private ProviderSimulator(Builder builder) {
+        this.script = builder.script;
+        this.clock = builder.clock;
+        this.random = builder.seed != null ? new Random(builder.seed) : new Random();
+        this.start = clock.instant();
+    }
+
+    /**
+     * Decora un proveedor de email con el guion del simulador.
+     */
+    public EmailProvider email(EmailProvider delegate) {
+        return new EmailProvider() {
+            @Override
+            public NotificationResult send(EmailNotification notification) {
+                return HttpTransport.await(sendAsync(notification));
+            }
+
+            @Override
+            public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+                return simulate(notification, delegate.getProviderName(), delegate::sendAsync);
+            }
+
+            @Override
+            public String getProviderName() {
+                return delegate.getProviderName();
+            }
+        };
+    }
+
+    /**
+     * Decora un proveedor de SMS con el guion del simulador.
+     */
+    public SmsProvider sms(SmsProvider delegate) {
+        return new SmsProvider() {
+            @Override
+            public NotificationResult send(SmsNotification notification) {
+                return HttpTransport.await(sendAsync(notification));
+            }
+
+            @Override
+            public CompletableFuture<NotificationResult> sendAsync(SmsNotification notification) {
+                return simulate(notification, delegate.getProviderName(), delegate::sendAsync);
+            }
+
+            @Override
+            public String getProviderName() {
+                return delegate.getProviderName();
+            }
+        };
+    }
+
+    /**
+     * Decora un proveedor de push con el guion del simulador.
+     */
+    public PushProvider push(PushProvider delegate) {
+        return new PushProvider() {
+            @Override
+            public NotificationResult send(PushNotification notification) {
+                return HttpTransport.await(sendAsync(notification));
+            }
+
+            @Override
+            public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+                return simulate(notification, delegate.getProviderName(), delegate::sendAsync);
+            }
+
+            @Override
+            public String getProviderName() {
+                return delegate.getProviderName();
+            }
+        };
+    }
+
+    /**
+     * Perfil vigente según el reloj del simulador.
+     */
+    public FaultProfile currentProfile() {
+        return script.profileAt(Duration.between(start, clock.instant()));
+    }
+
+    /**
+     * Llamadas simuladas con un resultado dado.
+     */
+    public long getCount(Outcome outcome) {
+        return counts.get(outcome.ordinal());
+    }
+
+    /**
+     * Total de llamadas simuladas.
+     */
+    public long getCallCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Decide el resultado y la latencia de la siguiente llamada.
+     */
+    Verdict next() {
+        FaultProfile profile = currentProfile();
+        Outcome outcome = profile.decide(random);
+        long latency = outcome == Outcome.OUTAGE ? 0 : Math.max(0, profile.getLatency().sampleNanos(random));
+        counts.incrementAndGet(outcome.ordinal());
+        return new Verdict(outcome, latency, profile);
+    }
+
+    private <T> CompletableFuture<NotificationResult> simulate(T notification, String providerName,
+                                                             Function<T, CompletableFuture<NotificationResult>> delegate) {
+        Verdict verdict = next();
+        CompletableFuture<Void> delay = verdict.latencyNanos() > 0
+                ? delay(verdict.latencyNanos())
+                : CompletableFuture.completedFuture(null);
+        return Futures.composeCancellable(delay, ignored -> verdict.outcome() == Outcome.OK
+                ? delegate.apply(notification)
+                : CompletableFuture.failedFuture(failure(providerName, verdict)));
+    }
+
+    // Temporizador compartido: al cancelar la llamada se retira de su cola
+    private static CompletableFuture<Void> delay(long nanos) {
+        CompletableFuture<Void> delay = new CompletableFuture<>();
+        ScheduledFuture<?> timer = Futures.schedule(
+                () -> ForkJoinPool.commonPool().execute(() -> delay.complete(null)), Duration.ofNanos(nanos));
+        Futures.propagateCancel(delay, timer);
+        return delay;
+    }
+
+    // Mismo formato que TransportResponse.requireSuccess
+    private static SendException failure(String providerName, Verdict verdict) {
+        String detail = switch (verdict.outcome()) {
+            case THROTTLED -> "HTTP 429 - Retry-After: " + verdict.profile().getRetryAfter().toSeconds();
+            case OUTAGE -> "HTTP 503 - caída simulada";
+            default -> "HTTP 500 - error simulado";
+        };
+        log.debug("[{}] Fallo simulado: {}", providerName, detail);
+        return new SendException("Error en " + providerName + ": " + detail);
+    }
+
+    //Builder
+
+    public static Builder builder(FaultScript script) {
+        return new Builder(script);
+    }
+
+    public static class Builder {
+        private final FaultScript script;
+        private Clock clock = Clock.systemUTC();
+        private Long seed;
+
+        private Builder(FaultScript script) {
+            this.script = script;
+        }
+
+        /**
+         * Reloj con el que avanza el guion (el guion arranca al construir).
+         */
+        public Builder clock(Clock clock) { this.clock = clock; return this; }
+
+        /**
+         * Semilla para decisiones reproducibles.
+         */
+        public Builder seed(long seed) { this.seed = seed; return this; }
+
+        public ProviderSimulator build() {
+            if (script == null) throw new IllegalArgumentException("El guion es obligatorio");
+            if (clock == null) throw new IllegalArgumentException("El reloj es obligatorio");
+            return new ProviderSimulator(this);
+        }
+    }
+}
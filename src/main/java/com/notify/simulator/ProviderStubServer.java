@@ -0,0 +1,142 @@
+package com.notify.simulator;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stub HTTP local (JDK HttpServer) que imita a los proveedores según un
+ * {@link ProviderSimulator}. Se apunta a él la propiedad "endpoint" de los
+ * proveedores reales (Twilio, SendGrid, Firebase...) con un HttpTransport.
+ *
+ * Atiende cualquier ruta, cada petición en un hilo virtual que duerme la
+ * latencia simulada antes de responder:
+ * <ul>
+ *   <li>OK: 200 con un cuerpo que entienden todos los proveedores (JSON con
+ *       sid/id/name y cabecera X-Message-Id; XML con MessageId para SNS)</li>
+ *   <li>THROTTLED: 429 con Retry-After</li>
+ *   <li>ERROR: 500</li>
+ *   <li>OUTAGE: 503 inmediato</li>
+ * </ul>
+ */
+public class ProviderStubServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderStubServer.class);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ProviderSimulator simulator;
+
+    private ProviderStubServer(Builder builder) throws IOException {
+        this.simulator = builder.simulator;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(builder.address, builder.backlog);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("Stub de proveedores escuchando en {}", server.getAddress());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            ProviderSimulator.Verdict verdict = simulator.next();
+            if (verdict.latencyNanos() > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(verdict.latencyNanos());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;   // Servidor cerrándose
+                }
+            }
+            switch (verdict.outcome()) {
+                case OK -> respondOk(exchange, body);
+                case THROTTLED -> {
+                    exchange.getResponseHeaders().add("Retry-After",
+                            String.valueOf(verdict.profile().getRetryAfter().toSeconds()));
+                    respond(exchange, 429, "{\"error\":\"Too Many Requests\"}");
+                }
+                case OUTAGE -> respond(exchange, 503, "{\"error\":\"Service Unavailable\"}");
+                default -> respond(exchange, 500, "{\"error\":\"Internal Server Error\"}");
+            }
+        }
+    }
+
+    private static void respondOk(HttpExchange exchange, String requestBody) throws IOException {
+        String id = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        if (requestBody.contains("Action=Publish")) {
+            respond(exchange, 200, "<PublishResponse><PublishResult><MessageId>" + id
+                    + "</MessageId></PublishResult></PublishResponse>");
+            return;
+        }
+        exchange.getResponseHeaders().add("X-Message-Id", id);
+        respond(exchange, 200, "{\"sid\":\"SM" + id + "\",\"id\":\"" + id
+                + "\",\"name\":\"projects/stub/messages/" + id + "\"}");
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * URL base para la propiedad "endpoint" de los proveedores.
+     */
+    public String getEndpoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort();
+    }
+
+    public ProviderSimulator getSimulator() {
+        return simulator;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    //Builder
+
+    public static Builder builder(ProviderSimulator simulator) {
+        return new Builder(simulator);
+    }
+
+    public static class Builder {
+        private final ProviderSimulator simulator;
+        private InetSocketAddress address = new InetSocketAddress("127.0.0.1", 8086);
+        private int backlog = 1024;
+
+        private Builder(ProviderSimulator simulator) {
+            this.simulator = simulator;
+        }
+
+        /**
+         * Dirección de escucha (puerto 0 = efímero, útil en tests).
+         */
+        public Builder address(InetSocketAddress address) { this.address = address; return this; }
+        public Builder backlog(int backlog) { this.backlog = backlog; return this; }
+
+        /**
+         * Crea el servidor y empieza a escuchar.
+         */
+        public ProviderStubServer start() throws IOException {
+            if (simulator == null) throw new IllegalArgumentException("El simulador es obligatorio");
+            return new ProviderStubServer(this);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.notify.template;
 
+import com.notify.jfr.TemplateRenderEvent;
+
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -36,6 +38,7 @@ public class MessageTemplate {
      * @throws IllegalArgumentException si faltan variables requeridas
      */
     public String render(Map<String, String> variables) {
+        TemplateRenderEvent event = TemplateRenderEvent.start(variables.size());
         Matcher matcher = VARIABLE_PATTERN.matcher(templateText);
         StringBuilder result = new StringBuilder();
 
@@ -44,6 +47,7 @@ public class MessageTemplate {
             String value = variables.get(variableName);
 
             if (value == null) {
+                event.finish("MISSING_VARIABLE", result.length());
                 throw new IllegalArgumentException(
                         "Variable requerida no proporcionada: {{" + variableName + "}}"
                 );
@@ -53,6 +57,7 @@ public class MessageTemplate {
         }
         matcher.appendTail(result);
 
+        event.finish("RENDERED", result.length());
         return result.toString();
     }
 
@@ -0,0 +1,167 @@
+package com.notify.transport;
+
+import com.notify.core.Futures;
+import com.notify.exception.SendException;
+import com.notify.transport.json.PooledBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Transporte HTTP compartido por todos los proveedores.
+ *
+ * Envuelve un único {@link HttpClient} de la JDK:
+ * - HTTP/2 con multiplexación (varias peticiones concurrentes sobre una
+ *   misma conexión TCP por host; cae a HTTP/1.1 si el servidor no lo soporta)
+ * - Pool de conexiones por host gestionado internamente por el cliente
+ * - Timeout de conexión global y timeout por petición
+ * - Respuestas no bloqueantes: ningún hilo queda esperando la respuesta
+ * - Cancelar el future de {@link #execute} cancela la petición
+ *
+ * Una instancia debe compartirse entre proveedores: crear un HttpTransport
+ * por envío desperdicia el pool de conexiones.
+ */
+public class HttpTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpTransport.class);
+
+    private final HttpClient client;
+    private final Duration defaultRequestTimeout;
+
+    private HttpTransport(HttpClient client, Duration defaultRequestTimeout) {
+        this.client = client;
+        this.defaultRequestTimeout = defaultRequestTimeout;
+    }
+
+    /**
+     * Transporte por defecto (HTTP/2, timeouts por defecto), compartido por toda la JVM.
+     */
+    public static HttpTransport shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Ejecuta una petición de forma asíncrona.
+     *
+     * El future se completa con la respuesta para cualquier código HTTP; los
+     * errores de red y timeouts lo completan excepcionalmente.
+     */
+    public CompletableFuture<TransportResponse> execute(TransportRequest request) {
+        Duration timeout = request.getTimeout() != null ? request.getTimeout() : defaultRequestTimeout;
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri())
+                .timeout(timeout)
+                .method(request.getMethod(), request.getBodyPublisher());
+        request.getHeaders().forEach(builder::header);
+
+        log.debug("HTTP {} {}", request.getMethod(), request.getUri());
+        CompletableFuture<HttpResponse<String>> exchange = client
+                .sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString());
+        // Cancelar la respuesta cancela el intercambio HTTP en curso
+        CompletableFuture<TransportResponse> response = Futures.cancelling(
+                exchange.thenApply(TransportResponse::new), exchange);
+
+        // Los buffers del cuerpo vuelven al pool cuando la petición termina. Si se
+        // cancela no se devuelven: el cliente aún podría estar leyéndolos
+        if (request.getBodyPublisher() instanceof PooledBody pooled) {
+            response.whenComplete((r, e) -> {
+                if (!response.isCancelled()) {
+                    pooled.release();
+                }
+            });
+        }
+        return response;
+    }
+
+    /**
+     * Espera el resultado de un envío asíncrono desde código bloqueante,
+     * traduciendo los fallos a SendException. Si el hilo se interrumpe el
+     * envío se cancela.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);   // Nadie va a esperar la respuesta: se aborta la petición
+            Thread.currentThread().interrupt();
+            throw new SendException("Envío interrumpido", e);
+        } catch (ExecutionException e) {
+            throw toSendException(e.getCause());
+        }
+    }
+
+    /**
+     * Normaliza cualquier fallo asíncrono a SendException (sin envolver dos veces).
+     */
+    public static SendException toSendException(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof SendException sendException) {
+            return sendException;
+        }
+        return new SendException("Error de transporte: " + cause, cause);
+    }
+
+    public HttpClient.Version getVersion() {
+        return client.version();
+    }
+
+    public Duration getDefaultRequestTimeout() {
+        return defaultRequestTimeout;
+    }
+
+    private static final class SharedHolder {
+        private static final HttpTransport INSTANCE = builder().build();
+    }
+
+    // --- Builder ---
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(10);
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private Executor executor;
+
+        public Builder connectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; return this; }
+        public Builder requestTimeout(Duration requestTimeout) { this.requestTimeout = requestTimeout; return this; }
+        public Builder version(HttpClient.Version version) { this.version = version; return this; }
+
+        /**
+         * Executor para los callbacks del cliente. Si no se indica, la JDK
+         * usa su propio pool interno.
+         */
+        public Builder executor(Executor executor) { this.executor = executor; return this; }
+
+        public HttpTransport build() {
+            if (connectTimeout == null || connectTimeout.isNegative() || connectTimeout.isZero()) {
+                throw new IllegalArgumentException("connectTimeout debe ser > 0");
+            }
+            if (requestTimeout == null || requestTimeout.isNegative() || requestTimeout.isZero()) {
+                throw new IllegalArgumentException("requestTimeout debe ser > 0");
+            }
+
+            HttpClient.Builder clientBuilder = HttpClient.newBuilder()
+                    .version(version)
+                    .connectTimeout(connectTimeout)
+                    .followRedirects(HttpClient.Redirect.NEVER);
+            if (executor != null) {
+                clientBuilder.executor(executor);
+            }
+            return new HttpTransport(clientBuilder.build(), requestTimeout);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.notify.transport;
+
+import com.notify.core.Futures;
+import com.notify.ratelimit.ProviderRateLimiter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Llamada HTTP de un proveedor: espera turno en su rate limiter, construye
+ * la petición, la ejecuta, informa al limitador de la respuesta (429/503) y
+ * exige un código 2xx antes de interpretarla.
+ *
+ * La petición se construye al obtener turno, no al encolar: mientras se
+ * espera no se ocupa nada que el envío aún no necesita (el cuerpo serializado
+ * en buffers del pool de SendGrid o FCM) ni se crea nada que pueda caducar
+ * (la firma SigV4 de SNS lleva la hora). Cancelar el future cancela la espera
+ * o la petición en curso.
+ */
+public final class ProviderCall {
+
+    private final String providerName;
+    private final HttpTransport transport;
+    private final ProviderRateLimiter rateLimiter;
+
+    public ProviderCall(String providerName, HttpTransport transport, ProviderRateLimiter rateLimiter) {
+        this.providerName = providerName;
+        this.transport = transport;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Ejecuta la llamada.
+     *
+     * @param request  construye la petición una vez obtenido turno
+     * @param accepted interpreta una respuesta 2xx
+     * @return future con el resultado; falla con SendException si el
+     *         proveedor responde un código de error
+     */
+    public <T> CompletableFuture<T> execute(Supplier<TransportRequest> request,
+                                            Function<TransportResponse, T> accepted) {
+        return Futures.composeCancellable(rateLimiter.acquireAsync(), ignored -> {
+            CompletableFuture<TransportResponse> exchange = transport.execute(request.get());
+            return Futures.cancelling(exchange.thenApply(response -> {
+                rateLimiter.onResponse(response);
+                response.requireSuccess(providerName);
+                return accepted.apply(response);
+            }), exchange);
+        });
+    }
+}
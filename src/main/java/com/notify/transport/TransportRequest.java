@@ -0,0 +1,228 @@
+package com.notify.transport;
+
+import com.notify.transport.json.PooledBody;
+
+import java.io.FileNotFoundException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Petición HTTP hacia un proveedor, independiente del cliente subyacente.
+ */
+public class TransportRequest {
+
+    private final URI uri;
+    private final String method;
+    private final Map<String, String> headers;
+    private final HttpRequest.BodyPublisher bodyPublisher;
+    private final Duration timeout;
+
+    private TransportRequest(Builder builder) {
+        this.uri = builder.uri;
+        this.method = builder.method;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(builder.headers));
+        this.bodyPublisher = builder.bodyPublisher;
+        this.timeout = builder.timeout;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public HttpRequest.BodyPublisher getBodyPublisher() {
+        return bodyPublisher;
+    }
+
+    /**
+     * Timeout específico de esta petición (null = el del transporte).
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public String toString() {
+        // No incluye cabeceras: pueden contener credenciales
+        return "TransportRequest[" + method + " " + uri + "]";
+    }
+
+    // --- Builder ---
+
+    public static Builder post(String uri) {
+        return new Builder(URI.create(uri), "POST");
+    }
+
+    public static class Builder {
+        private final URI uri;
+        private final String method;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private HttpRequest.BodyPublisher bodyPublisher = HttpRequest.BodyPublishers.noBody();
+        private List<Map.Entry<String, String>> form;
+        private List<HttpRequest.BodyPublisher> fileParts;
+        private Duration timeout;
+        private final String boundary = "notify-" + UUID.randomUUID();
+
+        private Builder(URI uri, String method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        public Builder header(String name, String value) {
+            this.headers.put(name, value);
+            return this;
+        }
+
+        public Builder bearerAuth(String token) {
+            return header("Authorization", "Bearer " + token);
+        }
+
+        public Builder basicAuth(String user, String password) {
+            String credentials = user + ":" + password;
+            return header("Authorization", "Basic " +
+                    Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Cuerpo JSON ya serializado.
+         */
+        public Builder json(String json) {
+            header("Content-Type", "application/json");
+            this.bodyPublisher = HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8);
+            return this;
+        }
+
+        /**
+         * Cuerpo JSON escrito en buffers del pool; el transporte los libera
+         * al completarse la petición.
+         */
+        public Builder json(PooledBody body) {
+            return body("application/json", body);
+        }
+
+        /**
+         * Añade un campo application/x-www-form-urlencoded. Los valores null se
+         * omiten; un mismo nombre puede repetirse (ej: varios "cc").
+         */
+        public Builder formField(String name, String value) {
+            if (value != null) {
+                if (form == null) {
+                    form = new ArrayList<>();
+                }
+                form.add(Map.entry(name, value));
+            }
+            return this;
+        }
+
+        /**
+         * Añade un fichero como parte multipart/form-data. Con al menos un
+         * fichero, los campos de {@link #formField} se envían también como
+         * partes multipart. El contenido se lee del disco en streaming al
+         * enviar, sin cargarlo en memoria.
+         *
+         * @throws UncheckedIOException si el fichero no existe
+         */
+        public Builder filePart(String name, String filename, String contentType, Path file) {
+            if (fileParts == null) {
+                fileParts = new ArrayList<>();
+            }
+            try {
+                fileParts.add(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(partHeader(name, filename, contentType),
+                                StandardCharsets.UTF_8),
+                        HttpRequest.BodyPublishers.ofFile(file),
+                        HttpRequest.BodyPublishers.ofString("\r\n")));
+            } catch (FileNotFoundException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+
+        public Builder body(String contentType, HttpRequest.BodyPublisher publisher) {
+            header("Content-Type", contentType);
+            this.bodyPublisher = publisher;
+            return this;
+        }
+
+        public TransportRequest build() {
+            if (fileParts != null) {
+                body("multipart/form-data; boundary=" + boundary, multipart());
+            } else if (form != null) {
+                body("application/x-www-form-urlencoded",
+                        HttpRequest.BodyPublishers.ofString(formEncode(form), StandardCharsets.UTF_8));
+            }
+            return new TransportRequest(this);
+        }
+
+        private HttpRequest.BodyPublisher multipart() {
+            List<HttpRequest.BodyPublisher> parts = new ArrayList<>();
+            if (form != null) {
+                StringBuilder fields = new StringBuilder();
+                for (Map.Entry<String, String> field : form) {
+                    fields.append(partHeader(field.getKey(), null, null)).append(field.getValue()).append("\r\n");
+                }
+                parts.add(HttpRequest.BodyPublishers.ofString(fields.toString(), StandardCharsets.UTF_8));
+            }
+            parts.addAll(fileParts);
+            parts.add(HttpRequest.BodyPublishers.ofString("--" + boundary + "--\r\n"));
+            return HttpRequest.BodyPublishers.concat(parts.toArray(HttpRequest.BodyPublisher[]::new));
+        }
+
+        private String partHeader(String name, String filename, String contentType) {
+            StringBuilder header = new StringBuilder("--").append(boundary).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(headerValue(name)).append('"');
+            if (filename != null) {
+                header.append("; filename=\"").append(headerValue(filename)).append('"');
+            }
+            header.append("\r\n");
+            if (contentType != null) {
+                header.append("Content-Type: ").append(headerValue(contentType)).append("\r\n");
+            }
+            return header.append("\r\n").toString();
+        }
+
+        // Comillas y saltos de línea romperían la cabecera de la parte
+        private static String headerValue(String value) {
+            return value.replace("\"", "%22").replace("\r", "").replace("\n", "");
+        }
+    }
+
+    /**
+     * Codifica pares nombre/valor como application/x-www-form-urlencoded.
+     * Público para proveedores que necesitan firmar el cuerpo exacto (ej: AWS SigV4).
+     */
+    public static String formEncode(Collection<Map.Entry<String, String>> fields) {
+        StringJoiner joiner = new StringJoiner("&");
+        for (Map.Entry<String, String> field : fields) {
+            joiner.add(URLEncoder.encode(field.getKey(), StandardCharsets.UTF_8) + "=" +
+                    URLEncoder.encode(field.getValue(), StandardCharsets.UTF_8));
+        }
+        return joiner.toString();
+    }
+}
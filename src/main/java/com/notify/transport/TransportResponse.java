@@ -0,0 +1,88 @@
+package com.notify.transport;
+
+import com.notify.exception.SendException;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Respuesta HTTP de un proveedor.
+ */
+public class TransportResponse {
+
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final String body;
+
+    TransportResponse(HttpResponse<String> response) {
+        this(response.statusCode(), response.headers(), response.body());
+    }
+
+    TransportResponse(int statusCode, HttpHeaders headers, String body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body != null ? body : "";
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    /**
+     * Primer valor de una cabecera, o null si no existe.
+     */
+    public String header(String name) {
+        return headers.firstValue(name).orElse(null);
+    }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    /**
+     * Lanza SendException si la respuesta no es 2xx.
+     *
+     * @param providerName Nombre del proveedor (para el mensaje de error)
+     * @return this, para encadenar
+     */
+    public TransportResponse requireSuccess(String providerName) {
+        if (!isSuccess()) {
+            throw new SendException("Error en " + providerName + ": HTTP " + statusCode + " - " + abbreviate(body));
+        }
+        return this;
+    }
+
+    /**
+     * Extrae un campo string de primer nivel de una respuesta JSON simple
+     * (ej: "sid" de Twilio o "id" de Mailgun). Retorna null si no existe.
+     */
+    public String jsonField(String field) {
+        Matcher matcher = Pattern.compile("\"" + Pattern.quote(field) + "\"\\s*:\\s*\"((?:[^\"\\\\]|\\\\.)*)\"")
+                .matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Extrae el contenido de un elemento XML simple (ej: MessageId de SNS).
+     */
+    public String xmlElement(String element) {
+        Matcher matcher = Pattern.compile("<" + Pattern.quote(element) + ">([^<]*)</" + Pattern.quote(element) + ">")
+                .matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() > 200 ? text.substring(0, 200) + "..." : text;
+    }
+
+    @Override
+    public String toString() {
+        return "TransportResponse[" + statusCode + "]";
+    }
+}
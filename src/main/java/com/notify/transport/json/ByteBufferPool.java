@@ -0,0 +1,83 @@
+package com.notify.transport.json;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool de ByteBuffers directos de tamaño fijo, reutilizados entre peticiones.
+ *
+ * Los payloads de los proveedores se escriben directamente en estos buffers y
+ * se devuelven al pool cuando termina la petición HTTP, evitando asignar un
+ * byte[] y un String intermedio por envío.
+ */
+public final class ByteBufferPool {
+
+    private static final ByteBufferPool SHARED = new ByteBufferPool(8 * 1024, 1024);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param bufferSize Tamaño de cada buffer en bytes
+     * @param maxPooled  Máximo de buffers libres retenidos (el resto se descarta)
+     */
+    public ByteBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < 16) {
+            throw new IllegalArgumentException("bufferSize debe ser >= 16");
+        }
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("maxPooled debe ser >= 0");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Pool compartido por defecto: buffers de 8 KB, hasta 1024 libres (8 MB).
+     */
+    public static ByteBufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Toma un buffer libre o crea uno nuevo si el pool está vacío.
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Devuelve un buffer al pool. Los de otro tamaño o que exceden el máximo se descartan.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        buffer.clear();
+        free.offer(buffer);
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Número de buffers libres actualmente en el pool.
+     */
+    public int available() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,49 @@
+package com.notify.transport.json;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fragmento JSON pre-codificado en UTF-8.
+ *
+ * Se usa para nombres de campo y valores constantes (ej: el "fromEmail"
+ * configurado de SendGrid), que se codifican una sola vez al construir el
+ * proveedor y luego se copian tal cual en cada payload.
+ */
+public final class JsonFragment {
+
+    private final byte[] bytes;
+
+    private JsonFragment(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Nombre de campo con sus comillas y los dos puntos: {@code "name":}
+     */
+    public static JsonFragment name(String name) {
+        return new JsonFragment((JsonWriter.quote(name) + ":").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Valor string constante, escapado y entre comillas.
+     */
+    public static JsonFragment string(String value) {
+        return new JsonFragment(JsonWriter.quote(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * JSON ya válido que se copia sin procesar (ej: un objeto constante).
+     */
+    public static JsonFragment raw(String json) {
+        return new JsonFragment(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    byte[] bytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
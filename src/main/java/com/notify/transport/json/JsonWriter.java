@@ -0,0 +1,294 @@
+package com.notify.transport.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Escritor JSON en streaming para los payloads de los proveedores.
+ *
+ * Codifica UTF-8 directamente sobre buffers del {@link ByteBufferPool}, sin
+ * Strings ni byte[] intermedios, y gestiona las comas automáticamente.
+ * No valida la estructura más allá de lo necesario: está pensado para los
+ * payloads conocidos de SendGrid, FCM y OneSignal, no como mapper genérico.
+ *
+ * Uso:
+ * <pre>
+ *   PooledBody body = JsonWriter.create(pool)
+ *       .beginObject()
+ *       .name(SUBJECT).value(email.getSubject())
+ *       .endObject()
+ *       .toBody();
+ * </pre>
+ *
+ * Una instancia no es thread-safe y solo puede generar un cuerpo.
+ */
+public final class JsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final int MAX_DEPTH = 32;
+
+    private final ByteBufferPool pool;
+    private final List<ByteBuffer> buffers = new ArrayList<>(2);
+    private final BitSet borrowed = new BitSet();   // Posiciones de buffers ajenos al pool
+    private ByteBuffer current;
+    private long length;
+
+    // Elementos escritos en cada nivel de anidamiento (para decidir la coma)
+    private final int[] counts = new int[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    private JsonWriter(ByteBufferPool pool) {
+        this.pool = pool;
+        this.current = pool.acquire();
+        this.buffers.add(current);
+    }
+
+    public static JsonWriter create(ByteBufferPool pool) {
+        return new JsonWriter(pool);
+    }
+
+    // --- Estructura ---
+
+    public JsonWriter beginObject() {
+        return open('{');
+    }
+
+    public JsonWriter endObject() {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() {
+        return open('[');
+    }
+
+    public JsonWriter endArray() {
+        return close(']');
+    }
+
+    // --- Nombres ---
+
+    /**
+     * Nombre de campo pre-codificado (lo habitual para campos fijos).
+     */
+    public JsonWriter name(JsonFragment name) {
+        separator();
+        writeBytes(name.bytes());
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Nombre de campo dinámico (ej: claves del mapa "data" de FCM).
+     */
+    public JsonWriter name(String name) {
+        separator();
+        writeString(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    // --- Valores ---
+
+    public JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            writeAscii("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    /**
+     * Valor pre-codificado (string constante u objeto JSON completo).
+     */
+    public JsonWriter value(JsonFragment fragment) {
+        separator();
+        writeBytes(fragment.bytes());
+        return this;
+    }
+
+    /**
+     * String cuyo contenido ya está codificado y no requiere escape (ej: base64).
+     * El buffer se inserta en el cuerpo como vista de solo lectura, sin copiarlo,
+     * y no se devuelve al pool: puede ser un buffer mapeado compartido entre
+     * peticiones. Se emite desde su posición hasta su límite.
+     */
+    public JsonWriter rawString(ByteBuffer content) {
+        separator();
+        writeByte('"');
+        ByteBuffer view = content.asReadOnlyBuffer();
+        borrowed.set(buffers.size());
+        buffers.add(view);
+        length += view.remaining();
+        nextBuffer();
+        writeByte('"');
+        return this;
+    }
+
+    /**
+     * Atajo para {@code name(name).value(value)}; omite el campo si el valor es null.
+     */
+    public JsonWriter field(JsonFragment name, String value) {
+        if (value != null) {
+            name(name).value(value);
+        }
+        return this;
+    }
+
+    /**
+     * Termina la escritura y retorna el cuerpo listo para el transporte.
+     */
+    public PooledBody toBody() {
+        if (depth != 0) {
+            throw new IllegalStateException("JSON incompleto: faltan " + depth + " cierres");
+        }
+        for (int i = 0; i < buffers.size(); i++) {
+            if (!borrowed.get(i)) {
+                buffers.get(i).flip();
+            }
+        }
+        return new PooledBody(pool, buffers, borrowed, length);
+    }
+
+    // --- Internos ---
+
+    private JsonWriter open(char bracket) {
+        separator();
+        if (depth + 1 >= MAX_DEPTH) {
+            throw new IllegalStateException("Anidamiento JSON demasiado profundo");
+        }
+        writeByte(bracket);
+        counts[++depth] = 0;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) {
+        if (depth == 0) {
+            throw new IllegalStateException("Cierre '" + bracket + "' sin apertura");
+        }
+        writeByte(bracket);
+        depth--;
+        return this;
+    }
+
+    // Coma antes de cada elemento salvo el primero del nivel o el valor tras un nombre
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0 && counts[depth]++ > 0) {
+            writeByte(',');
+        }
+    }
+
+    private void writeString(String value) {
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeAsciiChar(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Surrogate huérfano: no es UTF-8 válido, se sustituye
+                writeByte('?');
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeAsciiChar(char c) {
+        switch (c) {
+            case '"' -> { writeByte('\\'); writeByte('"'); }
+            case '\\' -> { writeByte('\\'); writeByte('\\'); }
+            case '\n' -> { writeByte('\\'); writeByte('n'); }
+            case '\r' -> { writeByte('\\'); writeByte('r'); }
+            case '\t' -> { writeByte('\\'); writeByte('t'); }
+            default -> {
+                if (c < 0x20) {
+                    writeAscii("\\u00");
+                    writeByte(HEX[c >> 4]);
+                    writeByte(HEX[c & 0xF]);
+                } else {
+                    writeByte(c);
+                }
+            }
+        }
+    }
+
+    private void writeAscii(String ascii) {
+        for (int i = 0; i < ascii.length(); i++) {
+            writeByte(ascii.charAt(i));
+        }
+    }
+
+    private void writeBytes(byte[] bytes) {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!current.hasRemaining()) {
+                nextBuffer();
+            }
+            int chunk = Math.min(current.remaining(), bytes.length - offset);
+            current.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        length += bytes.length;
+    }
+
+    private void writeByte(int b) {
+        if (!current.hasRemaining()) {
+            nextBuffer();
+        }
+        current.put((byte) b);
+        length++;
+    }
+
+    private void nextBuffer() {
+        current = pool.acquire();
+        buffers.add(current);
+    }
+
+    /**
+     * Escapa y entrecomilla un String (para fragmentos pre-codificados).
+     */
+    static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+}
@@ -0,0 +1,144 @@
+package com.notify.transport.json;
+
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cuerpo de petición formado por buffers del pool, publicado directamente al
+ * HttpClient sin copiarlo a un byte[].
+ *
+ * Cada suscripción emite vistas (duplicate) de los buffers, de modo que el
+ * cliente puede reintentar la petición. {@link #release()} los devuelve al
+ * pool; HttpTransport lo invoca al completarse la respuesta. Los buffers
+ * ajenos al pool (ej: adjuntos mapeados de {@link JsonWriter#rawString}) se
+ * emiten igual pero no se liberan.
+ */
+public final class PooledBody implements HttpRequest.BodyPublisher {
+
+    private final ByteBufferPool pool;
+    private final List<ByteBuffer> buffers;   // Ya en modo lectura (flip)
+    private final BitSet borrowed;           // Posiciones que no pertenecen al pool
+    private final long length;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    PooledBody(ByteBufferPool pool, List<ByteBuffer> buffers, BitSet borrowed, long length) {
+        this.pool = pool;
+        this.buffers = buffers;
+        this.borrowed = borrowed;
+        this.length = length;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (released.get()) {
+            throw new IllegalStateException("El cuerpo ya fue liberado al pool");
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private int next;
+            private long demand;
+            private boolean emitting;   // Un solo hilo emite; los request reentrantes solo suman demanda
+            private boolean done;
+            private Throwable error;
+
+            @Override
+            public void request(long n) {
+                synchronized (this) {
+                    if (done) {
+                        return;
+                    }
+                    if (n <= 0) {
+                        error = new IllegalArgumentException("request debe ser > 0");
+                    } else {
+                        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                    }
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                }
+                drain();
+            }
+
+            /**
+             * Emite mientras haya demanda. Las señales se envían fuera del
+             * lock y nunca en paralelo ni anidadas: si el suscriptor pide
+             * más o cancela desde onNext, se atiende en la siguiente vuelta.
+             */
+            private void drain() {
+                while (true) {
+                    ByteBuffer item = null;
+                    Throwable failure = null;
+                    synchronized (this) {
+                        if (done) {
+                            return;
+                        }
+                        if (error != null) {
+                            done = true;
+                            failure = error;
+                        } else if (next == buffers.size()) {
+                            done = true;
+                        } else if (demand > 0) {
+                            demand--;
+                            item = buffers.get(next++).asReadOnlyBuffer();
+                        } else {
+                            emitting = false;
+                            return;
+                        }
+                    }
+                    if (failure != null) {
+                        subscriber.onError(failure);
+                        return;
+                    }
+                    if (item == null) {
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(item);
+                }
+            }
+
+            @Override
+            public synchronized void cancel() {
+                done = true;
+            }
+        });
+    }
+
+    /**
+     * Devuelve los buffers al pool. Idempotente.
+     */
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            for (int i = 0; i < buffers.size(); i++) {
+                if (!borrowed.get(i)) {
+                    pool.release(buffers.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copia el contenido a un String (solo para logs y tests).
+     */
+    public String asString() {
+        byte[] bytes = new byte[(int) length];
+        int offset = 0;
+        for (ByteBuffer buffer : buffers) {
+            ByteBuffer view = buffer.duplicate();
+            int size = view.remaining();
+            view.get(bytes, offset, size);
+            offset += size;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,12 @@
 package com.notify.validation;
 
+import com.notify.channel.email.Attachment;
 import com.notify.channel.email.EmailNotification;
 import com.notify.channel.push.PushNotification;
 import com.notify.channel.sms.SmsNotification;
 import com.notify.core.Notification;
 
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
@@ -79,6 +81,7 @@ public class NotificationValidator {
      * Validación de Email:
      * - Formato de correo válido (RFC 5322 simplificado)
      * - Subject obligatorio
+     * - Adjuntos legibles (el contenido se lee al enviar)
      */
     private void validateEmail(EmailNotification email, List<String> errors) {
         if (!EMAIL_PATTERN.matcher(email.getRecipient()).matches()) {
@@ -88,6 +91,12 @@ public class NotificationValidator {
         if (email.getSubject() == null || email.getSubject().isBlank()) {
             errors.add("El asunto (subject) es obligatorio para Email");
         }
+
+        for (Attachment attachment : email.getAttachments()) {
+            if (!Files.isRegularFile(attachment.getPath()) || !Files.isReadable(attachment.getPath())) {
+                errors.add("Adjunto no legible: " + attachment.getPath());
+            }
+        }
     }
 
     /**
@@ -0,0 +1,100 @@
+package com.notify.channel;
+
+import com.notify.channel.email.Attachment;
+import com.notify.channel.email.AttachmentCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la AttachmentCache — base64 en streaming, direccionado por contenido.
+ */
+class AttachmentCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Codifica en base64 y comparte la entrada entre rutas con el mismo contenido")
+    void shouldEncodeOnceByContent() throws Exception {
+        byte[] content = new byte[300_000];
+        new Random(7).nextBytes(content);
+        Path invoice = Files.write(dir.resolve("factura.pdf"), content);
+        Path copy = Files.write(dir.resolve("copia.pdf"), content);
+        AttachmentCache cache = new AttachmentCache(dir.resolve("cache"), 10L << 20);
+
+        ByteBuffer first = cache.encoded(Attachment.of(invoice));
+        ByteBuffer second = cache.encoded(Attachment.of(copy));
+
+        assertEquals(Base64.getEncoder().encodeToString(content), ascii(first));
+        assertEquals(first.remaining(), cache.size(), "Una sola entrada para ambas rutas");
+        assertEquals(ascii(first), ascii(second));
+        try (var files = Files.list(dir.resolve("cache"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Recodifica si el fichero cambia y expulsa entradas al superar el límite")
+    void shouldReencodeChangedFilesAndEvict() throws Exception {
+        Path report = Files.writeString(dir.resolve("reporte.csv"), "a,b\n1,2\n");
+        AttachmentCache cache = new AttachmentCache(dir.resolve("cache"), 16);
+
+        cache.encoded(Attachment.of(report));
+        Files.writeString(report, "a,b\n1,2\n3,4\n");
+        ByteBuffer updated = cache.encoded(Attachment.of(report));
+
+        assertEquals(Base64.getEncoder().encodeToString("a,b\n1,2\n3,4\n".getBytes(StandardCharsets.UTF_8)),
+                ascii(updated));
+        assertEquals(updated.remaining(), cache.size(), "La versión anterior se expulsó");
+    }
+
+    @Test
+    @DisplayName("Los envíos concurrentes no fallan aunque las expulsiones borren ficheros a la vez")
+    void shouldSurviveConcurrentEviction() throws Exception {
+        Path first = Files.writeString(dir.resolve("a.txt"), "contenido A");
+        Path second = Files.writeString(dir.resolve("b.txt"), "contenido B");
+        AttachmentCache cache = new AttachmentCache(dir.resolve("cache"), 20);   // Cabe una sola entrada
+        String expectedA = Base64.getEncoder().encodeToString("contenido A".getBytes(StandardCharsets.UTF_8));
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Path path = t % 2 == 0 ? first : second;
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 300; i++) {
+                        ByteBuffer encoded = cache.encoded(Attachment.of(path));
+                        if (path == first) {
+                            assertEquals(expectedA, ascii(encoded));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static String ascii(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,165 @@
+package com.notify.channel;
+
+import com.notify.channel.push.CoalescingPushChannel;
+import com.notify.channel.push.PushNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import com.notify.core.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del CoalescingPushChannel — fusión de push pendientes por dispositivo.
+ */
+class CoalescingPushChannelTest {
+
+    private final List<PushNotification> sent = new CopyOnWriteArrayList<>();
+
+    private final NotificationChannel<PushNotification> provider = new NotificationChannel<>() {
+        @Override
+        public NotificationResult send(PushNotification notification) {
+            sent.add(notification);
+            return NotificationResult.success(notification.getId(), "fcm-" + sent.size());
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+            return CompletableFuture.completedFuture(send(notification));
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.PUSH_NOTIFICATION;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    };
+
+    private final CoalescingPushChannel channel = CoalescingPushChannel.builder(provider)
+            .window(Duration.ofMillis(100))
+            .build();
+
+    @Test
+    @DisplayName("Una ráfaga al mismo dispositivo y collapse key sale en una sola llamada")
+    void shouldCoalesceBurst() {
+        List<CompletableFuture<NotificationResult>> results = List.of(
+                channel.sendAsync(push("token-1", "chat-9", "Hola")),
+                channel.sendAsync(push("token-1", "chat-9", "¿Estás?")),
+                channel.sendAsync(push("token-1", "chat-9", "Te llamo")));
+        CompletableFuture<NotificationResult> otherChat = channel.sendAsync(push("token-1", "chat-7", "Reunión"));
+
+        assertEquals(NotificationStatus.COALESCED, results.get(0).join().getStatus());
+        assertEquals(NotificationStatus.COALESCED, results.get(1).join().getStatus());
+        assertEquals(NotificationStatus.SENT, results.get(2).join().getStatus());
+        assertEquals(NotificationStatus.SENT, otherChat.join().getStatus());
+        assertEquals(2, sent.size());
+        assertTrue(sent.stream().anyMatch(p -> p.getMessage().equals("Te llamo")), "Gana el más reciente");
+        assertEquals(0, channel.getPendingCount());
+    }
+
+    @Test
+    @DisplayName("El merge personalizado combina el pendiente con el nuevo")
+    void shouldMergeWithCustomOperator() {
+        CoalescingPushChannel counting = CoalescingPushChannel.builder(provider)
+                .window(Duration.ofMillis(50))
+                .merge((older, newer) -> push(newer.getRecipient(), "chat-9",
+                        older.getMessage() + " | " + newer.getMessage()))
+                .build();
+
+        counting.sendAsync(push("token-1", "chat-9", "uno"));
+        counting.sendAsync(push("token-1", "chat-9", "dos")).join();
+
+        assertEquals(1, sent.size());
+        assertEquals("uno | dos", sent.get(0).getMessage());
+    }
+
+    @Test
+    @DisplayName("Sin collapse key, CRITICAL o síncrono: se envía al momento")
+    void shouldBypassWindow() {
+        PushNotification critical = PushNotification.builder()
+                .deviceToken("token-1").title("Alerta").message("Fraude")
+                .data(Map.of(CoalescingPushChannel.DEFAULT_COLLAPSE_KEY, "alertas"))
+                .priority(Priority.CRITICAL)
+                .build();
+        CompletableFuture<NotificationResult> pendingPush = channel.sendAsync(push("token-1", "chat-9", "Hola"));
+
+        channel.sendAsync(critical);
+        channel.sendAsync(PushNotification.builder().deviceToken("token-1").title("t").message("sin clave").build());
+        NotificationResult sync = channel.send(push("token-1", "chat-9", "Versión nueva"));
+
+        assertEquals(3, sent.size(), "Los tres salen sin esperar la ventana");
+        assertEquals(NotificationStatus.SENT, sync.getStatus());
+        assertEquals(NotificationStatus.COALESCED, pendingPush.join().getStatus(),
+                "El envío síncrono absorbe el pendiente de su clave");
+    }
+
+    @Test
+    @DisplayName("Cancelar el pendiente descarta la ventana y no llama al proveedor")
+    void shouldDiscardCancelledPending() throws Exception {
+        CompletableFuture<NotificationResult> first = channel.sendAsync(push("token-1", "chat-9", "Hola"));
+        CompletableFuture<NotificationResult> latest = channel.sendAsync(push("token-1", "chat-9", "¿Estás?"));
+
+        latest.cancel(true);
+        Thread.sleep(200);
+
+        assertEquals(NotificationStatus.COALESCED, first.join().getStatus());
+        assertEquals(0, channel.getPendingCount());
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Cancelar tras cerrar la ventana cancela la llamada al proveedor")
+    void shouldCancelFlushedSend() throws Exception {
+        CompletableFuture<NotificationResult> call = new CompletableFuture<>();
+        NotificationChannel<PushNotification> hanging = new NotificationChannel<>() {
+            @Override
+            public NotificationResult send(PushNotification notification) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+                return call;
+            }
+
+            @Override
+            public ChannelType getChannelType() {
+                return ChannelType.PUSH_NOTIFICATION;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+        CoalescingPushChannel slow = CoalescingPushChannel.builder(hanging).window(Duration.ofMillis(20)).build();
+
+        CompletableFuture<NotificationResult> result = slow.sendAsync(push("token-1", "chat-9", "Hola"));
+        Thread.sleep(150);
+        result.cancel(true);
+
+        assertTrue(call.isCancelled());
+    }
+
+    private static PushNotification push(String token, String collapseKey, String message) {
+        return PushNotification.builder()
+                .deviceToken(token)
+                .title("Chat")
+                .message(message)
+                .data(Map.of(CoalescingPushChannel.DEFAULT_COLLAPSE_KEY, collapseKey))
+                .build();
+    }
+}
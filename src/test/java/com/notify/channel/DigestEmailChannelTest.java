@@ -0,0 +1,269 @@
+package com.notify.channel;
+
+import com.notify.channel.email.DigestEmailChannel;
+import com.notify.channel.email.EmailNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del DigestEmailChannel — resúmenes por destinatario con journal en disco.
+ */
+class DigestEmailChannelTest {
+
+    @TempDir
+    Path dir;
+
+    private final MutableClock clock = new MutableClock();
+    private final List<EmailNotification> sent = new CopyOnWriteArrayList<>();
+    private volatile boolean failing;
+    private volatile CompletableFuture<NotificationResult> held;
+
+    private final NotificationChannel<EmailNotification> provider = new NotificationChannel<>() {
+        @Override
+        public NotificationResult send(EmailNotification notification) {
+            sent.add(notification);
+            if (failing) {
+                return NotificationResult.failure(notification.getId(), "SendGrid no disponible");
+            }
+            return NotificationResult.success(notification.getId(), "sg-" + sent.size());
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+            if (held != null) {
+                sent.add(notification);
+                return held;
+            }
+            return CompletableFuture.completedFuture(send(notification));
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.EMAIL;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    };
+
+    private DigestEmailChannel.Builder digest() {
+        return DigestEmailChannel.builder(provider)
+                .journal(dir)
+                .interval(Duration.ofHours(1))
+                .maxItems(3)
+                .checkEvery(null)
+                .clock(clock);
+    }
+
+    @Test
+    @DisplayName("Al llegar a maxItems envía un único email renderizado con el template")
+    void shouldFlushOnCount() throws Exception {
+        try (DigestEmailChannel channel = digest().build()) {
+            NotificationResult first = channel.send(email("ana@mail.com", "comentarios", "Luis comentó"));
+            channel.send(email("ana@mail.com", "comentarios", "Eva comentó"));
+            channel.send(email("bob@mail.com", "comentarios", "Ana comentó"));
+            channel.sendAsync(email("ana@mail.com", "comentarios", "Leo comentó")).join();
+
+            assertEquals(NotificationStatus.PENDING, first.getStatus());
+            assertEquals(1, sent.size());
+            EmailNotification digest = sent.get(0);
+            assertEquals("ana@mail.com", digest.getRecipient());
+            assertEquals("Tienes 3 novedades", digest.getSubject());
+            assertEquals("Resumen de comentarios:\n\n- Nuevo comentario: Luis comentó\n"
+                    + "- Nuevo comentario: Eva comentó\n- Nuevo comentario: Leo comentó", digest.getMessage());
+            assertEquals(1, channel.getPendingCount(), "Queda el grupo de bob");
+        }
+    }
+
+    @Test
+    @DisplayName("Envía los grupos cuyo primer elemento cumplió el intervalo")
+    void shouldFlushOnInterval() throws Exception {
+        try (DigestEmailChannel channel = digest().build()) {
+            channel.send(email("ana@mail.com", "comentarios", "uno"));
+            clock.advance(Duration.ofMinutes(40));
+            channel.send(email("bob@mail.com", "comentarios", "dos"));
+            channel.send(email("ana@mail.com", "likes", "tres"));
+            channel.send(email("plain@mail.com", null, "sin resumen"));
+
+            clock.advance(Duration.ofMinutes(21));
+            assertEquals(1, channel.flushDue());
+
+            assertEquals(2, sent.size(), "El email sin clave salió al momento");
+            assertEquals("ana@mail.com", sent.get(1).getRecipient());
+            assertTrue(sent.get(1).getMessage().contains("uno"));
+            assertEquals(2, channel.getPendingCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Recupera los pendientes del journal tras reiniciar y borra segmentos ya enviados")
+    void shouldRecoverFromJournal() throws Exception {
+        try (DigestEmailChannel channel = digest().segmentBytes(4096).build()) {
+            for (int i = 0; i < 60; i++) {
+                channel.send(email("user" + i + "@mail.com", "comentarios", "elemento " + "x".repeat(100)));
+            }
+            channel.send(email("ana@mail.com", "comentarios", "uno"));
+            channel.send(email("ana@mail.com", "comentarios", "dos"));
+        }
+
+        try (DigestEmailChannel restarted = digest().segmentBytes(4096).build()) {
+            assertEquals(61, restarted.getPendingCount());
+            long segmentsBefore = journalFiles();
+
+            clock.advance(Duration.ofHours(2));
+            assertEquals(61, restarted.flushDue());
+
+            assertEquals(61, sent.size());
+            assertTrue(sent.stream().anyMatch(e -> e.getMessage().contains("uno") && e.getMessage().contains("dos")));
+            assertTrue(journalFiles() < segmentsBefore, "Los segmentos enviados se borran");
+        }
+
+        try (DigestEmailChannel again = digest().segmentBytes(4096).build()) {
+            assertEquals(0, again.getPendingCount(), "Lo enviado no se reenvía al reiniciar");
+        }
+    }
+
+    @Test
+    @DisplayName("Un resumen cuyo envío falla sigue pendiente, sobrevive al reinicio y se reintenta")
+    void shouldRetryFailedDigest() throws Exception {
+        failing = true;
+        try (DigestEmailChannel channel = digest().build()) {
+            channel.send(email("ana@mail.com", "comentarios", "uno"));
+            channel.send(email("ana@mail.com", "comentarios", "dos"));
+            clock.advance(Duration.ofHours(2));
+
+            assertEquals(1, channel.flushDue());
+            assertEquals(1, channel.getPendingCount(), "El fallo no descarta el grupo");
+        }
+
+        failing = false;
+        try (DigestEmailChannel restarted = digest().build()) {
+            assertEquals(1, restarted.getPendingCount());
+            assertEquals(1, restarted.flushDue());
+
+            assertEquals(2, sent.size());
+            assertTrue(sent.get(1).getMessage().contains("uno") && sent.get(1).getMessage().contains("dos"));
+            assertEquals(0, restarted.getPendingCount());
+        }
+
+        try (DigestEmailChannel again = digest().build()) {
+            assertEquals(0, again.getPendingCount(), "Lo enviado no se reenvía al reiniciar");
+        }
+    }
+
+    @Test
+    @DisplayName("Un resumen que siempre falla se reintenta con espera y se descarta tras maxAttempts")
+    void shouldGiveUpAfterMaxAttempts() throws Exception {
+        failing = true;
+        try (DigestEmailChannel channel = digest().maxAttempts(3).retryBackoff(Duration.ofMinutes(1)).build()) {
+            channel.send(email("ana@mail.com", "comentarios", "uno"));
+            clock.advance(Duration.ofHours(2));
+
+            assertEquals(1, channel.flushDue());
+            assertEquals(0, channel.flushDue(), "Espera antes de reintentar");
+            clock.advance(Duration.ofMinutes(1));
+            assertEquals(1, channel.flushDue());
+            clock.advance(Duration.ofMinutes(1));
+            assertEquals(0, channel.flushDue(), "La espera se duplica");
+            clock.advance(Duration.ofMinutes(1));
+            assertEquals(1, channel.flushDue());
+
+            assertEquals(3, sent.size());
+            assertEquals(0, channel.getPendingCount(), "Tercer fallo: el grupo se descarta");
+            channel.send(email("bob@mail.com", "comentarios", "dos"));
+            clock.advance(Duration.ofHours(2));
+            failing = false;
+            assertEquals(1, channel.flushDue(), "El grupo descartado no retiene a los siguientes");
+        }
+
+        try (DigestEmailChannel restarted = digest().build()) {
+            assertEquals(0, restarted.getPendingCount(), "El descarte queda en el journal");
+        }
+    }
+
+    @Test
+    @DisplayName("Los emails que llegan mientras se envía el resumen quedan para el siguiente")
+    void shouldKeepItemsArrivingDuringSend() throws Exception {
+        held = new CompletableFuture<>();
+        try (DigestEmailChannel channel = digest().build()) {
+            channel.send(email("ana@mail.com", "comentarios", "uno"));
+            channel.send(email("ana@mail.com", "comentarios", "dos"));
+            channel.send(email("ana@mail.com", "comentarios", "tres"));
+            channel.send(email("ana@mail.com", "comentarios", "cuatro"));
+            clock.advance(Duration.ofHours(2));
+            assertEquals(0, channel.flushDue(), "No se reenvía un resumen en curso");
+            assertEquals(1, sent.size());
+
+            CompletableFuture<NotificationResult> sending = held;
+            held = null;
+            sending.complete(NotificationResult.success(sent.get(0).getId(), "sg-1"));
+            assertEquals(1, channel.getPendingCount());
+
+            assertEquals(1, channel.flushDue());
+            assertEquals(2, sent.size());
+            assertTrue(sent.get(1).getMessage().contains("cuatro"));
+            assertFalse(sent.get(1).getMessage().contains("tres"));
+            assertEquals(0, channel.getPendingCount());
+        }
+    }
+
+    private long journalFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static EmailNotification email(String to, String digestKey, String message) {
+        return EmailNotification.builder()
+                .to(to)
+                .subject("Nuevo comentario")
+                .message(message)
+                .metadata(digestKey != null ? Map.of(DigestEmailChannel.DIGEST_METADATA_KEY, digestKey) : Map.of())
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
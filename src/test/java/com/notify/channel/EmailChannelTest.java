@@ -13,6 +13,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -67,6 +69,25 @@ class EmailChannelTest {
         assertThrows(SendException.class, () -> emailChannel.send(email));
     }
 
+    @Test
+    @DisplayName("sendAsync delega en el envío asíncrono nativo del provider")
+    void shouldDelegateAsyncToProvider() {
+        EmailNotification email = EmailNotification.builder()
+                .to("test@example.com")
+                .subject("Hi")
+                .message("Hello")
+                .build();
+
+        CompletableFuture<NotificationResult> pending = new CompletableFuture<>();
+        when(emailProvider.sendAsync(any())).thenReturn(pending);
+
+        CompletableFuture<NotificationResult> future = emailChannel.sendAsync(email);
+
+        // El canal no envuelve ni bloquea: retorna el mismo future del provider
+        assertSame(pending, future);
+        verify(emailProvider, never()).send(any());
+    }
+
     @Test
     @DisplayName("getChannelType retorna EMAIL")
     void shouldReturnEmailChannelType() {
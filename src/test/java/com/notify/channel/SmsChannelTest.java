@@ -12,6 +12,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -53,6 +55,23 @@ class SmsChannelTest {
         verify(smsProvider, times(1)).send(sms);
     }
 
+    @Test
+    @DisplayName("sendAsync delega en el envío asíncrono nativo del provider")
+    void shouldDelegateAsyncToProvider() throws Exception {
+        SmsNotification sms = SmsNotification.builder()
+                .to("+51999888777")
+                .message("Test SMS")
+                .build();
+
+        when(smsProvider.sendAsync(any())).thenReturn(
+                CompletableFuture.completedFuture(NotificationResult.success(sms.getId(), "SM-async-1")));
+
+        NotificationResult result = smsChannel.sendAsync(sms).get();
+
+        assertEquals("SM-async-1", result.getProviderMessageId());
+        verify(smsProvider, never()).send(any());
+    }
+
     @Test
     @DisplayName("getChannelType retorna SMS")
     void shouldReturnSmsChannelType() {
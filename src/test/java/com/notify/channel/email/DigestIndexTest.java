@@ -0,0 +1,55 @@
+package com.notify.channel.email;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del DigestIndex — dimensionado y operaciones de la tabla fuera del heap.
+ */
+class DigestIndexTest {
+
+    @Test
+    @DisplayName("El dimensionado para decenas de millones de grupos cabe en buffers de menos de 2GB")
+    void shouldSizeForTensOfMillions() {
+        int perSegment = Math.ceilDiv(20_000_000, DigestIndex.SEGMENTS);
+        int capacity = DigestIndex.segmentCapacityFor(perSegment);
+
+        assertTrue(capacity >= perSegment / 0.7, "Cabe sin rehash: " + capacity);
+        assertTrue((long) capacity * 32 <= Integer.MAX_VALUE, "Un segmento en un solo ByteBuffer");
+        assertEquals(DigestIndex.MAX_SEGMENT_CAPACITY, DigestIndex.segmentCapacityFor(20_000_000),
+                "Se limita al máximo por segmento");
+        assertThrows(IllegalStateException.class, () -> DigestIndex.segmentCapacityFor(24_000_000));
+        // Total: 16 segmentos de 2^25 slots al 70% ≈ 375M grupos
+        assertTrue(DigestIndex.SEGMENTS * (long) (DigestIndex.MAX_SEGMENT_CAPACITY * 0.7) > 300_000_000L);
+    }
+
+    @Test
+    @DisplayName("Crece, consulta y borra grupos repartidos en todos los segmentos")
+    void shouldGrowAndRemove() {
+        DigestIndex index = new DigestIndex(0);
+        Random random = new Random(3);
+        long[] groups = new long[200_000];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = random.nextLong();
+            assertEquals(-1, index.append(groups[i], i * 10L));
+        }
+        assertEquals(0, index.append(groups[0], 5));
+
+        assertEquals(groups.length, index.size());
+        assertEquals(2, index.count(groups[0]));
+        assertEquals(0, index.first(groups[0]));
+        assertEquals(5, index.last(groups[0]));
+
+        for (int i = 0; i < groups.length; i += 2) {
+            index.remove(groups[i]);
+        }
+        assertEquals(groups.length / 2, index.size());
+        for (int i = 0; i < groups.length; i++) {
+            assertEquals(i % 2 == 0 ? -1 : i * 10L, index.first(groups[i]));
+        }
+    }
+}
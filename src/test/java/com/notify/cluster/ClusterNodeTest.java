@@ -0,0 +1,332 @@
+package com.notify.cluster;
+
+import com.notify.channel.email.Attachment;
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.core.NotificationStatus;
+import com.notify.receipt.DeliveryStatusStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del modo clúster — reparto con hash consistente y reenvío entre nodos locales.
+ */
+class ClusterNodeTest {
+
+    private static final InetSocketAddress ANY_PORT = new InetSocketAddress("127.0.0.1", 0);
+
+    /** Destinatario → nodos que lo enviaron */
+    private final Map<String, Set<String>> sentBy = new ConcurrentHashMap<>();
+    private final Map<String, String> subjects = new ConcurrentHashMap<>();
+    private final Map<String, String> sentIds = new ConcurrentHashMap<>();
+    private final Map<String, DeliveryStatusStore> stores = new ConcurrentHashMap<>();
+    private final List<ClusterNode> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ClusterNode::close);
+    }
+
+    @Test
+    @DisplayName("El anillo reparte las claves de forma equilibrada y al entrar un nodo solo se mueven las suyas")
+    void shouldBalanceAndMoveMinimalKeys() {
+        HashRing ring = HashRing.of(List.of("a", "b", "c"), 128);
+        Map<String, String> before = new HashMap<>();
+        Map<String, Integer> load = new HashMap<>();
+        for (int i = 0; i < 30_000; i++) {
+            String key = "+346" + i;
+            String owner = ring.owner(key);
+            before.put(key, owner);
+            load.merge(owner, 1, Integer::sum);
+        }
+        for (int count : load.values()) {
+            assertEquals(10_000, count, 2_000, "Reparto por nodo: " + load);
+        }
+
+        HashRing grown = ring.with("d");
+        int moved = 0;
+        for (Map.Entry<String, String> entry : before.entrySet()) {
+            String owner = grown.owner(entry.getKey());
+            if (!owner.equals(entry.getValue())) {
+                assertEquals("d", owner, "Solo se mueven claves hacia el nodo nuevo");
+                moved++;
+            }
+        }
+        assertEquals(7_500, moved, 1_500, "Se mueve ~1/4 de las claves");
+
+        HashRing shrunk = grown.without("d");
+        before.forEach((key, owner) -> assertEquals(owner, shrunk.owner(key)));
+        assertEquals(ring.owner("  +346123 "), ring.owner("+346123"), "La clave se normaliza como un destinatario");
+    }
+
+    @Test
+    @DisplayName("Cada destinatario se envía siempre desde su nodo dueño, entre por el nodo que entre")
+    void shouldRouteToOwner() throws Exception {
+        ClusterNode a = startNode("a", null);
+        ClusterNode b = startNode("b", a.getAddress());
+        ClusterNode c = startNode("c", b.getAddress());
+        awaitMembers(3);
+
+        for (int i = 0; i < 60; i++) {
+            ClusterNode entry = nodes.get(i % 3);
+            SmsNotification sms = SmsNotification.builder().to("+34600000" + (100 + i % 20)).message("Código " + i).build();
+            NotificationResult result = entry.send(sms).get(5, TimeUnit.SECONDS);
+
+            assertTrue(result.isSuccess(), result.getErrorMessage());
+            assertEquals(sms.getId(), result.getNotificationId(), "El resultado lleva el id de la notificación original");
+            assertEquals(entry.ownerOf(sms), sentBy.get(sms.getRecipient()).iterator().next());
+        }
+        sentBy.forEach((recipient, senders) -> assertEquals(1, senders.size(), recipient + " enviado desde " + senders));
+        assertTrue(a.getForwardedCount() + b.getForwardedCount() + c.getForwardedCount() > 0);
+
+        EmailNotification email = EmailNotification.builder()
+                .to("ana@example.com").subject("Factura").message("Adjunta").cc(List.of("b@example.com")).build();
+        ClusterNode other = nodes.stream().filter(n -> !n.getNodeId().equals(a.ownerOf(email))).findFirst().orElseThrow();
+        assertTrue(other.send(email).get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals("Factura", subjects.get("ana@example.com"), "Los campos del canal viajan con la notificación");
+    }
+
+    @Test
+    @DisplayName("La notificación reenviada conserva su id en el nodo dueño")
+    void shouldKeepIdWhenForwarding() throws Exception {
+        ClusterNode a = startNode("a", null);
+        ClusterNode b = startNode("b", a.getAddress());
+        awaitMembers(2);
+
+        SmsNotification sms = SmsNotification.builder().to("+34600000100").message("Código").build();
+        ClusterNode entry = a.ownerOf(sms).equals("a") ? b : a;
+        NotificationResult result = entry.send(sms).get(5, TimeUnit.SECONDS);
+
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertEquals(1, entry.getForwardedCount());
+        assertEquals(sms.getId(), sentIds.get(sms.getRecipient()), "El canal del dueño recibe el id original");
+        assertTrue(stores.get(a.ownerOf(sms)).findById(sms.getId()).isPresent(),
+                "El dueño registra el estado con el id original");
+
+        EmailNotification withAttachment = EmailNotification.builder()
+                .to("ana@example.com").subject("Factura").message("Adjunta")
+                .attachment(Attachment.of(Path.of("factura.pdf"))).build();
+        ClusterNode other = a.ownerOf(withAttachment).equals("a") ? b : a;
+        NotificationResult rejected = other.send(withAttachment).get(5, TimeUnit.SECONDS);
+        assertEquals(NotificationStatus.FAILED, rejected.getStatus());
+        assertNull(sentIds.get("ana@example.com"), "Los adjuntos no se reenvían");
+    }
+
+    @Test
+    @DisplayName("Al salir un nodo los demás reparten sus destinatarios")
+    void shouldRebalanceWhenNodeLeaves() throws Exception {
+        ClusterNode a = startNode("a", null);
+        startNode("b", a.getAddress());
+        ClusterNode c = startNode("c", a.getAddress());
+        awaitMembers(3);
+
+        SmsNotification owned = null;
+        for (int i = 0; owned == null; i++) {
+            SmsNotification candidate = SmsNotification.builder().to("+34611" + (100_000 + i)).message("Hola").build();
+            if (a.ownerOf(candidate).equals("c")) {
+                owned = candidate;
+            }
+        }
+
+        c.close();
+        nodes.remove(c);
+        awaitMembers(2);
+
+        NotificationResult result = a.send(owned).get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertNotEquals("c", a.ownerOf(owned));
+        assertEquals(Set.of(a.ownerOf(owned)), sentBy.get(owned.getRecipient()));
+    }
+
+    @Test
+    @DisplayName("Un nodo caído sin avisar sale del anillo y el envío se redirige")
+    void shouldRerouteWhenNodeCrashes() throws Exception {
+        // Miembro falso: responde al JOIN y muere sin enviar LEAVE
+        ServerSocket ghost = new ServerSocket(0, 8, ANY_PORT.getAddress());
+        Thread.ofVirtual().start(() -> answerJoin(ghost));
+
+        ClusterNode a = startNode("a", new InetSocketAddress("127.0.0.1", ghost.getLocalPort()));
+        assertEquals(Set.of("a", "ghost"), a.getMembers());
+        ghost.close();
+
+        SmsNotification owned = null;
+        for (int i = 0; owned == null; i++) {
+            SmsNotification candidate = SmsNotification.builder().to("+34622" + (100_000 + i)).message("Hola").build();
+            if (a.ownerOf(candidate).equals("ghost")) {
+                owned = candidate;
+            }
+        }
+
+        NotificationResult result = a.send(owned).get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertEquals(Set.of("a"), a.getMembers());
+        assertEquals(Set.of("a"), sentBy.get(owned.getRecipient()));
+    }
+
+    @Test
+    @DisplayName("Un nodo que deja de responder queda sospechoso y recupera su sitio al volver")
+    void shouldReaddPeerThatAnswersAgain() throws Exception {
+        ServerSocket ghost = new ServerSocket(0, 8, ANY_PORT.getAddress());
+        InetSocketAddress ghostAddress = new InetSocketAddress("127.0.0.1", ghost.getLocalPort());
+        Thread.ofVirtual().start(() -> answerJoin(ghost));
+
+        ClusterNode a = startNode("a", ghostAddress, builder -> builder.gossipInterval(Duration.ofMillis(100)));
+        ghost.close();
+        await(() -> a.getSuspects().contains("ghost"), "El intercambio de miembros detecta la caída");
+        assertEquals(Set.of("a"), a.getMembers());
+
+        // Vuelve en la misma dirección: la reconexión con backoff lo reincorpora
+        ClusterNode back = startNode("ghost", null, builder -> builder.address(ghostAddress));
+        await(() -> a.getMembers().equals(Set.of("a", "ghost")), "El nodo recupera su sitio en el anillo");
+        assertTrue(a.getSuspects().isEmpty());
+        await(() -> back.getMembers().equals(Set.of("a", "ghost")), "El nodo reiniciado aprende los miembros por gossip");
+
+        SmsNotification owned = null;
+        for (int i = 0; owned == null; i++) {
+            SmsNotification candidate = SmsNotification.builder().to("+34633" + (100_000 + i)).message("Hola").build();
+            if (a.ownerOf(candidate).equals("ghost")) {
+                owned = candidate;
+            }
+        }
+        assertTrue(a.send(owned).get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(Set.of("ghost"), sentBy.get(owned.getRecipient()));
+    }
+
+    @Test
+    @DisplayName("Un nodo sospechoso se expulsa si no responde antes de suspectTimeout")
+    void shouldEvictAfterSuspectTimeout() throws Exception {
+        ServerSocket ghost = new ServerSocket(0, 8, ANY_PORT.getAddress());
+        Thread.ofVirtual().start(() -> answerJoin(ghost));
+
+        ClusterNode a = startNode("a", new InetSocketAddress("127.0.0.1", ghost.getLocalPort()),
+                builder -> builder.suspectTimeout(Duration.ofMillis(300)).gossipInterval(Duration.ofMinutes(1)));
+        ghost.close();
+
+        SmsNotification owned = null;
+        for (int i = 0; owned == null; i++) {
+            SmsNotification candidate = SmsNotification.builder().to("+34644" + (100_000 + i)).message("Hola").build();
+            if (a.ownerOf(candidate).equals("ghost")) {
+                owned = candidate;
+            }
+        }
+        assertTrue(a.send(owned).get(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(Set.of("ghost"), a.getSuspects(), "Un fallo no expulsa al nodo");
+
+        await(() -> a.getSuspects().isEmpty(), "Expulsado al vencer suspectTimeout");
+        assertEquals(Set.of("a"), a.getMembers());
+    }
+
+    // --- Utilidades ---
+
+    private ClusterNode startNode(String id, InetSocketAddress seed) throws IOException {
+        return startNode(id, seed, builder -> { });
+    }
+
+    private ClusterNode startNode(String id, InetSocketAddress seed, Consumer<ClusterNode.Builder> options)
+            throws IOException {
+        DeliveryStatusStore store = DeliveryStatusStore.builder().build();
+        stores.put(id, store);
+        NotificationService service = NotificationService.builder()
+                .channel(new RecordingChannel<SmsNotification>(id, ChannelType.SMS))
+                .channel(new RecordingChannel<EmailNotification>(id, ChannelType.EMAIL))
+                .statusStore(store)
+                .build();
+        ClusterNode.Builder builder = ClusterNode.builder(id, service).address(ANY_PORT).virtualNodes(64);
+        if (seed != null) {
+            builder.seed(seed);
+        }
+        options.accept(builder);
+        ClusterNode node = builder.start();
+        nodes.add(node);
+        return node;
+    }
+
+    private void awaitMembers(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (nodes.stream().anyMatch(n -> n.getMembers().size() != expected)) {
+            assertTrue(System.nanoTime() < deadline, "Membresía sin converger");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, message);
+            Thread.sleep(10);
+        }
+    }
+
+    private static void answerJoin(ServerSocket server) {
+        try (Socket socket = server.accept()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            ClusterCodec.Member joining = ClusterCodec.readMember(ClusterCodec.read(in).body());
+            ClusterCodec.Member ghost = new ClusterCodec.Member("ghost", "127.0.0.1", server.getLocalPort());
+            ClusterCodec.write(out, ClusterCodec.encode(ClusterCodec.MEMBERS, body -> {
+                body.writeInt(2);
+                ClusterCodec.writeMember(body, ghost);
+                ClusterCodec.writeMember(body, joining);
+            }));
+        } catch (IOException ignored) {
+            // El test falla por su cuenta si no hay respuesta
+        }
+    }
+
+    private final class RecordingChannel<T extends com.notify.core.Notification> implements NotificationChannel<T> {
+        private final String nodeId;
+        private final ChannelType type;
+
+        RecordingChannel(String nodeId, ChannelType type) {
+            this.nodeId = nodeId;
+            this.type = type;
+        }
+
+        @Override
+        public NotificationResult send(T notification) {
+            sentBy.computeIfAbsent(notification.getRecipient(), r -> ConcurrentHashMap.newKeySet()).add(nodeId);
+            sentIds.put(notification.getRecipient(), notification.getId());
+            if (notification instanceof EmailNotification email) {
+                subjects.put(email.getRecipient(), email.getSubject());
+            }
+            return NotificationResult.success(notification.getId(), nodeId + "-" + notification.getId());
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return type;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.notify.core;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.sms.SmsChannel;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.channel.sms.provider.SmsProvider;
+import com.notify.dispatch.PriorityDispatcher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de timeouts y propagación de la cancelación en sendAsync.
+ */
+class CancellationTest {
+
+    @Test
+    @DisplayName("Al vencer el timeout el resultado es FAILED y el envío del canal se cancela")
+    void shouldTimeOutAndCancelChannelWork() throws Exception {
+        HangingChannel channel = new HangingChannel();
+        NotificationService service = NotificationService.builder()
+                .channel(channel)
+                .timeout(ChannelType.EMAIL, Duration.ofMillis(50))
+                .build();
+
+        NotificationResult result = service.sendAsync(email()).get(2, TimeUnit.SECONDS);
+
+        assertEquals(NotificationStatus.FAILED, result.getStatus());
+        assertTrue(result.getErrorMessage().startsWith("Timeout"));
+        assertTrue(channel.last.isCancelled());
+        assertEquals(0, service.getChannelRegistry().getInFlight(ChannelType.EMAIL), "El hueco se libera al cancelar");
+    }
+
+    @Test
+    @DisplayName("El timeout por llamada sustituye al del canal")
+    void shouldApplyPerCallTimeout() throws Exception {
+        HangingChannel channel = new HangingChannel();
+        NotificationService service = NotificationService.builder()
+                .channel(channel)
+                .timeout(ChannelType.EMAIL, Duration.ofSeconds(30))
+                .build();
+
+        long start = System.nanoTime();
+        NotificationResult result = service.sendAsync(email(), Duration.ofMillis(50)).get(2, TimeUnit.SECONDS);
+
+        assertEquals(NotificationStatus.FAILED, result.getStatus());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+    }
+
+    @Test
+    @DisplayName("Cancelar un envío encolado evita que se ejecute y cancelar uno en curso libera el hueco")
+    void shouldPropagateCancelThroughDispatcher() throws Exception {
+        HangingChannel channel = new HangingChannel();
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder().maxConcurrency(1).build();
+        NotificationService service = NotificationService.builder().channel(channel).dispatcher(dispatcher).build();
+
+        CompletableFuture<NotificationResult> running = service.sendAsync(email());
+        CompletableFuture<NotificationResult> queued = service.sendAsync(email());
+        assertEquals(1, dispatcher.getInFlightCount());
+
+        queued.cancel(true);
+        running.cancel(true);
+
+        assertTrue(channel.last.isCancelled(), "La cancelación llega al future del canal");
+        assertEquals(0, dispatcher.getInFlightCount());
+        assertEquals(1, channel.calls.get(), "El envío cancelado en cola no se ejecuta");
+    }
+
+    @Test
+    @DisplayName("El sendAsync por defecto interrumpe el envío bloqueante al cancelarse")
+    void shouldInterruptDefaultSendAsync() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        NotificationChannel<EmailNotification> blocking = new NotificationChannel<>() {
+            @Override
+            public NotificationResult send(EmailNotification notification) {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return NotificationResult.failure(notification.getId(), "interrumpido");
+            }
+
+            @Override
+            public ChannelType getChannelType() {
+                return ChannelType.EMAIL;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+
+        CompletableFuture<NotificationResult> future = blocking.sendAsync(email());
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        future.cancel(true);
+
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("El sendAsync por defecto de un proveedor interrumpe su envío bloqueante al cancelarse")
+    void shouldInterruptDefaultProviderSendAsync() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        SmsProvider blocking = new SmsProvider() {
+            @Override
+            public NotificationResult send(SmsNotification notification) {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return NotificationResult.failure(notification.getId(), "interrumpido");
+            }
+
+            @Override
+            public String getProviderName() {
+                return "bloqueante";
+            }
+        };
+
+        CompletableFuture<NotificationResult> future = new SmsChannel(blocking)
+                .sendAsync(SmsNotification.builder().to("+34600000000").message("Hola").build());
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        future.cancel(true);
+
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    private static EmailNotification email() {
+        return EmailNotification.builder().to("ana@mail.com").subject("Asunto").message("Cuerpo").build();
+    }
+
+    // Canal cuyo envío no termina nunca por sí solo
+    private static final class HangingChannel implements NotificationChannel<EmailNotification> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CompletableFuture<NotificationResult> last;
+
+        @Override
+        public NotificationResult send(EmailNotification notification) {
+            return sendAsync(notification).join();
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+            calls.incrementAndGet();
+            last = new CompletableFuture<>();
+            return last;
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.EMAIL;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.notify.core;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.sms.SmsChannel;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.channel.sms.provider.SmsProvider;
+import com.notify.exception.ChannelNotFoundException;
+import com.notify.routing.Router;
+import com.notify.routing.RoutingRule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del ChannelRegistry — reemplazo y retirada de canales en caliente.
+ */
+class ChannelRegistryTest {
+
+    @Test
+    @DisplayName("Un canal reemplazado termina sus envíos en curso y los nuevos van al sustituto")
+    void shouldReplaceChannelWhileSending() throws Exception {
+        StubEmailChannel old = new StubEmailChannel("old");
+        StubEmailChannel replacement = new StubEmailChannel("new");
+        replacement.gate.complete(null);
+        NotificationService service = NotificationService.builder().channel(old).build();
+        ChannelRegistry registry = service.getChannelRegistry();
+
+        CompletableFuture<NotificationResult> inFlight = service.sendAsync(email());
+        assertEquals(1, registry.getInFlight(ChannelType.EMAIL));
+
+        CompletableFuture<Void> drained = registry.register(replacement);
+        assertSame(replacement, registry.get(ChannelType.EMAIL));
+        assertFalse(drained.isDone(), "El canal anterior aún tiene un envío en curso");
+
+        assertEquals("new", service.send(email()).getProviderMessageId());
+
+        old.gate.complete(null);
+        assertEquals("old", inFlight.get(1, TimeUnit.SECONDS).getProviderMessageId());
+        drained.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Un canal retirado deja de aceptar envíos")
+    void shouldDrainChannel() throws Exception {
+        StubEmailChannel channel = new StubEmailChannel("sg");
+        channel.gate.complete(null);
+        NotificationService service = NotificationService.builder().channel(channel).build();
+
+        service.getChannelRegistry().drain(ChannelType.EMAIL).get(1, TimeUnit.SECONDS);
+
+        assertFalse(service.isChannelAvailable(ChannelType.EMAIL));
+        assertThrows(ChannelNotFoundException.class, () -> service.send(email()));
+        assertTrue(service.getChannelRegistry().drain(ChannelType.EMAIL).isDone());
+    }
+
+    @Test
+    @DisplayName("Los destinos de las reglas se reemplazan en el registro sin reconstruir el Router")
+    void shouldReplaceRoutedChannel() throws Exception {
+        StubEmailChannel fallback = new StubEmailChannel("default");
+        StubEmailChannel sendGrid = new StubEmailChannel("sg-old");
+        StubEmailChannel rotated = new StubEmailChannel("sg-new");
+        fallback.gate.complete(null);
+        rotated.gate.complete(null);
+        Router router = Router.builder()
+                .channel("sendgrid", sendGrid)
+                .rule(RoutingRule.builder(ChannelType.EMAIL).recipientDomain("example.com").target("sendgrid").build())
+                .build();
+        NotificationService service = NotificationService.builder().channel(fallback).router(router).build();
+        ChannelRegistry registry = service.getChannelRegistry();
+
+        CompletableFuture<NotificationResult> inFlight = service.sendAsync(email());
+        assertEquals(1, registry.getInFlight("sendgrid"));
+
+        CompletableFuture<Void> drained = registry.register("sendgrid", rotated);
+        assertFalse(drained.isDone(), "El canal anterior aún tiene un envío en curso");
+        assertEquals("sg-new", service.send(email()).getProviderMessageId());
+
+        sendGrid.gate.complete(null);
+        assertEquals("sg-old", inFlight.get(1, TimeUnit.SECONDS).getProviderMessageId());
+        drained.get(1, TimeUnit.SECONDS);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.register("sendgrid", new SmsChannel(new SmsProvider() {
+            @Override
+            public NotificationResult send(SmsNotification notification) {
+                return NotificationResult.success(notification.getId(), "sms");
+            }
+
+            @Override
+            public String getProviderName() {
+                return "sms";
+            }
+        })), "Un destino no cambia de ChannelType");
+
+        registry.drain("sendgrid").get(1, TimeUnit.SECONDS);
+        assertThrows(ChannelNotFoundException.class, () -> service.send(email()),
+                "Una regla cuyo destino se retiró no cae en silencio al canal por defecto");
+    }
+
+    private static EmailNotification email() {
+        return EmailNotification.builder()
+                .to("test@example.com")
+                .subject("Asunto")
+                .message("Cuerpo")
+                .build();
+    }
+
+    private static final class StubEmailChannel implements NotificationChannel<EmailNotification> {
+        private final String providerMessageId;
+        private final CompletableFuture<Void> gate = new CompletableFuture<>();
+
+        private StubEmailChannel(String providerMessageId) {
+            this.providerMessageId = providerMessageId;
+        }
+
+        @Override
+        public NotificationResult send(EmailNotification notification) {
+            return NotificationResult.success(notification.getId(), providerMessageId);
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(EmailNotification notification) {
+            return gate.thenApply(ignored -> send(notification));
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.EMAIL;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
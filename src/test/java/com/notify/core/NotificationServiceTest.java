@@ -4,6 +4,7 @@ import com.notify.channel.email.EmailNotification;
 import com.notify.channel.sms.SmsNotification;
 import com.notify.exception.ChannelNotFoundException;
 import com.notify.exception.ValidationException;
+import com.notify.receipt.DeliveryStatusStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,6 +13,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -211,6 +214,29 @@ class NotificationServiceTest {
 
             assertFalse(result.isSuccess());
         }
+
+        @Test
+        @DisplayName("Registra FAILED en el almacén de estados cuando el canal falla, en sync y async")
+        void shouldTrackChannelExceptions() {
+            DeliveryStatusStore store = DeliveryStatusStore.builder().build();
+            NotificationService tracked = NotificationService.builder()
+                    .channel(emailChannel)
+                    .statusStore(store)
+                    .build();
+            when(emailChannel.send(any())).thenThrow(new RuntimeException("Connection timeout"));
+            when(emailChannel.sendAsync(any())).thenReturn(
+                    CompletableFuture.failedFuture(new RuntimeException("Connection reset")));
+
+            EmailNotification sync = createValidEmail();
+            EmailNotification async = createValidEmail();
+            CompletableFuture<DeliveryStatusStore.StatusEntry> outcome = store.awaitOutcome(async.getId());
+            tracked.send(sync);
+            tracked.sendAsync(async);
+
+            assertEquals(NotificationStatus.FAILED, store.findById(sync.getId()).orElseThrow().status());
+            assertEquals(NotificationStatus.FAILED, outcome.getNow(null).status(),
+                    "Quien espera el resultado no aguarda a su deadline");
+        }
     }
     // TESTS DE ENVÍO EN LOTE
     @Nested
@@ -240,6 +266,79 @@ class NotificationServiceTest {
         }
     }
 
+    // TESTS DE DEADLINE
+    @Nested
+    @DisplayName("Deadline / TTL")
+    class ExpiryTests {
+
+        @Test
+        @DisplayName("No llama al canal si la notificación ya expiró")
+        void shouldDropExpiredNotification() {
+            SmsNotification otp = SmsNotification.builder()
+                    .to("+51999888777")
+                    .message("Tu código es 1234")
+                    .expiresAt(Instant.now().minusSeconds(1))
+                    .build();
+
+            NotificationResult result = service.send(otp);
+
+            assertEquals(NotificationStatus.EXPIRED, result.getStatus());
+            assertFalse(result.isSuccess());
+            verify(smsChannel, never()).send(any());
+        }
+
+        @Test
+        @DisplayName("sendAsync también descarta notificaciones expiradas")
+        void shouldDropExpiredNotificationAsync() {
+            SmsNotification otp = SmsNotification.builder()
+                    .to("+51999888777")
+                    .message("Tu código es 1234")
+                    .ttl(Duration.ofMillis(-1))
+                    .build();
+
+            NotificationResult result = service.sendAsync(otp).join();
+
+            assertEquals(NotificationStatus.EXPIRED, result.getStatus());
+            verify(smsChannel, never()).sendAsync(any());
+        }
+    }
+
+    // TESTS DE FILTROS PREVIOS AL ENVÍO
+    @Nested
+    @DisplayName("Filtros previos al envío")
+    class FilterTests {
+
+        @Test
+        @DisplayName("Un filtro que corta el envío retorna su resultado sin llamar al canal")
+        void shouldStopAtFilter() {
+            NotificationService filtered = NotificationService.builder()
+                    .channel(emailChannel)
+                    .filter(n -> NotificationResult.capped(n.getId(), "límite"))
+                    .build();
+
+            NotificationResult result = filtered.send(createValidEmail());
+            NotificationResult asyncResult = filtered.sendAsync(createValidEmail()).join();
+
+            assertEquals(NotificationStatus.CAPPED, result.getStatus());
+            assertEquals(NotificationStatus.CAPPED, asyncResult.getStatus());
+            verify(emailChannel, never()).send(any());
+            verify(emailChannel, never()).sendAsync(any());
+        }
+
+        @Test
+        @DisplayName("Si ningún filtro corta, el envío continúa")
+        void shouldContinueWhenFiltersPass() {
+            NotificationService filtered = NotificationService.builder()
+                    .channel(emailChannel)
+                    .filter(n -> null)
+                    .build();
+            EmailNotification email = createValidEmail();
+            when(emailChannel.send(any())).thenReturn(NotificationResult.success(email.getId(), "sg-1"));
+
+            assertTrue(filtered.send(email).isSuccess());
+        }
+    }
+
     // TESTS DEL BUILDER
     @Nested
     @DisplayName("Builder del servicio")
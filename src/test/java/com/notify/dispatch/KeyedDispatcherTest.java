@@ -0,0 +1,166 @@
+package com.notify.dispatch;
+
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del KeyedDispatcher — orden por clave y paralelismo entre claves.
+ */
+class KeyedDispatcherTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<CompletableFuture<NotificationResult>> pending = new ArrayList<>();
+
+    @Test
+    @DisplayName("Los envíos de un mismo destinatario salen en orden, uno tras otro")
+    void shouldSerializeSameRecipient() {
+        KeyedDispatcher dispatcher = KeyedDispatcher.builder().lanes(8).build();
+
+        CompletableFuture<NotificationResult> placed = dispatch(dispatcher, sms("+34600000001", "realizado"));
+        dispatch(dispatcher, sms("+34600000001", "enviado"));
+        dispatch(dispatcher, sms("+34600000001", "entregado"));
+
+        assertEquals(List.of("realizado"), started);
+        assertEquals(2, dispatcher.getQueuedCount());
+        assertEquals(1, dispatcher.getInFlightCount());
+
+        completeNext();
+        assertTrue(placed.join().isSuccess());
+        assertEquals(List.of("realizado", "enviado"), started);
+        completeNext();
+        completeNext();
+        assertEquals(List.of("realizado", "enviado", "entregado"), started);
+        assertEquals(0, dispatcher.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Destinatarios en carriles distintos avanzan en paralelo")
+    void shouldRunDifferentLanesInParallel() {
+        KeyedDispatcher dispatcher = KeyedDispatcher.builder().lanes(8).build();
+        SmsNotification first = sms("+34600000001", "a");
+        SmsNotification other = null;
+        for (int i = 2; other == null; i++) {
+            SmsNotification candidate = sms("+3460000000" + i, "b");
+            if (dispatcher.laneOf(candidate) != dispatcher.laneOf(first)) {
+                other = candidate;
+            }
+        }
+
+        dispatch(dispatcher, first);
+        dispatch(dispatcher, other);
+
+        assertEquals(List.of("a", "b"), started);
+        assertEquals(2, dispatcher.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Con productores concurrentes y envíos asíncronos se conserva el orden de cada clave")
+    void shouldPreserveOrderUnderConcurrency() throws Exception {
+        KeyedDispatcher dispatcher = KeyedDispatcher.builder().lanes(16).build();
+        Map<String, List<Integer>> delivered = new ConcurrentHashMap<>();
+        Map<Integer, AtomicInteger> activePerLane = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+        List<CompletableFuture<NotificationResult>> results = new ArrayList<>();
+
+        ExecutorService producers = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<List<CompletableFuture<NotificationResult>>>> batches = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            int producer = p;
+            batches.add(CompletableFuture.supplyAsync(() -> {
+                List<CompletableFuture<NotificationResult>> mine = new ArrayList<>();
+                for (int seq = 0; seq < 300; seq++) {
+                    // Cada productor es dueño de sus destinatarios: su orden de encolado es el esperado
+                    String recipient = "+3460" + producer + "00000" + (seq % 10);
+                    SmsNotification sms = sms(recipient, String.valueOf(seq));
+                    int lane = dispatcher.laneOf(sms);
+                    int order = seq;
+                    mine.add(dispatcher.dispatch(sms, () -> {
+                        if (activePerLane.computeIfAbsent(lane, l -> new AtomicInteger()).incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        delivered.computeIfAbsent(recipient, r -> Collections.synchronizedList(new ArrayList<>())).add(order);
+                        return CompletableFuture.supplyAsync(() -> {
+                            activePerLane.get(lane).decrementAndGet();
+                            return NotificationResult.success(sms.getId(), "m");
+                        }, CompletableFuture.delayedExecutor(ThreadLocalRandom.current().nextInt(200), TimeUnit.MICROSECONDS));
+                    }));
+                }
+                return mine;
+            }, producers));
+        }
+        for (CompletableFuture<List<CompletableFuture<NotificationResult>>> batch : batches) {
+            results.addAll(batch.get(10, TimeUnit.SECONDS));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        producers.shutdown();
+
+        assertEquals(0, overlaps.get(), "Nunca hay dos envíos a la vez en un carril");
+        assertEquals(40, delivered.size());
+        delivered.forEach((recipient, orders) -> {
+            for (int i = 1; i < orders.size(); i++) {
+                assertTrue(orders.get(i) > orders.get(i - 1), recipient + " fuera de orden: " + orders);
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Clave personalizada y cola acotada por carril")
+    void shouldUseCustomKeyAndRejectWhenFull() {
+        KeyedDispatcher dispatcher = KeyedDispatcher.builder()
+                .lanes(4)
+                .key(n -> n.getMetadata().get("orderId"))
+                .maxQueueSize(1)
+                .build();
+
+        dispatch(dispatcher, sms("+34600000001", "a", "pedido-1"));
+        dispatch(dispatcher, sms("+34600000002", "b", "pedido-1"));   // Misma clave, otro destinatario
+        NotificationResult rejected = dispatch(dispatcher, sms("+34600000003", "c", "pedido-1")).join();
+
+        assertEquals(List.of("a"), started);
+        assertEquals(NotificationStatus.FAILED, rejected.getStatus());
+        completeNext();
+        assertEquals(List.of("a", "b"), started);
+    }
+
+    // --- Helpers ---
+
+    private CompletableFuture<NotificationResult> dispatch(KeyedDispatcher dispatcher, SmsNotification sms) {
+        String label = sms.getMessage();
+        return dispatcher.dispatch(sms, () -> {
+            started.add(label);
+            CompletableFuture<NotificationResult> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+    }
+
+    private void completeNext() {
+        CompletableFuture<NotificationResult> future = pending.remove(0);
+        future.complete(NotificationResult.success("id", "msg"));
+    }
+
+    private static SmsNotification sms(String to, String label) {
+        return SmsNotification.builder().to(to).message(label).build();
+    }
+
+    private static SmsNotification sms(String to, String label, String orderId) {
+        return SmsNotification.builder().to(to).message(label).metadata(Map.of("orderId", orderId)).build();
+    }
+}
@@ -0,0 +1,232 @@
+package com.notify.dispatch;
+
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import com.notify.core.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del PriorityDispatcher — orden entre carriles y límites de cola.
+ */
+class PriorityDispatcherTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<CompletableFuture<NotificationResult>> pending = new ArrayList<>();
+
+    @Test
+    @DisplayName("Un CRITICAL adelanta a la cola BULK acumulada")
+    void criticalShouldOvertakeBulkBacklog() {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder().maxConcurrency(1).build();
+
+        for (int i = 0; i < 4; i++) {
+            dispatch(dispatcher, sms("bulk-" + i, Priority.BULK));
+        }
+        CompletableFuture<NotificationResult> otp = dispatch(dispatcher, sms("otp", Priority.CRITICAL));
+
+        assertEquals(List.of("bulk-0"), started);
+        assertEquals(3, dispatcher.getQueuedCount(Priority.BULK));
+        assertEquals(1, dispatcher.getQueuedCount(Priority.CRITICAL));
+
+        completeNext();
+
+        assertEquals(List.of("bulk-0", "otp"), started);
+        completeNext();
+        assertTrue(otp.join().isSuccess());
+        assertEquals(0, dispatcher.getQueuedCount(Priority.CRITICAL));
+    }
+
+    @Test
+    @DisplayName("La prioridad puede venir del metadata 'priority'")
+    void shouldReadPriorityFromMetadata() {
+        SmsNotification sms = SmsNotification.builder()
+                .to("+34600000000")
+                .message("Oferta")
+                .metadata(Map.of("priority", "marketing"))
+                .build();
+
+        assertEquals(Priority.BULK, sms.getPriority());
+    }
+
+    @Test
+    @DisplayName("Rechaza con FAILED cuando la cola del carril está llena")
+    void shouldRejectWhenLaneQueueIsFull() {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder()
+                .maxConcurrency(1)
+                .lane(Priority.NORMAL, LaneConfig.builder().maxQueueSize(1).build())
+                .build();
+
+        dispatch(dispatcher, sms("n-0", Priority.NORMAL));   // en curso
+        dispatch(dispatcher, sms("n-1", Priority.NORMAL));   // encolado
+        NotificationResult rejected = dispatch(dispatcher, sms("n-2", Priority.NORMAL)).join();
+
+        assertFalse(rejected.isSuccess());
+        assertTrue(rejected.getErrorMessage().contains("NORMAL"));
+        assertEquals(1, dispatcher.getQueuedCount());
+    }
+
+    @Test
+    @DisplayName("WEIGHTED no deja a BULK sin servicio ante tráfico HIGH constante")
+    void weightedShouldNotStarveBulk() {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder()
+                .maxConcurrency(1)
+                .scheduling(PriorityDispatcher.Scheduling.WEIGHTED)
+                .build();
+
+        dispatch(dispatcher, sms("first", Priority.HIGH));
+        for (int i = 0; i < 10; i++) {
+            dispatch(dispatcher, sms("high-" + i, Priority.HIGH));
+        }
+        dispatch(dispatcher, sms("bulk", Priority.BULK));
+
+        for (int i = 0; i < 6; i++) {
+            completeNext();
+        }
+
+        assertTrue(started.contains("bulk"), "BULK debe atenderse antes de vaciar HIGH: " + started);
+    }
+
+    @Test
+    @DisplayName("Descarta con EXPIRED lo que caduca mientras espera en cola")
+    void shouldExpireWhileQueued() throws Exception {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder().maxConcurrency(1).build();
+
+        dispatch(dispatcher, sms("slow", Priority.NORMAL));
+        SmsNotification otp = SmsNotification.builder()
+                .to("+34600000000")
+                .message("otp")
+                .priority(Priority.CRITICAL)
+                .ttl(Duration.ofMillis(20))
+                .build();
+        CompletableFuture<NotificationResult> result = dispatch(dispatcher, otp);
+
+        Thread.sleep(50);
+        completeNext();
+
+        assertEquals(NotificationStatus.EXPIRED, result.join().getStatus());
+        assertEquals(List.of("slow"), started);
+        assertEquals(0, dispatcher.getInFlightCount());
+    }
+
+    @Test
+    @DisplayName("Con la cola por encima del objetivo descarta primero BULK, con estado SHED")
+    void shouldShedLowestPriorityFirst() throws Exception {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder()
+                .maxConcurrency(1)
+                .loadShedding(new CoDel(Duration.ofMillis(5), Duration.ofMillis(20)))
+                .build();
+
+        dispatch(dispatcher, sms("n-0", Priority.NORMAL));
+        dispatch(dispatcher, sms("n-1", Priority.NORMAL));
+        dispatch(dispatcher, sms("n-2", Priority.NORMAL));
+        dispatch(dispatcher, sms("n-3", Priority.NORMAL));
+        CompletableFuture<NotificationResult> bulk = dispatch(dispatcher, sms("bulk", Priority.BULK));
+
+        Thread.sleep(30);
+        completeNext();            // n-1 supera el objetivo: empieza la ventana
+        assertFalse(dispatcher.isShedding());
+        Thread.sleep(30);
+        completeNext();            // sigue por encima tras la ventana: se descarta BULK
+
+        assertEquals(NotificationStatus.SHED, bulk.join().getStatus());
+        assertEquals(List.of("n-0", "n-1", "n-2"), started);
+        assertTrue(dispatcher.isShedding());
+        assertEquals(1, dispatcher.getShedCount());
+
+        // Mientras dura la sobrecarga, los BULK nuevos se descartan al llegar
+        NotificationResult late = dispatch(dispatcher, sms("bulk-2", Priority.BULK)).join();
+        assertEquals(NotificationStatus.SHED, late.getStatus());
+        assertFalse(started.contains("bulk-2"));
+    }
+
+    @Test
+    @DisplayName("El tráfico CRITICAL rápido no interrumpe el descarte de BULK")
+    void fastCriticalTrafficShouldNotStopShedding() throws Exception {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder()
+                .maxConcurrency(1)
+                .loadShedding(new CoDel(Duration.ofMillis(5), Duration.ofMillis(20)))
+                .build();
+
+        for (int i = 0; i < 4; i++) {
+            dispatch(dispatcher, sms("n-" + i, Priority.NORMAL));
+        }
+        CompletableFuture<NotificationResult> bulk = dispatch(dispatcher, sms("bulk", Priority.BULK));
+        Thread.sleep(30);
+        completeNext();
+        Thread.sleep(30);
+        completeNext();
+        assertEquals(NotificationStatus.SHED, bulk.join().getStatus());
+
+        dispatch(dispatcher, sms("otp", Priority.CRITICAL));
+        completeNext();            // El OTP sale sin esperar
+
+        assertEquals("otp", started.get(started.size() - 1));
+        assertTrue(dispatcher.isShedding(), "NORMAL sigue sobrecargado");
+        NotificationResult late = dispatch(dispatcher, sms("bulk-2", Priority.BULK)).join();
+        assertEquals(NotificationStatus.SHED, late.getStatus());
+    }
+
+    @Test
+    @DisplayName("Un carril que se vacía en modo descarte deja de bloquear a BULK")
+    void shouldStopSheddingWhenLaneDrains() throws Exception {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder()
+                .maxConcurrency(1)
+                .loadShedding(new CoDel(Duration.ofMillis(5), Duration.ofMillis(20)))
+                .build();
+
+        for (int i = 0; i < 4; i++) {
+            dispatch(dispatcher, sms("n-" + i, Priority.NORMAL));
+        }
+        CompletableFuture<NotificationResult> bulk = dispatch(dispatcher, sms("bulk", Priority.BULK));
+        Thread.sleep(30);
+        completeNext();
+        Thread.sleep(30);
+        completeNext();
+        assertEquals(NotificationStatus.SHED, bulk.join().getStatus());
+        assertTrue(dispatcher.isShedding());
+
+        completeNext();            // Sale n-3, el último: NORMAL queda vacío
+        assertEquals(0, dispatcher.getQueuedCount(Priority.NORMAL));
+        assertFalse(dispatcher.isShedding(), "Un carril vacío no está sobrecargado");
+
+        completeNext();
+        CompletableFuture<NotificationResult> accepted = dispatch(dispatcher, sms("bulk-2", Priority.BULK));
+        assertEquals("bulk-2", started.get(started.size() - 1), "BULK vuelve a aceptarse");
+        completeNext();
+        assertEquals(NotificationStatus.SENT, accepted.join().getStatus());
+    }
+
+    // --- Helpers ---
+
+    private CompletableFuture<NotificationResult> dispatch(PriorityDispatcher dispatcher, SmsNotification sms) {
+        String label = sms.getMessage();
+        return dispatcher.dispatch(sms, () -> {
+            started.add(label);
+            CompletableFuture<NotificationResult> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+    }
+
+    private void completeNext() {
+        CompletableFuture<NotificationResult> future = pending.remove(0);
+        future.complete(NotificationResult.success("id", "msg"));
+    }
+
+    private static SmsNotification sms(String label, Priority priority) {
+        return SmsNotification.builder()
+                .to("+34600000000")
+                .message(label)
+                .priority(priority)
+                .build();
+    }
+}
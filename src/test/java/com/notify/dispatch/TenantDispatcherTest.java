@@ -0,0 +1,160 @@
+package com.notify.dispatch;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.core.Notification;
+import com.notify.core.NotificationResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del TenantDispatcher — reparto justo y bulkheads por tenant.
+ */
+class TenantDispatcherTest {
+
+    private final List<String> started = new ArrayList<>();
+    private final List<CompletableFuture<NotificationResult>> pending = new ArrayList<>();
+
+    @Test
+    @DisplayName("Un tenant ruidoso no retrasa al resto más de una ronda")
+    void noisyTenantShouldNotDelayOthers() {
+        TenantDispatcher dispatcher = TenantDispatcher.builder().maxConcurrency(1).build();
+
+        for (int i = 0; i < 50; i++) {
+            dispatch(dispatcher, email("marketing", "blast-" + i));
+        }
+        dispatch(dispatcher, email("payments", "receipt"));
+
+        completeNext();
+        completeNext();
+
+        assertEquals(List.of("blast-0", "receipt", "blast-1"), started);
+        assertEquals(48, dispatcher.getQueuedCount("marketing"));
+    }
+
+    @Test
+    @DisplayName("El peso reparte los envíos en proporción entre tenants")
+    void shouldShareByWeight() {
+        TenantDispatcher dispatcher = TenantDispatcher.builder()
+                .maxConcurrency(1)
+                .tenant("a", LaneConfig.builder().weight(3).build())
+                .tenant("b", LaneConfig.builder().weight(1).build())
+                .build();
+
+        dispatch(dispatcher, email("a", "a-0"));   // ocupa el único hueco
+        for (int i = 1; i <= 20; i++) {
+            dispatch(dispatcher, email("a", "a-" + i));
+            dispatch(dispatcher, email("b", "b-" + i));
+        }
+        for (int i = 0; i < 16; i++) {
+            completeNext();
+        }
+
+        long a = started.stream().skip(1).filter(s -> s.startsWith("a")).count();
+        long b = started.stream().skip(1).filter(s -> s.startsWith("b")).count();
+        assertEquals(12, a);
+        assertEquals(4, b);
+    }
+
+    @Test
+    @DisplayName("La concurrencia de un tenant está acotada aunque sobre capacidad global")
+    void shouldCapTenantConcurrency() {
+        TenantDispatcher dispatcher = TenantDispatcher.builder()
+                .maxConcurrency(10)
+                .defaultTenant(LaneConfig.builder().maxConcurrency(2).build())
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            dispatch(dispatcher, email("batch", "m-" + i));
+        }
+        dispatch(dispatcher, email("other", "o-0"));
+
+        assertEquals(2, dispatcher.getInFlightCount("batch"));
+        assertEquals(1, dispatcher.getInFlightCount("other"));
+        assertEquals(3, dispatcher.getQueuedCount());
+    }
+
+    @Test
+    @DisplayName("El tenant se toma del builder, de metadata 'tenant' o es 'default'")
+    void shouldResolveTenant() {
+        EmailNotification fromMetadata = EmailNotification.builder()
+                .to("a@b.com").subject("s").message("m")
+                .metadata(Map.of("tenant", "billing"))
+                .build();
+        EmailNotification none = EmailNotification.builder()
+                .to("a@b.com").subject("s").message("m")
+                .build();
+
+        assertEquals("billing", fromMetadata.getTenantId());
+        assertEquals(Notification.DEFAULT_TENANT, none.getTenantId());
+        assertEquals("ops", email("ops", "x").getTenantId());
+    }
+
+    @Test
+    @DisplayName("El carril de un tenant inactivo se retira y se recrea si vuelve a enviar")
+    void shouldRetireIdleTenantLanes() throws Exception {
+        TenantDispatcher dispatcher = TenantDispatcher.builder().idleTimeout(Duration.ofMillis(1)).build();
+
+        dispatch(dispatcher, email("campaña-1", "a"));
+        completeNext();
+        Thread.sleep(5);
+        dispatch(dispatcher, email("campaña-2", "b"));
+
+        assertEquals(Set.of("campaña-2"), dispatcher.getTenants());
+
+        dispatch(dispatcher, email("campaña-1", "c"));
+        assertEquals(List.of("a", "b", "c"), started);
+        assertEquals(Set.of("campaña-1", "campaña-2"), dispatcher.getTenants());
+    }
+
+    @Test
+    @DisplayName("Superado maxTenants, los tenants nuevos sin configuración comparten carril")
+    void shouldFoldOverflowTenantsIntoSharedLane() {
+        TenantDispatcher dispatcher = TenantDispatcher.builder()
+                .maxTenants(2)
+                .tenant("payments", LaneConfig.builder().build())
+                .build();
+
+        dispatch(dispatcher, email("a", "a"));
+        dispatch(dispatcher, email("b", "b"));
+        dispatch(dispatcher, email("c", "c"));
+        dispatch(dispatcher, email("d", "d"));
+        dispatch(dispatcher, email("payments", "p"));
+
+        assertEquals(Set.of("a", "b", "payments"), dispatcher.getTenants());
+        assertEquals(List.of("a", "b", "c", "d", "p"), started);
+    }
+
+    // --- Helpers ---
+
+    private void dispatch(TenantDispatcher dispatcher, EmailNotification email) {
+        String label = email.getMessage();
+        dispatcher.dispatch(email, () -> {
+            started.add(label);
+            CompletableFuture<NotificationResult> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+    }
+
+    private void completeNext() {
+        pending.remove(0).complete(NotificationResult.success("id", "msg"));
+    }
+
+    private static EmailNotification email(String tenant, String label) {
+        return EmailNotification.builder()
+                .to("user@example.com")
+                .subject("Test")
+                .message(label)
+                .tenant(tenant)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.notify.event;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.push.PushNotification;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.core.NotificationStatus;
+import com.notify.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del envío de un evento por varios canales en paralelo.
+ */
+class EventFanOutTest {
+
+    private final NotificationChannel<EmailNotification> email = channel(ChannelType.EMAIL);
+    private final NotificationChannel<PushNotification> push = channel(ChannelType.PUSH_NOTIFICATION);
+    private final NotificationChannel<SmsNotification> sms = channel(ChannelType.SMS);
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = NotificationService.builder().channel(email).channel(push).channel(sms).build();
+    }
+
+    @Test
+    @DisplayName("Los canales se envían en paralelo y el resultado agrega cada uno")
+    void shouldSendAllChannelsInParallel() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        for (NotificationChannel<?> channel : new NotificationChannel<?>[]{email, push, sms}) {
+            when(channel.send(any())).thenAnswer(invocation -> {
+                allStarted.countDown();
+                assertTrue(allStarted.await(2, TimeUnit.SECONDS), "Los tres canales corren a la vez");
+                return NotificationResult.success("id", channel.getChannelType().name());
+            });
+        }
+
+        EventResult result = service.sendEvent(event().build());
+
+        assertTrue(result.isAllSent());
+        assertEquals("SMS", result.get(ChannelType.SMS).getProviderMessageId());
+    }
+
+    @Test
+    @DisplayName("Un error fatal cancela los canales que siguen en curso")
+    void shouldCancelOnFatalError() {
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch othersStarted = new CountDownLatch(2);
+        when(email.send(any())).thenAnswer(invocation -> {
+            othersStarted.await(2, TimeUnit.SECONDS);
+            return NotificationResult.failure("id", "cuenta suspendida");
+        });
+        when(push.send(any())).thenAnswer(invocation -> {
+            othersStarted.countDown();
+            return block(interrupted);
+        });
+        when(sms.send(any())).thenAnswer(invocation -> {
+            othersStarted.countDown();
+            return block(interrupted);
+        });
+
+        EventResult result = service.sendEvent(event().cancelOnFailure().build());
+
+        assertEquals(0, result.getSentCount());
+        assertTrue(result.get(ChannelType.PUSH_NOTIFICATION).getErrorMessage().contains("EMAIL"));
+        assertTrue(interrupted.get(), "El hilo del canal cancelado se interrumpe");
+    }
+
+    @Test
+    @DisplayName("Los canales que no terminan antes del plazo del evento se cancelan")
+    void shouldCancelOnDeadline() {
+        when(email.send(any())).thenReturn(NotificationResult.success("id", "sg-1"));
+        when(push.send(any())).thenAnswer(invocation -> block(new AtomicBoolean()));
+        when(sms.send(any())).thenReturn(NotificationResult.success("id", "SM1"));
+
+        EventResult result = service.sendEvent(event().deadline(Duration.ofMillis(100)).build());
+
+        assertEquals(2, result.getSentCount());
+        assertEquals(NotificationStatus.FAILED, result.get(ChannelType.PUSH_NOTIFICATION).getStatus());
+    }
+
+    @Test
+    @DisplayName("Si una notificación es inválida no se envía ninguna")
+    void shouldValidateBeforeSending() {
+        NotificationEvent invalid = NotificationEvent.builder("pedido-enviado")
+                .notification(EmailNotification.builder().to("no-es-email").subject("S").message("M").build())
+                .notification(SmsNotification.builder().to("+34600000000").message("Enviado").build())
+                .build();
+
+        assertThrows(ValidationException.class, () -> service.sendEvent(invalid));
+        verify(sms, never()).send(any());
+    }
+
+    private static NotificationResult block(AtomicBoolean interrupted) {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.set(true);
+        }
+        return NotificationResult.failure("id", "interrumpido");
+    }
+
+    private static NotificationEvent.Builder event() {
+        return NotificationEvent.builder("pedido-enviado")
+                .notification(EmailNotification.builder().to("ana@mail.com").subject("Pedido").message("Enviado").build())
+                .notification(PushNotification.builder().deviceToken("device-token-123").title("Pedido").message("Enviado").build())
+                .notification(SmsNotification.builder().to("+34600000000").message("Enviado").build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends com.notify.core.Notification> NotificationChannel<T> channel(ChannelType type) {
+        NotificationChannel<T> channel = mock(NotificationChannel.class);
+        lenient().when(channel.getChannelType()).thenReturn(type);
+        return channel;
+    }
+}
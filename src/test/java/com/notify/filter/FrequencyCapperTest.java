@@ -0,0 +1,239 @@
+package com.notify.filter;
+
+import com.notify.channel.push.PushNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.core.NotificationStatus;
+import com.notify.core.Priority;
+import com.notify.dispatch.CoDel;
+import com.notify.dispatch.PriorityDispatcher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del FrequencyCapper — límite por destinatario en ventana deslizante.
+ */
+class FrequencyCapperTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    private FrequencyCapper capper(int limit) {
+        return FrequencyCapper.builder()
+                .limit(limit)
+                .window(Duration.ofHours(24))
+                .buckets(24)
+                .sketch(3, 1 << 12)
+                .clock(clock)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Corta con CAPPED al superar N envíos BULK por destinatario")
+    void shouldCapAfterLimit() {
+        FrequencyCapper capper = capper(3);
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(capper.apply(push("token-ana", Priority.BULK)));
+        }
+        NotificationResult capped = capper.apply(push("token-ana", Priority.BULK));
+
+        assertEquals(NotificationStatus.CAPPED, capped.getStatus());
+        assertNull(capper.apply(push("token-luis", Priority.BULK)), "Otro destinatario tiene su propio contador");
+        assertNull(capper.apply(push("token-ana", Priority.HIGH)), "Por defecto solo se limita BULK");
+    }
+
+    @Test
+    @DisplayName("Los envíos salen de la ventana al deslizarse")
+    void shouldSlideWindow() {
+        FrequencyCapper capper = capper(2);
+
+        capper.apply(push("token-ana", Priority.BULK));
+        clock.advance(Duration.ofHours(12));
+        capper.apply(push("token-ana", Priority.BULK));
+        assertNotNull(capper.apply(push("token-ana", Priority.BULK)));
+
+        clock.advance(Duration.ofHours(13));   // el primero ya quedó fuera de las 24h
+
+        assertNull(capper.apply(push("token-ana", Priority.BULK)));
+        assertEquals(2, capper.estimate(Fingerprint.of(ChannelType.PUSH_NOTIFICATION, "token-ana")));
+    }
+
+    @Test
+    @DisplayName("El snapshot conserva los contadores de la ventana")
+    void shouldRestoreSnapshot(@TempDir Path dir) throws Exception {
+        FrequencyCapper original = capper(2);
+        original.apply(push("token-ana", Priority.BULK));
+        original.apply(push("token-ana", Priority.BULK));
+        Path file = dir.resolve("capping.bin");
+
+        original.snapshotTo(file);
+        FrequencyCapper restored = capper(2);
+        restored.restoreFrom(file);
+
+        assertNotNull(restored.apply(push("token-ana", Priority.BULK)));
+        assertNull(restored.apply(push("token-luis", Priority.BULK)));
+    }
+
+    @Test
+    @DisplayName("Rechaza un snapshot generado con otra configuración")
+    void shouldRejectIncompatibleSnapshot(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("capping.bin");
+        capper(2).snapshotTo(file);
+
+        FrequencyCapper other = FrequencyCapper.builder().sketch(2, 1 << 10).clock(clock).build();
+
+        assertThrows(IOException.class, () -> other.restoreFrom(file));
+    }
+
+    @Test
+    @DisplayName("Dimensionado con expectedSends: menos de un 0,5% de cortes indebidos a plena carga")
+    void shouldStayAccurateAtSizedLoad() {
+        int users = 100_000;
+        int sends = 200_000;
+        FrequencyCapper capper = FrequencyCapper.builder()
+                .limit(3)
+                .window(Duration.ofHours(8))
+                .buckets(8)
+                .expectedSends(sends)
+                .clock(clock)
+                .build();
+        Random random = new Random(42);
+        int[] sent = new int[users];
+        int legitimate = 0;
+        int falseCaps = 0;
+
+        // Una ventana completa de envíos uniformes a destinatarios al azar
+        long stepMillis = Duration.ofHours(8).toMillis() / sends;
+        for (int i = 0; i < sends; i++) {
+            clock.advance(Duration.ofMillis(stepMillis));
+            int user = random.nextInt(users);
+            boolean allowed = capper.tryAcquire(Fingerprint.exact("user-" + user));
+            if (sent[user] < 3) {
+                legitimate++;
+                if (!allowed) {
+                    falseCaps++;
+                }
+            }
+            if (allowed) {
+                sent[user]++;
+            }
+        }
+
+        for (int count : sent) {
+            assertTrue(count <= 3, "El sketch nunca deja pasar de más");
+        }
+        assertTrue(falseCaps < legitimate * 0.005, "Cortes indebidos: " + falseCaps + " de " + legitimate);
+    }
+
+    @Test
+    @DisplayName("Un BULK descartado en la cola del dispatcher no consume cupo")
+    void shouldNotCountShedNotifications() throws Exception {
+        FrequencyCapper capper = capper(1);
+        Queue<CompletableFuture<NotificationResult>> calls = new ConcurrentLinkedQueue<>();
+        NotificationService service = NotificationService.builder()
+                .channel(new HeldPushChannel(calls))
+                .dispatcher(PriorityDispatcher.builder()
+                        .maxConcurrency(1)
+                        .loadShedding(new CoDel(Duration.ofMillis(5), Duration.ofMillis(20)))
+                        .build())
+                .filter(capper)
+                .build();
+
+        for (int i = 0; i < 4; i++) {
+            service.sendAsync(push("token-normal-" + i, Priority.NORMAL));
+        }
+        CompletableFuture<NotificationResult> bulk = service.sendAsync(push("token-ana-0001", Priority.BULK));
+        Thread.sleep(30);
+        calls.poll().complete(NotificationResult.success("n", "ok"));
+        Thread.sleep(30);
+        calls.poll().complete(NotificationResult.success("n", "ok"));
+
+        assertEquals(NotificationStatus.SHED, bulk.join().getStatus());
+        assertEquals(0, capper.estimate(Fingerprint.of(ChannelType.PUSH_NOTIFICATION, "token-ana-0001")),
+                "El descarte no cuenta como envío");
+
+        CompletableFuture<NotificationResult> call;
+        while ((call = calls.poll()) != null) {
+            call.complete(NotificationResult.success("n", "ok"));
+        }
+    }
+
+    private static PushNotification push(String token, Priority priority) {
+        return PushNotification.builder()
+                .deviceToken(token)
+                .title("Oferta")
+                .message("50% de descuento")
+                .priority(priority)
+                .build();
+    }
+
+    private static final class HeldPushChannel implements NotificationChannel<PushNotification> {
+        private final Queue<CompletableFuture<NotificationResult>> calls;
+
+        HeldPushChannel(Queue<CompletableFuture<NotificationResult>> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public NotificationResult send(PushNotification notification) {
+            return sendAsync(notification).join();
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(PushNotification notification) {
+            CompletableFuture<NotificationResult> call = new CompletableFuture<>();
+            calls.add(call);
+            return call;
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.PUSH_NOTIFICATION;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
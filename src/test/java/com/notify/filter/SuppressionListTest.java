@@ -0,0 +1,91 @@
+package com.notify.filter;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la SuppressionList — conjunto de huellas fuera del heap con Bloom delante.
+ */
+class SuppressionListTest {
+
+    private final SuppressionList list = SuppressionList.builder().expectedSize(1_000).build();
+
+    @Test
+    @DisplayName("Un destinatario suprimido devuelve SUPPRESSED")
+    void shouldSuppressRecipient() {
+        list.add(ChannelType.EMAIL, "Rebote@Mail.com");
+
+        NotificationResult result = list.apply(email("rebote@mail.com"));
+
+        assertEquals(NotificationStatus.SUPPRESSED, result.getStatus());
+        assertNull(list.apply(email("activo@mail.com")));
+        assertFalse(list.contains(ChannelType.SMS, "rebote@mail.com"), "La huella depende del canal");
+    }
+
+    @Test
+    @DisplayName("Altas y bajas incrementales, incluso más allá del tamaño previsto")
+    void shouldAddAndRemoveIncrementally() {
+        for (long i = 0; i < 5_000; i++) {
+            assertTrue(list.add(i));
+        }
+        assertFalse(list.add(42));
+
+        for (long i = 0; i < 5_000; i += 2) {
+            assertTrue(list.remove(i));
+        }
+
+        assertEquals(2_500, list.size());
+        for (long i = 0; i < 5_000; i++) {
+            assertEquals(i % 2 == 1, list.contains(i), "huella " + i);
+        }
+        assertTrue(list.add(0), "Se puede volver a suprimir tras una baja");
+        assertTrue(list.contains(0));
+    }
+
+    @Test
+    @DisplayName("Carga desde fichero ordenado y regenera el mismo fichero")
+    void shouldRoundTripSortedFile(@TempDir Path dir) throws Exception {
+        list.add(ChannelType.SMS, "+51999888777");
+        list.add(ChannelType.PUSH_NOTIFICATION, "token-invalido");
+        list.add(-7);
+        Path file = dir.resolve("suppression.bin");
+
+        list.writeSorted(file);
+        SuppressionList loaded = SuppressionList.builder().build();
+        int added = loaded.loadSorted(file);
+
+        assertEquals(3, added);
+        assertTrue(loaded.contains(ChannelType.SMS, "+51999888777"));
+        assertTrue(loaded.contains(ChannelType.PUSH_NOTIFICATION, "token-invalido"));
+        assertTrue(loaded.contains(-7));
+    }
+
+    @Test
+    @DisplayName("Rechaza un fichero desordenado")
+    void shouldRejectUnsortedFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("suppression.bin");
+        Files.write(file, ByteBuffer.allocate(16).putLong(5).putLong(3).array());
+
+        assertThrows(IOException.class, () -> list.loadSorted(file));
+    }
+
+    private static EmailNotification email(String to) {
+        return EmailNotification.builder()
+                .to(to)
+                .subject("Novedades")
+                .message("Hola")
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.notify.jfr;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.dispatch.PriorityDispatcher;
+import com.notify.exception.SendException;
+import com.notify.retry.RetryExecutor;
+import com.notify.retry.RetryPolicy;
+import com.notify.template.MessageTemplate;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los eventos JFR del pipeline de envío.
+ */
+class NotificationEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static class StubEmailChannel implements NotificationChannel<EmailNotification> {
+        @Override
+        public NotificationResult send(EmailNotification notification) {
+            return NotificationResult.success(notification.getId(), "stub-1");
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.EMAIL;
+        }
+
+        @Override
+        public String getProviderName() {
+            return "StubProvider";
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+
+    private EmailNotification createEmail() {
+        return EmailNotification.builder()
+                .to("test@example.com")
+                .subject("Hi")
+                .message("Hello")
+                .build();
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws Exception {
+        Path file = tempDir.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.notify.*");
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .toList();
+    }
+
+    @Test
+    @DisplayName("send y sendAsync emiten eventos de validación, cola y proveedor")
+    void shouldEmitPipelineEvents() throws Exception {
+        NotificationService service = NotificationService.builder()
+                .channel(new StubEmailChannel())
+                .build();
+        EmailNotification email = createEmail();
+
+        List<RecordedEvent> events = record(() -> {
+            service.send(email);
+            service.sendAsync(email).join();
+        });
+
+        List<RecordedEvent> validations = ofType(events, "com.notify.Validation");
+        assertEquals(2, validations.size());
+        assertEquals("VALID", validations.get(0).getString("outcome"));
+
+        List<RecordedEvent> calls = ofType(events, "com.notify.ProviderCall");
+        assertEquals(2, calls.size());
+        RecordedEvent call = calls.get(0);
+        assertEquals(email.getId(), call.getString("notificationId"));
+        assertEquals("EMAIL", call.getString("channel"));
+        assertEquals("StubProvider", call.getString("provider"));
+        assertEquals("SENT", call.getString("outcome"));
+
+        assertEquals(1, ofType(events, "com.notify.Queue").size());
+    }
+
+    @Test
+    @DisplayName("La espera en la cola del dispatcher se registra con el proveedor del canal")
+    void shouldTagDispatcherQueueEventsWithProvider() throws Exception {
+        NotificationService service = NotificationService.builder()
+                .channel(new StubEmailChannel())
+                .dispatcher(PriorityDispatcher.builder().build())
+                .build();
+
+        List<RecordedEvent> events = record(() -> service.sendAsync(createEmail()).join());
+
+        List<RecordedEvent> queued = ofType(events, "com.notify.Queue");
+        assertFalse(queued.isEmpty());
+        queued.forEach(event -> assertEquals("StubProvider", event.getString("provider")));
+    }
+
+    @Test
+    @DisplayName("RetryExecutor emite un evento por intento con su resultado")
+    void shouldEmitOneEventPerRetryAttempt() throws Exception {
+        RetryExecutor executor = new RetryExecutor(RetryPolicy.builder()
+                .maxAttempts(3)
+                .initialDelayMs(0)
+                .build());
+        EmailNotification email = createEmail();
+        AtomicInteger calls = new AtomicInteger();
+
+        List<RecordedEvent> events = record(() -> executor.execute(email, () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new SendException("HTTP 503");
+            }
+            return NotificationResult.success(email.getId(), "ok");
+        }));
+
+        List<RecordedEvent> attempts = ofType(events, "com.notify.RetryAttempt");
+        assertEquals(3, attempts.size());
+        assertEquals("EXCEPTION", attempts.get(0).getString("outcome"));
+        assertEquals(1, attempts.get(0).getInt("attempt"));
+        assertEquals("SENT", attempts.get(2).getString("outcome"));
+        assertEquals(email.getId(), attempts.get(2).getString("notificationId"));
+    }
+
+    @Test
+    @DisplayName("MessageTemplate.render emite evento de renderizado")
+    void shouldEmitTemplateRenderEvent() throws Exception {
+        MessageTemplate template = MessageTemplate.of("Hola {{nombre}}");
+
+        List<RecordedEvent> events = record(() -> template.render(Map.of("nombre", "Ana")));
+
+        List<RecordedEvent> renders = ofType(events, "com.notify.TemplateRender");
+        assertEquals(1, renders.size());
+        assertEquals("RENDERED", renders.get(0).getString("outcome"));
+        assertEquals(1, renders.get(0).getInt("variables"));
+    }
+}
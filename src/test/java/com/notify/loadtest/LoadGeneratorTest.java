@@ -0,0 +1,151 @@
+package com.notify.loadtest;
+
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.core.NotificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del generador de carga y de su histograma.
+ */
+class LoadGeneratorTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("El histograma acota el error relativo y calcula percentiles")
+    void shouldComputePercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 / 128.0);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 / 128.0);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+
+        for (long value : new long[]{0, 255, 256, 257, 1_000_003, Long.MAX_VALUE / 3}) {
+            long upper = LatencyHistogram.highestEquivalent(LatencyHistogram.indexOf(value));
+            assertTrue(upper >= value && upper - value <= value / 128, "Valor " + value);
+        }
+    }
+
+    @Test
+    @DisplayName("La carga sale a la tasa objetivo y el informe agrega por canal y proveedor")
+    void shouldDriveServiceAtTargetRate() throws IOException {
+        StubChannel channel = new StubChannel(Duration.ofMillis(10));
+        LoadReport report = LoadGenerator.builder(NotificationService.builder().channel(channel).build())
+                .rate(200)
+                .duration(Duration.ofSeconds(1))
+                .warmup(Duration.ZERO)
+                .traffic(1, LoadGeneratorTest::sms)
+                .build()
+                .run();
+
+        assertEquals(200, report.getSentCount());
+        assertEquals(200, report.getCompletedCount());
+        assertEquals(0, report.getUnfinishedCount());
+        assertEquals(200, report.getTotal().getCount(NotificationStatus.SENT));
+        assertTrue(report.getTotal().getLatency().getValueAtPercentile(50) >= 10 * MS);
+        assertEquals(200, report.getChannels().get(ChannelType.SMS).getLatency().getCount());
+        assertEquals(200, report.getProviders().get("Stub").getLatency().getCount());
+        assertTrue(report.getQueues().get("generator").samples() > 0);
+
+        assertTrue(report.toText().contains("[Stub]"));
+        assertTrue(report.toJson().contains("\"providers\":{\"Stub\":{\"count\":200"));
+        StringBuilder hgrm = new StringBuilder();
+        report.writeHistogramLog(hgrm);
+        assertTrue(hgrm.toString().contains("1/(1-Percentile)"));
+        assertTrue(hgrm.toString().contains("# SMS"));
+    }
+
+    @Test
+    @DisplayName("Un atasco se refleja en la latencia de los envíos que debían salir durante él")
+    void shouldCorrectCoordinatedOmission() {
+        StubChannel channel = new StubChannel(Duration.ZERO);
+        channel.stall = Duration.ofMillis(300);
+        LoadReport report = LoadGenerator.builder(NotificationService.builder().channel(channel).build())
+                .rate(100)
+                .duration(Duration.ofSeconds(1))
+                .warmup(Duration.ZERO)
+                .traffic(1, LoadGeneratorTest::sms)
+                .build()
+                .run();
+
+        LatencyHistogram latency = report.getTotal().getLatency();
+        assertEquals(100, latency.getCount());
+        assertTrue(latency.getMax() >= 250 * MS, "El envío atascado: " + latency.getMax());
+        // ~30 envíos esperaban tras el atasco: sin corrección su latencia sería ~0
+        assertTrue(latency.getValueAtPercentile(90) >= 150 * MS, "p90: " + latency.getValueAtPercentile(90));
+        assertTrue(latency.getValueAtPercentile(50) < 150 * MS, "p50: " + latency.getValueAtPercentile(50));
+    }
+
+    private static SmsNotification sms() {
+        return SmsNotification.builder().to("+51999888777").message("Carga").build();
+    }
+
+    // Canal con latencia fija; con stall, el primer envío bloquea al llamador
+    private static final class StubChannel implements NotificationChannel<SmsNotification> {
+        private final Duration latency;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private volatile Duration stall;
+
+        private StubChannel(Duration latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public NotificationResult send(SmsNotification notification) {
+            return sendAsync(notification).join();
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(SmsNotification notification) {
+            calls.incrementAndGet();
+            if (stall != null && stalled.compareAndSet(false, true)) {
+                try {
+                    Thread.sleep(stall.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            NotificationResult result = NotificationResult.success(notification.getId(), "SM" + calls.get());
+            if (latency.isZero()) {
+                return CompletableFuture.completedFuture(result);
+            }
+            return CompletableFuture.supplyAsync(() -> result,
+                    CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return ChannelType.SMS;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String getProviderName() {
+            return "Stub";
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.notify.plan;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.push.PushNotification;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.Notification;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import com.notify.core.NotificationStatus;
+import com.notify.receipt.DeliveryReceipt;
+import com.notify.receipt.DeliveryStatusStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de los planes de entrega con alternativas (push → SMS → email).
+ */
+class DeliveryPlanTest {
+
+    private final StubChannel<PushNotification> push = new StubChannel<>(ChannelType.PUSH_NOTIFICATION);
+    private final StubChannel<SmsNotification> sms = new StubChannel<>(ChannelType.SMS);
+    private final StubChannel<EmailNotification> email = new StubChannel<>(ChannelType.EMAIL);
+    private final DeliveryStatusStore store = DeliveryStatusStore.builder().shards(4).expectedPerGeneration(100).build();
+    private final NotificationService service = NotificationService.builder()
+            .channel(push).channel(sms).channel(email).statusStore(store).build();
+
+    @Test
+    @DisplayName("Si el push falla se pasa al SMS, y el plan se confirma ahí")
+    void shouldFallBackOnFailure() throws Exception {
+        push.respond = n -> CompletableFuture.completedFuture(NotificationResult.failure(n.getId(), "token inválido"));
+        sms.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "SM1"));
+
+        PlanResult result = service.sendPlan(plan(Duration.ofSeconds(5))).result().get(1, TimeUnit.SECONDS);
+
+        assertTrue(result.isConfirmed());
+        assertEquals(1, result.getConfirmedStep());
+        assertEquals("SM1", result.getResult().getProviderMessageId());
+        assertEquals(NotificationStatus.FAILED, result.getAttempts().get(0).getStatus());
+        assertEquals(0, email.calls);
+    }
+
+    @Test
+    @DisplayName("Un paso que no responde antes de su deadline se cancela y se pasa al siguiente")
+    void shouldFallBackOnDeadline() throws Exception {
+        CompletableFuture<NotificationResult> stuck = new CompletableFuture<>();
+        push.respond = n -> stuck;
+        sms.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "SM1"));
+
+        PlanResult result = service.sendPlan(plan(Duration.ofMillis(50))).result().get(2, TimeUnit.SECONDS);
+
+        assertEquals(1, result.getConfirmedStep());
+        assertTrue(result.getAttempts().get(0).getErrorMessage().startsWith("Sin confirmación"));
+        assertTrue(stuck.isCancelled(), "El envío vencido se cancela");
+    }
+
+    @Test
+    @DisplayName("Un paso que espera acuse solo se confirma si llega la entrega antes del deadline")
+    void shouldAwaitDeliveryReceipt() throws Exception {
+        push.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "fcm-1"));
+        email.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "sg-1"));
+        PushNotification first = push();
+        DeliveryPlan unacknowledged = DeliveryPlan.builder()
+                .deliveredStep(first, Duration.ofMillis(50))
+                .step(email())
+                .build();
+
+        assertEquals(1, service.sendPlan(unacknowledged).result().get(2, TimeUnit.SECONDS).getConfirmedStep());
+
+        PushNotification second = push();
+        DeliveryPlan acknowledged = DeliveryPlan.builder()
+                .deliveredStep(second, Duration.ofMillis(100))
+                .step(email())
+                .build();
+        sms.respond = null;
+        push.respond = n -> {
+            CompletableFuture<NotificationResult> sent = CompletableFuture.completedFuture(
+                    NotificationResult.success(n.getId(), "fcm-2"));
+            return sent.whenComplete((r, e) -> store.apply(new DeliveryReceipt("fcm-2", NotificationStatus.DELIVERED, null)));
+        };
+
+        assertEquals(0, service.sendPlan(acknowledged).result().get(2, TimeUnit.SECONDS).getConfirmedStep());
+    }
+
+    @Test
+    @DisplayName("Un paso que espera acuse se decide al llegar el acuse, sin esperar al deadline")
+    void shouldCompleteOnReceiptArrival() throws Exception {
+        push.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "fcm-" + n.getId()));
+        email.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "sg-1"));
+        PushNotification delivered = push();
+        PushNotification bounced = push();
+
+        PlanExecution first = service.sendPlan(DeliveryPlan.builder()
+                .deliveredStep(delivered, Duration.ofSeconds(30)).step(email()).build());
+        PlanExecution second = service.sendPlan(DeliveryPlan.builder()
+                .deliveredStep(bounced, Duration.ofSeconds(30)).step(email()).build());
+        store.apply(new DeliveryReceipt("fcm-" + delivered.getId(), NotificationStatus.DELIVERED, null));
+        store.apply(new DeliveryReceipt("fcm-" + bounced.getId(), NotificationStatus.BOUNCED, null));
+
+        assertEquals(0, first.result().get(1, TimeUnit.SECONDS).getConfirmedStep());
+        PlanResult fallback = second.result().get(1, TimeUnit.SECONDS);
+        assertEquals(1, fallback.getConfirmedStep(), "El rebote pasa al siguiente paso al momento");
+        assertEquals("Acuse BOUNCED", fallback.getAttempts().get(0).getErrorMessage());
+    }
+
+    @Test
+    @DisplayName("Un envío aplazado por el canal lo decide el deadline; uno fusionado pasa al siguiente")
+    void shouldHandleDeferredResults() throws Exception {
+        email.respond = n -> CompletableFuture.completedFuture(NotificationResult.pending(n.getId(), "En resumen"));
+        push.respond = n -> CompletableFuture.completedFuture(NotificationResult.coalesced(n.getId(), "Fusionada"));
+        sms.respond = n -> CompletableFuture.completedFuture(NotificationResult.success(n.getId(), "SM1"));
+
+        PlanResult deferred = service.sendPlan(DeliveryPlan.builder()
+                .step(email(), Duration.ofMillis(50))
+                .step(SmsNotification.builder().to("+34600000000").message("Alerta").build())
+                .build()).result().get(2, TimeUnit.SECONDS);
+        assertEquals(1, deferred.getConfirmedStep());
+        assertTrue(deferred.getAttempts().get(0).getErrorMessage().startsWith("Aplazada por el canal"));
+
+        PlanResult withoutDeadline = service.sendPlan(DeliveryPlan.builder().step(email()).build())
+                .result().get(1, TimeUnit.SECONDS);
+        assertEquals(0, withoutDeadline.getConfirmedStep(), "Sin deadline el canal se hace cargo");
+
+        PlanResult coalesced = service.sendPlan(plan(Duration.ofSeconds(5))).result().get(1, TimeUnit.SECONDS);
+        assertEquals(1, coalesced.getConfirmedStep());
+        assertEquals(NotificationStatus.COALESCED, coalesced.getAttempts().get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Cancelar el plan cancela el envío en curso y no ejecuta más pasos")
+    void shouldCancelPlan() throws Exception {
+        CompletableFuture<NotificationResult> stuck = new CompletableFuture<>();
+        push.respond = n -> stuck;
+
+        PlanExecution execution = service.sendPlan(plan(Duration.ofSeconds(5)));
+        assertTrue(execution.cancel());
+
+        assertThrows(CancellationException.class, () -> execution.result().join());
+        assertTrue(stuck.isCancelled());
+        Thread.sleep(50);
+        assertEquals(0, sms.calls);
+    }
+
+    @Test
+    @DisplayName("Si ningún paso se confirma el plan termina sin confirmar")
+    void shouldExhaustPlan() throws Exception {
+        Function<Notification, CompletableFuture<NotificationResult>> fail =
+                n -> CompletableFuture.completedFuture(NotificationResult.failure(n.getId(), "caído"));
+        push.respond = fail;
+        sms.respond = fail;
+        email.respond = fail;
+
+        PlanResult result = service.sendPlan(plan(Duration.ofSeconds(5))).result().get(1, TimeUnit.SECONDS);
+
+        assertFalse(result.isConfirmed());
+        assertEquals(3, result.getAttempts().size());
+    }
+
+    private DeliveryPlan plan(Duration deadline) {
+        return DeliveryPlan.builder()
+                .step(push(), deadline)
+                .step(SmsNotification.builder().to("+34600000000").message("Alerta").build(), deadline)
+                .step(email())
+                .build();
+    }
+
+    private static PushNotification push() {
+        return PushNotification.builder().deviceToken("device-token-123").title("Alerta").message("Alerta").build();
+    }
+
+    private static EmailNotification email() {
+        return EmailNotification.builder().to("ops@empresa.com").subject("Alerta").message("Alerta").build();
+    }
+
+    private static final class StubChannel<T extends Notification> implements NotificationChannel<T> {
+        private final ChannelType type;
+        private volatile Function<Notification, CompletableFuture<NotificationResult>> respond;
+        private volatile int calls;
+
+        private StubChannel(ChannelType type) {
+            this.type = type;
+        }
+
+        @Override
+        public NotificationResult send(T notification) {
+            return sendAsync(notification).join();
+        }
+
+        @Override
+        public CompletableFuture<NotificationResult> sendAsync(T notification) {
+            calls++;
+            return respond.apply(notification);
+        }
+
+        @Override
+        public ChannelType getChannelType() {
+            return type;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.notify.ratelimit;
+
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del límite de concurrencia adaptativo y de su decorador de canal.
+ */
+@ExtendWith(MockitoExtension.class)
+class AdaptiveConcurrencyTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Mock
+    private NotificationChannel<SmsNotification> smsChannel;
+
+    @Test
+    @DisplayName("Crece mientras la latencia se mantiene en su mínimo y el límite se usa")
+    void shouldGrowWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = AdaptiveConcurrencyLimit.builder().initialLimit(5).build();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.onSample(10 * MS, limit.getLimit(), false);
+        }
+
+        assertEquals(15, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Baja en cuanto el proveedor se ralentiza")
+    void shouldShrinkWhenLatencyGrows() {
+        AdaptiveConcurrencyLimit limit = AdaptiveConcurrencyLimit.builder().initialLimit(40).build();
+        limit.tryAcquire();
+        limit.onSample(10 * MS, 40, false);   // fija minRtt = 10ms (y sube a 41)
+
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.onSample(50 * MS, 40, false);
+        }
+
+        assertEquals(31, limit.getLimit());
+    }
+
+    @Test
+    @DisplayName("Un error reduce el límite multiplicativamente")
+    void shouldBackOffOnErrors() {
+        AdaptiveConcurrencyLimit limit = AdaptiveConcurrencyLimit.builder()
+                .initialLimit(100)
+                .backoffRatio(0.5)
+                .build();
+
+        limit.tryAcquire();
+        limit.onSample(10 * MS, 1, true);
+
+        assertEquals(50, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Por encima del límite encola hasta maxQueueSize y rechaza el resto con REJECTED")
+    void channelShouldQueueThenReject() {
+        List<CompletableFuture<NotificationResult>> pending = new ArrayList<>();
+        when(smsChannel.sendAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<NotificationResult> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+        AdaptiveConcurrencyChannel<SmsNotification> channel = new AdaptiveConcurrencyChannel<>(smsChannel,
+                AdaptiveConcurrencyLimit.builder().initialLimit(1).maxLimit(1).build(), 1);
+
+        channel.sendAsync(sms());
+        CompletableFuture<NotificationResult> queued = channel.sendAsync(sms());
+        NotificationResult rejected = channel.sendAsync(sms()).join();
+
+        assertEquals(NotificationStatus.REJECTED, rejected.getStatus());
+        assertEquals(1, channel.getQueuedCount());
+        assertEquals(1, pending.size());
+
+        pending.get(0).complete(NotificationResult.success("n-1", "ok"));
+
+        assertEquals(2, pending.size());
+        assertEquals(0, channel.getQueuedCount());
+        pending.get(1).complete(NotificationResult.success("n-2", "ok"));
+        assertTrue(queued.join().isSuccess());
+        assertEquals(0, channel.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Cancelar un envío libera el hueco sin reducir el límite")
+    void channelShouldNotBackOffOnCancellation() {
+        List<CompletableFuture<NotificationResult>> pending = new ArrayList<>();
+        when(smsChannel.sendAsync(any())).thenAnswer(invocation -> {
+            CompletableFuture<NotificationResult> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+        AdaptiveConcurrencyChannel<SmsNotification> channel = new AdaptiveConcurrencyChannel<>(smsChannel,
+                AdaptiveConcurrencyLimit.builder().initialLimit(10).backoffRatio(0.5).build(), 0);
+
+        channel.sendAsync(sms()).cancel(true);                                // Cancelado por el llamador
+        channel.sendAsync(sms());
+        pending.get(1).completeExceptionally(new CancellationException());   // Cancelado aguas abajo
+
+        assertTrue(pending.get(0).isCancelled());
+        assertEquals(10, channel.getLimit());
+        assertEquals(0, channel.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Delega tipo de canal y proveedor en el canal decorado")
+    void channelShouldDelegateMetadata() {
+        when(smsChannel.getChannelType()).thenReturn(ChannelType.SMS);
+        when(smsChannel.getProviderName()).thenReturn("Twilio");
+        AdaptiveConcurrencyChannel<SmsNotification> channel = new AdaptiveConcurrencyChannel<>(smsChannel,
+                AdaptiveConcurrencyLimit.builder().build(), 0);
+
+        assertEquals(ChannelType.SMS, channel.getChannelType());
+        assertEquals("Twilio", channel.getProviderName());
+        assertEquals(20, channel.getLimit());
+    }
+
+    private static SmsNotification sms() {
+        return SmsNotification.builder().to("+51999888777").message("Hola").build();
+    }
+}
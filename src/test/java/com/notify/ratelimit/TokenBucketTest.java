@@ -0,0 +1,135 @@
+package com.notify.ratelimit;
+
+import com.notify.config.ProviderConfig;
+import com.notify.exception.SendException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del TokenBucket y del ProviderRateLimiter.
+ */
+class TokenBucketTest {
+
+    @Test
+    @DisplayName("Permite la ráfaga configurada y después rechaza")
+    void shouldAllowBurstThenReject() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        assertTrue(bucket.nanosUntilAvailable() > 0);
+    }
+
+    @Test
+    @DisplayName("reserve retorna la espera necesaria en orden de llegada")
+    void shouldReserveInArrivalOrder() {
+        TokenBucket bucket = new TokenBucket(10, 1);   // un token cada 100ms
+
+        assertEquals(0, bucket.reserve());
+        long second = bucket.reserve();
+        long third = bucket.reserve();
+
+        assertTrue(second > TimeUnit.MILLISECONDS.toNanos(50), "second=" + second);
+        assertTrue(third > second + TimeUnit.MILLISECONDS.toNanos(50), "third=" + third);
+    }
+
+    @Test
+    @DisplayName("reserve falla sin reservar si la espera superaría maxWait")
+    void shouldRejectReservationsBeyondMaxWait() {
+        TokenBucket bucket = new TokenBucket(10, 1, Duration.ofMillis(150));   // un token cada 100ms
+
+        assertEquals(0, bucket.reserve());
+        assertTrue(bucket.reserve() > 0);
+        assertThrows(SendException.class, bucket::reserve);
+
+        CompletableFuture<Void> rejected = bucket.acquireAsync();
+        assertTrue(rejected.isCompletedExceptionally());
+        // Lo rechazado no ocupa turno: la espera no crece
+        assertTrue(bucket.nanosUntilAvailable() <= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    @DisplayName("ProviderRateLimiter falla rápido si el turno superaría rateLimitMaxWaitMs")
+    void shouldFailFastBeyondConfiguredMaxWait() {
+        ProviderRateLimiter limiter = ProviderRateLimiter.fromConfig(ProviderConfig.builder("twilio")
+                .property(ProviderRateLimiter.RATE_PROPERTY, "1")
+                .property(ProviderRateLimiter.MAX_WAIT_PROPERTY, "500")
+                .build());
+
+        assertEquals(Duration.ofMillis(500), limiter.getBucket().getMaxWait());
+        assertTrue(limiter.acquireAsync().isDone());
+        CompletableFuture<Void> rejected = limiter.acquireAsync();
+        assertTrue(rejected.isCompletedExceptionally());
+        CompletionException error = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(SendException.class, error.getCause());
+    }
+
+    @Test
+    @DisplayName("acquireAsync se completa cuando hay token, sin bloquear al llamador")
+    void shouldAcquireAsync() {
+        TokenBucket bucket = new TokenBucket(20, 1);   // un token cada 50ms
+        assertTrue(bucket.acquireAsync().isDone());
+
+        CompletableFuture<Void> next = bucket.acquireAsync();
+        assertFalse(next.isDone());
+        next.orTimeout(1, TimeUnit.SECONDS).join();
+    }
+
+    @Test
+    @DisplayName("pause detiene el bucket y al reanudar no hay ráfaga")
+    void shouldPauseWithoutBurstAfterwards() throws Exception {
+        TokenBucket bucket = new TokenBucket(10, 10);   // un token cada 100ms
+
+        bucket.pause(TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(bucket.tryAcquire());
+
+        Thread.sleep(60);
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("ProviderRateLimiter se configura con rateLimitPerSecond/rateLimitBurst")
+    void shouldBuildLimiterFromConfig() {
+        ProviderRateLimiter limited = ProviderRateLimiter.fromConfig(ProviderConfig.builder("twilio")
+                .property(ProviderRateLimiter.RATE_PROPERTY, "1")
+                .property(ProviderRateLimiter.BURST_PROPERTY, "2")
+                .build());
+        ProviderRateLimiter unlimited = ProviderRateLimiter.fromConfig(ProviderConfig.builder("sendgrid").build());
+
+        assertTrue(limited.isLimited());
+        assertEquals(2, limited.getBucket().getBurst());
+        assertFalse(unlimited.isLimited());
+        assertTrue(unlimited.acquireAsync().isDone());
+    }
+
+    @Test
+    @DisplayName("Un throttling del proveedor retrasa los envíos aunque no haya tasa configurada")
+    void shouldHonorThrottlingWithoutRate() {
+        ProviderRateLimiter limiter = ProviderRateLimiter.fromConfig(ProviderConfig.builder("fcm").build());
+
+        limiter.throttled(Duration.ofMillis(100));
+
+        CompletableFuture<Void> next = limiter.acquireAsync();
+        assertFalse(next.isDone());
+        next.orTimeout(1, TimeUnit.SECONDS).join();
+    }
+
+    @Test
+    @DisplayName("Retry-After acepta segundos y fecha HTTP")
+    void shouldParseRetryAfter() {
+        assertEquals(Duration.ofSeconds(3), ProviderRateLimiter.parseRetryAfter("3"));
+        assertEquals(Duration.ZERO, ProviderRateLimiter.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertNull(ProviderRateLimiter.parseRetryAfter("pronto"));
+        assertNull(ProviderRateLimiter.parseRetryAfter(null));
+    }
+}
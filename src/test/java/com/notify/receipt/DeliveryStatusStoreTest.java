@@ -0,0 +1,259 @@
+package com.notify.receipt;
+
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del DeliveryStatusStore y de la ingesta de acuses por webhook.
+ */
+class DeliveryStatusStoreTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final DeliveryStatusStore store = DeliveryStatusStore.builder()
+            .retention(Duration.ofDays(3))
+            .generations(3)
+            .shards(4)
+            .expectedPerGeneration(1_000)
+            .clock(clock)
+            .build();
+
+    @Test
+    @DisplayName("El envío se consulta por id y por id del proveedor, y avanza con los acuses")
+    void shouldTrackLifecycle() {
+        store.record(NotificationResult.success("n-1", "SM123"));
+        assertEquals(NotificationStatus.SENT, store.findById("n-1").orElseThrow().status());
+
+        assertTrue(store.apply(new DeliveryReceipt("SM123", NotificationStatus.DELIVERED, null)));
+        assertEquals(NotificationStatus.DELIVERED, store.findByProviderMessageId("SM123").orElseThrow().status());
+
+        assertTrue(store.apply(new DeliveryReceipt("SM123", NotificationStatus.READ, clock.instant())));
+        assertEquals(NotificationStatus.READ, store.findById("n-1").orElseThrow().status());
+        assertTrue(store.findById("n-2").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Un acuse tardío de un estado anterior no hace retroceder el estado")
+    void shouldNotRegress() {
+        store.record(NotificationResult.success("n-1", "SM123"));
+        store.apply(new DeliveryReceipt("SM123", NotificationStatus.READ, null));
+
+        assertFalse(store.apply(new DeliveryReceipt("SM123", NotificationStatus.DELIVERED, null)));
+        assertEquals(NotificationStatus.READ, store.findById("n-1").orElseThrow().status());
+    }
+
+    @Test
+    @DisplayName("Un acuse que llega antes que el resultado del envío se aplica al registrarlo")
+    void shouldMergeEarlyReceipt() {
+        assertFalse(store.apply(new DeliveryReceipt("SM999", NotificationStatus.DELIVERED, null)));
+        assertEquals(NotificationStatus.DELIVERED, store.findByProviderMessageId("SM999").orElseThrow().status());
+
+        store.record(NotificationResult.success("n-9", "SM999"));
+
+        assertEquals(NotificationStatus.DELIVERED, store.findById("n-9").orElseThrow().status());
+    }
+
+    @Test
+    @DisplayName("awaitOutcome se completa con el acuse, también si llegó antes de esperar")
+    void shouldNotifyOutcome() {
+        store.record(NotificationResult.success("n-1", "SM1"));
+        store.record(NotificationResult.success("n-2", "SM2"));
+        CompletableFuture<DeliveryStatusStore.StatusEntry> first = store.awaitOutcome("n-1");
+        CompletableFuture<DeliveryStatusStore.StatusEntry> abandoned = store.awaitOutcome("n-2");
+        assertFalse(first.isDone());
+
+        store.apply(new DeliveryReceipt("SM1", NotificationStatus.DELIVERED, null));
+        assertEquals(NotificationStatus.DELIVERED, first.join().status());
+
+        abandoned.cancel(false);
+        store.apply(new DeliveryReceipt("SM2", NotificationStatus.BOUNCED, null));
+        assertTrue(abandoned.isCancelled());
+        assertEquals(NotificationStatus.BOUNCED, store.awaitOutcome("n-2").join().status(), "Ya resuelto");
+
+        store.apply(new DeliveryReceipt("SM3", NotificationStatus.READ, null));
+        CompletableFuture<DeliveryStatusStore.StatusEntry> early = store.awaitOutcome("n-3");
+        store.record(NotificationResult.success("n-3", "SM3"));
+        assertEquals(NotificationStatus.READ, early.join().status(), "Acuse anticipado aplicado al registrar");
+    }
+
+    @Test
+    @DisplayName("Las entradas se expulsan por generaciones al superar la retención")
+    void shouldEvictOldGenerations() {
+        store.record(NotificationResult.success("antigua", "P-1"));
+        clock.advance(Duration.ofDays(1));
+        store.record(NotificationResult.success("reciente", "P-2"));
+        assertEquals(2, store.size());
+
+        clock.advance(Duration.ofDays(2));
+        store.record(NotificationResult.success("nueva", "P-3"));
+
+        assertTrue(store.findById("antigua").isEmpty());
+        assertTrue(store.findByProviderMessageId("P-1").isEmpty());
+        assertEquals(NotificationStatus.SENT, store.findById("reciente").orElseThrow().status());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Parsers de Twilio, SendGrid y FCM")
+    void shouldParseProviderWebhooks() {
+        List<DeliveryReceipt> twilio = ReceiptParsers.twilio()
+                .parse("MessageSid=SM1&MessageStatus=undelivered&To=%2B34600000000");
+        assertEquals(List.of(new DeliveryReceipt("SM1", NotificationStatus.BOUNCED, null)), twilio);
+        assertTrue(ReceiptParsers.twilio().parse("MessageSid=SM1&MessageStatus=queued").isEmpty());
+
+        List<DeliveryReceipt> sendGrid = ReceiptParsers.sendGrid().parse("""
+                [{"email":"a@b.com","timestamp":1700000000,"event":"processed","sg_message_id":"abc.filter0"},
+                 {"email":"a@b.com","timestamp":1700000060,"event":"open","sg_message_id":"abc.filter0"}]
+                """);
+        assertEquals(List.of(new DeliveryReceipt("abc", NotificationStatus.READ, Instant.ofEpochSecond(1700000060))),
+                sendGrid);
+
+        List<DeliveryReceipt> fcm = ReceiptParsers.fcm()
+                .parse("{\"message_id\":\"projects/p/messages/1\",\"event\":\"delivered\"}");
+        assertEquals(NotificationStatus.DELIVERED, fcm.get(0).status());
+    }
+
+    @Test
+    @DisplayName("El webhook aplica los acuses recibidos por HTTP")
+    void shouldIngestReceiptsOverHttp() throws Exception {
+        store.record(NotificationResult.success("n-1", "SM123"));
+
+        try (ReceiptWebhookServer server = ReceiptWebhookServer.builder(store)
+                .address(new InetSocketAddress("127.0.0.1", 0))
+                .verifier("/receipts/twilio", ReceiptVerifiers.twilio("twilio-token"))
+                .start()) {
+            HttpClient client = HttpClient.newHttpClient();
+            URI uri = URI.create("http://127.0.0.1:" + server.getPort() + "/receipts/twilio");
+
+            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .header("X-Twilio-Signature", twilioSignature("twilio-token",
+                            uri + "MessageSidSM123MessageStatusdelivered"))
+                    .POST(HttpRequest.BodyPublishers.ofString("MessageSid=SM123&MessageStatus=delivered"))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            HttpResponse<Void> get = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+
+            assertEquals(204, response.statusCode());
+            assertEquals(405, get.statusCode());
+            assertEquals(1, server.getAppliedCount());
+            assertEquals(NotificationStatus.DELIVERED, store.findById("n-1").orElseThrow().status());
+        }
+    }
+
+    @Test
+    @DisplayName("El webhook rechaza con 401 los acuses sin firma válida del proveedor")
+    void shouldRejectForgedReceipts() throws Exception {
+        store.record(NotificationResult.success("n-1", "SM123"));
+        store.record(NotificationResult.success("n-2", "sg-1"));
+        store.record(NotificationResult.success("n-3", "projects/p/messages/1"));
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair sendGridKeys = generator.generateKeyPair();
+
+        try (ReceiptWebhookServer server = ReceiptWebhookServer.builder(store)
+                .address(new InetSocketAddress("127.0.0.1", 0))
+                .verifier("/receipts/twilio", ReceiptVerifiers.twilio("twilio-token"))
+                .verifier("/receipts/sendgrid", ReceiptVerifiers.sendGrid(
+                        Base64.getEncoder().encodeToString(sendGridKeys.getPublic().getEncoded()),
+                        ReceiptVerifiers.SENDGRID_TOLERANCE, clock))
+                .verifier("/receipts/fcm", ReceiptVerifiers.sharedSecret("app-secret"))
+                .start()) {
+            String base = "http://127.0.0.1:" + server.getPort();
+            String twilio = "MessageSid=SM123&MessageStatus=failed";
+
+            assertEquals(401, post(base + "/receipts/twilio", twilio).statusCode());
+            assertEquals(401, post(base + "/receipts/twilio", twilio, "X-Twilio-Signature",
+                    twilioSignature("otro-token", base + "/receipts/twilio" + "MessageSidSM123MessageStatusfailed"))
+                    .statusCode());
+
+            String events = "[{\"sg_message_id\": \"sg-1.filter\", \"event\": \"bounce\"}]";
+            String timestamp = String.valueOf(clock.instant().getEpochSecond());
+            Signature ecdsa = Signature.getInstance("SHA256withECDSA");
+            ecdsa.initSign(sendGridKeys.getPrivate());
+            ecdsa.update((timestamp + events).getBytes(StandardCharsets.UTF_8));
+            String signature = Base64.getEncoder().encodeToString(ecdsa.sign());
+            assertEquals(401, post(base + "/receipts/sendgrid", events.replace("bounce", "open"),
+                    "X-Twilio-Email-Event-Webhook-Signature", signature,
+                    "X-Twilio-Email-Event-Webhook-Timestamp", timestamp).statusCode(), "Cuerpo alterado");
+            assertEquals(204, post(base + "/receipts/sendgrid", events,
+                    "X-Twilio-Email-Event-Webhook-Signature", signature,
+                    "X-Twilio-Email-Event-Webhook-Timestamp", timestamp).statusCode());
+            clock.advance(Duration.ofMinutes(6));
+            assertEquals(401, post(base + "/receipts/sendgrid", events,
+                    "X-Twilio-Email-Event-Webhook-Signature", signature,
+                    "X-Twilio-Email-Event-Webhook-Timestamp", timestamp).statusCode(), "Webhook reenviado tarde");
+
+            String fcm = "{\"message_id\": \"projects/p/messages/1\", \"event\": \"opened\"}";
+            assertEquals(401, post(base + "/receipts/fcm", fcm, "Authorization", "Bearer otro").statusCode());
+            assertEquals(204, post(base + "/receipts/fcm", fcm, "Authorization", "Bearer app-secret").statusCode());
+
+            assertEquals(2, server.getAppliedCount());
+            assertEquals(NotificationStatus.SENT, store.findById("n-1").orElseThrow().status());
+            assertEquals(NotificationStatus.BOUNCED, store.findById("n-2").orElseThrow().status());
+            assertEquals(NotificationStatus.READ, store.findById("n-3").orElseThrow().status());
+        }
+    }
+
+    private static HttpResponse<Void> post(String uri, String body, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String twilioSignature(String authToken, String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(authToken.getBytes(StandardCharsets.UTF_8), "HmacSHA1"));
+        return Base64.getEncoder().encodeToString(mac.doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.notify.retry;
+
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationStatus;
+import com.notify.exception.SendException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del RetryExecutor — reintentos y respeto del deadline.
+ */
+class RetryExecutorTest {
+
+    @Test
+    @DisplayName("Reintenta hasta el éxito")
+    void shouldRetryUntilSuccess() {
+        RetryExecutor executor = new RetryExecutor(RetryPolicy.builder().maxAttempts(3).initialDelayMs(0).build());
+        AtomicInteger calls = new AtomicInteger();
+
+        NotificationResult result = executor.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new SendException("HTTP 503");
+            }
+            return NotificationResult.success("n-1", "ok");
+        });
+
+        assertTrue(result.isSuccess());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    @DisplayName("Lanza SendException si se agotan los intentos")
+    void shouldThrowWhenAttemptsExhausted() {
+        RetryExecutor executor = new RetryExecutor(RetryPolicy.builder().maxAttempts(2).initialDelayMs(0).build());
+
+        assertThrows(SendException.class, () -> executor.execute(() -> {
+            throw new SendException("HTTP 503");
+        }));
+    }
+
+    @Test
+    @DisplayName("No espera un backoff que supera el deadline: retorna EXPIRED")
+    void shouldNotWaitPastDeadline() {
+        RetryExecutor executor = new RetryExecutor(RetryPolicy.builder().maxAttempts(3).initialDelayMs(60_000).build());
+        SmsNotification otp = SmsNotification.builder()
+                .to("+51999888777")
+                .message("Tu código es 1234")
+                .ttl(Duration.ofSeconds(5))
+                .build();
+        AtomicInteger calls = new AtomicInteger();
+
+        long start = System.nanoTime();
+        NotificationResult result = executor.execute(otp, () -> {
+            calls.incrementAndGet();
+            throw new SendException("HTTP 503");
+        });
+
+        assertEquals(NotificationStatus.EXPIRED, result.getStatus());
+        assertEquals(1, calls.get());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1000);
+    }
+
+    @Test
+    @DisplayName("No lanza ningún intento si la notificación ya expiró")
+    void shouldSkipExpiredNotification() {
+        RetryExecutor executor = new RetryExecutor(RetryPolicy.defaultPolicy());
+        SmsNotification otp = SmsNotification.builder()
+                .to("+51999888777")
+                .message("Tu código es 1234")
+                .ttl(Duration.ZERO)
+                .build();
+
+        NotificationResult result = executor.execute(otp, () -> fail("No debe enviarse"));
+
+        assertEquals(NotificationStatus.EXPIRED, result.getStatus());
+    }
+}
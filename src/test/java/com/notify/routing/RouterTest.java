@@ -0,0 +1,114 @@
+package com.notify.routing;
+
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.core.ChannelType;
+import com.notify.core.NotificationChannel;
+import com.notify.core.NotificationResult;
+import com.notify.core.NotificationService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests del Router — reglas compiladas en tabla de decisión.
+ */
+class RouterTest {
+
+    private final NotificationChannel<SmsNotification> sns = channel(ChannelType.SMS);
+    private final NotificationChannel<SmsNotification> twilio = channel(ChannelType.SMS);
+    private final NotificationChannel<EmailNotification> mailgun = channel(ChannelType.EMAIL);
+    private final NotificationChannel<EmailNotification> sendGrid = channel(ChannelType.EMAIL);
+    private final NotificationChannel<EmailNotification> corporate = channel(ChannelType.EMAIL);
+
+    private final Router router = Router.builder()
+            .channel("sns", sns)
+            .channel("mailgun", mailgun)
+            .channel("sendgrid", sendGrid)
+            .channel("corporate", corporate)
+            .rule(RoutingRule.builder(ChannelType.SMS).recipientPrefix("+55").target("sns").build())
+            .rule(RoutingRule.builder(ChannelType.EMAIL).recipientDomain("Empresa.com").target("corporate").build())
+            .rule(RoutingRule.builder(ChannelType.EMAIL).metadata("campaign", RoutingRule.ANY_VALUE).target("mailgun").build())
+            .rule(RoutingRule.builder(ChannelType.EMAIL).metadata("type", "transactional").target("sendgrid").build())
+            .build();
+
+    @Test
+    @DisplayName("Prefijo de destinatario: SMS a Brasil por SNS, el resto sin regla")
+    void shouldRouteByRecipientPrefix() {
+        assertSame(sns, router.route(sms("+5511999999999")));
+        assertNull(router.route(sms("+34600000000")));
+    }
+
+    @Test
+    @DisplayName("Metadata con cualquier valor o valor exacto, y dominio de email")
+    void shouldRouteByMetadataAndDomain() {
+        assertSame(mailgun, router.route(email("a@mail.com", Map.of("campaign", "black-friday"))));
+        assertSame(sendGrid, router.route(email("a@mail.com", Map.of("type", "transactional"))));
+        assertNull(router.route(email("a@mail.com", Map.of("type", "marketing"))));
+        assertSame(corporate, router.route(email("ana@EMPRESA.com", Map.of("campaign", "x"))),
+                "Gana la regla declarada primero");
+    }
+
+    @Test
+    @DisplayName("Con cientos de reglas gana la primera que encaja")
+    void shouldHandleManyRules() {
+        Router.Builder builder = Router.builder().channel("sns", sns).channel("twilio", twilio);
+        for (int i = 0; i < 500; i++) {
+            builder.rule(RoutingRule.builder(ChannelType.SMS).recipientPrefix("+1" + i).metadata("tier", "t" + (i % 7))
+                    .target(i % 2 == 0 ? "sns" : "twilio").build());
+        }
+        builder.rule(RoutingRule.builder(ChannelType.SMS).recipientPrefix("+1").target("twilio").build());
+        Router many = builder.build();
+
+        RoutingRule rule = many.match(sms("+1499000", Map.of("tier", "t2")));
+        assertEquals("+1499", rule.getRecipientPrefix());
+        assertSame(twilio, many.route(sms("+1499000", Map.of("tier", "t2"))));
+        assertEquals("+149", many.match(sms("+1499000", Map.of("tier", "t0"))).getRecipientPrefix());
+        assertEquals("+1", many.match(sms("+1499000", Map.of("tier", "t5"))).getRecipientPrefix());
+        assertEquals(501, many.getRuleCount());
+    }
+
+    @Test
+    @DisplayName("El servicio usa el canal de la regla y, si no encaja ninguna, el del ChannelType")
+    void shouldRouteThroughService() {
+        when(sns.send(any())).thenReturn(NotificationResult.success("1", "sns-1"));
+        when(twilio.send(any())).thenReturn(NotificationResult.success("2", "tw-1"));
+        NotificationService service = NotificationService.builder().channel(twilio).router(router).build();
+
+        assertEquals("sns-1", service.send(sms("+5511999999999")).getProviderMessageId());
+        assertEquals("tw-1", service.send(sms("+34600000000")).getProviderMessageId());
+    }
+
+    @Test
+    @DisplayName("Una regla hacia un canal inexistente o de otro tipo no compila")
+    void shouldRejectInvalidTargets() {
+        assertThrows(IllegalStateException.class, () -> Router.builder()
+                .rule(RoutingRule.builder(ChannelType.SMS).target("nope").build()).build());
+        assertThrows(IllegalStateException.class, () -> Router.builder().channel("mailgun", mailgun)
+                .rule(RoutingRule.builder(ChannelType.SMS).target("mailgun").build()).build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends com.notify.core.Notification> NotificationChannel<T> channel(ChannelType type) {
+        NotificationChannel<T> channel = mock(NotificationChannel.class);
+        lenient().when(channel.getChannelType()).thenReturn(type);
+        return channel;
+    }
+
+    private static SmsNotification sms(String to) {
+        return sms(to, Map.of());
+    }
+
+    private static SmsNotification sms(String to, Map<String, String> metadata) {
+        return SmsNotification.builder().to(to).message("Hola").metadata(metadata).build();
+    }
+
+    private static EmailNotification email(String to, Map<String, String> metadata) {
+        return EmailNotification.builder().to(to).subject("Asunto").message("Cuerpo").metadata(metadata).build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.notify.simulator;
+
+import com.notify.channel.sms.SmsNotification;
+import com.notify.channel.sms.provider.SmsProvider;
+import com.notify.channel.sms.provider.TwilioProvider;
+import com.notify.config.ProviderConfig;
+import com.notify.core.NotificationResult;
+import com.notify.exception.SendException;
+import com.notify.transport.HttpTransport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del simulador de proveedores: latencias, guion temporal, decorador
+ * y stub HTTP.
+ */
+class ProviderSimulatorTest {
+
+    @Test
+    @DisplayName("La lognormal respeta la mediana y la cola añade latencias extremas")
+    void shouldSampleLogNormalWithTail() {
+        Random random = new Random(42);
+        LatencyModel model = LatencyModel.logNormal(Duration.ofMillis(100), 0.5)
+                .withTail(0.01, LatencyModel.fixed(Duration.ofSeconds(5)));
+
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = model.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+
+        long medianMs = TimeUnit.NANOSECONDS.toMillis(samples[samples.length / 2]);
+        assertTrue(medianMs > 90 && medianMs < 110, "Mediana: " + medianMs);
+        assertEquals(5_000, TimeUnit.NANOSECONDS.toMillis(samples[(int) (samples.length * 0.995)]), "Cola del 1%");
+    }
+
+    @Test
+    @DisplayName("El guion cambia de perfil con el tiempo y se repite")
+    void shouldFollowScript() {
+        FaultProfile throttling = FaultProfile.builder().throttleRate(0.2).build();
+        FaultScript script = FaultScript.builder(FaultProfile.healthy())
+                .during(Duration.ofSeconds(60), Duration.ofSeconds(30), throttling)
+                .outage(Duration.ofSeconds(70), Duration.ofSeconds(5))
+                .repeatEvery(Duration.ofMinutes(2))
+                .build();
+
+        assertSame(FaultProfile.healthy(), script.profileAt(Duration.ofSeconds(10)));
+        assertSame(throttling, script.profileAt(Duration.ofSeconds(65)));
+        assertTrue(script.profileAt(Duration.ofSeconds(72)).isDown(), "El último tramo declarado gana");
+        assertSame(throttling, script.profileAt(Duration.ofSeconds(80)));
+        assertSame(FaultProfile.healthy(), script.profileAt(Duration.ofSeconds(90)));
+        assertTrue(script.profileAt(Duration.ofSeconds(192)).isDown(), "Segundo ciclo");
+    }
+
+    @Test
+    @DisplayName("El decorador falla según el perfil y delega el resto")
+    void shouldInjectFailuresInDecoratedProvider() throws Exception {
+        MutableClock clock = new MutableClock();
+        ProviderSimulator simulator = ProviderSimulator.builder(FaultScript.builder(FaultProfile.healthy())
+                        .during(Duration.ofSeconds(10), Duration.ofSeconds(10),
+                                FaultProfile.builder().throttleRate(1).retryAfter(Duration.ofSeconds(3)).build())
+                        .outage(Duration.ofSeconds(20), Duration.ofSeconds(10))
+                        .build())
+                .clock(clock)
+                .seed(7)
+                .build();
+        SmsProvider provider = simulator.sms(new StubSmsProvider());
+
+        assertEquals("SM1", provider.send(sms()).getProviderMessageId());
+
+        clock.advance(Duration.ofSeconds(10));
+        ExecutionException throttled = assertThrows(ExecutionException.class, () -> provider.sendAsync(sms()).get());
+        assertEquals("Error en Stub: HTTP 429 - Retry-After: 3", throttled.getCause().getMessage());
+
+        clock.advance(Duration.ofSeconds(10));
+        SendException outage = assertThrows(SendException.class, () -> provider.send(sms()));
+        assertTrue(outage.getMessage().contains("HTTP 503"));
+
+        assertEquals(3, simulator.getCallCount());
+        assertEquals(1, simulator.getCount(ProviderSimulator.Outcome.OK));
+        assertEquals(1, simulator.getCount(ProviderSimulator.Outcome.THROTTLED));
+        assertEquals(1, simulator.getCount(ProviderSimulator.Outcome.OUTAGE));
+    }
+
+    @Test
+    @DisplayName("Cancelar durante la latencia simulada evita la llamada al proveedor")
+    void shouldCancelDuringSimulatedLatency() throws Exception {
+        ProviderSimulator simulator = ProviderSimulator.builder(FaultScript.constant(
+                        FaultProfile.builder().latency(LatencyModel.fixed(Duration.ofMillis(100))).build()))
+                .build();
+        StubSmsProvider stub = new StubSmsProvider();
+        SmsProvider provider = simulator.sms(stub);
+
+        CompletableFuture<NotificationResult> call = provider.sendAsync(sms());
+        call.cancel(true);
+        Thread.sleep(200);
+
+        assertTrue(call.isCancelled());
+        assertEquals(0, stub.calls.get());
+    }
+
+    @Test
+    @DisplayName("La tasa de errores se aproxima a la configurada")
+    void shouldApplyErrorRate() {
+        ProviderSimulator simulator = ProviderSimulator.builder(FaultScript.constant(
+                        FaultProfile.builder().errorRate(0.3).build()))
+                .seed(1)
+                .build();
+        SmsProvider provider = simulator.sms(new StubSmsProvider());
+
+        int failures = 0;
+        for (int i = 0; i < 2_000; i++) {
+            try {
+                provider.send(sms());
+            } catch (SendException e) {
+                failures++;
+            }
+        }
+
+        assertTrue(failures > 500 && failures < 700, "Errores: " + failures);
+    }
+
+    @Test
+    @DisplayName("El stub HTTP responde 429 con Retry-After a un proveedor real y luego acepta")
+    void shouldServeRealProviderOverHttp() throws Exception {
+        MutableClock clock = new MutableClock();
+        ProviderSimulator simulator = ProviderSimulator.builder(FaultScript.builder(
+                                FaultProfile.builder().latency(LatencyModel.fixed(Duration.ofMillis(20))).build())
+                        .during(Duration.ZERO, Duration.ofSeconds(1),
+                                FaultProfile.builder().throttleRate(1).retryAfter(Duration.ZERO).build())
+                        .build())
+                .clock(clock)
+                .build();
+
+        try (ProviderStubServer stub = ProviderStubServer.builder(simulator)
+                .address(new InetSocketAddress("127.0.0.1", 0))
+                .start()) {
+            TwilioProvider twilio = new TwilioProvider(ProviderConfig.builder("twilio")
+                    .property("accountSid", "AC123")
+                    .property("authToken", "secret")
+                    .property("fromNumber", "+15551234567")
+                    .property("endpoint", stub.getEndpoint())
+                    .build(), HttpTransport.builder().requestTimeout(Duration.ofSeconds(5)).build());
+
+            SendException throttled = assertThrows(SendException.class, () -> twilio.send(sms()));
+            assertTrue(throttled.getMessage().contains("HTTP 429"));
+
+            clock.advance(Duration.ofSeconds(1));
+            NotificationResult result = twilio.send(sms());
+            assertTrue(result.getProviderMessageId().startsWith("SM"));
+            assertEquals(2, simulator.getCallCount());
+        }
+    }
+
+    private static SmsNotification sms() {
+        return SmsNotification.builder().to("+51999888777").message("Hola").build();
+    }
+
+    private static final class StubSmsProvider implements SmsProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public NotificationResult send(SmsNotification notification) {
+            calls.incrementAndGet();
+            return NotificationResult.success(notification.getId(), "SM1");
+        }
+
+        @Override
+        public String getProviderName() {
+            return "Stub";
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.notify.transport;
+
+import com.notify.channel.email.Attachment;
+import com.notify.channel.email.AttachmentCache;
+import com.notify.channel.email.EmailNotification;
+import com.notify.channel.email.provider.MailgunProvider;
+import com.notify.channel.email.provider.SendGridProvider;
+import com.notify.channel.sms.SmsNotification;
+import com.notify.channel.sms.provider.TwilioProvider;
+import com.notify.config.ProviderConfig;
+import com.notify.core.NotificationResult;
+import com.notify.exception.SendException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del HttpTransport contra un servidor HTTP stub local (JDK HttpServer).
+ */
+class HttpTransportTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private HttpTransport transport;
+
+    // Última petición recibida por cada path
+    private final Map<String, String> receivedBodies = new ConcurrentHashMap<>();
+    private final Map<String, String> receivedAuth = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        transport = HttpTransport.builder()
+                .requestTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void stub(String path, int status, Map<String, String> headers, String body) {
+        server.createContext(path, exchange -> {
+            record(exchange);
+            headers.forEach((k, v) -> exchange.getResponseHeaders().add(k, v));
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                exchange.getResponseBody().write(bytes);
+            }
+            exchange.close();
+        });
+    }
+
+    private void record(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        receivedBodies.put(path, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String auth = exchange.getRequestHeaders().getFirst("Authorization");
+        if (auth != null) {
+            receivedAuth.put(path, auth);
+        }
+    }
+
+    @Test
+    @DisplayName("execute retorna status, cabeceras y cuerpo de la respuesta")
+    void shouldReturnResponse() throws Exception {
+        stub("/echo", 201, Map.of("X-Test", "yes"), "{\"id\":\"abc\"}");
+
+        TransportResponse response = transport.execute(TransportRequest.post(baseUrl + "/echo")
+                        .json("{\"hello\":\"world\"}")
+                        .build())
+                .get();
+
+        assertEquals(201, response.getStatusCode());
+        assertTrue(response.isSuccess());
+        assertEquals("yes", response.header("X-Test"));
+        assertEquals("abc", response.jsonField("id"));
+        assertEquals("{\"hello\":\"world\"}", receivedBodies.get("/echo"));
+    }
+
+    @Test
+    @DisplayName("El timeout por petición completa el future con HttpTimeoutException")
+    void shouldTimeoutSlowRequests() {
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+
+        TransportRequest request = TransportRequest.post(baseUrl + "/slow")
+                .timeout(Duration.ofMillis(200))
+                .build();
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> transport.execute(request).get());
+        assertInstanceOf(HttpTimeoutException.class, error.getCause());
+    }
+
+    @Test
+    @DisplayName("await interrumpido cancela el envío en curso")
+    void awaitShouldCancelOnInterrupt() {
+        CompletableFuture<TransportResponse> pending = new CompletableFuture<>();
+
+        Thread.currentThread().interrupt();
+        SendException error = assertThrows(SendException.class, () -> HttpTransport.await(pending));
+
+        assertTrue(Thread.interrupted(), "Se conserva el estado de interrupción");
+        assertEquals("Envío interrumpido", error.getMessage());
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    @DisplayName("TwilioProvider envía form-urlencoded con Basic Auth y usa el sid de la respuesta")
+    void twilioShouldSendOverTransport() {
+        stub("/2010-04-01/Accounts/AC123/Messages.json", 201, Map.of(), "{\"sid\":\"SM999\",\"status\":\"queued\"}");
+        ProviderConfig config = ProviderConfig.builder("twilio")
+                .property("accountSid", "AC123")
+                .property("authToken", "secret")
+                .property("fromNumber", "+15551234567")
+                .property("endpoint", baseUrl)
+                .build();
+        SmsNotification sms = SmsNotification.builder()
+                .to("+51999888777")
+                .message("Tu código es 1234")
+                .build();
+
+        NotificationResult result = new TwilioProvider(config, transport).send(sms);
+
+        assertTrue(result.isSuccess());
+        assertEquals("SM999", result.getProviderMessageId());
+        String body = URLDecoder.decode(receivedBodies.get("/2010-04-01/Accounts/AC123/Messages.json"), StandardCharsets.UTF_8);
+        assertTrue(body.contains("To=+51999888777"));
+        assertTrue(body.contains("Body=Tu código es 1234"));
+        assertTrue(receivedAuth.get("/2010-04-01/Accounts/AC123/Messages.json").startsWith("Basic "));
+    }
+
+    @Test
+    @DisplayName("SendGridProvider toma el id de X-Message-Id y falla con SendException en 4xx")
+    void sendGridShouldSendOverTransport() {
+        stub("/v3/mail/send", 202, Map.of("X-Message-Id", "sg-real-1"), "");
+        ProviderConfig config = ProviderConfig.builder("sendgrid")
+                .property("apiKey", "SG.key")
+                .property("fromEmail", "noreply@app.com")
+                .property("endpoint", baseUrl)
+                .build();
+        EmailNotification email = EmailNotification.builder()
+                .to("user@example.com")
+                .subject("Factura \"Enero\"")
+                .message("Hola")
+                .build();
+
+        NotificationResult result = new SendGridProvider(config, transport).send(email);
+
+        assertEquals("sg-real-1", result.getProviderMessageId());
+        assertTrue(receivedBodies.get("/v3/mail/send").contains("\"subject\":\"Factura \\\"Enero\\\"\""));
+        assertEquals("Bearer SG.key", receivedAuth.get("/v3/mail/send"));
+
+        server.removeContext("/v3/mail/send");
+        stub("/v3/mail/send", 401, Map.of(), "{\"errors\":[{\"message\":\"unauthorized\"}]}");
+
+        SendException error = assertThrows(SendException.class,
+                () -> new SendGridProvider(config, transport).send(email));
+        assertTrue(error.getMessage().contains("HTTP 401"));
+    }
+
+    @Test
+    @DisplayName("Los adjuntos viajan en base64 en SendGrid y como multipart en Mailgun")
+    void shouldStreamAttachments(@TempDir Path dir) throws Exception {
+        stub("/v3/mail/send", 202, Map.of("X-Message-Id", "sg-adj"), "");
+        stub("/v3/mg.app.com/messages", 200, Map.of(), "{\"id\":\"<mg-adj>\"}");
+        Path invoice = Files.writeString(dir.resolve("factura.txt"), "Total: 100 PEN");
+        Attachment attachment = Attachment.of(invoice, "factura.txt", "text/plain");
+        EmailNotification email = EmailNotification.builder()
+                .to("user@example.com")
+                .subject("Factura")
+                .message("Adjuntamos su factura")
+                .attachment(attachment)
+                .build();
+
+        ProviderConfig sendGrid = ProviderConfig.builder("sendgrid")
+                .property("apiKey", "SG.key")
+                .property("fromEmail", "noreply@app.com")
+                .property("endpoint", baseUrl)
+                .build();
+        new SendGridProvider(sendGrid, transport, new AttachmentCache(dir.resolve("cache"), 1 << 20)).send(email);
+
+        String json = receivedBodies.get("/v3/mail/send");
+        String base64 = Base64.getEncoder().encodeToString("Total: 100 PEN".getBytes(StandardCharsets.UTF_8));
+        assertTrue(json.contains("\"attachments\":[{\"content\":\"" + base64 + "\",\"filename\":\"factura.txt\""), json);
+
+        ProviderConfig mailgun = ProviderConfig.builder("mailgun")
+                .property("apiKey", "key-123")
+                .property("domain", "mg.app.com")
+                .property("endpoint", baseUrl)
+                .build();
+        NotificationResult result = new MailgunProvider(mailgun, transport).send(email);
+
+        String multipart = receivedBodies.get("/v3/mg.app.com/messages");
+        assertEquals("<mg-adj>", result.getProviderMessageId());
+        assertTrue(multipart.contains("name=\"attachment\"; filename=\"factura.txt\"\r\nContent-Type: text/plain\r\n\r\nTotal: 100 PEN\r\n"));
+        assertTrue(multipart.contains("name=\"subject\"\r\n\r\nFactura\r\n"));
+    }
+
+    @Test
+    @DisplayName("Un 429 con Retry-After pausa al proveedor antes del siguiente envío")
+    void shouldPauseProviderOnRetryAfter() {
+        stub("/2010-04-01/Accounts/AC123/Messages.json", 429, Map.of("Retry-After", "1"), "{\"code\":20429}");
+        ProviderConfig config = ProviderConfig.builder("twilio")
+                .property("accountSid", "AC123")
+                .property("authToken", "secret")
+                .property("fromNumber", "+15551234567")
+                .property("endpoint", baseUrl)
+                .build();
+        TwilioProvider twilio = new TwilioProvider(config, transport);
+        SmsNotification sms = SmsNotification.builder()
+                .to("+51999888777")
+                .message("Tu código es 1234")
+                .build();
+
+        SendException error = assertThrows(SendException.class, () -> twilio.send(sms));
+        assertTrue(error.getMessage().contains("HTTP 429"));
+
+        server.removeContext("/2010-04-01/Accounts/AC123/Messages.json");
+        stub("/2010-04-01/Accounts/AC123/Messages.json", 201, Map.of(), "{\"sid\":\"SM1\"}");
+
+        long start = System.nanoTime();
+        assertTrue(twilio.send(sms).isSuccess());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 900);
+    }
+}
@@ -0,0 +1,196 @@
+package com.notify.transport.json;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del escritor JSON en streaming y del pool de buffers.
+ */
+class JsonWriterTest {
+
+    private static final JsonFragment SUBJECT = JsonFragment.name("subject");
+    private static final JsonFragment TO = JsonFragment.name("to");
+
+    @Test
+    @DisplayName("Escribe objetos y arrays anidados con comas correctas")
+    void shouldWriteNestedStructures() {
+        PooledBody body = JsonWriter.create(new ByteBufferPool(64, 4))
+                .beginObject()
+                .name(TO).beginArray().value("a@x.com").value("b@x.com").endArray()
+                .field(SUBJECT, "Hola")
+                .field(JsonFragment.name("omitido"), null)
+                .name("data").beginObject().name("k").value(JsonFragment.string("v")).endObject()
+                .endObject()
+                .toBody();
+
+        assertEquals("{\"to\":[\"a@x.com\",\"b@x.com\"],\"subject\":\"Hola\",\"data\":{\"k\":\"v\"}}",
+                body.asString());
+    }
+
+    @Test
+    @DisplayName("Codifica UTF-8 y escapa caracteres de control y comillas")
+    void shouldEncodeUtf8AndEscape() {
+        String text = "Año \"ñ\" \\ \n\t\u0001 € 🚀";
+
+        PooledBody body = JsonWriter.create(new ByteBufferPool(16, 4))
+                .beginObject().field(SUBJECT, text).endObject()
+                .toBody();
+
+        assertEquals("{\"subject\":\"Año \\\"ñ\\\" \\\\ \\n\\t\\u0001 € 🚀\"}", body.asString());
+        assertEquals(body.asString().getBytes(StandardCharsets.UTF_8).length, body.contentLength());
+    }
+
+    @Test
+    @DisplayName("El cuerpo abarca varios buffers y se publica completo al suscriptor")
+    void shouldPublishAllBuffers() {
+        ByteBufferPool pool = new ByteBufferPool(16, 8);
+        String longText = "x".repeat(100);
+        PooledBody body = JsonWriter.create(pool)
+                .beginObject().field(SUBJECT, longText).endObject()
+                .toBody();
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        body.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                received.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertEquals("{\"subject\":\"" + longText + "\"}", received.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Un suscriptor que pide o cancela desde onNext recibe cada señal una sola vez")
+    void shouldHandleReentrantSubscriber() {
+        PooledBody body = JsonWriter.create(new ByteBufferPool(16, 8))
+                .beginObject().field(SUBJECT, "z".repeat(100)).endObject()
+                .toBody();
+
+        int[] next = new int[1];
+        int[] completed = new int[1];
+        int[] depth = new int[1];
+        body.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                assertEquals(0, depth[0]++, "onNext no debe anidarse");
+                next[0]++;
+                subscription.request(1);
+                depth[0]--;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed[0]++;
+            }
+        });
+        assertTrue(next[0] > 1);
+        assertEquals(1, completed[0], "onComplete una sola vez");
+
+        int[] afterCancel = new int[2];
+        body.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                afterCancel[0]++;
+                subscription.cancel();
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                afterCancel[1]++;
+            }
+        });
+        assertEquals(1, afterCancel[0], "cancel desde onNext detiene la emisión");
+        assertEquals(0, afterCancel[1]);
+    }
+
+    @Test
+    @DisplayName("release devuelve los buffers al pool para reutilizarlos")
+    void shouldReturnBuffersToPool() {
+        ByteBufferPool pool = new ByteBufferPool(16, 8);
+        PooledBody body = JsonWriter.create(pool)
+                .beginObject().field(SUBJECT, "y".repeat(40)).endObject()
+                .toBody();
+        assertEquals(0, pool.available());
+
+        body.release();
+        body.release(); // idempotente
+
+        assertTrue(pool.available() >= 3);
+        assertThrows(IllegalStateException.class, () -> body.subscribe(null));
+    }
+
+    @Test
+    @DisplayName("rawString inserta un buffer ajeno sin copiarlo ni devolverlo al pool")
+    void shouldEmbedBorrowedBuffer() {
+        ByteBufferPool pool = new ByteBufferPool(16, 8);
+        ByteBuffer shared = ByteBuffer.allocateDirect(16).put("SGVsbG8gbXVuZG8=".getBytes(StandardCharsets.US_ASCII)).flip();
+
+        PooledBody body = JsonWriter.create(pool)
+                .beginObject().name(JsonFragment.name("content")).rawString(shared).field(SUBJECT, "x").endObject()
+                .toBody();
+        String json = body.asString();
+        body.release();
+
+        assertEquals("{\"content\":\"SGVsbG8gbXVuZG8=\",\"subject\":\"x\"}", json);
+        assertEquals(json.length(), body.contentLength());
+        assertEquals(0, shared.position(), "El buffer original no se consume");
+        assertEquals(2, pool.available(), "Solo vuelven al pool sus propios buffers");
+    }
+
+    @Test
+    @DisplayName("toBody falla si el JSON está incompleto")
+    void shouldRejectIncompleteJson() {
+        JsonWriter writer = JsonWriter.create(ByteBufferPool.shared()).beginObject();
+        assertThrows(IllegalStateException.class, writer::toBody);
+    }
+}